@@ -15,12 +15,24 @@ import com.elastisys.scale.cloudpool.api.restapi.types.SetDesiredSizeRequest;
 import com.elastisys.scale.cloudpool.api.restapi.types.SetMembershipStatusRequest;
 import com.elastisys.scale.cloudpool.api.restapi.types.SetServiceStateRequest;
 import com.elastisys.scale.cloudpool.api.restapi.types.TerminateMachineRequest;
+import com.elastisys.scale.cloudpool.api.types.Operation;
 import com.google.gson.JsonObject;
 
 /**
  * The {@link CloudPool} REST API. For additional details, refer to the
  * <a href="http://cloudpoolrestapi.readthedocs.io/en/latest/">official cloud
  * pool API documentation</a>.
+ * <p/>
+ * As an extension to the official API, requests that modify the pool (setting
+ * the desired size, terminating, attaching and detaching machines, and setting
+ * service state and membership status) can be processed asynchronously. A
+ * client opts in by passing a {@code Prefer: respond-async} header. The
+ * request is then answered with {@code 202 (Accepted)}, an {@link Operation}
+ * entity and a {@code Location} header. The progress and outcome of the
+ * operation can be followed via {@link #getOperation(String)}. If too many
+ * operations are already pending, the request is answered with
+ * {@code 503 (Service Unavailable)}. Completed operations are only retained for
+ * a limited time.
  */
 @Consumes(MediaType.APPLICATION_JSON)
 @Produces(MediaType.APPLICATION_JSON)
@@ -269,4 +281,16 @@ public interface CloudPoolRestApi {
     @POST
     @Path("/pool/{machine}/membershipStatus")
     Response setMembershipStatus(@PathParam("machine") String machineId, SetMembershipStatusRequest request);
+
+    /**
+     * Retrieves the progress of an asynchronously processed {@link Operation}.
+     * Answers {@code 404 (Not Found)} for unknown (or expired) operations.
+     *
+     * @param operationId
+     *            The id of the {@link Operation}.
+     * @return A response message carrying the {@link Operation}.
+     */
+    @GET
+    @Path("/operations/{operation}")
+    Response getOperation(@PathParam("operation") String operationId);
 }
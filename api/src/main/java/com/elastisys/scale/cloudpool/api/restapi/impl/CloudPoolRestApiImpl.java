@@ -4,10 +4,16 @@ import static com.google.common.base.Preconditions.checkArgument;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URI;
 import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 import javax.ws.rs.InternalServerErrorException;
 import javax.ws.rs.Path;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.core.Response.Status;
 
@@ -26,6 +32,7 @@ import com.elastisys.scale.cloudpool.api.restapi.types.SetServiceStateRequest;
 import com.elastisys.scale.cloudpool.api.restapi.types.TerminateMachineRequest;
 import com.elastisys.scale.cloudpool.api.types.CloudPoolStatus;
 import com.elastisys.scale.cloudpool.api.types.MachinePool;
+import com.elastisys.scale.cloudpool.api.types.Operation;
 import com.elastisys.scale.cloudpool.api.types.PoolSizeSummary;
 import com.elastisys.scale.commons.json.JsonUtils;
 import com.elastisys.scale.commons.json.types.ErrorType;
@@ -47,6 +54,10 @@ public class CloudPoolRestApiImpl implements CloudPoolRestApi {
      * {@link CloudPool} configuration is stored.
      */
     public static final String DEFAULT_CONFIG_FILE_NAME = "config.json";
+    /** Request header used by clients to ask for asynchronous processing. */
+    public static final String PREFER_HEADER = "Prefer";
+    /** {@link #PREFER_HEADER} preference that asks for asynchronous processing. */
+    public static final String RESPOND_ASYNC = "respond-async";
 
     /** The {@link CloudPool} back-end to which all work is delegated. */
     private final CloudPool cloudPool;
@@ -63,6 +74,20 @@ public class CloudPoolRestApiImpl implements CloudPoolRestApi {
      */
     private final String configFileName;
 
+    /**
+     * Executes pool mutations one at a time, whether they are to be processed
+     * synchronously or asynchronously (as requested via a
+     * {@code Prefer: respond-async} header).
+     */
+    private final OperationQueue operations;
+
+    /**
+     * The headers of the request being processed. Injected by the JAX-RS
+     * runtime. <code>null</code> when not run in a JAX-RS container.
+     */
+    @Context
+    private HttpHeaders headers;
+
     /**
      * Creates a {@link CloudPoolRestApiImpl} that will store set
      * {@link CloudPool} configurations under a given storage directory with the
@@ -112,6 +137,7 @@ public class CloudPoolRestApiImpl implements CloudPoolRestApi {
         this.cloudPool = cloudPool;
         this.storageDir = storageDir;
         this.configFileName = configFileName;
+        this.operations = new OperationQueue();
     }
 
     /**
@@ -240,6 +266,10 @@ public class CloudPoolRestApiImpl implements CloudPoolRestApi {
     public Response setDesiredSize(SetDesiredSizeRequest request) {
         requireStartedCloudPool();
 
+        return dispatch("POST /pool/size", () -> doSetDesiredSize(request));
+    }
+
+    private Response doSetDesiredSize(SetDesiredSizeRequest request) {
         try {
             this.cloudPool.setDesiredSize(request.getDesiredSize());
             return Response.ok().build();
@@ -271,6 +301,11 @@ public class CloudPoolRestApiImpl implements CloudPoolRestApi {
     public Response terminateMachine(String machineId, TerminateMachineRequest request) {
         requireStartedCloudPool();
 
+        return dispatch(String.format("POST /pool/%s/terminate", machineId),
+                () -> doTerminateMachine(machineId, request));
+    }
+
+    private Response doTerminateMachine(String machineId, TerminateMachineRequest request) {
         try {
             this.cloudPool.terminateMachine(machineId, request.isDecrementDesiredSize());
             return Response.ok().build();
@@ -288,6 +323,10 @@ public class CloudPoolRestApiImpl implements CloudPoolRestApi {
     public Response detachMachine(String machineId, DetachMachineRequest request) {
         requireStartedCloudPool();
 
+        return dispatch(String.format("POST /pool/%s/detach", machineId), () -> doDetachMachine(machineId, request));
+    }
+
+    private Response doDetachMachine(String machineId, DetachMachineRequest request) {
         try {
             this.cloudPool.detachMachine(machineId, request.isDecrementDesiredSize());
             return Response.ok().build();
@@ -305,6 +344,10 @@ public class CloudPoolRestApiImpl implements CloudPoolRestApi {
     public Response attachMachine(String machineId) {
         requireStartedCloudPool();
 
+        return dispatch(String.format("POST /pool/%s/attach", machineId), () -> doAttachMachine(machineId));
+    }
+
+    private Response doAttachMachine(String machineId) {
         try {
             this.cloudPool.attachMachine(machineId);
             return Response.ok().build();
@@ -322,6 +365,11 @@ public class CloudPoolRestApiImpl implements CloudPoolRestApi {
     public Response setServiceState(String machineId, SetServiceStateRequest request) {
         requireStartedCloudPool();
 
+        return dispatch(String.format("POST /pool/%s/serviceState", machineId),
+                () -> doSetServiceState(machineId, request));
+    }
+
+    private Response doSetServiceState(String machineId, SetServiceStateRequest request) {
         try {
             this.cloudPool.setServiceState(machineId, request.getServiceState());
             return Response.ok().build();
@@ -339,6 +387,11 @@ public class CloudPoolRestApiImpl implements CloudPoolRestApi {
     public Response setMembershipStatus(String machineId, SetMembershipStatusRequest request) {
         requireStartedCloudPool();
 
+        return dispatch(String.format("POST /pool/%s/membershipStatus", machineId),
+                () -> doSetMembershipStatus(machineId, request));
+    }
+
+    private Response doSetMembershipStatus(String machineId, SetMembershipStatusRequest request) {
         try {
             this.cloudPool.setMembershipStatus(machineId, request.getMembershipStatus());
             return Response.ok().build();
@@ -354,6 +407,85 @@ public class CloudPoolRestApiImpl implements CloudPoolRestApi {
         }
     }
 
+    @Override
+    public Response getOperation(String operationId) {
+        Optional<Operation> operation = this.operations.get(operationId);
+        if (!operation.isPresent()) {
+            ErrorType entity = new ErrorType("no such operation: " + operationId);
+            return Response.status(Status.NOT_FOUND).entity(entity).build();
+        }
+        return Response.ok(toJson(operation.get())).build();
+    }
+
+    /**
+     * Stops accepting pool mutations. Mutations that have already been
+     * accepted are still executed. Should be called when the server that
+     * publishes this REST API is stopped.
+     */
+    public void close() {
+        this.operations.close();
+    }
+
+    /**
+     * Processes a pool mutation via the {@link #operations} queue, either
+     * synchronously or, if the client asked for it via a
+     * {@code Prefer: respond-async} header, asynchronously. In the former case,
+     * the response is given once the mutation has been executed. In the latter
+     * case, a {@code 202 (Accepted)} response is returned right away, pointing
+     * to the submitted {@link Operation}. If the queue already holds its
+     * maximum number of pending operations (or has been closed), the request is
+     * answered with {@code 503 (Service Unavailable)}.
+     *
+     * @param description
+     *            A description of the mutation. For example,
+     *            {@code POST /pool/size}.
+     * @param mutation
+     *            Carries out the mutation and returns the response to give if
+     *            processed synchronously.
+     * @return
+     */
+    private Response dispatch(String description, Supplier<Response> mutation) {
+        try {
+            if (!respondAsync()) {
+                return this.operations.call(description, mutation);
+            }
+            Operation operation = this.operations.submit(description, mutation);
+            LOG.debug("submitted operation {}: {}", operation.getId(), description);
+            return Response.accepted(toJson(operation)).location(URI.create("/operations/" + operation.getId()))
+                    .build();
+        } catch (RejectedExecutionException e) {
+            LOG.warn("rejected operation {}: {}", description, e.getMessage());
+            return Response.status(Status.SERVICE_UNAVAILABLE).entity(new ErrorType(e.getMessage(), e)).build();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return internalErrorResponse(String.format("interrupted while processing %s", description), e);
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if the request being processed carries a
+     * {@code Prefer: respond-async} header.
+     *
+     * @return
+     */
+    private boolean respondAsync() {
+        if (this.headers == null) {
+            return false;
+        }
+        List<String> preferences = this.headers.getRequestHeader(PREFER_HEADER);
+        if (preferences == null) {
+            return false;
+        }
+        for (String preference : preferences) {
+            for (String token : preference.split(",")) {
+                if (token.trim().equalsIgnoreCase(RESPOND_ASYNC)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     /**
      * Turns an arbitrary {@link Object} to JSON.
      *
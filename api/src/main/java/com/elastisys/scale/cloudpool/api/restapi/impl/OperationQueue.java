@@ -0,0 +1,303 @@
+package com.elastisys.scale.cloudpool.api.restapi.impl;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.Response.Status.Family;
+
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.elastisys.scale.cloudpool.api.CloudPool;
+import com.elastisys.scale.cloudpool.api.types.Operation;
+import com.elastisys.scale.cloudpool.api.types.OperationState;
+import com.elastisys.scale.commons.json.types.ErrorType;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+import com.elastisys.scale.commons.util.time.UtcTime;
+import com.google.common.base.Optional;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * A single-writer queue of {@link CloudPool} mutations.
+ * <p/>
+ * Mutations are executed one at a time, in submission order, by a single
+ * thread. A mutation can either be submitted, in which case it is tracked as an
+ * {@link Operation} whose progress can be looked up by id, or called, in which
+ * case the caller waits for its outcome. Either way, it is ordered with respect
+ * to all other mutations.
+ * <p/>
+ * To bound the work and memory that clients can pile up, at most a given
+ * number of operations may be pending (submitted but not yet completed) at any
+ * time: further submissions are rejected until operations complete. Completed
+ * operations are retained for a limited time, and only up to a maximum number.
+ * <p/>
+ * Once {@link #close()}d, no further mutations are accepted.
+ */
+public class OperationQueue {
+    private static final Logger LOG = LoggerFactory.getLogger(OperationQueue.class);
+
+    /** The default maximum number of pending operations. */
+    public static final int DEFAULT_MAX_PENDING = 100;
+    /** The default maximum number of operations to retain. */
+    public static final int DEFAULT_MAX_RETAINED = 1000;
+    /** The default time to retain completed operations. */
+    public static final TimeInterval DEFAULT_RETENTION_TIME = new TimeInterval(1L, TimeUnit.HOURS);
+
+    /** Executes mutations, one at a time. */
+    private final ExecutorService writer;
+    /** The maximum number of pending (not yet completed) operations. */
+    private final int maxPending;
+    /** The maximum number of operations to retain. */
+    private final int maxRetained;
+    /** The time to retain completed operations. */
+    private final TimeInterval retentionTime;
+    /** Submitted operations in submission order, keyed on id. */
+    private final LinkedHashMap<String, Operation> operations;
+    /** The number of pending operations. Guarded by this instance. */
+    private int pending;
+
+    /**
+     * Creates an {@link OperationQueue} that allows up to
+     * {@link #DEFAULT_MAX_PENDING} pending operations and retains up to
+     * {@link #DEFAULT_MAX_RETAINED} operations for
+     * {@link #DEFAULT_RETENTION_TIME}.
+     */
+    public OperationQueue() {
+        this(DEFAULT_MAX_RETAINED);
+    }
+
+    /**
+     * Creates an {@link OperationQueue} that allows up to
+     * {@link #DEFAULT_MAX_PENDING} pending operations and retains completed
+     * operations for {@link #DEFAULT_RETENTION_TIME}.
+     *
+     * @param maxRetained
+     *            The maximum number of operations to retain. When exceeded,
+     *            the oldest completed operations are forgotten.
+     */
+    public OperationQueue(int maxRetained) {
+        this(DEFAULT_MAX_PENDING, maxRetained, DEFAULT_RETENTION_TIME);
+    }
+
+    /**
+     * Creates an {@link OperationQueue}.
+     *
+     * @param maxPending
+     *            The maximum number of pending (submitted but not yet
+     *            completed) operations. Submissions beyond that are rejected.
+     * @param maxRetained
+     *            The maximum number of operations to retain. When exceeded,
+     *            the oldest completed operations are forgotten. Pending
+     *            operations are never forgotten.
+     * @param retentionTime
+     *            The time to retain completed operations.
+     */
+    public OperationQueue(int maxPending, int maxRetained, TimeInterval retentionTime) {
+        checkArgument(maxPending > 0, "maxPending must be positive");
+        checkArgument(maxRetained > 0, "maxRetained must be positive");
+        checkArgument(retentionTime != null, "retentionTime cannot be null");
+        retentionTime.validate();
+        this.maxPending = maxPending;
+        this.maxRetained = maxRetained;
+        this.retentionTime = retentionTime;
+        this.operations = new LinkedHashMap<>();
+        this.writer = Executors.newSingleThreadExecutor(
+                new ThreadFactoryBuilder().setNameFormat("operation-queue-%d").setDaemon(true).build());
+    }
+
+    /**
+     * Submits a mutation for execution and returns right away.
+     *
+     * @param description
+     *            A description of the operation. For example,
+     *            {@code POST /pool/size}.
+     * @param mutation
+     *            The mutation to execute. Returns the {@link Response} that
+     *            the operation would have been answered with had it been
+     *            processed synchronously.
+     * @return The submitted {@link Operation} (in {@link OperationState#PENDING}
+     *         state).
+     * @throws RejectedExecutionException
+     *             If the maximum number of pending operations has been
+     *             reached.
+     */
+    public Operation submit(String description, Supplier<Response> mutation) throws RejectedExecutionException {
+        String id = UUID.randomUUID().toString();
+        DateTime submitted = UtcTime.now();
+        Operation operation = new Operation(id, description, OperationState.PENDING, submitted, null, null, null);
+        synchronized (this) {
+            reservePending();
+            update(operation);
+        }
+        try {
+            this.writer.execute(() -> execute(operation, mutation));
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                this.pending--;
+                this.operations.remove(id);
+            }
+            throw e;
+        }
+        return operation;
+    }
+
+    /**
+     * Executes a mutation, in turn with any other mutations, and waits for it
+     * to complete. The mutation is not tracked as an {@link Operation}, but
+     * counts as pending while it waits for its turn.
+     *
+     * @param description
+     *            A description of the mutation. For example,
+     *            {@code POST /pool/size}.
+     * @param mutation
+     *            The mutation to execute.
+     * @return The {@link Response} returned by the mutation.
+     * @throws RejectedExecutionException
+     *             If the maximum number of pending operations has been
+     *             reached, or if the {@link OperationQueue} has been closed.
+     * @throws InterruptedException
+     *             If interrupted while waiting for the mutation to complete.
+     *             The mutation may still be executed.
+     */
+    public Response call(String description, Supplier<Response> mutation)
+            throws RejectedExecutionException, InterruptedException {
+        synchronized (this) {
+            reservePending();
+        }
+        Future<Response> result;
+        try {
+            result = this.writer.submit(() -> {
+                try {
+                    LOG.debug("executing {}", description);
+                    return mutation.get();
+                } finally {
+                    synchronized (this) {
+                        this.pending--;
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            synchronized (this) {
+                this.pending--;
+            }
+            throw e;
+        }
+
+        try {
+            return result.get();
+        } catch (ExecutionException e) {
+            // rethrow on the caller's thread, as if called directly
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Stops accepting mutations. Mutations that have already been accepted
+     * are still executed.
+     */
+    public void close() {
+        this.writer.shutdown();
+    }
+
+    /**
+     * Returns the operation with a given id, if it is (still) known.
+     *
+     * @param id
+     *            An operation id.
+     * @return
+     */
+    public synchronized Optional<Operation> get(String id) {
+        evictCompleted();
+        return Optional.fromNullable(this.operations.get(id));
+    }
+
+    /**
+     * Counts a new pending operation, unless the maximum number of pending
+     * operations has been reached.
+     * <p/>
+     * Must be called while holding this instance's lock.
+     *
+     * @throws RejectedExecutionException
+     */
+    private void reservePending() throws RejectedExecutionException {
+        if (this.pending >= this.maxPending) {
+            throw new RejectedExecutionException(
+                    String.format("too many pending operations (%d), try again later", this.pending));
+        }
+        this.pending++;
+    }
+
+    private void execute(Operation operation, Supplier<Response> mutation) {
+        update(new Operation(operation.getId(), operation.getDescription(), OperationState.RUNNING,
+                operation.getSubmitted(), null, null, null));
+        Response response;
+        try {
+            response = mutation.get();
+        } catch (Exception e) {
+            LOG.error("operation {} ({}) failed: {}", operation.getId(), operation.getDescription(), e.getMessage(),
+                    e);
+            response = Response.serverError().entity(new ErrorType(e.getMessage(), e)).build();
+        }
+
+        boolean succeeded = response.getStatusInfo().getFamily() == Family.SUCCESSFUL;
+        String error = null;
+        if (!succeeded && response.getEntity() instanceof ErrorType) {
+            error = ((ErrorType) response.getEntity()).getMessage();
+        }
+        synchronized (this) {
+            this.pending--;
+            update(new Operation(operation.getId(), operation.getDescription(),
+                    succeeded ? OperationState.SUCCEEDED : OperationState.FAILED, operation.getSubmitted(),
+                    UtcTime.now(), response.getStatus(), error));
+        }
+    }
+
+    private synchronized void update(Operation operation) {
+        this.operations.put(operation.getId(), operation);
+        evictCompleted();
+    }
+
+    /**
+     * Forgets the oldest completed operations that have been retained for
+     * longer than the {@link #retentionTime}, or while more than
+     * {@link #maxRetained} operations are retained.
+     * <p/>
+     * Since operations are executed in submission order, the completed
+     * operations are always the oldest ones, so eviction stops at the first
+     * operation that is to be kept.
+     */
+    private synchronized void evictCompleted() {
+        DateTime expiry = UtcTime.now().minus(this.retentionTime.getMillis());
+        Iterator<Operation> oldestFirst = this.operations.values().iterator();
+        while (oldestFirst.hasNext()) {
+            Operation oldest = oldestFirst.next();
+            if (!oldest.getState().isCompleted()) {
+                return;
+            }
+            boolean expired = oldest.getCompleted().isBefore(expiry);
+            if (!expired && this.operations.size() <= this.maxRetained) {
+                return;
+            }
+            oldestFirst.remove();
+        }
+    }
+}
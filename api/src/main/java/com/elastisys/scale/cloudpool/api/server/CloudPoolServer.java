@@ -5,6 +5,8 @@ import java.io.IOException;
 import java.nio.file.Path;
 
 import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.util.component.AbstractLifeCycle.AbstractLifeCycleListener;
+import org.eclipse.jetty.util.component.LifeCycle;
 import org.glassfish.jersey.server.ResourceConfig;
 import org.glassfish.jersey.servlet.ServletContainer;
 import org.slf4j.Logger;
@@ -91,7 +93,8 @@ public class CloudPoolServer {
      * <p/>
      * The created server is returned with the {@link CloudPool} REST API
      * deployed, but in an <i>unstarted</i> state, so the client is responsible
-     * for starting the server.
+     * for starting the server. Once the server is stopped, the REST API no
+     * longer accepts pool mutations.
      * <p/>
      * The behavior of the HTTPS server is controlled via a set of
      * {@link CloudPoolOptions}.
@@ -153,7 +156,14 @@ public class CloudPoolServer {
                     .sslRequireClientCert(options.requireClientCert);
         }
         server.addServlet(servlet);
-        return server.build();
+        Server builtServer = server.build();
+        builtServer.addLifeCycleListener(new AbstractLifeCycleListener() {
+            @Override
+            public void lifeCycleStopped(LifeCycle event) {
+                restApiHandler.close();
+            }
+        });
+        return builtServer;
     }
 
     /**
@@ -2,25 +2,38 @@ package com.elastisys.scale.cloudpool.api.types;
 
 import static com.elastisys.scale.cloudpool.api.types.Machine.toShortString;
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Lists.transform;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.joda.time.DateTime;
 
 import com.elastisys.scale.cloudpool.api.CloudPool;
 import com.elastisys.scale.commons.json.JsonUtils;
+import com.google.common.base.Charsets;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
+import com.google.common.base.Optional;
+import com.google.common.base.Predicate;
 import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Lists;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.google.gson.JsonObject;
 
 /**
  * Represents a snapshot of the machine pool managed by a {@link CloudPool}.
+ * <p/>
+ * The pool members are partitioned (active, allocated, started, per
+ * {@link MachineState}) and indexed by id once, when first needed, and the
+ * partitions are shared between callers as immutable views. Therefore, the
+ * {@link Machine}s of a snapshot should not be modified (for example, via
+ * {@link Machine#setMachineState(MachineState)}) after it has been created.
  *
  * @see CloudPool
  */
@@ -38,6 +51,13 @@ public class MachinePool {
      */
     private final DateTime timestamp;
 
+    /**
+     * Lazily computed partitions and index of {@link #machines}. Not part of
+     * the JSON representation, and therefore computed on first access for
+     * deserialized instances.
+     */
+    private transient volatile Index index;
+
     /**
      * Constructs a new {@link MachinePool} snapshot.
      *
@@ -50,8 +70,9 @@ public class MachinePool {
     public MachinePool(List<? extends Machine> machines, DateTime timestamp) {
         checkNotNull(machines, "machines cannot be null");
         checkNotNull(timestamp, "timestamp cannot be null");
-        this.machines = Lists.newArrayList(machines);
+        this.machines = ImmutableList.copyOf(machines);
         this.timestamp = timestamp;
+        this.index = new Index(this.machines);
     }
 
     /**
@@ -67,7 +88,7 @@ public class MachinePool {
      * @return
      */
     public List<Machine> getMachines() {
-        return ImmutableList.copyOf(this.machines);
+        return index().machines;
     }
 
     /**
@@ -77,8 +98,7 @@ public class MachinePool {
      * @return
      */
     public List<Machine> getActiveMachines() {
-        Iterable<Machine> activeMachines = filter(getMachines(), Machine.isActiveMember());
-        return Lists.newArrayList(activeMachines);
+        return index().activeMachines;
     }
 
     /**
@@ -88,8 +108,7 @@ public class MachinePool {
      * @return
      */
     public List<Machine> getAllocatedMachines() {
-        Iterable<Machine> allocatedMachines = filter(getMachines(), Machine.isAllocated());
-        return Lists.newArrayList(allocatedMachines);
+        return index().allocatedMachines;
     }
 
     /**
@@ -99,8 +118,74 @@ public class MachinePool {
      * @return
      */
     public List<Machine> getStartedMachines() {
-        Iterable<Machine> startedMachines = filter(getMachines(), Machine.isStarted());
-        return Lists.newArrayList(startedMachines);
+        return index().startedMachines;
+    }
+
+    /**
+     * Returns the pool member with a given id, if any.
+     *
+     * @param machineId
+     *            A machine id.
+     * @return The {@link Machine} with the given id, or
+     *         {@link Optional#absent()} if there is no such pool member.
+     */
+    public Optional<Machine> getMachine(String machineId) {
+        return Optional.fromNullable(index().machinesById.get(machineId));
+    }
+
+    /**
+     * Returns <code>true</code> if a {@link Machine} with the given id is a
+     * member of the pool.
+     *
+     * @param machineId
+     *            A machine id.
+     * @return
+     */
+    public boolean contains(String machineId) {
+        return index().machinesById.containsKey(machineId);
+    }
+
+    /**
+     * Returns the number of pool members in a given {@link MachineState}.
+     *
+     * @param machineState
+     *            A {@link MachineState}.
+     * @return
+     */
+    public int countMachines(MachineState machineState) {
+        Integer count = index().stateCounts.get(machineState);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Returns a structural fingerprint of the pool members, which covers the
+     * id, {@link MachineState}, {@link MembershipStatus} and
+     * {@link ServiceState} of each member (in order), but not the observation
+     * timestamp or any other {@link Machine} fields (such as IP addresses or
+     * metadata). Two {@link MachinePool}s with equal fingerprints can be
+     * assumed to call for the same pool management decisions.
+     *
+     * @return
+     */
+    public String getFingerprint() {
+        return index().fingerprint();
+    }
+
+    /**
+     * Returns the partitions and index of the pool members, computing them if
+     * this instance was not created through its constructor (that is, if it
+     * was deserialized).
+     *
+     * @return
+     */
+    private Index index() {
+        Index index = this.index;
+        if (index == null) {
+            // benign race: concurrent callers compute equal indexes
+            index = new Index(this.machines);
+            this.index = index;
+        }
+        return index;
     }
 
     /**
@@ -153,6 +238,75 @@ public class MachinePool {
         return MoreObjects.toStringHelper(this).add("timestamp", this.timestamp).add("machines", shortPool).toString();
     }
 
+    /**
+     * Partitions and id index of the members of a {@link MachinePool}.
+     */
+    private static class Index {
+        private final List<Machine> machines;
+        private final List<Machine> activeMachines;
+        private final List<Machine> allocatedMachines;
+        private final List<Machine> startedMachines;
+        private final Map<String, Machine> machinesById;
+        private final Map<MachineState, Integer> stateCounts;
+        /** Computed on first use, since few callers need it. */
+        private volatile String fingerprint;
+
+        public Index(List<Machine> machines) {
+            this.machines = ImmutableList.copyOf(machines);
+
+            ImmutableList.Builder<Machine> active = ImmutableList.builder();
+            ImmutableList.Builder<Machine> allocated = ImmutableList.builder();
+            ImmutableList.Builder<Machine> started = ImmutableList.builder();
+            Map<String, Machine> byId = new LinkedHashMap<>();
+            Map<MachineState, Integer> counts = new EnumMap<>(MachineState.class);
+            Predicate<Machine> isActive = Machine.isActiveMember();
+            Predicate<Machine> isAllocated = Machine.isAllocated();
+            Predicate<Machine> isStarted = Machine.isStarted();
+            for (Machine machine : this.machines) {
+                if (isActive.apply(machine)) {
+                    active.add(machine);
+                }
+                if (isAllocated.apply(machine)) {
+                    allocated.add(machine);
+                }
+                if (isStarted.apply(machine)) {
+                    started.add(machine);
+                }
+                // in case of duplicate ids, the first occurrence is indexed
+                if (!byId.containsKey(machine.getId())) {
+                    byId.put(machine.getId(), machine);
+                }
+                MachineState state = machine.getMachineState();
+                if (state != null) {
+                    Integer count = counts.get(state);
+                    counts.put(state, count == null ? 1 : count + 1);
+                }
+            }
+            this.activeMachines = active.build();
+            this.allocatedMachines = allocated.build();
+            this.startedMachines = started.build();
+            this.machinesById = Collections.unmodifiableMap(byId);
+            this.stateCounts = Collections.unmodifiableMap(counts);
+        }
+
+        public String fingerprint() {
+            String fingerprint = this.fingerprint;
+            if (fingerprint == null) {
+                // benign race: concurrent callers compute equal fingerprints
+                Hasher hasher = Hashing.murmur3_128().newHasher();
+                for (Machine machine : this.machines) {
+                    hasher.putString(String.valueOf(machine.getId()), Charsets.UTF_8).putByte((byte) 0);
+                    hasher.putString(String.valueOf(machine.getMachineState()), Charsets.UTF_8).putByte((byte) 0);
+                    hasher.putString(String.valueOf(machine.getMembershipStatus()), Charsets.UTF_8).putByte((byte) 0);
+                    hasher.putString(String.valueOf(machine.getServiceState()), Charsets.UTF_8).putByte((byte) 0);
+                }
+                fingerprint = hasher.hash().toString();
+                this.fingerprint = fingerprint;
+            }
+            return fingerprint;
+        }
+    }
+
     /**
      * Parses a JSON representation of a {@link MachinePool} to its Java
      * counterpart. Any failure to parse the JSON representation into a valid
@@ -0,0 +1,169 @@
+package com.elastisys.scale.cloudpool.api.types;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import org.joda.time.DateTime;
+
+import com.elastisys.scale.cloudpool.api.CloudPool;
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.google.common.base.Objects;
+
+/**
+ * Describes the progress of a {@link CloudPool} operation (such as terminating
+ * a machine) that is processed asynchronously. The operation can be polled for
+ * completion via its id.
+ */
+public class Operation {
+
+    /** The identifier of the operation. */
+    private final String id;
+    /** A description of the operation. For example, {@code POST /pool/size}. */
+    private final String description;
+    /** The execution state of the operation. */
+    private final OperationState state;
+    /** The time at which the operation was submitted. */
+    private final DateTime submitted;
+    /**
+     * The time at which the operation completed. <code>null</code> until
+     * completed.
+     */
+    private final DateTime completed;
+    /**
+     * The HTTP status code that the operation would have been answered with
+     * had it been processed synchronously. <code>null</code> until completed.
+     */
+    private final Integer statusCode;
+    /** The error message of a failed operation. Otherwise <code>null</code>. */
+    private final String error;
+
+    /**
+     * Creates an {@link Operation}.
+     *
+     * @param id
+     *            The identifier of the operation.
+     * @param description
+     *            A description of the operation. For example,
+     *            {@code POST /pool/size}.
+     * @param state
+     *            The execution state of the operation.
+     * @param submitted
+     *            The time at which the operation was submitted.
+     * @param completed
+     *            The time at which the operation completed. <code>null</code>
+     *            until completed.
+     * @param statusCode
+     *            The HTTP status code that the operation would have been
+     *            answered with had it been processed synchronously.
+     *            <code>null</code> until completed.
+     * @param error
+     *            The error message of a failed operation. Otherwise
+     *            <code>null</code>.
+     */
+    public Operation(String id, String description, OperationState state, DateTime submitted, DateTime completed,
+            Integer statusCode, String error) {
+        checkArgument(id != null, "operation: id cannot be null");
+        checkArgument(state != null, "operation: state cannot be null");
+        checkArgument(submitted != null, "operation: submitted cannot be null");
+        this.id = id;
+        this.description = description;
+        this.state = state;
+        this.submitted = submitted;
+        this.completed = completed;
+        this.statusCode = statusCode;
+        this.error = error;
+    }
+
+    /**
+     * Returns the identifier of the operation.
+     *
+     * @return
+     */
+    public String getId() {
+        return this.id;
+    }
+
+    /**
+     * Returns a description of the operation. For example,
+     * {@code POST /pool/size}.
+     *
+     * @return
+     */
+    public String getDescription() {
+        return this.description;
+    }
+
+    /**
+     * Returns the execution state of the operation.
+     *
+     * @return
+     */
+    public OperationState getState() {
+        return this.state;
+    }
+
+    /**
+     * Returns the time at which the operation was submitted.
+     *
+     * @return
+     */
+    public DateTime getSubmitted() {
+        return this.submitted;
+    }
+
+    /**
+     * Returns the time at which the operation completed. <code>null</code>
+     * until completed.
+     *
+     * @return
+     */
+    public DateTime getCompleted() {
+        return this.completed;
+    }
+
+    /**
+     * Returns the HTTP status code that the operation would have been answered
+     * with had it been processed synchronously. <code>null</code> until
+     * completed.
+     *
+     * @return
+     */
+    public Integer getStatusCode() {
+        return this.statusCode;
+    }
+
+    /**
+     * Returns the error message of a failed operation. Otherwise
+     * <code>null</code>.
+     *
+     * @return
+     */
+    public String getError() {
+        return this.error;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(this.id, this.description, this.state, this.submitted, this.completed,
+                this.statusCode, this.error);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof Operation) {
+            Operation that = (Operation) obj;
+            return Objects.equal(this.id, that.id) //
+                    && Objects.equal(this.description, that.description) //
+                    && Objects.equal(this.state, that.state) //
+                    && Objects.equal(this.submitted, that.submitted) //
+                    && Objects.equal(this.completed, that.completed) //
+                    && Objects.equal(this.statusCode, that.statusCode) //
+                    && Objects.equal(this.error, that.error);
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toString(JsonUtils.toJson(this));
+    }
+}
@@ -0,0 +1,27 @@
+package com.elastisys.scale.cloudpool.api.types;
+
+/**
+ * The execution state of an asynchronously processed {@link Operation}.
+ *
+ * @see Operation
+ */
+public enum OperationState {
+    /** The operation is queued, waiting to be executed. */
+    PENDING,
+    /** The operation is being executed. */
+    RUNNING,
+    /** The operation completed successfully. */
+    SUCCEEDED,
+    /** The operation completed with an error. */
+    FAILED;
+
+    /**
+     * Returns <code>true</code> if this is a terminal state, meaning that the
+     * operation has completed.
+     *
+     * @return
+     */
+    public boolean isCompleted() {
+        return this == SUCCEEDED || this == FAILED;
+    }
+}
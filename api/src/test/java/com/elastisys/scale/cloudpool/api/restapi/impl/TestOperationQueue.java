@@ -0,0 +1,195 @@
+package com.elastisys.scale.cloudpool.api.restapi.impl;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.ws.rs.core.Response;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.elastisys.scale.cloudpool.api.types.Operation;
+import com.elastisys.scale.cloudpool.api.types.OperationState;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+import com.elastisys.scale.commons.util.time.FrozenTime;
+import com.elastisys.scale.commons.util.time.UtcTime;
+
+/**
+ * Exercises the {@link OperationQueue}.
+ */
+public class TestOperationQueue {
+
+    /** Blocks mutations until released. */
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @Before
+    public void beforeTestMethod() {
+        FrozenTime.setFixed(UtcTime.parse("2017-01-01T12:00:00.000Z"));
+    }
+
+    @After
+    public void afterTestMethod() {
+        this.release.countDown();
+    }
+
+    /**
+     * Once the maximum number of operations are pending, further submissions
+     * should be rejected until pending operations complete.
+     */
+    @Test
+    public void rejectSubmissionsWhenTooManyPending() throws Exception {
+        OperationQueue queue = new OperationQueue(2, 10, new TimeInterval(1L, TimeUnit.HOURS));
+        Operation blocked = queue.submit("blocked", this::blockingMutation);
+        queue.submit("queued", this::blockingMutation);
+
+        try {
+            queue.submit("rejected", this::blockingMutation);
+            fail("expected to be rejected");
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+
+        this.release.countDown();
+        awaitCompletion(queue, blocked);
+        queue.submit("accepted", this::blockingMutation);
+    }
+
+    /**
+     * Completed operations should be forgotten once the retention time has
+     * passed.
+     */
+    @Test
+    public void evictCompletedOperationsAfterRetentionTime() throws Exception {
+        this.release.countDown();
+        OperationQueue queue = new OperationQueue(2, 10, new TimeInterval(60L, TimeUnit.SECONDS));
+        Operation operation = queue.submit("op", this::blockingMutation);
+        awaitCompletion(queue, operation);
+
+        FrozenTime.tick(60);
+        assertThat(queue.get(operation.getId()).isPresent(), is(true));
+        FrozenTime.tick(1);
+        assertThat(queue.get(operation.getId()).isPresent(), is(false));
+    }
+
+    /**
+     * When more than the maximum number of operations are retained, the
+     * oldest completed operations should be forgotten.
+     */
+    @Test
+    public void evictOldestCompletedOperationsOverSizeLimit() throws Exception {
+        this.release.countDown();
+        OperationQueue queue = new OperationQueue(2, 2, new TimeInterval(1L, TimeUnit.HOURS));
+        Operation first = queue.submit("first", this::blockingMutation);
+        awaitCompletion(queue, first);
+        Operation second = queue.submit("second", this::blockingMutation);
+        awaitCompletion(queue, second);
+        Operation third = queue.submit("third", this::blockingMutation);
+        awaitCompletion(queue, third);
+
+        assertThat(queue.get(first.getId()).isPresent(), is(false));
+        assertThat(queue.get(second.getId()).get().getState(), is(OperationState.SUCCEEDED));
+        assertThat(queue.get(third.getId()).get().getState(), is(OperationState.SUCCEEDED));
+    }
+
+    /**
+     * A called mutation should be executed in turn with submitted ones, and
+     * its caller should wait for its outcome.
+     */
+    @Test
+    public void callIsOrderedWithSubmittedOperations() throws Exception {
+        OperationQueue queue = new OperationQueue(2, 10, new TimeInterval(1L, TimeUnit.HOURS));
+        List<String> executed = Collections.synchronizedList(new ArrayList<>());
+        queue.submit("submitted", () -> {
+            Response response = blockingMutation();
+            executed.add("submitted");
+            return response;
+        });
+
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        try {
+            Future<Response> called = caller.submit(() -> queue.call("called", () -> {
+                executed.add("called");
+                return Response.noContent().build();
+            }));
+            try {
+                called.get(200, TimeUnit.MILLISECONDS);
+                fail("call expected to wait for submitted operation");
+            } catch (TimeoutException e) {
+                // expected
+            }
+
+            this.release.countDown();
+            assertThat(called.get(10, TimeUnit.SECONDS).getStatus(), is(204));
+            assertThat(executed, is(Arrays.asList("submitted", "called")));
+        } finally {
+            caller.shutdownNow();
+        }
+    }
+
+    /**
+     * A called mutation that fails should fail on the caller's thread.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void callPropagatesFailure() throws Exception {
+        OperationQueue queue = new OperationQueue();
+        queue.call("failing", () -> {
+            throw new IllegalArgumentException("bad request");
+        });
+    }
+
+    /**
+     * Once closed, no further mutations should be accepted.
+     */
+    @Test
+    public void rejectMutationsWhenClosed() throws Exception {
+        this.release.countDown();
+        OperationQueue queue = new OperationQueue();
+        queue.close();
+
+        try {
+            queue.submit("rejected", this::blockingMutation);
+            fail("expected to be rejected");
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+        try {
+            queue.call("rejected", this::blockingMutation);
+            fail("expected to be rejected");
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+    }
+
+    private Response blockingMutation() {
+        try {
+            this.release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return Response.ok().build();
+    }
+
+    private static void awaitCompletion(OperationQueue queue, Operation operation) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            if (queue.get(operation.getId()).get().getState().isCompleted()) {
+                return;
+            }
+            Thread.sleep(10);
+        }
+        fail("operation did not complete: " + operation.getId());
+    }
+}
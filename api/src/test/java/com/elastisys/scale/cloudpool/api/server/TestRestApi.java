@@ -38,6 +38,8 @@ import com.elastisys.scale.cloudpool.api.types.CloudPoolStatus;
 import com.elastisys.scale.cloudpool.api.types.Machine;
 import com.elastisys.scale.cloudpool.api.types.MachinePool;
 import com.elastisys.scale.cloudpool.api.types.MachineState;
+import com.elastisys.scale.cloudpool.api.types.Operation;
+import com.elastisys.scale.cloudpool.api.types.OperationState;
 import com.elastisys.scale.cloudpool.api.types.PoolSizeSummary;
 import com.elastisys.scale.cloudpool.api.types.ServiceState;
 import com.elastisys.scale.commons.json.JsonUtils;
@@ -473,6 +475,64 @@ public class TestRestApi {
         verify(cloudPool).terminateMachine("i-1", true);
     }
 
+    /**
+     * With a {@code Prefer: respond-async} header, a
+     * {@code POST /pool/<machine>/terminate} should be answered with
+     * {@code 202 (Accepted)} and an operation that can be followed via
+     * {@code GET /operations/<id>}.
+     */
+    @Test
+    public void testTerminateMachineAsync() throws Exception {
+        doNothing().when(cloudPool).terminateMachine("i-1", true);
+
+        Client client = RestClients.httpsNoAuth();
+        Entity<String> request = Entity.json("{\"decrementDesiredSize\": true}");
+        Response response = client.target(url("/pool/i-1/terminate")).request().header("Prefer", "respond-async")
+                .post(request);
+        assertThat(response.getStatus(), is(Status.ACCEPTED.getStatusCode()));
+        Operation operation = JsonUtils.toObject(response.readEntity(JsonObject.class), Operation.class);
+        assertThat(response.getLocation().getPath(), is("/operations/" + operation.getId()));
+        assertThat(operation.getDescription(), is("POST /pool/i-1/terminate"));
+
+        Operation completed = awaitOperation(client, operation.getId());
+        assertThat(completed.getState(), is(OperationState.SUCCEEDED));
+        assertThat(completed.getStatusCode(), is(Status.OK.getStatusCode()));
+        verify(cloudPool).terminateMachine("i-1", true);
+    }
+
+    /**
+     * An asynchronously processed operation that fails should report the
+     * error and the status code that a synchronous request would have been
+     * answered with.
+     */
+    @Test
+    public void testTerminateMachineAsyncOnNotFoundError() throws Exception {
+        doThrow(new NotFoundException("unrecognized!")).when(cloudPool).terminateMachine("i-1", true);
+
+        Client client = RestClients.httpsNoAuth();
+        Entity<String> request = Entity.json("{\"decrementDesiredSize\": true}");
+        Response response = client.target(url("/pool/i-1/terminate")).request().header("Prefer", "respond-async")
+                .post(request);
+        assertThat(response.getStatus(), is(Status.ACCEPTED.getStatusCode()));
+        Operation operation = JsonUtils.toObject(response.readEntity(JsonObject.class), Operation.class);
+
+        Operation completed = awaitOperation(client, operation.getId());
+        assertThat(completed.getState(), is(OperationState.FAILED));
+        assertThat(completed.getStatusCode(), is(Status.NOT_FOUND.getStatusCode()));
+        assertThat(completed.getError(), containsString("unrecognized!"));
+    }
+
+    /**
+     * Verifies a {@code 404} response on a {@code GET /operations/<id>}
+     * request for an unknown operation.
+     */
+    @Test
+    public void testGetUnknownOperation() {
+        Client client = RestClients.httpsNoAuth();
+        Response response = client.target(url("/operations/no-such-operation")).request().get();
+        assertThat(response.getStatus(), is(Status.NOT_FOUND.getStatusCode()));
+    }
+
     /**
      * Verifies a {@code 500} response on a cloud pool error when doing a
      * {@code POST /pool/<machine>/terminate} request.
@@ -721,6 +781,22 @@ public class TestRestApi {
      *            The resource path on the remote server.
      * @return
      */
+    /**
+     * Polls {@code GET /operations/<id>} until the operation has completed.
+     */
+    private static Operation awaitOperation(Client client, String operationId) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            Response response = client.target(url("/operations/" + operationId)).request().get();
+            assertThat(response.getStatus(), is(Status.OK.getStatusCode()));
+            Operation operation = JsonUtils.toObject(response.readEntity(JsonObject.class), Operation.class);
+            if (operation.getState().isCompleted()) {
+                return operation;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("operation " + operationId + " did not complete");
+    }
+
     private static String url(String path) {
         return String.format("https://localhost:%d%s", httpsPort, path);
     }
@@ -40,6 +40,36 @@ public class TestMachinePool {
         assertThat(pool.getTimestamp(), is(now));
     }
 
+    /**
+     * Exercise {@link MachinePool#getFingerprint()}, which should only change
+     * on changes to the pool structure.
+     */
+    @Test
+    public void testGetFingerprint() {
+        DateTime now = UtcTime.now();
+        Machine running1 = machineNoIp("i-1", MachineState.RUNNING, now);
+        Machine running2 = machineNoIp("i-2", MachineState.RUNNING, now);
+        String fingerprint = pool(now, running1, running2).getFingerprint();
+
+        // observation time and non-structural machine fields do not matter
+        Machine running1WithIp = Machine.builder().id("i-1").machineState(MachineState.RUNNING)
+                .cloudProvider("AWS-EC2").region("us-east-1").machineSize("m1.small").launchTime(now)
+                .publicIps(ips("1.2.3.4")).build();
+        assertThat(pool(now.plusMinutes(1), running1WithIp, running2).getFingerprint(), is(fingerprint));
+
+        // changes to membership, machine states or service states do
+        assertThat(pool(now, running1).getFingerprint(), is(not(fingerprint)));
+        assertThat(pool(now, running2, running1).getFingerprint(), is(not(fingerprint)));
+        assertThat(pool(now, running1, machineNoIp("i-2", MachineState.TERMINATING, now)).getFingerprint(),
+                is(not(fingerprint)));
+        Machine outOfService = Machine.builder().id("i-2").machineState(MachineState.RUNNING).cloudProvider("AWS-EC2")
+                .region("us-east-1").machineSize("m1.small").serviceState(ServiceState.OUT_OF_SERVICE).build();
+        assertThat(pool(now, running1, outOfService).getFingerprint(), is(not(fingerprint)));
+        Machine evictable = Machine.builder().id("i-2").machineState(MachineState.RUNNING).cloudProvider("AWS-EC2")
+                .region("us-east-1").machineSize("m1.small").membershipStatus(MembershipStatus.blessed()).build();
+        assertThat(pool(now, running1, evictable).getFingerprint(), is(not(fingerprint)));
+    }
+
     /**
      * Exercise {@link MachinePool#getMachines()}
      */
@@ -212,6 +242,63 @@ public class TestMachinePool {
         assertThat(pool.getStartedMachines(), is(asList(pending1, running1, running2, running3)));
     }
 
+    /**
+     * Exercise {@link MachinePool#getMachine(String)},
+     * {@link MachinePool#contains(String)} and
+     * {@link MachinePool#countMachines(MachineState)}.
+     */
+    @Test
+    public void testMachineIndex() {
+        DateTime now = UtcTime.now();
+
+        // on empty pool
+        MachinePool pool = MachinePool.emptyPool(now);
+        assertThat(pool.contains("i-1"), is(false));
+        assertThat(pool.getMachine("i-1").isPresent(), is(false));
+        assertThat(pool.countMachines(MachineState.RUNNING), is(0));
+
+        Machine pending = machineNoIp("i-1", MachineState.PENDING, now);
+        Machine running1 = machineNoIp("i-2", MachineState.RUNNING, now);
+        Machine running2 = machineNoIp("i-3", MachineState.RUNNING, now);
+        Machine terminated = machineNoIp("i-4", MachineState.TERMINATED, now);
+        pool = pool(now, pending, running1, running2, terminated);
+
+        assertThat(pool.contains("i-2"), is(true));
+        assertThat(pool.contains("i-5"), is(false));
+        assertThat(pool.getMachine("i-3").get(), is(running2));
+        assertThat(pool.getMachine("i-5").isPresent(), is(false));
+        assertThat(pool.countMachines(MachineState.REQUESTED), is(0));
+        assertThat(pool.countMachines(MachineState.PENDING), is(1));
+        assertThat(pool.countMachines(MachineState.RUNNING), is(2));
+        assertThat(pool.countMachines(MachineState.TERMINATED), is(1));
+    }
+
+    /**
+     * The machine partitions should be available also for pools that were
+     * parsed from JSON (and hence not created via the constructor).
+     */
+    @Test
+    public void testMachineIndexOnParsedPool() throws IOException {
+        MachinePool parsedPool = MachinePool.fromJson(loadJson(multiMachinePoolJson));
+        MachinePool pool = new MachinePool(parsedPool.getMachines(), parsedPool.getTimestamp());
+
+        assertThat(parsedPool.getActiveMachines(), is(pool.getActiveMachines()));
+        assertThat(parsedPool.getAllocatedMachines(), is(pool.getAllocatedMachines()));
+        for (Machine machine : pool.getMachines()) {
+            assertThat(parsedPool.getMachine(machine.getId()).get(), is(machine));
+        }
+    }
+
+    /**
+     * The returned machine lists should be shared immutable views.
+     */
+    @Test(expected = UnsupportedOperationException.class)
+    public void testMachinesAreImmutable() {
+        DateTime now = UtcTime.now();
+        MachinePool pool = pool(now, machineNoIp("i-1", MachineState.RUNNING, now));
+        pool.getActiveMachines().clear();
+    }
+
     /**
      * Test equality comparisons.
      */
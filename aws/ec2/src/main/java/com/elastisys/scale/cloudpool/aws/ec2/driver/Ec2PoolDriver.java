@@ -6,7 +6,10 @@ import static java.lang.String.format;
 import static java.util.Arrays.asList;
 
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,9 +33,11 @@ import com.elastisys.scale.cloudpool.commons.basepool.driver.CloudPoolDriver;
 import com.elastisys.scale.cloudpool.commons.basepool.driver.CloudPoolDriverException;
 import com.elastisys.scale.cloudpool.commons.basepool.driver.DriverConfig;
 import com.elastisys.scale.cloudpool.commons.basepool.driver.StartMachinesException;
+import com.elastisys.scale.cloudpool.commons.basepool.driver.TerminateMachinesResult;
 import com.elastisys.scale.commons.json.JsonUtils;
 import com.google.common.base.Throwables;
 import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
 
 /**
  * A {@link CloudPoolDriver} implementation that operates against the AWS EC2
@@ -140,6 +145,51 @@ public class Ec2PoolDriver implements CloudPoolDriver {
         }
     }
 
+    /**
+     * Terminates all pool members among the given machines with a single
+     * {@link Ec2Client#terminateInstances(List)} call.
+     */
+    @Override
+    public TerminateMachinesResult terminateMachines(List<String> machineIds) throws IllegalStateException {
+        checkState(isConfigured(), "attempt to use unconfigured Ec2PoolDriver");
+
+        List<String> terminated = Lists.newArrayList();
+        Map<String, Throwable> failures = new LinkedHashMap<>();
+        List<String> poolMembers = Lists.newArrayList();
+        try {
+            // verify that machines exist in group
+            Set<String> memberIds = Sets.newHashSet(Lists.transform(listMachines(), Machine.toId()));
+            for (String machineId : machineIds) {
+                if (memberIds.contains(machineId)) {
+                    poolMembers.add(machineId);
+                } else {
+                    failures.put(machineId, new NotFoundException(
+                            String.format("no machine with id '%s' found in cloud pool", machineId)));
+                }
+            }
+        } catch (Exception e) {
+            for (String machineId : machineIds) {
+                failures.put(machineId, e);
+            }
+            return new TerminateMachinesResult(terminated, failures);
+        }
+
+        if (poolMembers.isEmpty()) {
+            return new TerminateMachinesResult(terminated, failures);
+        }
+        try {
+            LOG.info("terminating instances {}", poolMembers);
+            this.client.terminateInstances(poolMembers);
+            terminated.addAll(poolMembers);
+        } catch (Exception e) {
+            String message = format("failed to terminate instances %s: %s", poolMembers, e.getMessage());
+            for (String machineId : poolMembers) {
+                failures.put(machineId, new CloudPoolDriverException(message, e));
+            }
+        }
+        return new TerminateMachinesResult(terminated, failures);
+    }
+
     @Override
     public void attachMachine(String machineId) throws NotFoundException, CloudPoolDriverException {
         checkState(isConfigured(), "attempt to use unconfigured Ec2PoolDriver");
@@ -8,6 +8,7 @@ import static com.elastisys.scale.cloudpool.aws.ec2.driver.MachinesMatcher.machi
 import static com.elastisys.scale.cloudpool.aws.ec2.driver.TestUtils.driverConfig;
 import static com.elastisys.scale.cloudpool.aws.ec2.driver.TestUtils.ec2Instances;
 import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
@@ -19,6 +20,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.eclipse.jetty.server.Server;
@@ -41,6 +43,7 @@ import com.elastisys.scale.cloudpool.commons.basepool.driver.CloudPoolDriver;
 import com.elastisys.scale.cloudpool.commons.basepool.driver.CloudPoolDriverException;
 import com.elastisys.scale.cloudpool.commons.basepool.driver.DriverConfig;
 import com.elastisys.scale.cloudpool.commons.basepool.driver.StartMachinesException;
+import com.elastisys.scale.cloudpool.commons.basepool.driver.TerminateMachinesResult;
 import com.elastisys.scale.commons.json.JsonUtils;
 
 /**
@@ -202,6 +205,41 @@ public class TestEc2PoolDriverOperation {
         this.driver.terminateMachine("i-2");
     }
 
+    /**
+     * Several pool members should be terminated in a single call, with
+     * non-members reported as failures.
+     */
+    @Test
+    public void terminateMultiple() throws Exception {
+        setUpMockedScalingGroup(POOL_NAME,
+                ec2Instances(memberInstance("i-1", "running"), memberInstance("i-2", "pending")));
+
+        TerminateMachinesResult result = this.driver.terminateMachines(asList("i-1", "i-2", "i-3"));
+
+        verify(this.mockClient).terminateInstances(asList("i-1", "i-2"));
+        assertThat(result.getTerminatedMachines(), is(asList("i-1", "i-2")));
+        assertThat(result.getFailures().keySet(), is(Collections.singleton("i-3")));
+        assertThat(result.getFailures().get("i-3"), instanceOf(NotFoundException.class));
+    }
+
+    /**
+     * On client error, all pool members should be reported as failures.
+     */
+    @Test
+    public void terminateMultipleOnError() throws Exception {
+        setUpMockedScalingGroup(POOL_NAME,
+                ec2Instances(memberInstance("i-1", "running"), memberInstance("i-2", "pending")));
+        doThrow(new AmazonClientException("API unreachable")).when(this.mockClient)
+                .terminateInstances(asList("i-1", "i-2"));
+
+        TerminateMachinesResult result = this.driver.terminateMachines(asList("i-1", "i-2"));
+
+        assertThat(result.isSuccessful(), is(false));
+        assertThat(result.getTerminatedMachines().isEmpty(), is(true));
+        assertThat(result.getFailures().get("i-1"), instanceOf(CloudPoolDriverException.class));
+        assertThat(result.getFailures().get("i-2"), instanceOf(CloudPoolDriverException.class));
+    }
+
     /**
      * Verify that the pool membership tag is removed from the server when
      * detaching a pool member.
@@ -22,11 +22,13 @@ import com.elastisys.scale.cloudpool.azure.driver.client.VmSpec;
 import com.elastisys.scale.cloudpool.azure.driver.config.CloudApiSettings;
 import com.elastisys.scale.cloudpool.azure.driver.config.ProvisioningTemplate;
 import com.elastisys.scale.cloudpool.azure.driver.functions.VmToMachine;
+import com.elastisys.scale.cloudpool.azure.driver.functions.VmToMachineStatus;
 import com.elastisys.scale.cloudpool.commons.basepool.BaseCloudPool;
-import com.elastisys.scale.cloudpool.commons.basepool.driver.CloudPoolDriver;
 import com.elastisys.scale.cloudpool.commons.basepool.driver.CloudPoolDriverException;
 import com.elastisys.scale.cloudpool.commons.basepool.driver.DriverConfig;
+import com.elastisys.scale.cloudpool.commons.basepool.driver.MachineStatus;
 import com.elastisys.scale.cloudpool.commons.basepool.driver.StartMachinesException;
+import com.elastisys.scale.cloudpool.commons.basepool.driver.StateListingCloudPoolDriver;
 import com.elastisys.scale.commons.json.JsonUtils;
 import com.google.common.base.Joiner;
 import com.google.common.base.Throwables;
@@ -38,10 +40,15 @@ import com.microsoft.azure.management.compute.VirtualMachine;
  * It supports provisioning VMs according to the <a href=
  * "https://docs.microsoft.com/en-us/azure/azure-resource-manager/resource-manager-deployment-model">Resource
  * Manager deployment model</a>.
+ * <p/>
+ * Since translating VMs to {@link Machine}s requires additional API calls per
+ * VM (to look up network interfaces and public IP addresses), the driver
+ * offers lightweight state listings (see {@link StateListingCloudPoolDriver})
+ * for frequent pool refreshes.
  *
  * @see BaseCloudPool
  */
-public class AzurePoolDriver implements CloudPoolDriver {
+public class AzurePoolDriver implements StateListingCloudPoolDriver {
     private static final Logger LOG = LoggerFactory.getLogger(AzurePoolDriver.class);
 
     /** Client for performing actions against the Azure REST API. */
@@ -90,6 +97,18 @@ public class AzurePoolDriver implements CloudPoolDriver {
         }
     }
 
+    @Override
+    public List<MachineStatus> listMachineStates() throws CloudPoolDriverException {
+        checkState(isConfigured(), "cannot use driver before being configured");
+
+        try {
+            List<VirtualMachine> vms = this.client.listVms(cloudPoolTag());
+            return vms.stream().map(new VmToMachineStatus()).collect(Collectors.toList());
+        } catch (Exception e) {
+            throw new CloudPoolDriverException("failed to list VM states: " + e.getMessage(), e);
+        }
+    }
+
     @Override
     public List<Machine> startMachines(int count) throws StartMachinesException {
         checkState(isConfigured(), "cannot use driver before being configured");
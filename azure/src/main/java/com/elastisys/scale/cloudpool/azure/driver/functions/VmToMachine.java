@@ -54,23 +54,41 @@ public class VmToMachine implements Function<VirtualMachine, Machine> {
         }
 
         builder.machineState(extractMachineState(vm));
+        builder.membershipStatus(extractMembershipStatus(vm));
+        builder.serviceState(extractServiceState(vm));
 
-        // extract membership status if tag has been set on server
-        MembershipStatus membershipStatus = MembershipStatus.defaultStatus();
+        return builder.build();
+    }
+
+    /**
+     * Extracts the {@link MembershipStatus} of an Azure VM from its membership
+     * status tag, if one has been set. Otherwise, the default
+     * {@link MembershipStatus} is returned.
+     *
+     * @param vm
+     * @return
+     */
+    MembershipStatus extractMembershipStatus(VirtualMachine vm) {
         if (vm.tags().containsKey(MEMBERSHIP_STATUS_TAG)) {
-            membershipStatus = JsonUtils.toObject(JsonUtils.parseJsonString(vm.tags().get(MEMBERSHIP_STATUS_TAG)),
+            return JsonUtils.toObject(JsonUtils.parseJsonString(vm.tags().get(MEMBERSHIP_STATUS_TAG)),
                     MembershipStatus.class);
         }
-        builder.membershipStatus(membershipStatus);
+        return MembershipStatus.defaultStatus();
+    }
 
-        // extract service state if tag has been set on server
-        ServiceState serviceState = ServiceState.UNKNOWN;
+    /**
+     * Extracts the {@link ServiceState} of an Azure VM from its service state
+     * tag, if one has been set. Otherwise, {@link ServiceState#UNKNOWN} is
+     * returned.
+     *
+     * @param vm
+     * @return
+     */
+    ServiceState extractServiceState(VirtualMachine vm) {
         if (vm.tags().containsKey(SERVICE_STATE_TAG)) {
-            serviceState = ServiceState.valueOf(vm.tags().get(SERVICE_STATE_TAG));
+            return ServiceState.valueOf(vm.tags().get(SERVICE_STATE_TAG));
         }
-        builder.serviceState(serviceState);
-
-        return builder.build();
+        return ServiceState.UNKNOWN;
     }
 
     /**
@@ -80,7 +98,7 @@ public class VmToMachine implements Function<VirtualMachine, Machine> {
      * @param vm
      * @return
      */
-    private MachineState extractMachineState(VirtualMachine vm) {
+    MachineState extractMachineState(VirtualMachine vm) {
         if (LOG.isTraceEnabled()) {
             LOG.trace("vm states: provisioningState: {}, powerState: {}", vm.provisioningState(), vm.powerState());
         }
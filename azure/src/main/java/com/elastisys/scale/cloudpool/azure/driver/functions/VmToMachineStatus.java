@@ -0,0 +1,22 @@
+package com.elastisys.scale.cloudpool.azure.driver.functions;
+
+import java.util.function.Function;
+
+import com.elastisys.scale.cloudpool.commons.basepool.driver.MachineStatus;
+import com.microsoft.azure.management.compute.VirtualMachine;
+
+/**
+ * Translates an Azure VM to a lightweight {@link MachineStatus}. Unlike
+ * {@link VmToMachine}, it does not look up the VM's network interfaces and
+ * public IP address, which each require additional calls to the Azure API.
+ */
+public class VmToMachineStatus implements Function<VirtualMachine, MachineStatus> {
+
+    private final VmToMachine vmToMachine = new VmToMachine();
+
+    @Override
+    public MachineStatus apply(VirtualMachine vm) {
+        return new MachineStatus(vm.id(), this.vmToMachine.extractMachineState(vm),
+                this.vmToMachine.extractMembershipStatus(vm), this.vmToMachine.extractServiceState(vm));
+    }
+}
@@ -92,6 +92,11 @@ public class TestAzurePoolDriver {
         this.driver.listMachines();
     }
 
+    @Test(expected = IllegalStateException.class)
+    public void listMachineStatesBeforeConfigured() {
+        this.driver.listMachineStates();
+    }
+
     @Test(expected = IllegalStateException.class)
     public void attachgMachinesBeforeConfigured() {
         this.driver.attachMachine("id");
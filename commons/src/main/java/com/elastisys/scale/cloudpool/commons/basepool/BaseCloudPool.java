@@ -2,8 +2,11 @@ package com.elastisys.scale.cloudpool.commons.basepool;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
+import java.util.Arrays;
 import java.util.Map;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,7 +22,13 @@ import com.elastisys.scale.cloudpool.api.types.MachineState;
 import com.elastisys.scale.cloudpool.api.types.MembershipStatus;
 import com.elastisys.scale.cloudpool.api.types.PoolSizeSummary;
 import com.elastisys.scale.cloudpool.api.types.ServiceState;
+import com.elastisys.scale.cloudpool.commons.basepool.alerts.AlertDispatcher;
+import com.elastisys.scale.cloudpool.commons.basepool.bulkhead.BulkheadExecutor;
+import com.elastisys.scale.cloudpool.commons.basepool.bulkhead.BulkheadMonitor;
 import com.elastisys.scale.cloudpool.commons.basepool.config.BaseCloudPoolConfig;
+import com.elastisys.scale.cloudpool.commons.basepool.config.BulkheadConfig;
+import com.elastisys.scale.cloudpool.commons.basepool.config.BulkheadsConfig;
+import com.elastisys.scale.cloudpool.commons.basepool.driver.ChangeTrackingCloudPoolDriver;
 import com.elastisys.scale.cloudpool.commons.basepool.driver.CloudPoolDriver;
 import com.elastisys.scale.cloudpool.commons.basepool.driver.DriverConfig;
 import com.elastisys.scale.cloudpool.commons.basepool.poolfetcher.impl.CachingPoolFetcher;
@@ -29,7 +38,7 @@ import com.elastisys.scale.cloudpool.commons.basepool.poolupdater.impl.StandardP
 import com.elastisys.scale.commons.json.JsonUtils;
 import com.elastisys.scale.commons.net.alerter.Alert;
 import com.elastisys.scale.commons.net.alerter.Alerter;
-import com.elastisys.scale.commons.net.alerter.multiplexing.MultiplexingAlerter;
+import com.google.common.base.Objects;
 import com.google.common.base.Optional;
 import com.google.common.base.Throwables;
 import com.google.common.collect.Maps;
@@ -145,6 +154,12 @@ import com.google.gson.JsonObject;
  * document with the above structure. From this document a {@link DriverConfig}
  * is constructed and passed on to the {@link CloudPoolDriver} via a call to
  * {@link CloudPoolDriver#configure}.
+ * <p/>
+ * A reconfiguration that leaves the driver settings ({@code name},
+ * {@code cloudApiSettings} and {@code provisioningTemplate}) unchanged does not
+ * restart a started cloud pool. Instead, only the affected components are
+ * reconfigured in place, keeping the cached {@link MachinePool}, the desired
+ * size and the termination queue.
  *
  * <h3>Identifying pool members:</h2>
  *
@@ -152,6 +167,19 @@ import com.google.gson.JsonObject;
  * {@link CloudPoolDriver#listMachines()}. How to identify pool members are left
  * to the {@link CloudPoolDriver} implementation but could make use of tags (if
  * supported by the cloud API).
+ * <p/>
+ * Drivers that implement {@link ChangeTrackingCloudPoolDriver} are instead
+ * synchronized incrementally via
+ * {@link ChangeTrackingCloudPoolDriver#listMachineChanges(String)}, with a full
+ * listing made at least once every {@code poolFetch.fullResyncInterval}.
+ * <p/>
+ * On {@link #start()}, the {@link BaseCloudPool} waits for the first attempt to
+ * list the pool members to complete, unless {@code poolFetch.warmStart} is set
+ * and a machine pool observation made less than
+ * {@code poolFetch.reachabilityTimeout} ago was persisted by a previous run. In
+ * that case, the persisted observation is served (for at most
+ * {@code poolFetch.reachabilityTimeout} from when it was made) until the first
+ * pool fetch, which runs in the background, completes.
  *
  * <h3>Handling resize requests:</h3>
  *
@@ -190,6 +218,12 @@ public class BaseCloudPool implements CloudPool {
     /** {@link Logger} instance. */
     static final Logger LOG = LoggerFactory.getLogger(BaseCloudPool.class);
 
+    /**
+     * The settings of the bulkhead that runs housekeeping tasks: alert
+     * delivery and bulkhead monitoring.
+     */
+    static final BulkheadConfig HOUSEKEEPING_BULKHEAD = new BulkheadConfig(1, 100);
+
     /** Declares where the runtime state is stored. */
     private final StateStorage stateStorage;
     /** A cloud-specific management driver for the cloud pool. */
@@ -201,8 +235,32 @@ public class BaseCloudPool implements CloudPool {
      */
     private final EventBus eventBus;
 
-    /** Used to perform any periodical tasks or background jobs. */
-    private final ScheduledExecutorService executor;
+    /**
+     * Dedicated to housekeeping tasks: periodical alert flushing and
+     * {@link BulkheadMonitor} runs. Kept apart from the caller-supplied
+     * executor, which is typically shared with driver-specific background
+     * jobs.
+     */
+    private final BulkheadExecutor housekeepingExecutor;
+    /**
+     * Dedicated to periodical {@link MachinePool} refreshes. Created on
+     * {@link #start()}.
+     */
+    private BulkheadExecutor refreshExecutor;
+    /**
+     * Dedicated to pool updates and scheduled terminations. Created on
+     * {@link #start()}.
+     */
+    private BulkheadExecutor updateExecutor;
+    /**
+     * Dedicated to background machine launches, which may take long enough to
+     * hold up pool updates. Created on {@link #start()}.
+     */
+    private BulkheadExecutor launchExecutor;
+    /**
+     * Periodically reports bulkhead saturation. Scheduled on {@link #start()}.
+     */
+    private ScheduledFuture<?> bulkheadMonitorTask;
 
     /** The currently set configuration. */
     private BaseCloudPoolConfig config;
@@ -211,9 +269,10 @@ public class BaseCloudPool implements CloudPool {
 
     /**
      * Dispatches {@link Alert}s sent on the {@link EventBus} to configured
-     * {@link Alerter}s.
+     * {@link Alerter}s. Delivery is asynchronous, so posting an {@link Alert}
+     * never blocks on a slow {@link Alerter}.
      */
-    private final MultiplexingAlerter alerter;
+    private final AlertDispatcher alerter;
 
     /** Retrieves {@link MachinePool} members. */
     private CachingPoolFetcher poolFetcher;
@@ -229,7 +288,13 @@ public class BaseCloudPool implements CloudPool {
      * @param cloudDriver
      *            A cloud-specific management driver for the cloud pool.
      * @param executor
-     *            Used to perform any periodical tasks or background jobs.
+     *            The executor that the {@link CloudPoolDriver} runs any
+     *            background jobs on. Not used by the {@link BaseCloudPool}
+     *            itself: pool refreshes, pool updates and background launches
+     *            run on dedicated executors (see
+     *            {@link BaseCloudPoolConfig#getBulkheads()}), and alert
+     *            delivery runs on a dedicated housekeeping executor, so a slow
+     *            driver job never delays them.
      */
     public BaseCloudPool(StateStorage stateStorage, CloudPoolDriver cloudDriver, ScheduledExecutorService executor) {
         this(stateStorage, cloudDriver, executor, new EventBus());
@@ -245,7 +310,13 @@ public class BaseCloudPool implements CloudPool {
      * @param cloudDriver
      *            A cloud-specific management driver for the cloud pool.
      * @param executor
-     *            Used to perform any periodical tasks or background jobs.
+     *            The executor that the {@link CloudPoolDriver} runs any
+     *            background jobs on. Not used by the {@link BaseCloudPool}
+     *            itself: pool refreshes, pool updates and background launches
+     *            run on dedicated executors (see
+     *            {@link BaseCloudPoolConfig#getBulkheads()}), and alert
+     *            delivery runs on a dedicated housekeeping executor, so a slow
+     *            driver job never delays them.
      * @param eventBus
      *            The {@link EventBus} used to send {@link Alert}s and event
      *            messages between components of the cloud pool.
@@ -259,10 +330,11 @@ public class BaseCloudPool implements CloudPool {
 
         this.stateStorage = stateStorage;
         this.cloudDriver = cloudDriver;
-        this.executor = executor;
         this.eventBus = eventBus;
 
-        this.alerter = new MultiplexingAlerter();
+        this.housekeepingExecutor = new BulkheadExecutor("housekeeping", HOUSEKEEPING_BULKHEAD.getThreads(),
+                HOUSEKEEPING_BULKHEAD.getQueueLimit());
+        this.alerter = new AlertDispatcher(this.housekeepingExecutor);
         this.eventBus.register(this.alerter);
 
         this.config = null;
@@ -274,12 +346,19 @@ public class BaseCloudPool implements CloudPool {
         BaseCloudPoolConfig configuration = validate(jsonConfig);
 
         synchronized (this) {
+            LOG.debug("setting new configuration: {}", JsonUtils.toPrettyString(jsonConfig));
+            BaseCloudPoolConfig oldConfig = this.config;
+            if (oldConfig != null && !driverSettingsChanged(oldConfig, configuration)) {
+                // driver, cached pool and pool update state can be kept
+                reconfigure(oldConfig, configuration);
+                return;
+            }
+
             boolean wasStarted = isStarted();
             if (wasStarted) {
                 stop();
             }
 
-            LOG.debug("setting new configuration: {}", JsonUtils.toPrettyString(jsonConfig));
             // re-configure driver
             DriverConfig driverConfig = new DriverConfig(configuration.getName(), configuration.getCloudApiSettings(),
                     configuration.getProvisioningTemplate());
@@ -289,7 +368,7 @@ public class BaseCloudPool implements CloudPool {
 
             // alerters may have changed
             this.alerter.unregisterAlerters();
-            this.alerter.registerAlerters(config().getAlerts(), standardAlertMetadata());
+            this.alerter.registerAlerters(config().getAlerts(), standardAlertMetadata(), config().getAlertDelivery());
 
             if (wasStarted) {
                 start();
@@ -297,6 +376,62 @@ public class BaseCloudPool implements CloudPool {
         }
     }
 
+    /**
+     * Applies a new configuration with unchanged driver settings without
+     * restarting the cloud pool. Only the components whose settings have
+     * changed are reconfigured, and they are reconfigured in place, so that
+     * the cached {@link MachinePool}, the desired size and the termination
+     * queue are all kept.
+     *
+     * @param oldConfig
+     *            The current configuration.
+     * @param newConfig
+     *            The new configuration.
+     */
+    private void reconfigure(BaseCloudPoolConfig oldConfig, BaseCloudPoolConfig newConfig) {
+        this.config = newConfig;
+
+        if (!Objects.equal(oldConfig.getAlerts(), newConfig.getAlerts())
+                || !Objects.equal(oldConfig.getAlertDelivery(), newConfig.getAlertDelivery())) {
+            LOG.info("alert settings changed: re-registering alert handlers");
+            this.alerter.unregisterAlerters();
+            this.alerter.registerAlerters(config().getAlerts(), standardAlertMetadata(), config().getAlertDelivery());
+        }
+
+        if (!isStarted()) {
+            return;
+        }
+        if (!Objects.equal(oldConfig.getBulkheads(), newConfig.getBulkheads())) {
+            LOG.info("bulkhead settings changed: resizing bulkheads");
+            BulkheadsConfig bulkheads = newConfig.getBulkheads();
+            this.refreshExecutor.resize(bulkheads.getRefresh().getThreads(), bulkheads.getRefresh().getQueueLimit());
+            this.updateExecutor.resize(bulkheads.getUpdate().getThreads(), bulkheads.getUpdate().getQueueLimit());
+            this.launchExecutor.resize(bulkheads.getLaunch().getThreads(), bulkheads.getLaunch().getQueueLimit());
+        }
+        if (!Objects.equal(oldConfig.getPoolFetch(), newConfig.getPoolFetch())) {
+            LOG.info("pool fetch settings changed: reconfiguring pool fetcher");
+            this.poolFetcher.reconfigure(retryingPoolFetcher(), newConfig.getPoolFetch());
+        }
+        // the pool updater is governed by most of the remaining settings
+        this.poolUpdater.reconfigure(newConfig);
+        LOG.info("{} reconfigured without restart.", getClass().getSimpleName());
+    }
+
+    /**
+     * Returns <code>true</code> if two configurations differ in the settings
+     * that are passed to the {@link CloudPoolDriver}, which means that the
+     * driver needs to be reconfigured.
+     *
+     * @param oldConfig
+     * @param newConfig
+     * @return
+     */
+    private static boolean driverSettingsChanged(BaseCloudPoolConfig oldConfig, BaseCloudPoolConfig newConfig) {
+        return !Objects.equal(oldConfig.getName(), newConfig.getName())
+                || !Objects.equal(oldConfig.getCloudApiSettings(), newConfig.getCloudApiSettings())
+                || !Objects.equal(oldConfig.getProvisioningTemplate(), newConfig.getProvisioningTemplate());
+    }
+
     private BaseCloudPoolConfig validate(JsonObject jsonConfig) throws IllegalArgumentException {
         try {
             BaseCloudPoolConfig configuration = JsonUtils.toObject(jsonConfig, BaseCloudPoolConfig.class);
@@ -325,14 +460,34 @@ public class BaseCloudPool implements CloudPool {
         }
         LOG.info("starting {} driving a {}", getClass().getSimpleName(), this.cloudDriver.getClass().getSimpleName());
 
-        RetryingPoolFetcher retryingFetcher = new RetryingPoolFetcher(this.cloudDriver,
-                config().getPoolFetch().getRetries());
-        // note: we wait for first attempt to get the pool to complete
-        this.poolFetcher = new CachingPoolFetcher(this.stateStorage, retryingFetcher, config().getPoolFetch(),
-                this.executor, this.eventBus);
-        this.poolFetcher.awaitFirstFetch();
-        this.poolUpdater = new StandardPoolUpdater(this.cloudDriver, this.poolFetcher, this.executor, this.eventBus,
-                config());
+        BulkheadsConfig bulkheads = config().getBulkheads();
+        this.refreshExecutor = bulkhead("refresh", bulkheads.getRefresh());
+        this.updateExecutor = bulkhead("update", bulkheads.getUpdate());
+        this.launchExecutor = bulkhead("launch", bulkheads.getLaunch());
+        BulkheadMonitor bulkheadMonitor = new BulkheadMonitor(Arrays.asList(this.refreshExecutor,
+                this.updateExecutor, this.launchExecutor, this.housekeepingExecutor), this.eventBus);
+        long monitorIntervalMillis = BulkheadMonitor.DEFAULT_INTERVAL.getMillis();
+        this.bulkheadMonitorTask = this.housekeepingExecutor.scheduleWithFixedDelay(bulkheadMonitor,
+                monitorIntervalMillis, monitorIntervalMillis, TimeUnit.MILLISECONDS);
+
+        this.poolFetcher = new CachingPoolFetcher(this.stateStorage, retryingPoolFetcher(), config().getPoolFetch(),
+                this.refreshExecutor, this.eventBus);
+        if (config().getPoolFetch().isWarmStart() && this.poolFetcher.hasFreshCachedPool()) {
+            // serve the persisted pool while the first fetch runs in the
+            // background
+            LOG.info("warm start: serving persisted machine pool until first pool fetch completes");
+        } else {
+            // note: we wait for first attempt to get the pool to complete
+            this.poolFetcher.awaitFirstFetch();
+        }
+        // note: restores any desired size and termination queue persisted by
+        // a previous run
+        this.poolUpdater = new StandardPoolUpdater(this.stateStorage, this.cloudDriver, this.poolFetcher,
+                this.updateExecutor, this.launchExecutor, this.eventBus, config());
+        // note: lets adaptive refreshing keep up while the pool converges
+        // towards its desired size
+        PoolUpdater poolUpdater = this.poolUpdater;
+        this.poolFetcher.setDesiredSizeSource(poolUpdater::getDesiredSize);
 
         this.started = true;
         LOG.info(getClass().getSimpleName() + " started.");
@@ -345,11 +500,39 @@ public class BaseCloudPool implements CloudPool {
             // cancel tasks (allow any running tasks to finish)
             this.poolFetcher.close();
             this.poolUpdater.close();
+            this.bulkheadMonitorTask.cancel(false);
+            this.refreshExecutor.shutdown();
+            this.updateExecutor.shutdown();
+            // allow any launches in progress to finish
+            this.launchExecutor.shutdown();
             this.started = false;
         }
         LOG.info(getClass().getSimpleName() + " stopped.");
     }
 
+    /**
+     * Creates the {@link PoolFetcher} that fetches the {@link MachinePool}
+     * from the cloud API for the {@link #poolFetcher} cache.
+     *
+     * @return
+     */
+    private RetryingPoolFetcher retryingPoolFetcher() {
+        return new RetryingPoolFetcher(this.cloudDriver, config().getPoolFetch().getRetries(),
+                config().getPoolFetch().getFullResyncInterval(), config().getPoolFetch().getCircuitBreaker());
+    }
+
+    /**
+     * Creates a {@link BulkheadExecutor} for a class of work.
+     *
+     * @param workClass
+     * @param bulkheadConfig
+     * @return
+     */
+    private BulkheadExecutor bulkhead(String workClass, BulkheadConfig bulkheadConfig) {
+        return new BulkheadExecutor(config().getName() + "-" + workClass, bulkheadConfig.getThreads(),
+                bulkheadConfig.getQueueLimit());
+    }
+
     @Override
     public CloudPoolStatus getStatus() {
         return new CloudPoolStatus(isStarted(), isConfigured());
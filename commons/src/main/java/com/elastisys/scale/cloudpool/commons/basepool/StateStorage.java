@@ -8,6 +8,8 @@ import java.util.List;
 import java.util.Set;
 
 import com.elastisys.scale.cloudpool.commons.basepool.poolfetcher.impl.CachingPoolFetcher;
+import com.elastisys.scale.cloudpool.commons.basepool.poolfetcher.impl.MachinePoolJournal;
+import com.elastisys.scale.cloudpool.commons.basepool.poolupdater.impl.StandardPoolUpdater;
 import com.google.common.collect.ImmutableSet;
 
 /**
@@ -16,21 +18,43 @@ import com.google.common.collect.ImmutableSet;
  */
 public class StateStorage {
     public static final String DEFAULT_CACHED_MACHINE_POOL_FILENAME = "cached_machine_pool.json";
+    public static final String DEFAULT_CACHED_MACHINE_POOL_JOURNAL_FILENAME = "cached_machine_pool.journal";
+    public static final String DEFAULT_POOL_UPDATER_STATE_FILENAME = "pool_updater_state.json";
 
     /**
      * File where the {@link CachingPoolFetcher} stores its machine pool cache.
      */
     private final File cachedMachinePoolFile;
 
+    /**
+     * File where the {@link CachingPoolFetcher} journals changes to its machine
+     * pool cache (see {@link MachinePoolJournal}).
+     */
+    private final File cachedMachinePoolJournalFile;
+
+    /**
+     * File where the {@link StandardPoolUpdater} stores its desired size and
+     * termination queue.
+     */
+    private final File poolUpdaterStateFile;
+
     /**
      * Creates a {@link StateStorage} instance.
      *
      * @param cachedMachinePoolFile
      *            File where the {@link CachingPoolFetcher} stores its machine
      *            pool cache.
+     * @param cachedMachinePoolJournalFile
+     *            File where the {@link CachingPoolFetcher} journals changes to
+     *            its machine pool cache.
+     * @param poolUpdaterStateFile
+     *            File where the {@link StandardPoolUpdater} stores its desired
+     *            size and termination queue.
      */
-    private StateStorage(File cachedMachinePoolFile) {
+    private StateStorage(File cachedMachinePoolFile, File cachedMachinePoolJournalFile, File poolUpdaterStateFile) {
         this.cachedMachinePoolFile = cachedMachinePoolFile;
+        this.cachedMachinePoolJournalFile = cachedMachinePoolJournalFile;
+        this.poolUpdaterStateFile = poolUpdaterStateFile;
     }
 
     /**
@@ -42,6 +66,26 @@ public class StateStorage {
         return this.cachedMachinePoolFile;
     }
 
+    /**
+     * File where the {@link CachingPoolFetcher} journals changes to its machine
+     * pool cache (see {@link MachinePoolJournal}).
+     *
+     * @return
+     */
+    public File getCachedMachinePoolJournalFile() {
+        return this.cachedMachinePoolJournalFile;
+    }
+
+    /**
+     * File where the {@link StandardPoolUpdater} stores its desired size and
+     * termination queue.
+     *
+     * @return
+     */
+    public File getPoolUpdaterStateFile() {
+        return this.poolUpdaterStateFile;
+    }
+
     public static StateStorageBuilder builder(String storageDir) {
         return builder(new File(storageDir));
     }
@@ -58,6 +102,8 @@ public class StateStorage {
         private final File storageDir;
 
         private String cachedMachinePoolFileName = DEFAULT_CACHED_MACHINE_POOL_FILENAME;
+        private String cachedMachinePoolJournalFileName = DEFAULT_CACHED_MACHINE_POOL_JOURNAL_FILENAME;
+        private String poolUpdaterStateFileName = DEFAULT_POOL_UPDATER_STATE_FILENAME;
 
         public StateStorageBuilder(File storageDir) {
             checkArgument(storageDir != null, "storageDir cannot be null");
@@ -65,13 +111,16 @@ public class StateStorage {
         }
 
         public StateStorage build() {
-            List<String> allFileNames = Arrays.asList(this.cachedMachinePoolFileName);
+            List<String> allFileNames = Arrays.asList(this.cachedMachinePoolFileName,
+                    this.cachedMachinePoolJournalFileName, this.poolUpdaterStateFileName);
             Set<String> uniqueFileNames = ImmutableSet.copyOf(allFileNames);
             checkArgument(allFileNames.size() == uniqueFileNames.size(),
                     "all StateStorage file names need to be unique");
 
             File cachedMachinePoolFile = new File(this.storageDir, this.cachedMachinePoolFileName);
-            return new StateStorage(cachedMachinePoolFile);
+            File cachedMachinePoolJournalFile = new File(this.storageDir, this.cachedMachinePoolJournalFileName);
+            File poolUpdaterStateFile = new File(this.storageDir, this.poolUpdaterStateFileName);
+            return new StateStorage(cachedMachinePoolFile, cachedMachinePoolJournalFile, poolUpdaterStateFile);
         }
 
         /**
@@ -86,5 +135,31 @@ public class StateStorage {
             this.cachedMachinePoolFileName = fileName;
             return this;
         }
+
+        /**
+         * The name of the file where the {@link CachingPoolFetcher} journals
+         * changes to its machine pool cache.
+         *
+         * @param fileName
+         * @return
+         */
+        public StateStorageBuilder withCachedMachinePoolJournalFileName(String fileName) {
+            checkArgument(fileName != null, "fileName cannot be null");
+            this.cachedMachinePoolJournalFileName = fileName;
+            return this;
+        }
+
+        /**
+         * The name of the file where the {@link StandardPoolUpdater} stores
+         * its desired size and termination queue.
+         *
+         * @param fileName
+         * @return
+         */
+        public StateStorageBuilder withPoolUpdaterStateFileName(String fileName) {
+            checkArgument(fileName != null, "fileName cannot be null");
+            this.poolUpdaterStateFileName = fileName;
+            return this;
+        }
     }
 }
@@ -0,0 +1,229 @@
+package com.elastisys.scale.cloudpool.commons.basepool.alerts;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.elastisys.scale.cloudpool.commons.basepool.config.AlertDeduplicationConfig;
+import com.elastisys.scale.cloudpool.commons.basepool.config.AlertDeliveryConfig;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+import com.elastisys.scale.commons.net.alerter.Alert;
+import com.elastisys.scale.commons.net.alerter.Alerter;
+import com.elastisys.scale.commons.net.alerter.SeverityFilter;
+import com.elastisys.scale.commons.net.alerter.filtering.FilteringAlerter;
+import com.elastisys.scale.commons.net.alerter.http.HttpAlerter;
+import com.elastisys.scale.commons.net.alerter.http.HttpAlerterConfig;
+import com.elastisys.scale.commons.net.alerter.multiplexing.AlertersConfig;
+import com.elastisys.scale.commons.net.alerter.smtp.SmtpAlerter;
+import com.elastisys.scale.commons.net.alerter.smtp.SmtpAlerterConfig;
+import com.google.common.base.Objects;
+import com.google.common.eventbus.EventBus;
+import com.google.common.eventbus.Subscribe;
+import com.google.gson.JsonElement;
+
+/**
+ * Dispatches {@link Alert}s (typically received over an {@link EventBus}) to a
+ * collection of registered email and webhook {@link Alerter}s.
+ * <p/>
+ * Every registered {@link Alerter} is fronted by a {@link QueuedAlerter}, so
+ * that {@link Alert}s are delivered asynchronously by a worker thread per
+ * {@link Alerter} and a slow or unresponsive {@link Alerter} neither blocks the
+ * thread that raised the {@link Alert} nor delays delivery to the other
+ * {@link Alerter}s. Duplicate {@link Alert}s are suppressed (according to the
+ * {@link AlertersConfig#getDuplicateSuppression()}) before being queued, and
+ * {@link Alert}s that an {@link Alerter} would ignore due to its severity
+ * filter are never queued for it. The lazy tags of a {@link LazyTagsAlert} are
+ * only produced when the {@link Alert} is delivered to an {@link Alerter}.
+ * <p/>
+ * If {@link AlertDeduplicationConfig deduplication} is configured, repeated
+ * {@link Alert}s are suppressed and rolled up by a {@link DeduplicatingAlerter}
+ * before being dispatched, so that an alert storm costs a single fingerprint
+ * lookup per {@link Alert} rather than work for every {@link Alerter}.
+ */
+public class AlertDispatcher implements Alerter {
+    private static final Logger LOG = LoggerFactory.getLogger(AlertDispatcher.class);
+
+    /**
+     * Identifies duplicate {@link Alert}s by topic, message and metadata tags.
+     * Lazily produced tags (see {@link LazyTagsAlert}) are left out, since
+     * they describe the context of an {@link Alert} rather than the event, and
+     * are costly to produce.
+     */
+    private static final Function<Alert, String> ALERT_IDENTITY = alert -> String
+            .valueOf(Objects.hashCode(alert.getTopic(), alert.getMessage(), LazyTagsAlert.eagerMetadata(alert)));
+
+    /** Lower bound on the time between flushes of suppression windows. */
+    private static final long MIN_FLUSH_INTERVAL_MILLIS = 1000;
+
+    /** Used to periodically flush expired suppression windows. */
+    private final ScheduledExecutorService executor;
+
+    /** Registered {@link Alerter}s (with duplicate suppression). */
+    private final List<Alerter> alerters = new ArrayList<>();
+    /** The delivery queues of the registered {@link Alerter}s. */
+    private final List<QueuedAlerter> queues = new ArrayList<>();
+    /**
+     * Suppresses repeated {@link Alert}s. <code>null</code> if deduplication
+     * is not configured.
+     */
+    private DeduplicatingAlerter deduplicator;
+    /** Periodical flush of the {@link #deduplicator}. */
+    private ScheduledFuture<?> deduplicatorFlush;
+
+    /**
+     * Creates an {@link AlertDispatcher} with no registered {@link Alerter}s.
+     *
+     * @param executor
+     *            Used to periodically flush expired suppression windows when
+     *            {@link Alert} deduplication is configured.
+     */
+    public AlertDispatcher(ScheduledExecutorService executor) {
+        checkArgument(executor != null, "executor cannot be null");
+        this.executor = executor;
+    }
+
+    /**
+     * Dispatches an {@link Alert} to all registered {@link Alerter}s. Never
+     * blocks on alert delivery.
+     */
+    @Subscribe
+    @Override
+    public synchronized void handleAlert(Alert alert) throws RuntimeException {
+        if (this.deduplicator != null) {
+            this.deduplicator.handleAlert(alert);
+        } else {
+            dispatch(alert);
+        }
+    }
+
+    /**
+     * Dispatches an {@link Alert} to all registered {@link Alerter}s.
+     *
+     * @param alert
+     */
+    private synchronized void dispatch(Alert alert) {
+        for (Alerter alerter : this.alerters) {
+            try {
+                alerter.handleAlert(alert);
+            } catch (Exception e) {
+                LOG.warn("failed to dispatch alert to {}: {}", alerter, e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Registers a collection of {@link Alerter}s.
+     *
+     * @param alertersConfig
+     *            Configuration of the {@link Alerter}s to register. May be
+     *            <code>null</code>, in which case no {@link Alerter}s are
+     *            registered.
+     * @param standardMetadata
+     *            Standard metadata tags to include in every {@link Alert} sent
+     *            by the {@link Alerter}s.
+     * @param deliveryConfig
+     *            Controls queueing and delivery of {@link Alert}s to each
+     *            {@link Alerter}.
+     */
+    public synchronized void registerAlerters(AlertersConfig alertersConfig, Map<String, JsonElement> standardMetadata,
+            AlertDeliveryConfig deliveryConfig) {
+        if (alertersConfig == null) {
+            LOG.debug("no alert handlers registered.");
+            return;
+        }
+
+        TimeInterval suppression = alertersConfig.getDuplicateSuppression();
+        int i = 0;
+        for (SmtpAlerterConfig smtpConfig : alertersConfig.getSmtpAlerters()) {
+            register(new SmtpAlerter(smtpConfig, standardMetadata), "smtp-" + i++, smtpConfig.getSeverityFilter(),
+                    suppression, deliveryConfig);
+        }
+        i = 0;
+        for (HttpAlerterConfig httpConfig : alertersConfig.getHttpAlerters()) {
+            register(new HttpAlerter(httpConfig, standardMetadata), "http-" + i++, httpConfig.getSeverityFilter(),
+                    suppression, deliveryConfig);
+        }
+        LOG.info("{} alert handler(s) registered.", this.alerters.size());
+
+        AlertDeduplicationConfig deduplication = deliveryConfig.getDeduplication();
+        if (deduplication != null) {
+            this.deduplicator = new DeduplicatingAlerter(this::dispatch, deduplication);
+            long flushInterval = Math.max(MIN_FLUSH_INTERVAL_MILLIS, deduplication.getWindow().getMillis() / 10);
+            this.deduplicatorFlush = this.executor.scheduleWithFixedDelay(this::flushExpired, flushInterval,
+                    flushInterval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Unregisters all {@link Alerter}s. Summaries of any suppressed repeated
+     * {@link Alert}s are dispatched, and {@link Alert}s already queued are
+     * still delivered by the {@link Alerter}s' worker threads.
+     */
+    public synchronized void unregisterAlerters() {
+        if (this.deduplicator != null) {
+            if (this.deduplicatorFlush != null) {
+                this.deduplicatorFlush.cancel(false);
+            }
+            // don't lose track of suppressed alerts
+            this.deduplicator.flushAll();
+            this.deduplicator = null;
+            this.deduplicatorFlush = null;
+        }
+        for (QueuedAlerter queue : this.queues) {
+            queue.close();
+        }
+        this.queues.clear();
+        this.alerters.clear();
+    }
+
+    /**
+     * Returns <code>true</code> if no {@link Alerter}s are registered.
+     *
+     * @return
+     */
+    public synchronized boolean isEmpty() {
+        return this.alerters.isEmpty();
+    }
+
+    /**
+     * Returns the delivery queues of the registered {@link Alerter}s.
+     *
+     * @return
+     */
+    synchronized List<QueuedAlerter> queues() {
+        return new ArrayList<>(this.queues);
+    }
+
+    private synchronized void flushExpired() {
+        if (this.deduplicator != null) {
+            try {
+                this.deduplicator.flushExpired();
+            } catch (Exception e) {
+                LOG.warn("failed to flush suppressed alerts: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    private void register(Alerter alerter, String name, SeverityFilter severityFilter, TimeInterval suppression,
+            AlertDeliveryConfig deliveryConfig) {
+        QueuedAlerter queue = new QueuedAlerter(alerter, name, deliveryConfig);
+        this.queues.add(queue);
+        Alerter filteringAlerter = new FilteringAlerter(queue, ALERT_IDENTITY, suppression.getTime(),
+                suppression.getUnit());
+        // don't queue (and later render) alerts that the alerter would ignore
+        this.alerters.add(alert -> {
+            if (!severityFilter.shouldSuppress(alert)) {
+                filteringAlerter.handleAlert(alert);
+            }
+        });
+    }
+}
@@ -23,5 +23,10 @@ public enum AlertTopics {
      * Topic for {@link Alert}s related to membership status changes on
      * machines.
      */
-    MEMBERSHIP_STATUS;
+    MEMBERSHIP_STATUS,
+    /**
+     * Topic for {@link Alert}s related to saturated bulkheads (dedicated
+     * thread pools).
+     */
+    BULKHEAD;
 }
@@ -0,0 +1,198 @@
+package com.elastisys.scale.cloudpool.commons.basepool.alerts;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.regex.Pattern;
+
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.elastisys.scale.cloudpool.commons.basepool.config.AlertDeduplicationConfig;
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.elastisys.scale.commons.net.alerter.Alert;
+import com.elastisys.scale.commons.net.alerter.Alerter;
+import com.elastisys.scale.commons.util.time.UtcTime;
+import com.google.common.base.Charsets;
+import com.google.common.hash.Hashing;
+import com.google.gson.JsonElement;
+
+/**
+ * An {@link Alerter} that suppresses repeated {@link Alert}s before passing
+ * them on to a delegate {@link Alerter}, and that rolls up the suppressed
+ * {@link Alert}s into periodical summaries.
+ * <p/>
+ * {@link Alert}s are keyed on a fingerprint of their topic and message. The
+ * first {@link Alert} with a given key is passed on right away and opens a
+ * suppression window for the key. Repeats that arrive while the window is open
+ * are counted but not passed on. When the window closes, a summary of the
+ * repeats (the last repeat, with its message prefixed by the repeat count) is
+ * passed on and a new window is opened. A window that closes without repeats
+ * is forgotten.
+ * <p/>
+ * Windows are closed on calls to {@link #handleAlert(Alert)} and
+ * {@link #flushExpired()}, which is expected to be called periodically.
+ * <p/>
+ * Instances are thread-safe.
+ */
+public class DeduplicatingAlerter implements Alerter {
+    private static final Logger LOG = LoggerFactory.getLogger(DeduplicatingAlerter.class);
+
+    /** Metadata tag that holds the repeat count of a summary {@link Alert}. */
+    public static final String REPEATED_TAG = "repeated";
+    /**
+     * Metadata tag that holds the time of the first repeat summarized by a
+     * summary {@link Alert}.
+     */
+    public static final String REPEATED_SINCE_TAG = "repeatedSince";
+
+    /** The {@link Alerter} to pass (non-suppressed) {@link Alert}s on to. */
+    private final Alerter delegate;
+    /** The length of a suppression window. */
+    private final long windowMillis;
+    /** Severities of {@link Alert}s subject to deduplication. */
+    private final Pattern severityFilter;
+
+    /** Open suppression windows, keyed on {@link Alert} fingerprint. */
+    private final Map<String, SuppressionWindow> windows = new HashMap<>();
+
+    /**
+     * Creates a {@link DeduplicatingAlerter}.
+     *
+     * @param delegate
+     *            The {@link Alerter} to pass (non-suppressed) {@link Alert}s
+     *            on to.
+     * @param config
+     *            Deduplication settings.
+     */
+    public DeduplicatingAlerter(Alerter delegate, AlertDeduplicationConfig config) {
+        checkArgument(delegate != null, "delegate cannot be null");
+        checkArgument(config != null, "config cannot be null");
+        config.validate();
+        this.delegate = delegate;
+        this.windowMillis = config.getWindow().getMillis();
+        this.severityFilter = Pattern.compile(config.getSeverityFilter());
+    }
+
+    @Override
+    public synchronized void handleAlert(Alert alert) throws RuntimeException {
+        flushExpired();
+
+        if (!this.severityFilter.matcher(alert.getSeverity().name()).matches()) {
+            this.delegate.handleAlert(alert);
+            return;
+        }
+
+        String key = fingerprint(alert);
+        SuppressionWindow window = this.windows.get(key);
+        if (window == null) {
+            this.windows.put(key, new SuppressionWindow(UtcTime.now()));
+            this.delegate.handleAlert(alert);
+            return;
+        }
+        window.suppress(alert);
+    }
+
+    /**
+     * Closes all suppression windows that have expired, passing on summaries
+     * of any suppressed {@link Alert}s.
+     */
+    public synchronized void flushExpired() {
+        flush(false);
+    }
+
+    /**
+     * Closes all suppression windows (whether expired or not), passing on
+     * summaries of any suppressed {@link Alert}s. Typically called before the
+     * {@link DeduplicatingAlerter} is discarded.
+     */
+    public synchronized void flushAll() {
+        flush(true);
+    }
+
+    private void flush(boolean closeAll) {
+        DateTime now = UtcTime.now();
+        Iterator<Entry<String, SuppressionWindow>> iterator = this.windows.entrySet().iterator();
+        while (iterator.hasNext()) {
+            SuppressionWindow window = iterator.next().getValue();
+            if (!closeAll && now.isBefore(window.opened.plus(this.windowMillis))) {
+                continue;
+            }
+            if (window.repeats == 0) {
+                iterator.remove();
+                continue;
+            }
+            Alert summary = window.summary();
+            LOG.debug("rolling up {} repeated alert(s): {}", window.repeats, summary.getMessage());
+            if (closeAll) {
+                iterator.remove();
+            } else {
+                window.reopen(now);
+            }
+            this.delegate.handleAlert(summary);
+        }
+    }
+
+    /**
+     * Returns the number of open suppression windows.
+     *
+     * @return
+     */
+    synchronized int openWindows() {
+        return this.windows.size();
+    }
+
+    private static String fingerprint(Alert alert) {
+        return Hashing.murmur3_128().newHasher().putString(alert.getTopic(), Charsets.UTF_8).putByte((byte) 0)
+                .putString(String.valueOf(alert.getMessage()), Charsets.UTF_8).hash().toString();
+    }
+
+    /**
+     * Tracks the {@link Alert}s suppressed for a certain key.
+     */
+    private static class SuppressionWindow {
+        /** Time when the window was opened. */
+        private DateTime opened;
+        /** Number of {@link Alert}s suppressed since the window was opened. */
+        private int repeats;
+        /** The first {@link Alert} suppressed in the window. */
+        private Alert firstRepeat;
+        /** The last {@link Alert} suppressed in the window. */
+        private Alert lastRepeat;
+
+        public SuppressionWindow(DateTime opened) {
+            this.opened = opened;
+        }
+
+        public void suppress(Alert alert) {
+            if (this.repeats == 0) {
+                this.firstRepeat = alert;
+            }
+            this.repeats++;
+            this.lastRepeat = alert;
+        }
+
+        public Alert summary() {
+            Map<String, JsonElement> tags = new HashMap<>();
+            if (this.lastRepeat.getMetadata() != null) {
+                tags.putAll(this.lastRepeat.getMetadata());
+            }
+            tags.put(REPEATED_TAG, JsonUtils.toJson(this.repeats));
+            tags.put(REPEATED_SINCE_TAG, JsonUtils.toJson(this.firstRepeat.getTimestamp().toString()));
+            String message = String.format("[%d repeated] %s", this.repeats, this.lastRepeat.getMessage());
+            return new Alert(this.lastRepeat.getTopic(), this.lastRepeat.getSeverity(), this.lastRepeat.getTimestamp(),
+                    message, this.lastRepeat.getDetails(), tags);
+        }
+
+        public void reopen(DateTime opened) {
+            this.opened = opened;
+            this.repeats = 0;
+            this.firstRepeat = null;
+            this.lastRepeat = null;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.elastisys.scale.cloudpool.commons.basepool.alerts;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.function.Supplier;
+
+import org.joda.time.DateTime;
+
+import com.elastisys.scale.commons.net.alerter.Alert;
+import com.elastisys.scale.commons.net.alerter.AlertSeverity;
+import com.elastisys.scale.commons.net.alerter.Alerter;
+import com.google.gson.JsonElement;
+
+/**
+ * An {@link Alert} with metadata tags that are costly to produce (such as a
+ * listing of all pool members) and therefore are not produced until they are
+ * needed. The lazy tags are produced (once) on the first call to
+ * {@link #getMetadata()} or {@link #resolve()}.
+ * <p/>
+ * Since {@link Alerter}s are free to serialize an {@link Alert} without going
+ * through {@link #getMetadata()}, a {@link LazyTagsAlert} should be
+ * {@link #resolve(Alert) resolved} into a plain {@link Alert} before being
+ * handed to an {@link Alerter} that renders it.
+ */
+public class LazyTagsAlert extends Alert {
+
+    /** Tags that are produced on demand. */
+    private final transient Map<String, Supplier<JsonElement>> lazyTags;
+    /** This {@link Alert} with all tags produced. Set on first resolve. */
+    private transient Alert resolved;
+
+    /**
+     * Creates a {@link LazyTagsAlert}.
+     *
+     * @param topic
+     *            The topic of the {@link Alert}.
+     * @param severity
+     *            The severity of the {@link Alert}.
+     * @param timestamp
+     *            The time of the {@link Alert}.
+     * @param message
+     *            The {@link Alert} message.
+     * @param details
+     *            Details about the {@link Alert}. May be <code>null</code>.
+     * @param tags
+     *            Metadata tags that are known up-front.
+     * @param lazyTags
+     *            Metadata tags that are produced on demand.
+     */
+    public LazyTagsAlert(String topic, AlertSeverity severity, DateTime timestamp, String message, String details,
+            Map<String, JsonElement> tags, Map<String, Supplier<JsonElement>> lazyTags) {
+        super(topic, severity, timestamp, message, details, tags);
+        checkArgument(lazyTags != null, "lazyTags cannot be null");
+        this.lazyTags = lazyTags;
+    }
+
+    /**
+     * Returns all metadata tags, producing the lazy tags if that has not
+     * already been done.
+     */
+    @Override
+    public Map<String, JsonElement> getMetadata() {
+        return resolve().getMetadata();
+    }
+
+    /**
+     * Returns the metadata tags that were known up-front, without producing
+     * any lazy tags.
+     *
+     * @return
+     */
+    public Map<String, JsonElement> getEagerMetadata() {
+        return super.getMetadata();
+    }
+
+    /**
+     * Returns a plain {@link Alert} with all metadata tags produced. The lazy
+     * tags are only produced once.
+     *
+     * @return
+     */
+    public synchronized Alert resolve() {
+        if (this.resolved == null) {
+            Map<String, JsonElement> tags = new HashMap<>();
+            if (super.getMetadata() != null) {
+                tags.putAll(super.getMetadata());
+            }
+            for (Entry<String, Supplier<JsonElement>> lazyTag : this.lazyTags.entrySet()) {
+                tags.put(lazyTag.getKey(), lazyTag.getValue().get());
+            }
+            this.resolved = new Alert(getTopic(), getSeverity(), getTimestamp(), getMessage(), getDetails(),
+                    Collections.unmodifiableMap(tags));
+        }
+        return this.resolved;
+    }
+
+    /**
+     * Returns the metadata tags of an {@link Alert} that are available without
+     * producing any lazy tags.
+     *
+     * @param alert
+     * @return
+     */
+    public static Map<String, JsonElement> eagerMetadata(Alert alert) {
+        if (alert instanceof LazyTagsAlert) {
+            return ((LazyTagsAlert) alert).getEagerMetadata();
+        }
+        return alert.getMetadata();
+    }
+
+    /**
+     * Returns a plain {@link Alert} with all metadata tags produced, if the
+     * given {@link Alert} is a {@link LazyTagsAlert}. Otherwise, the
+     * {@link Alert} is returned as-is.
+     *
+     * @param alert
+     * @return
+     */
+    public static Alert resolve(Alert alert) {
+        if (alert instanceof LazyTagsAlert) {
+            return ((LazyTagsAlert) alert).resolve();
+        }
+        return alert;
+    }
+}
@@ -0,0 +1,88 @@
+package com.elastisys.scale.cloudpool.commons.basepool.alerts;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.elastisys.scale.cloudpool.api.types.Machine;
+import com.elastisys.scale.cloudpool.api.types.MachineState;
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.elastisys.scale.commons.net.alerter.Alert;
+import com.google.common.collect.Lists;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Produces the {@code poolMembers} metadata tag of resize {@link Alert}s.
+ * <p/>
+ * A pool with at most a given number of machines is rendered as a list of all
+ * machines (in {@link Machine#toShortFormat() short format}). A larger pool is
+ * rendered as a summary, with the pool size, the number of machines in each
+ * {@link MachineState} and the ids and states of the first machines only:
+ *
+ * <pre>
+ * {
+ *   "size": 120,
+ *   "machineStates": {"PENDING": 20, "RUNNING": 100},
+ *   "machines": [{"id": "i-1", "machineState": "RUNNING", "serviceState": "IN_SERVICE"}, ...],
+ *   "truncated": 70
+ * }
+ * </pre>
+ */
+public class PoolMembersTag {
+
+    /** Name of the pool members tag. */
+    public static final String TAG = "poolMembers";
+
+    private PoolMembersTag() {
+        throw new UnsupportedOperationException(PoolMembersTag.class.getName() + " is not instantiable.");
+    }
+
+    /**
+     * Renders a list of pool members as a pool members tag.
+     *
+     * @param machines
+     *            The pool members.
+     * @param limit
+     *            The maximum number of machines to list in full.
+     * @return
+     */
+    public static JsonElement render(List<Machine> machines, int limit) {
+        checkArgument(machines != null, "machines cannot be null");
+        checkArgument(limit >= 0, "limit cannot be negative");
+
+        if (machines.size() <= limit) {
+            // exclude metadata field (noisy)
+            return JsonUtils.toJson(Lists.transform(machines, Machine.toShortFormat()));
+        }
+
+        Map<MachineState, Integer> stateCounts = new EnumMap<>(MachineState.class);
+        for (Machine machine : machines) {
+            stateCounts.merge(machine.getMachineState(), 1, Integer::sum);
+        }
+        JsonObject machineStates = new JsonObject();
+        for (Entry<MachineState, Integer> stateCount : stateCounts.entrySet()) {
+            machineStates.addProperty(stateCount.getKey().name(), stateCount.getValue());
+        }
+
+        JsonArray listed = new JsonArray();
+        for (Machine machine : machines.subList(0, limit)) {
+            JsonObject member = new JsonObject();
+            member.addProperty("id", machine.getId());
+            member.addProperty("machineState", String.valueOf(machine.getMachineState()));
+            member.addProperty("serviceState", String.valueOf(machine.getServiceState()));
+            listed.add(member);
+        }
+
+        JsonObject summary = new JsonObject();
+        summary.addProperty("size", machines.size());
+        summary.add("machineStates", machineStates);
+        summary.add("machines", listed);
+        summary.addProperty("truncated", machines.size() - limit);
+        return summary;
+    }
+}
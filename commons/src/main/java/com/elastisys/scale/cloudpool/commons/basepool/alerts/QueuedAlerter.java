@@ -0,0 +1,246 @@
+package com.elastisys.scale.cloudpool.commons.basepool.alerts;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.elastisys.scale.cloudpool.commons.basepool.config.AlertDeliveryConfig;
+import com.elastisys.scale.cloudpool.commons.basepool.config.AlertDeliveryConfig.OverflowPolicy;
+import com.elastisys.scale.commons.net.alerter.Alert;
+import com.elastisys.scale.commons.net.alerter.Alerter;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * An {@link Alerter} that queues {@link Alert}s for asynchronous delivery to a
+ * wrapped {@link Alerter} (the sink), so that a slow sink (such as an
+ * unresponsive mail server) never blocks the thread that raised the
+ * {@link Alert}.
+ * <p/>
+ * {@link Alert}s are held in a bounded queue, which is drained by a dedicated
+ * worker thread. When the queue is full, an {@link Alert} is discarded
+ * according to the {@link OverflowPolicy}. The worker picks up as many queued
+ * {@link Alert}s as the batch size allows and delivers them to the sink on a
+ * separate delivery thread, giving up on any {@link Alert}s of the batch that
+ * have not been delivered when the delivery timeout expires. A delivery thread
+ * that is stuck in the sink is abandoned and replaced. Any lazy tags of a
+ * {@link LazyTagsAlert} are produced on the delivery thread.
+ * <p/>
+ * Instances are thread-safe.
+ */
+public class QueuedAlerter implements Alerter {
+    private static final Logger LOG = LoggerFactory.getLogger(QueuedAlerter.class);
+
+    /** The {@link Alerter} to which {@link Alert}s are delivered. */
+    private final Alerter sink;
+    /** A short name of the sink, used to name threads. */
+    private final String name;
+    /** Controls queueing and delivery. */
+    private final AlertDeliveryConfig config;
+
+    /** {@link Alert}s awaiting delivery. */
+    private final BlockingQueue<Alert> queue;
+    /** Thread that drains the {@link #queue}. */
+    private final Thread worker;
+    /** Executes deliveries to the sink. Replaced on delivery timeouts. */
+    private ExecutorService deliveryExecutor;
+
+    /** Number of {@link Alert}s discarded due to queue overflow. */
+    private final AtomicLong overflowed = new AtomicLong();
+    /** Number of {@link Alert}s discarded due to delivery timeouts. */
+    private final AtomicLong timedOut = new AtomicLong();
+
+    /** Set when the {@link QueuedAlerter} has been closed. */
+    private volatile boolean closed;
+
+    /**
+     * Creates a {@link QueuedAlerter} and starts its worker thread.
+     *
+     * @param sink
+     *            The {@link Alerter} to which {@link Alert}s are delivered.
+     * @param name
+     *            A short name of the sink, used to name threads.
+     * @param config
+     *            Controls queueing and delivery.
+     */
+    public QueuedAlerter(Alerter sink, String name, AlertDeliveryConfig config) {
+        checkArgument(sink != null, "sink cannot be null");
+        checkArgument(name != null, "name cannot be null");
+        checkArgument(config != null, "config cannot be null");
+        config.validate();
+        this.sink = sink;
+        this.name = name;
+        this.config = config;
+
+        this.queue = new ArrayBlockingQueue<>(config.getQueueDepth());
+        this.deliveryExecutor = newDeliveryExecutor();
+        this.worker = new Thread(this::drainQueue, "alert-worker-" + name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    /**
+     * Queues an {@link Alert} for delivery. Never blocks.
+     */
+    @Override
+    public void handleAlert(Alert alert) throws RuntimeException {
+        if (this.closed) {
+            LOG.warn("{}: discarding alert, alerter closed: {}", this.name, alert);
+            return;
+        }
+        if (this.queue.offer(alert)) {
+            return;
+        }
+        switch (this.config.getOverflowPolicy()) {
+        case DROP_OLDEST:
+            // note: may need several attempts if other threads are offering
+            while (!this.queue.offer(alert)) {
+                Alert dropped = this.queue.poll();
+                if (dropped != null) {
+                    overflow(dropped);
+                }
+            }
+            break;
+        case DROP_NEWEST:
+        default:
+            overflow(alert);
+            break;
+        }
+    }
+
+    /**
+     * Stops accepting {@link Alert}s. {@link Alert}s that have already been
+     * queued are delivered before the worker thread exits.
+     */
+    public void close() {
+        this.closed = true;
+        this.worker.interrupt();
+    }
+
+    /**
+     * Returns the number of {@link Alert}s awaiting delivery.
+     *
+     * @return
+     */
+    public int getQueueSize() {
+        return this.queue.size();
+    }
+
+    /**
+     * Returns the number of {@link Alert}s discarded due to queue overflow.
+     *
+     * @return
+     */
+    public long getOverflowCount() {
+        return this.overflowed.get();
+    }
+
+    /**
+     * Returns the number of {@link Alert}s discarded due to delivery timeouts.
+     *
+     * @return
+     */
+    public long getTimeoutCount() {
+        return this.timedOut.get();
+    }
+
+    private void overflow(Alert dropped) {
+        long count = this.overflowed.incrementAndGet();
+        LOG.warn("{}: alert queue full, discarding alert ({} discarded so far): {}", this.name, count, dropped);
+    }
+
+    private void drainQueue() {
+        while (true) {
+            List<Alert> batch = new ArrayList<>(this.config.getBatchSize());
+            try {
+                if (this.closed) {
+                    // deliver what remains, without waiting for more
+                    Alert alert = this.queue.poll();
+                    if (alert == null) {
+                        break;
+                    }
+                    batch.add(alert);
+                } else {
+                    batch.add(this.queue.take());
+                }
+            } catch (InterruptedException e) {
+                // closed: loop around to deliver what remains
+                continue;
+            }
+            this.queue.drainTo(batch, this.config.getBatchSize() - 1);
+            deliver(batch);
+        }
+        this.deliveryExecutor.shutdown();
+        LOG.debug("{}: alert worker stopped", this.name);
+    }
+
+    /**
+     * Delivers a batch of {@link Alert}s to the sink, giving up on any
+     * {@link Alert}s that have not been delivered within the delivery timeout.
+     *
+     * @param batch
+     */
+    private void deliver(List<Alert> batch) {
+        AtomicLong delivered = new AtomicLong();
+        Future<?> delivery = this.deliveryExecutor.submit(() -> {
+            for (Alert alert : batch) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+                try {
+                    this.sink.handleAlert(LazyTagsAlert.resolve(alert));
+                } catch (Exception e) {
+                    LOG.warn("{}: failed to deliver alert: {}", this.name, e.getMessage(), e);
+                }
+                delivered.incrementAndGet();
+            }
+        });
+
+        long timeoutMillis = this.config.getDeliveryTimeout().getMillis();
+        try {
+            delivery.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            long discarded = batch.size() - delivered.get();
+            delivery.cancel(true);
+            this.timedOut.addAndGet(discarded);
+            LOG.warn("{}: alert delivery timed out after {} ms, discarding {} alert(s)", this.name, timeoutMillis,
+                    discarded);
+            // the delivery thread may be stuck in the sink: replace it
+            this.deliveryExecutor.shutdownNow();
+            this.deliveryExecutor = newDeliveryExecutor();
+        } catch (InterruptedException e) {
+            // closed while delivering: let the delivery complete
+            Thread.currentThread().interrupt();
+            waitForDelivery(delivery, timeoutMillis);
+        } catch (ExecutionException e) {
+            LOG.warn("{}: alert delivery failed: {}", this.name, e.getMessage(), e);
+        }
+    }
+
+    private void waitForDelivery(Future<?> delivery, long timeoutMillis) {
+        // clear interrupt flag to be able to wait
+        Thread.interrupted();
+        try {
+            delivery.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            delivery.cancel(true);
+        }
+    }
+
+    private ExecutorService newDeliveryExecutor() {
+        return Executors.newSingleThreadExecutor(
+                new ThreadFactoryBuilder().setNameFormat("alert-delivery-" + this.name + "-%d").setDaemon(true).build());
+    }
+}
@@ -0,0 +1,176 @@
+package com.elastisys.scale.cloudpool.commons.basepool.bulkhead;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * A {@link ScheduledThreadPoolExecutor} dedicated to one class of work (such
+ * as pool refreshes or pool updates), which isolates that work from other work
+ * classes: a hung task can only hold up tasks of its own class.
+ * <p/>
+ * To keep a stalled work class from piling up tasks, the number of tasks that
+ * may wait in the executor's queue (including delayed and periodical tasks that
+ * are waiting for their next execution) is limited. A task submitted to a full
+ * queue is rejected with a {@link RejectedExecutionException}. The limit is
+ * approximate under concurrent submission. Cancelled tasks are removed from
+ * the queue right away, so that they do not take up room until their delay
+ * has passed.
+ * <p/>
+ * The {@link #getSaturation()} and {@link #getRejectedCount()} metrics tell how
+ * close the executor is to its limit.
+ */
+public class BulkheadExecutor extends ScheduledThreadPoolExecutor {
+    private static final Logger LOG = LoggerFactory.getLogger(BulkheadExecutor.class);
+
+    /** The name of the work class. Used in log messages. */
+    private final String name;
+    /** The maximum number of tasks that may wait in the queue. */
+    private volatile int queueLimit;
+    /** The number of tasks rejected due to a full queue. */
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * Creates a {@link BulkheadExecutor} with daemon threads named after the
+     * work class.
+     *
+     * @param name
+     *            The name of the work class. Used to name threads and in log
+     *            messages.
+     * @param threads
+     *            The number of threads.
+     * @param queueLimit
+     *            The maximum number of tasks that may wait in the queue.
+     */
+    public BulkheadExecutor(String name, int threads, int queueLimit) {
+        this(name, threads, queueLimit,
+                new ThreadFactoryBuilder().setNameFormat(name.replace("%", "%%") + "-%d").setDaemon(true).build());
+    }
+
+    /**
+     * Creates a {@link BulkheadExecutor}.
+     *
+     * @param name
+     *            The name of the work class. Used in log messages.
+     * @param threads
+     *            The number of threads.
+     * @param queueLimit
+     *            The maximum number of tasks that may wait in the queue.
+     * @param threadFactory
+     *            Creates the executor's threads.
+     */
+    public BulkheadExecutor(String name, int threads, int queueLimit, ThreadFactory threadFactory) {
+        super(threads, threadFactory);
+        checkArgument(name != null, "bulkhead: name cannot be null");
+        checkArgument(threads > 0, "bulkhead %s: threads must be positive", name);
+        checkArgument(queueLimit > 0, "bulkhead %s: queueLimit must be positive", name);
+        this.name = name;
+        this.queueLimit = queueLimit;
+        setRemoveOnCancelPolicy(true);
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        admit();
+        return super.schedule(command, delay, unit);
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        admit();
+        return super.schedule(callable, delay, unit);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        admit();
+        return super.scheduleAtFixedRate(command, initialDelay, period, unit);
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        admit();
+        return super.scheduleWithFixedDelay(command, initialDelay, delay, unit);
+    }
+
+    /**
+     * Changes the number of threads and the queue limit. Tasks already queued
+     * are kept, even if they exceed the new queue limit.
+     *
+     * @param threads
+     *            The number of threads.
+     * @param queueLimit
+     *            The maximum number of tasks that may wait in the queue.
+     */
+    public void resize(int threads, int queueLimit) {
+        checkArgument(threads > 0, "bulkhead %s: threads must be positive", this.name);
+        checkArgument(queueLimit > 0, "bulkhead %s: queueLimit must be positive", this.name);
+        setCorePoolSize(threads);
+        this.queueLimit = queueLimit;
+    }
+
+    /**
+     * The name of the work class.
+     *
+     * @return
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * The maximum number of tasks that may wait in the queue.
+     *
+     * @return
+     */
+    public int getQueueLimit() {
+        return this.queueLimit;
+    }
+
+    /**
+     * Returns the fraction of the queue limit that is currently in use, where
+     * 1.0 means that new tasks are rejected.
+     *
+     * @return
+     */
+    public double getSaturation() {
+        return Math.min(1.0, (double) getQueue().size() / this.queueLimit);
+    }
+
+    /**
+     * Returns the number of tasks rejected due to a full queue since the
+     * executor was created.
+     *
+     * @return
+     */
+    public long getRejectedCount() {
+        return this.rejected.get();
+    }
+
+    /**
+     * Rejects a new task if the queue is full.
+     *
+     * @throws RejectedExecutionException
+     */
+    private void admit() throws RejectedExecutionException {
+        int queued = getQueue().size();
+        if (queued >= this.queueLimit) {
+            long rejections = this.rejected.incrementAndGet();
+            String message = String.format("%s bulkhead saturated: %d task(s) queued (%d rejected so far)", this.name,
+                    queued, rejections);
+            LOG.warn(message);
+            throw new RejectedExecutionException(message);
+        }
+    }
+}
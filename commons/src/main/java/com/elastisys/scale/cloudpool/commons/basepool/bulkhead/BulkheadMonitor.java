@@ -0,0 +1,124 @@
+package com.elastisys.scale.cloudpool.commons.basepool.bulkhead;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static java.lang.String.format;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.elastisys.scale.cloudpool.commons.basepool.alerts.AlertTopics;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+import com.elastisys.scale.commons.net.alerter.Alert;
+import com.elastisys.scale.commons.net.alerter.AlertBuilder;
+import com.elastisys.scale.commons.net.alerter.AlertSeverity;
+import com.google.common.eventbus.EventBus;
+
+/**
+ * Periodically reports the {@link BulkheadExecutor#getSaturation()} and
+ * {@link BulkheadExecutor#getRejectedCount()} metrics of a set of
+ * {@link BulkheadExecutor}s.
+ * <p/>
+ * On each run, the metrics of every bulkhead are logged. An {@link Alert} on
+ * the {@link AlertTopics#BULKHEAD} topic is posted when a bulkhead's saturation
+ * reaches the saturation threshold (but not again until it has dropped below
+ * the threshold) and when a bulkhead has rejected tasks since the previous
+ * run.
+ */
+public class BulkheadMonitor implements Runnable {
+    private static final Logger LOG = LoggerFactory.getLogger(BulkheadMonitor.class);
+
+    /** The default interval between runs. */
+    public static final TimeInterval DEFAULT_INTERVAL = new TimeInterval(1L, TimeUnit.MINUTES);
+    /** The default saturation at which a bulkhead is alerted on. */
+    public static final double DEFAULT_SATURATION_THRESHOLD = 0.8;
+
+    /** The monitored bulkheads. */
+    private final List<BulkheadExecutor> bulkheads;
+    /** {@link EventBus} on which to post {@link Alert}s. */
+    private final EventBus eventBus;
+    /** The saturation at which a bulkhead is alerted on. */
+    private final double saturationThreshold;
+
+    /** The rejected count of each bulkhead as of the previous run. */
+    private final Map<String, Long> lastRejectedCounts = new HashMap<>();
+    /** The bulkheads that were above the saturation threshold on last run. */
+    private final Set<String> saturated = new HashSet<>();
+
+    /**
+     * Creates a {@link BulkheadMonitor} that alerts at the
+     * {@link #DEFAULT_SATURATION_THRESHOLD}.
+     *
+     * @param bulkheads
+     *            The bulkheads to monitor.
+     * @param eventBus
+     *            {@link EventBus} on which to post {@link Alert}s.
+     */
+    public BulkheadMonitor(List<BulkheadExecutor> bulkheads, EventBus eventBus) {
+        this(bulkheads, eventBus, DEFAULT_SATURATION_THRESHOLD);
+    }
+
+    /**
+     * Creates a {@link BulkheadMonitor}.
+     *
+     * @param bulkheads
+     *            The bulkheads to monitor.
+     * @param eventBus
+     *            {@link EventBus} on which to post {@link Alert}s.
+     * @param saturationThreshold
+     *            The saturation at which a bulkhead is alerted on. Must be in
+     *            the range {@code (0, 1]}.
+     */
+    public BulkheadMonitor(List<BulkheadExecutor> bulkheads, EventBus eventBus, double saturationThreshold) {
+        checkArgument(bulkheads != null, "bulkheads cannot be null");
+        checkArgument(eventBus != null, "eventBus cannot be null");
+        checkArgument(saturationThreshold > 0 && saturationThreshold <= 1.0,
+                "saturationThreshold must be in range (0, 1]");
+        this.bulkheads = new ArrayList<>(bulkheads);
+        this.eventBus = eventBus;
+        this.saturationThreshold = saturationThreshold;
+    }
+
+    @Override
+    public synchronized void run() {
+        for (BulkheadExecutor bulkhead : this.bulkheads) {
+            try {
+                check(bulkhead);
+            } catch (Exception e) {
+                LOG.warn("failed to check {} bulkhead: {}", bulkhead.getName(), e.getMessage(), e);
+            }
+        }
+    }
+
+    private void check(BulkheadExecutor bulkhead) {
+        String name = bulkhead.getName();
+        double saturation = bulkhead.getSaturation();
+        long rejectedCount = bulkhead.getRejectedCount();
+        Long lastRejectedCount = this.lastRejectedCounts.put(name, rejectedCount);
+        long rejected = rejectedCount - (lastRejectedCount != null ? lastRejectedCount : 0L);
+        LOG.debug("{} bulkhead: {} active, {} queued ({}% saturated), {} rejected", name, bulkhead.getActiveCount(),
+                bulkhead.getQueue().size(), Math.round(saturation * 100), rejectedCount);
+
+        boolean newlySaturated = false;
+        if (saturation >= this.saturationThreshold) {
+            newlySaturated = this.saturated.add(name);
+        } else {
+            this.saturated.remove(name);
+        }
+        if (newlySaturated || rejected > 0) {
+            String message = format("%s bulkhead at %d%% saturation (%d of %d queue slots in use): "
+                    + "%d task(s) rejected since last check", name, Math.round(saturation * 100),
+                    bulkhead.getQueue().size(), bulkhead.getQueueLimit(), rejected);
+            LOG.warn(message);
+            this.eventBus.post(AlertBuilder.create().topic(AlertTopics.BULKHEAD.name()).severity(AlertSeverity.WARN)
+                    .message(message).build());
+        }
+    }
+}
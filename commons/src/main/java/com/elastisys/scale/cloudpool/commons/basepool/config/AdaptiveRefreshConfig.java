@@ -0,0 +1,112 @@
+package com.elastisys.scale.cloudpool.commons.basepool.config;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Optional;
+
+import com.elastisys.scale.cloudpool.api.types.MachinePool;
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+import com.google.common.base.Objects;
+
+/**
+ * Controls adaptive refreshing of the cloud pool's view of the
+ * {@link MachinePool}. The pool is refreshed at the {@link #minInterval} while
+ * it is in motion (machines are being requested, started or terminated, the
+ * pool size differs from the desired size, or the last refresh observed a
+ * change). While the pool is stable, the refresh interval grows by the
+ * {@link #backoffFactor} on every refresh, up to the {@link #maxInterval}.
+ */
+public class AdaptiveRefreshConfig {
+
+    /** Default factor by which to grow the refresh interval. */
+    public static final double DEFAULT_BACKOFF_FACTOR = 2.0;
+
+    /** Refresh interval to use while the pool is in motion. */
+    private final TimeInterval minInterval;
+    /** Upper bound on the refresh interval while the pool is stable. */
+    private final TimeInterval maxInterval;
+    /**
+     * Factor by which to grow the refresh interval on every refresh that finds
+     * the pool stable. May be <code>null</code>. Default: 2.0.
+     */
+    private final Double backoffFactor;
+
+    /**
+     * Creates an {@link AdaptiveRefreshConfig}.
+     *
+     * @param minInterval
+     *            Refresh interval to use while the pool is in motion.
+     * @param maxInterval
+     *            Upper bound on the refresh interval while the pool is stable.
+     * @param backoffFactor
+     *            Factor by which to grow the refresh interval on every refresh
+     *            that finds the pool stable. May be <code>null</code>.
+     *            Default: 2.0.
+     */
+    public AdaptiveRefreshConfig(TimeInterval minInterval, TimeInterval maxInterval, Double backoffFactor) {
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval;
+        this.backoffFactor = backoffFactor;
+    }
+
+    /**
+     * Refresh interval to use while the pool is in motion.
+     *
+     * @return
+     */
+    public TimeInterval getMinInterval() {
+        return this.minInterval;
+    }
+
+    /**
+     * Upper bound on the refresh interval while the pool is stable.
+     *
+     * @return
+     */
+    public TimeInterval getMaxInterval() {
+        return this.maxInterval;
+    }
+
+    /**
+     * Factor by which to grow the refresh interval on every refresh that finds
+     * the pool stable.
+     *
+     * @return
+     */
+    public double getBackoffFactor() {
+        return Optional.ofNullable(this.backoffFactor).orElse(DEFAULT_BACKOFF_FACTOR);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(this.minInterval, this.maxInterval, getBackoffFactor());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof AdaptiveRefreshConfig) {
+            AdaptiveRefreshConfig that = (AdaptiveRefreshConfig) obj;
+            return Objects.equal(this.minInterval, that.minInterval)
+                    && Objects.equal(this.maxInterval, that.maxInterval)
+                    && Objects.equal(getBackoffFactor(), that.getBackoffFactor());
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toPrettyString(JsonUtils.toJson(this));
+    }
+
+    public void validate() throws IllegalArgumentException {
+        checkArgument(this.minInterval != null, "adaptiveRefresh: missing minInterval");
+        checkArgument(this.maxInterval != null, "adaptiveRefresh: missing maxInterval");
+        this.minInterval.validate();
+        this.maxInterval.validate();
+        checkArgument(this.minInterval.getMillis() > 0, "adaptiveRefresh: minInterval must be positive");
+        checkArgument(this.minInterval.getMillis() <= this.maxInterval.getMillis(),
+                "adaptiveRefresh: maxInterval cannot be shorter than minInterval");
+        checkArgument(getBackoffFactor() >= 1.0, "adaptiveRefresh: backoffFactor must be >= 1.0");
+    }
+}
@@ -0,0 +1,104 @@
+package com.elastisys.scale.cloudpool.commons.basepool.config;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+import com.elastisys.scale.commons.net.alerter.Alert;
+import com.google.common.base.Objects;
+
+/**
+ * Controls suppression of repeated {@link Alert}s, such as the error
+ * {@link Alert} raised on every pool update while a cloud API is unreachable.
+ * <p/>
+ * {@link Alert}s with the same topic and message are considered repeats of
+ * each other. The first {@link Alert} is sent right away and opens a
+ * suppression window, during which any repeats are held back and counted. When
+ * the window closes, a single summary of the repeats is sent (and a new window
+ * is opened, so that a lasting alert storm results in one {@link Alert} per
+ * window).
+ */
+public class AlertDeduplicationConfig {
+
+    /** Default regular expression of the severities to deduplicate. */
+    public static final String DEFAULT_SEVERITY_FILTER = "WARN|ERROR|FATAL";
+
+    /** The length of a suppression window. */
+    private final TimeInterval window;
+    /**
+     * A regular expression that the severity of an {@link Alert} must match
+     * for the {@link Alert} to be deduplicated. Other {@link Alert}s are
+     * always sent. May be <code>null</code>. Default: {@code WARN|ERROR|FATAL}.
+     */
+    private final String severityFilter;
+
+    /**
+     * Creates an {@link AlertDeduplicationConfig}.
+     *
+     * @param window
+     *            The length of a suppression window.
+     * @param severityFilter
+     *            A regular expression that the severity of an {@link Alert}
+     *            must match for the {@link Alert} to be deduplicated. Other
+     *            {@link Alert}s are always sent. May be <code>null</code>.
+     *            Default: {@code WARN|ERROR|FATAL}.
+     */
+    public AlertDeduplicationConfig(TimeInterval window, String severityFilter) {
+        this.window = window;
+        this.severityFilter = severityFilter;
+    }
+
+    /**
+     * The length of a suppression window.
+     *
+     * @return
+     */
+    public TimeInterval getWindow() {
+        return this.window;
+    }
+
+    /**
+     * A regular expression that the severity of an {@link Alert} must match
+     * for the {@link Alert} to be deduplicated.
+     *
+     * @return
+     */
+    public String getSeverityFilter() {
+        return Optional.ofNullable(this.severityFilter).orElse(DEFAULT_SEVERITY_FILTER);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(this.window, getSeverityFilter());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof AlertDeduplicationConfig) {
+            AlertDeduplicationConfig that = (AlertDeduplicationConfig) obj;
+            return Objects.equal(this.window, that.window)
+                    && Objects.equal(getSeverityFilter(), that.getSeverityFilter());
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toPrettyString(JsonUtils.toJson(this));
+    }
+
+    public void validate() throws IllegalArgumentException {
+        checkArgument(this.window != null, "deduplication: missing window");
+        this.window.validate();
+        checkArgument(this.window.getMillis() > 0, "deduplication: window must be positive");
+        try {
+            Pattern.compile(getSeverityFilter());
+        } catch (PatternSyntaxException e) {
+            throw new IllegalArgumentException("deduplication: illegal severityFilter: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package com.elastisys.scale.cloudpool.commons.basepool.config;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+import com.elastisys.scale.commons.net.alerter.Alert;
+import com.elastisys.scale.commons.net.alerter.Alerter;
+import com.google.common.base.Objects;
+
+/**
+ * Controls how {@link Alert}s are delivered to the configured {@link Alerter}s
+ * (email and webhook alerters). Every alerter is fed by a bounded queue, which
+ * is drained by a dedicated worker thread, so that alert delivery never blocks
+ * the thread that raised the {@link Alert}.
+ */
+public class AlertDeliveryConfig {
+
+    /** Default maximum number of {@link Alert}s queued per alerter. */
+    public static final int DEFAULT_QUEUE_DEPTH = 100;
+    /** Default policy for {@link Alert}s that do not fit in a full queue. */
+    public static final OverflowPolicy DEFAULT_OVERFLOW_POLICY = OverflowPolicy.DROP_OLDEST;
+    /** Default maximum number of {@link Alert}s delivered as one batch. */
+    public static final int DEFAULT_BATCH_SIZE = 10;
+    /** Default maximum number of machines listed in a pool members tag. */
+    public static final int DEFAULT_POOL_MEMBERS_TAG_LIMIT = 50;
+    /** Default maximum time to spend delivering a batch of {@link Alert}s. */
+    public static final TimeInterval DEFAULT_DELIVERY_TIMEOUT = new TimeInterval(30L, TimeUnit.SECONDS);
+
+    /**
+     * Determines which {@link Alert} to discard when an alerter's queue is
+     * full.
+     */
+    public static enum OverflowPolicy {
+        /** Discard the oldest queued {@link Alert} to make room. */
+        DROP_OLDEST,
+        /** Discard the {@link Alert} that did not fit. */
+        DROP_NEWEST
+    }
+
+    /**
+     * The maximum number of {@link Alert}s queued for delivery per alerter.
+     * May be <code>null</code>. Default: 100.
+     */
+    private final Integer queueDepth;
+    /**
+     * Determines which {@link Alert} to discard when an alerter's queue is
+     * full. May be <code>null</code>. Default: {@code DROP_OLDEST}.
+     */
+    private final OverflowPolicy overflowPolicy;
+    /**
+     * The maximum number of queued {@link Alert}s that a worker picks up and
+     * delivers in one go. May be <code>null</code>. Default: 10.
+     */
+    private final Integer batchSize;
+    /**
+     * The maximum time to spend delivering a batch of {@link Alert}s to an
+     * alerter. Alerts that have not been delivered when the timeout expires are
+     * discarded. May be <code>null</code>. Default: 30 seconds.
+     */
+    private final TimeInterval deliveryTimeout;
+    /**
+     * Controls suppression of repeated {@link Alert}s. May be
+     * <code>null</code>, in which case repeated {@link Alert}s are only
+     * subject to the duplicate suppression of the alerters.
+     */
+    private final AlertDeduplicationConfig deduplication;
+    /**
+     * The maximum number of machines to list in the {@code poolMembers} tag of
+     * resize {@link Alert}s. For larger pools, the tag only holds the ids and
+     * states of the first machines, along with a summary of the pool. May be
+     * <code>null</code>. Default: 50.
+     */
+    private final Integer poolMembersTagLimit;
+
+    /**
+     * Creates an {@link AlertDeliveryConfig} without {@link Alert}
+     * deduplication.
+     *
+     * @param queueDepth
+     *            The maximum number of {@link Alert}s queued for delivery per
+     *            alerter. May be <code>null</code>. Default: 100.
+     * @param overflowPolicy
+     *            Determines which {@link Alert} to discard when an alerter's
+     *            queue is full. May be <code>null</code>. Default:
+     *            {@code DROP_OLDEST}.
+     * @param batchSize
+     *            The maximum number of queued {@link Alert}s that a worker
+     *            picks up and delivers in one go. May be <code>null</code>.
+     *            Default: 10.
+     * @param deliveryTimeout
+     *            The maximum time to spend delivering a batch of {@link Alert}s
+     *            to an alerter. May be <code>null</code>. Default: 30 seconds.
+     */
+    public AlertDeliveryConfig(Integer queueDepth, OverflowPolicy overflowPolicy, Integer batchSize,
+            TimeInterval deliveryTimeout) {
+        this(queueDepth, overflowPolicy, batchSize, deliveryTimeout, null, null);
+    }
+
+    /**
+     * Creates an {@link AlertDeliveryConfig}.
+     *
+     * @param queueDepth
+     *            The maximum number of {@link Alert}s queued for delivery per
+     *            alerter. May be <code>null</code>. Default: 100.
+     * @param overflowPolicy
+     *            Determines which {@link Alert} to discard when an alerter's
+     *            queue is full. May be <code>null</code>. Default:
+     *            {@code DROP_OLDEST}.
+     * @param batchSize
+     *            The maximum number of queued {@link Alert}s that a worker
+     *            picks up and delivers in one go. May be <code>null</code>.
+     *            Default: 10.
+     * @param deliveryTimeout
+     *            The maximum time to spend delivering a batch of {@link Alert}s
+     *            to an alerter. May be <code>null</code>. Default: 30 seconds.
+     * @param deduplication
+     *            Controls suppression of repeated {@link Alert}s. May be
+     *            <code>null</code>.
+     */
+    public AlertDeliveryConfig(Integer queueDepth, OverflowPolicy overflowPolicy, Integer batchSize,
+            TimeInterval deliveryTimeout, AlertDeduplicationConfig deduplication) {
+        this(queueDepth, overflowPolicy, batchSize, deliveryTimeout, deduplication, null);
+    }
+
+    /**
+     * Creates an {@link AlertDeliveryConfig}.
+     *
+     * @param queueDepth
+     *            The maximum number of {@link Alert}s queued for delivery per
+     *            alerter. May be <code>null</code>. Default: 100.
+     * @param overflowPolicy
+     *            Determines which {@link Alert} to discard when an alerter's
+     *            queue is full. May be <code>null</code>. Default:
+     *            {@code DROP_OLDEST}.
+     * @param batchSize
+     *            The maximum number of queued {@link Alert}s that a worker
+     *            picks up and delivers in one go. May be <code>null</code>.
+     *            Default: 10.
+     * @param deliveryTimeout
+     *            The maximum time to spend delivering a batch of {@link Alert}s
+     *            to an alerter. May be <code>null</code>. Default: 30 seconds.
+     * @param deduplication
+     *            Controls suppression of repeated {@link Alert}s. May be
+     *            <code>null</code>.
+     * @param poolMembersTagLimit
+     *            The maximum number of machines to list in the
+     *            {@code poolMembers} tag of resize {@link Alert}s. May be
+     *            <code>null</code>. Default: 50.
+     */
+    public AlertDeliveryConfig(Integer queueDepth, OverflowPolicy overflowPolicy, Integer batchSize,
+            TimeInterval deliveryTimeout, AlertDeduplicationConfig deduplication, Integer poolMembersTagLimit) {
+        this.queueDepth = queueDepth;
+        this.overflowPolicy = overflowPolicy;
+        this.batchSize = batchSize;
+        this.deliveryTimeout = deliveryTimeout;
+        this.deduplication = deduplication;
+        this.poolMembersTagLimit = poolMembersTagLimit;
+    }
+
+    /**
+     * The maximum number of {@link Alert}s queued for delivery per alerter.
+     *
+     * @return
+     */
+    public int getQueueDepth() {
+        return Optional.ofNullable(this.queueDepth).orElse(DEFAULT_QUEUE_DEPTH);
+    }
+
+    /**
+     * Determines which {@link Alert} to discard when an alerter's queue is
+     * full.
+     *
+     * @return
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        return Optional.ofNullable(this.overflowPolicy).orElse(DEFAULT_OVERFLOW_POLICY);
+    }
+
+    /**
+     * The maximum number of queued {@link Alert}s that a worker picks up and
+     * delivers in one go.
+     *
+     * @return
+     */
+    public int getBatchSize() {
+        return Optional.ofNullable(this.batchSize).orElse(DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * The maximum time to spend delivering a batch of {@link Alert}s to an
+     * alerter.
+     *
+     * @return
+     */
+    public TimeInterval getDeliveryTimeout() {
+        return Optional.ofNullable(this.deliveryTimeout).orElse(DEFAULT_DELIVERY_TIMEOUT);
+    }
+
+    /**
+     * Controls suppression of repeated {@link Alert}s. May be
+     * <code>null</code>.
+     *
+     * @return
+     */
+    public AlertDeduplicationConfig getDeduplication() {
+        return this.deduplication;
+    }
+
+    /**
+     * The maximum number of machines to list in the {@code poolMembers} tag of
+     * resize {@link Alert}s.
+     *
+     * @return
+     */
+    public int getPoolMembersTagLimit() {
+        return Optional.ofNullable(this.poolMembersTagLimit).orElse(DEFAULT_POOL_MEMBERS_TAG_LIMIT);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getQueueDepth(), getOverflowPolicy(), getBatchSize(), getDeliveryTimeout(),
+                this.deduplication, getPoolMembersTagLimit());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof AlertDeliveryConfig) {
+            AlertDeliveryConfig that = (AlertDeliveryConfig) obj;
+            return Objects.equal(getQueueDepth(), that.getQueueDepth())
+                    && Objects.equal(getOverflowPolicy(), that.getOverflowPolicy())
+                    && Objects.equal(getBatchSize(), that.getBatchSize())
+                    && Objects.equal(getDeliveryTimeout(), that.getDeliveryTimeout())
+                    && Objects.equal(this.deduplication, that.deduplication)
+                    && Objects.equal(getPoolMembersTagLimit(), that.getPoolMembersTagLimit());
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toPrettyString(JsonUtils.toJson(this));
+    }
+
+    public void validate() throws IllegalArgumentException {
+        checkArgument(getQueueDepth() > 0, "alertDelivery: queueDepth must be positive");
+        checkArgument(getBatchSize() > 0, "alertDelivery: batchSize must be positive");
+        getDeliveryTimeout().validate();
+        checkArgument(getDeliveryTimeout().getMillis() > 0, "alertDelivery: deliveryTimeout must be positive");
+        checkArgument(getPoolMembersTagLimit() >= 0, "alertDelivery: poolMembersTagLimit cannot be negative");
+        if (this.deduplication != null) {
+            this.deduplication.validate();
+        }
+    }
+}
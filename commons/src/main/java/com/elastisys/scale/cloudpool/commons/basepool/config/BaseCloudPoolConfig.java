@@ -42,6 +42,13 @@ public class BaseCloudPoolConfig {
     public static final PoolUpdateConfig DEFAULT_POOL_UPDATE_CONFIG = new PoolUpdateConfig(
             new TimeInterval(60L, TimeUnit.SECONDS));
 
+    /** Default {@link AlertDeliveryConfig}. */
+    public static final AlertDeliveryConfig DEFAULT_ALERT_DELIVERY_CONFIG = new AlertDeliveryConfig(null, null, null,
+            null);
+
+    /** Default {@link BulkheadsConfig}. */
+    public static final BulkheadsConfig DEFAULT_BULKHEADS_CONFIG = new BulkheadsConfig(null, null);
+
     /** Default scale-in policy is to immediately terminate newest instance. */
     public static final ScaleInConfig DEFAULT_SCALE_IN_CONFIG = new ScaleInConfig(VictimSelectionPolicy.NEWEST_INSTANCE,
             0);
@@ -81,6 +88,13 @@ public class BaseCloudPoolConfig {
      */
     private final AlertersConfig alerts;
 
+    /**
+     * Controls how {@link Alert}s are queued and delivered to the configured
+     * {@link #alerts} senders. May be <code>null</code>, in which case default
+     * settings are used.
+     */
+    private final AlertDeliveryConfig alertDelivery;
+
     /**
      * Controls the {@link CloudPool}'s behavior with respect to how often to
      * attempt fetching of {@link MachinePool} and for how long to mask cloud
@@ -93,6 +107,13 @@ public class BaseCloudPoolConfig {
      */
     private final PoolUpdateConfig poolUpdate;
 
+    /**
+     * Sizes the executors that isolate the cloud pool's classes of work from
+     * each other. May be <code>null</code>, in which case default settings are
+     * used.
+     */
+    private final BulkheadsConfig bulkheads;
+
     /**
      * Creates a {@link BaseCloudPoolConfig}.
      *
@@ -132,6 +153,82 @@ public class BaseCloudPoolConfig {
     public BaseCloudPoolConfig(String name, JsonObject cloudApiSettings, JsonObject provisioningTemplate,
             ScaleInConfig scaleInConfig, AlertersConfig alertSettings, PoolFetchConfig poolFetchConfig,
             PoolUpdateConfig poolUpdatePeriodConfig) {
+        this(name, cloudApiSettings, provisioningTemplate, scaleInConfig, alertSettings, poolFetchConfig,
+                poolUpdatePeriodConfig, null);
+    }
+
+    /**
+     * Creates a {@link BaseCloudPoolConfig}.
+     *
+     * @param name
+     *            The logical name of the managed group of machines. Required.
+     * @param cloudApiSettings
+     *            API access credentials and settings required to communicate
+     *            with the targeted cloud. Required.
+     * @param provisioningTemplate
+     *            Describes how to provision additional servers (on scale-out).
+     *            Required.
+     * @param scaleInConfig
+     *            Configuration that describes how to shrink the cloud pool. May
+     *            be <code>null</code>.
+     * @param alertSettings
+     *            Configuration that describes how to send alerts. May be
+     *            <code>null</code>.
+     * @param poolFetchConfig
+     *            Controls the {@link CloudPool}'s behavior with respect to how
+     *            often to attempt fetching of {@link MachinePool} and for how
+     *            long to mask cloud API errors. May be <code>null</code>.
+     * @param poolUpdatePeriodConfig
+     *            The time interval (in seconds) between periodical pool size
+     *            updates. May be <code>null</code>. Default: 60 seconds.
+     * @param alertDelivery
+     *            Controls how alerts are queued and delivered to the configured
+     *            alert senders. May be <code>null</code>, in which case default
+     *            settings are used.
+     */
+    public BaseCloudPoolConfig(String name, JsonObject cloudApiSettings, JsonObject provisioningTemplate,
+            ScaleInConfig scaleInConfig, AlertersConfig alertSettings, PoolFetchConfig poolFetchConfig,
+            PoolUpdateConfig poolUpdatePeriodConfig, AlertDeliveryConfig alertDelivery) {
+        this(name, cloudApiSettings, provisioningTemplate, scaleInConfig, alertSettings, poolFetchConfig,
+                poolUpdatePeriodConfig, alertDelivery, null);
+    }
+
+    /**
+     * Creates a {@link BaseCloudPoolConfig}.
+     *
+     * @param name
+     *            The logical name of the managed group of machines. Required.
+     * @param cloudApiSettings
+     *            API access credentials and settings required to communicate
+     *            with the targeted cloud. Required.
+     * @param provisioningTemplate
+     *            Describes how to provision additional servers (on scale-out).
+     *            Required.
+     * @param scaleInConfig
+     *            Configuration that describes how to shrink the cloud pool. May
+     *            be <code>null</code>.
+     * @param alertSettings
+     *            Configuration that describes how to send alerts. May be
+     *            <code>null</code>.
+     * @param poolFetchConfig
+     *            Controls the {@link CloudPool}'s behavior with respect to how
+     *            often to attempt fetching of {@link MachinePool} and for how
+     *            long to mask cloud API errors. May be <code>null</code>.
+     * @param poolUpdatePeriodConfig
+     *            The time interval (in seconds) between periodical pool size
+     *            updates. May be <code>null</code>. Default: 60 seconds.
+     * @param alertDelivery
+     *            Controls how alerts are queued and delivered to the configured
+     *            alert senders. May be <code>null</code>, in which case default
+     *            settings are used.
+     * @param bulkheads
+     *            Sizes the executors that isolate the cloud pool's classes of
+     *            work from each other. May be <code>null</code>, in which case
+     *            default settings are used.
+     */
+    public BaseCloudPoolConfig(String name, JsonObject cloudApiSettings, JsonObject provisioningTemplate,
+            ScaleInConfig scaleInConfig, AlertersConfig alertSettings, PoolFetchConfig poolFetchConfig,
+            PoolUpdateConfig poolUpdatePeriodConfig, AlertDeliveryConfig alertDelivery, BulkheadsConfig bulkheads) {
         this.name = name;
         this.cloudApiSettings = cloudApiSettings;
         this.provisioningTemplate = provisioningTemplate;
@@ -139,6 +236,8 @@ public class BaseCloudPoolConfig {
         this.alerts = alertSettings;
         this.poolFetch = poolFetchConfig;
         this.poolUpdate = poolUpdatePeriodConfig;
+        this.alertDelivery = alertDelivery;
+        this.bulkheads = bulkheads;
     }
 
     /**
@@ -193,6 +292,16 @@ public class BaseCloudPoolConfig {
         return this.alerts;
     }
 
+    /**
+     * Controls how {@link Alert}s are queued and delivered to the configured
+     * {@link #getAlerts()} senders.
+     *
+     * @return
+     */
+    public AlertDeliveryConfig getAlertDelivery() {
+        return Optional.ofNullable(this.alertDelivery).orElse(DEFAULT_ALERT_DELIVERY_CONFIG);
+    }
+
     /**
      * Controls the {@link CloudPool}'s behavior with respect to how often to
      * attempt fetching of {@link MachinePool} and for how long to mask cloud
@@ -213,6 +322,16 @@ public class BaseCloudPoolConfig {
         return Optional.ofNullable(this.poolUpdate).orElse(DEFAULT_POOL_UPDATE_CONFIG);
     }
 
+    /**
+     * Sizes the executors that isolate the cloud pool's classes of work from
+     * each other.
+     *
+     * @return
+     */
+    public BulkheadsConfig getBulkheads() {
+        return Optional.ofNullable(this.bulkheads).orElse(DEFAULT_BULKHEADS_CONFIG);
+    }
+
     /**
      * Performs basic validation of this configuration.
      *
@@ -230,8 +349,10 @@ public class BaseCloudPoolConfig {
             if (this.alerts != null) {
                 this.alerts.validate();
             }
+            getAlertDelivery().validate();
             getPoolFetch().validate();
             getPoolUpdate().validate();
+            getBulkheads().validate();
         } catch (Exception e) {
             throw new IllegalArgumentException(format("failed to validate cloudpool configuration: %s", e.getMessage()),
                     e);
@@ -241,7 +362,7 @@ public class BaseCloudPoolConfig {
     @Override
     public int hashCode() {
         return Objects.hash(this.name, this.cloudApiSettings, this.provisioningTemplate, getScaleInConfig(),
-                this.alerts, getPoolFetch(), getPoolUpdate());
+                this.alerts, getAlertDelivery(), getPoolFetch(), getPoolUpdate(), getBulkheads());
     }
 
     @Override
@@ -253,8 +374,10 @@ public class BaseCloudPoolConfig {
                     && Objects.equals(this.provisioningTemplate, that.provisioningTemplate) //
                     && Objects.equals(getScaleInConfig(), that.getScaleInConfig()) //
                     && Objects.equals(this.alerts, that.alerts) //
+                    && Objects.equals(getAlertDelivery(), that.getAlertDelivery()) //
                     && Objects.equals(getPoolFetch(), that.getPoolFetch()) //
-                    && Objects.equals(getPoolUpdate(), that.getPoolUpdate());
+                    && Objects.equals(getPoolUpdate(), that.getPoolUpdate()) //
+                    && Objects.equals(getBulkheads(), that.getBulkheads());
         }
         return false;
     }
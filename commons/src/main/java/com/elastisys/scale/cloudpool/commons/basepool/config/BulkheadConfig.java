@@ -0,0 +1,86 @@
+package com.elastisys.scale.cloudpool.commons.basepool.config;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Optional;
+
+import com.elastisys.scale.cloudpool.commons.basepool.bulkhead.BulkheadExecutor;
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.google.common.base.Objects;
+
+/**
+ * Sizes a {@link BulkheadExecutor}: the executor dedicated to one class of
+ * work.
+ */
+public class BulkheadConfig {
+
+    /** Default number of threads. */
+    public static final int DEFAULT_THREADS = 1;
+    /** Default maximum number of tasks that may wait in the queue. */
+    public static final int DEFAULT_QUEUE_LIMIT = 100;
+
+    /** The number of threads. May be <code>null</code>. Default: 1. */
+    private final Integer threads;
+    /**
+     * The maximum number of tasks that may wait in the queue. May be
+     * <code>null</code>. Default: 100.
+     */
+    private final Integer queueLimit;
+
+    /**
+     * Creates a {@link BulkheadConfig}.
+     *
+     * @param threads
+     *            The number of threads. May be <code>null</code>. Default: 1.
+     * @param queueLimit
+     *            The maximum number of tasks that may wait in the queue. May be
+     *            <code>null</code>. Default: 100.
+     */
+    public BulkheadConfig(Integer threads, Integer queueLimit) {
+        this.threads = threads;
+        this.queueLimit = queueLimit;
+    }
+
+    /**
+     * The number of threads.
+     *
+     * @return
+     */
+    public int getThreads() {
+        return Optional.ofNullable(this.threads).orElse(DEFAULT_THREADS);
+    }
+
+    /**
+     * The maximum number of tasks that may wait in the queue.
+     *
+     * @return
+     */
+    public int getQueueLimit() {
+        return Optional.ofNullable(this.queueLimit).orElse(DEFAULT_QUEUE_LIMIT);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getThreads(), getQueueLimit());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof BulkheadConfig) {
+            BulkheadConfig that = (BulkheadConfig) obj;
+            return Objects.equal(getThreads(), that.getThreads())
+                    && Objects.equal(getQueueLimit(), that.getQueueLimit());
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toPrettyString(JsonUtils.toJson(this));
+    }
+
+    public void validate() throws IllegalArgumentException {
+        checkArgument(getThreads() > 0, "bulkhead: threads must be positive");
+        checkArgument(getQueueLimit() > 0, "bulkhead: queueLimit must be positive");
+    }
+}
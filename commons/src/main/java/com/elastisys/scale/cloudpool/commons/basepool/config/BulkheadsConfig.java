@@ -0,0 +1,137 @@
+package com.elastisys.scale.cloudpool.commons.basepool.config;
+
+import java.util.Optional;
+
+import com.elastisys.scale.cloudpool.api.types.MachinePool;
+import com.elastisys.scale.cloudpool.commons.basepool.bulkhead.BulkheadExecutor;
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.google.common.base.Objects;
+
+/**
+ * Sizes the {@link BulkheadExecutor}s that isolate the cloud pool's classes of
+ * work from each other, so that, for example, a hung cloud API call in a pool
+ * update never delays pool refreshes. Work that is not covered here (such as
+ * driver-specific housekeeping tasks) runs on the executor that the cloud pool
+ * was created with.
+ */
+public class BulkheadsConfig {
+
+    /** Default sizing of the pool refresh executor. */
+    public static final BulkheadConfig DEFAULT_REFRESH = new BulkheadConfig(1, 100);
+    /**
+     * Default sizing of the pool update executor. Two threads allow a
+     * scheduled termination to run alongside a pool update.
+     */
+    public static final BulkheadConfig DEFAULT_UPDATE = new BulkheadConfig(2, 100);
+    /**
+     * Default sizing of the background machine launch executor. Each thread
+     * carries out one launch at a time, for as long as the launch takes.
+     */
+    public static final BulkheadConfig DEFAULT_LAUNCH = new BulkheadConfig(2, 100);
+
+    /**
+     * Sizes the executor for periodical {@link MachinePool} refreshes. May be
+     * <code>null</code>. Default: 1 thread, queue limit 100.
+     */
+    private final BulkheadConfig refresh;
+    /**
+     * Sizes the executor for pool updates and scheduled terminations. May be
+     * <code>null</code>. Default: 2 threads, queue limit 100.
+     */
+    private final BulkheadConfig update;
+    /**
+     * Sizes the executor for background machine launches (see
+     * {@link PoolUpdateConfig#isAsyncScaleOut()}). May be <code>null</code>.
+     * Default: 2 threads, queue limit 100.
+     */
+    private final BulkheadConfig launch;
+
+    /**
+     * Creates a {@link BulkheadsConfig} with a default-sized background machine
+     * launch executor.
+     *
+     * @param refresh
+     *            Sizes the executor for periodical pool refreshes. May be
+     *            <code>null</code>. Default: 1 thread, queue limit 100.
+     * @param update
+     *            Sizes the executor for pool updates and scheduled
+     *            terminations. May be <code>null</code>. Default: 2 threads,
+     *            queue limit 100.
+     */
+    public BulkheadsConfig(BulkheadConfig refresh, BulkheadConfig update) {
+        this(refresh, update, null);
+    }
+
+    /**
+     * Creates a {@link BulkheadsConfig}.
+     *
+     * @param refresh
+     *            Sizes the executor for periodical pool refreshes. May be
+     *            <code>null</code>. Default: 1 thread, queue limit 100.
+     * @param update
+     *            Sizes the executor for pool updates and scheduled
+     *            terminations. May be <code>null</code>. Default: 2 threads,
+     *            queue limit 100.
+     * @param launch
+     *            Sizes the executor for background machine launches. May be
+     *            <code>null</code>. Default: 2 threads, queue limit 100.
+     */
+    public BulkheadsConfig(BulkheadConfig refresh, BulkheadConfig update, BulkheadConfig launch) {
+        this.refresh = refresh;
+        this.update = update;
+        this.launch = launch;
+    }
+
+    /**
+     * Sizes the executor for periodical pool refreshes.
+     *
+     * @return
+     */
+    public BulkheadConfig getRefresh() {
+        return Optional.ofNullable(this.refresh).orElse(DEFAULT_REFRESH);
+    }
+
+    /**
+     * Sizes the executor for pool updates and scheduled terminations.
+     *
+     * @return
+     */
+    public BulkheadConfig getUpdate() {
+        return Optional.ofNullable(this.update).orElse(DEFAULT_UPDATE);
+    }
+
+    /**
+     * Sizes the executor for background machine launches.
+     *
+     * @return
+     */
+    public BulkheadConfig getLaunch() {
+        return Optional.ofNullable(this.launch).orElse(DEFAULT_LAUNCH);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getRefresh(), getUpdate(), getLaunch());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof BulkheadsConfig) {
+            BulkheadsConfig that = (BulkheadsConfig) obj;
+            return Objects.equal(getRefresh(), that.getRefresh()) && Objects.equal(getUpdate(), that.getUpdate())
+                    && Objects.equal(getLaunch(), that.getLaunch());
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toPrettyString(JsonUtils.toJson(this));
+    }
+
+    public void validate() throws IllegalArgumentException {
+        getRefresh().validate();
+        getUpdate().validate();
+        getLaunch().validate();
+    }
+}
@@ -0,0 +1,98 @@
+package com.elastisys.scale.cloudpool.commons.basepool.config;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import com.elastisys.scale.cloudpool.api.types.MachinePool;
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+import com.google.common.base.Objects;
+
+/**
+ * Controls the circuit breaker that protects the cloud API from
+ * {@link MachinePool} fetches during an outage. After a number of consecutive
+ * failed fetches, the circuit opens and fetches fail fast (without calling the
+ * cloud API) for the {@link #openDuration}. After that, a single probe fetch is
+ * let through: if it succeeds the circuit closes, otherwise it opens again.
+ */
+public class CircuitBreakerConfig {
+
+    /** Default number of consecutive failed fetches that opens the circuit. */
+    public static final int DEFAULT_FAILURE_THRESHOLD = 3;
+    /** Default time to keep the circuit open before letting a probe through. */
+    public static final TimeInterval DEFAULT_OPEN_DURATION = new TimeInterval(60L, TimeUnit.SECONDS);
+
+    /**
+     * The number of consecutive failed fetches (each after exhausting its
+     * retries) that opens the circuit. May be <code>null</code>. Default: 3.
+     */
+    private final Integer failureThreshold;
+    /**
+     * The time to keep the circuit open before letting a probe fetch through.
+     * May be <code>null</code>. Default: 60 seconds.
+     */
+    private final TimeInterval openDuration;
+
+    /**
+     * Creates a {@link CircuitBreakerConfig}.
+     *
+     * @param failureThreshold
+     *            The number of consecutive failed fetches (each after
+     *            exhausting its retries) that opens the circuit. May be
+     *            <code>null</code>. Default: 3.
+     * @param openDuration
+     *            The time to keep the circuit open before letting a probe
+     *            fetch through. May be <code>null</code>. Default: 60 seconds.
+     */
+    public CircuitBreakerConfig(Integer failureThreshold, TimeInterval openDuration) {
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+    }
+
+    /**
+     * The number of consecutive failed fetches (each after exhausting its
+     * retries) that opens the circuit.
+     *
+     * @return
+     */
+    public int getFailureThreshold() {
+        return Optional.ofNullable(this.failureThreshold).orElse(DEFAULT_FAILURE_THRESHOLD);
+    }
+
+    /**
+     * The time to keep the circuit open before letting a probe fetch through.
+     *
+     * @return
+     */
+    public TimeInterval getOpenDuration() {
+        return Optional.ofNullable(this.openDuration).orElse(DEFAULT_OPEN_DURATION);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(getFailureThreshold(), getOpenDuration());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof CircuitBreakerConfig) {
+            CircuitBreakerConfig that = (CircuitBreakerConfig) obj;
+            return Objects.equal(getFailureThreshold(), that.getFailureThreshold())
+                    && Objects.equal(getOpenDuration(), that.getOpenDuration());
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toPrettyString(JsonUtils.toJson(this));
+    }
+
+    public void validate() throws IllegalArgumentException {
+        checkArgument(getFailureThreshold() > 0, "circuitBreaker: failureThreshold must be positive");
+        getOpenDuration().validate();
+        checkArgument(getOpenDuration().getMillis() > 0, "circuitBreaker: openDuration must be positive");
+    }
+}
@@ -2,10 +2,13 @@ package com.elastisys.scale.cloudpool.commons.basepool.config;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
+import java.util.Optional;
 import java.util.concurrent.TimeUnit;
 
 import com.elastisys.scale.cloudpool.api.CloudPool;
 import com.elastisys.scale.cloudpool.api.types.MachinePool;
+import com.elastisys.scale.cloudpool.commons.basepool.driver.ChangeTrackingCloudPoolDriver;
+import com.elastisys.scale.cloudpool.commons.basepool.driver.StateListingCloudPoolDriver;
 import com.elastisys.scale.commons.json.JsonUtils;
 import com.elastisys.scale.commons.json.types.TimeInterval;
 import com.google.common.base.Objects;
@@ -17,6 +20,12 @@ import com.google.common.base.Objects;
  */
 public class PoolFetchConfig {
 
+    /**
+     * Default interval between full pool listings for drivers that support
+     * incremental pool synchronization or lightweight state listings.
+     */
+    public static final TimeInterval DEFAULT_FULL_RESYNC_INTERVAL = new TimeInterval(10L, TimeUnit.MINUTES);
+
     /** Retry handling when fetching pool members from the cloud API fails. */
     private final RetriesConfig retries;
     /**
@@ -30,9 +39,54 @@ public class PoolFetchConfig {
      * should failures to fetch the machine pool be masked.
      */
     private final TimeInterval reachabilityTimeout;
+    /**
+     * Enables single-flight coalescing of forced pool refreshes when set.
+     * Concurrent forced refreshes will then share a single in-flight call to
+     * the cloud API, and a forced refresh that arrives within this time from
+     * the completion of a successful refresh reuses its result. A value of
+     * zero only coalesces concurrent refreshes. May be <code>null</code>, in
+     * which case every forced refresh calls through to the cloud API.
+     */
+    private final TimeInterval refreshCoalescingWindow;
+    /**
+     * Only applies to {@link ChangeTrackingCloudPoolDriver}s, which are
+     * synchronized incrementally, and {@link StateListingCloudPoolDriver}s,
+     * which are refreshed with lightweight state listings. Sets the maximum
+     * time between full pool listings, which are used to recover from any
+     * drift between the maintained pool and the actual pool (and, for
+     * {@link StateListingCloudPoolDriver}s, to refresh machine metadata). May
+     * be <code>null</code>. Default: 10 minutes.
+     */
+    private final TimeInterval fullResyncInterval;
+    /**
+     * When <code>true</code>, a cloud pool that is started with a persisted
+     * {@link MachinePool} observation (from a previous run) starts serving that
+     * observation right away, instead of waiting for the first pool fetch to
+     * complete. The persisted observation is subject to the
+     * {@link #reachabilityTimeout} like any other cached observation. May be
+     * <code>null</code>. Default: <code>false</code>.
+     */
+    private final Boolean warmStart;
+    /**
+     * Enables adaptive refreshing of the {@link MachinePool} when set, in
+     * which case the {@link #refreshInterval} only applies to the first
+     * periodical refresh. The refresh interval is then kept short while the
+     * pool is in motion and backs off while the pool is stable. May be
+     * <code>null</code>, in which case the pool is refreshed every
+     * {@link #refreshInterval}.
+     */
+    private final AdaptiveRefreshConfig adaptiveRefresh;
+    /**
+     * Enables a circuit breaker around the cloud API when set, which makes
+     * {@link MachinePool} fetches fail fast (serving cached observations)
+     * during a cloud API outage, rather than having every fetch go through
+     * its retries. May be <code>null</code>, in which case every fetch calls
+     * through to the cloud API.
+     */
+    private final CircuitBreakerConfig circuitBreaker;
 
     /**
-     * Creates a {@link PoolFetchConfig}.
+     * Creates a {@link PoolFetchConfig} without forced refresh coalescing.
      *
      * @param retries
      *            Retry handling when fetching pool members from the cloud API
@@ -47,9 +101,159 @@ public class PoolFetchConfig {
      *            the machine pool be masked.
      */
     public PoolFetchConfig(RetriesConfig retries, TimeInterval refreshInterval, TimeInterval reachabilityTimeout) {
+        this(retries, refreshInterval, reachabilityTimeout, null, null);
+    }
+
+    /**
+     * Creates a {@link PoolFetchConfig}.
+     *
+     * @param retries
+     *            Retry handling when fetching pool members from the cloud API
+     *            fails.
+     * @param refreshInterval
+     *            How often to refresh the cloud pool's view of the
+     *            {@link MachinePool} members.
+     * @param reachabilityTimeout
+     *            How long to respond with cached {@link MachinePool}
+     *            observations before responding with a cloud reachability
+     *            error. In other words, for how long should failures to fetch
+     *            the machine pool be masked.
+     * @param refreshCoalescingWindow
+     *            Enables single-flight coalescing of forced pool refreshes
+     *            when set. Concurrent forced refreshes will then share a
+     *            single in-flight call to the cloud API, and a forced refresh
+     *            that arrives within this time from the completion of a
+     *            successful refresh reuses its result. A value of zero only
+     *            coalesces concurrent refreshes. May be <code>null</code>, in
+     *            which case every forced refresh calls through to the cloud
+     *            API.
+     * @param fullResyncInterval
+     *            Only applies to {@link ChangeTrackingCloudPoolDriver}s, which
+     *            are synchronized incrementally. Sets the maximum time between
+     *            full pool listings, which are used to recover from any drift
+     *            between the incrementally maintained pool and the actual
+     *            pool. May be <code>null</code>. Default: 10 minutes.
+     */
+    public PoolFetchConfig(RetriesConfig retries, TimeInterval refreshInterval, TimeInterval reachabilityTimeout,
+            TimeInterval refreshCoalescingWindow, TimeInterval fullResyncInterval) {
+        this(retries, refreshInterval, reachabilityTimeout, refreshCoalescingWindow, fullResyncInterval, null);
+    }
+
+    /**
+     * Creates a {@link PoolFetchConfig}.
+     *
+     * @param retries
+     *            Retry handling when fetching pool members from the cloud API
+     *            fails.
+     * @param refreshInterval
+     *            How often to refresh the cloud pool's view of the
+     *            {@link MachinePool} members.
+     * @param reachabilityTimeout
+     *            How long to respond with cached {@link MachinePool}
+     *            observations before responding with a cloud reachability
+     *            error.
+     * @param refreshCoalescingWindow
+     *            Enables single-flight coalescing of forced pool refreshes
+     *            when set. May be <code>null</code>, in which case every
+     *            forced refresh calls through to the cloud API.
+     * @param fullResyncInterval
+     *            Only applies to {@link ChangeTrackingCloudPoolDriver}s. Sets
+     *            the maximum time between full pool listings. May be
+     *            <code>null</code>. Default: 10 minutes.
+     * @param warmStart
+     *            When <code>true</code>, a cloud pool that is started with a
+     *            persisted {@link MachinePool} observation starts serving that
+     *            observation right away, instead of waiting for the first pool
+     *            fetch to complete. May be <code>null</code>. Default:
+     *            <code>false</code>.
+     */
+    public PoolFetchConfig(RetriesConfig retries, TimeInterval refreshInterval, TimeInterval reachabilityTimeout,
+            TimeInterval refreshCoalescingWindow, TimeInterval fullResyncInterval, Boolean warmStart) {
+        this(retries, refreshInterval, reachabilityTimeout, refreshCoalescingWindow, fullResyncInterval, warmStart,
+                null);
+    }
+
+    /**
+     * Creates a {@link PoolFetchConfig}.
+     *
+     * @param retries
+     *            Retry handling when fetching pool members from the cloud API
+     *            fails.
+     * @param refreshInterval
+     *            How often to refresh the cloud pool's view of the
+     *            {@link MachinePool} members. Only applies to the first
+     *            periodical refresh if {@code adaptiveRefresh} is set.
+     * @param reachabilityTimeout
+     *            How long to respond with cached {@link MachinePool}
+     *            observations before responding with a cloud reachability
+     *            error.
+     * @param refreshCoalescingWindow
+     *            Enables single-flight coalescing of forced pool refreshes
+     *            when set. May be <code>null</code>.
+     * @param fullResyncInterval
+     *            Only applies to {@link ChangeTrackingCloudPoolDriver}s. Sets
+     *            the maximum time between full pool listings. May be
+     *            <code>null</code>. Default: 10 minutes.
+     * @param warmStart
+     *            When <code>true</code>, a persisted {@link MachinePool}
+     *            observation is served right away on start. May be
+     *            <code>null</code>. Default: <code>false</code>.
+     * @param adaptiveRefresh
+     *            Enables adaptive refreshing of the {@link MachinePool} when
+     *            set. May be <code>null</code>, in which case the pool is
+     *            refreshed every {@code refreshInterval}.
+     */
+    public PoolFetchConfig(RetriesConfig retries, TimeInterval refreshInterval, TimeInterval reachabilityTimeout,
+            TimeInterval refreshCoalescingWindow, TimeInterval fullResyncInterval, Boolean warmStart,
+            AdaptiveRefreshConfig adaptiveRefresh) {
+        this(retries, refreshInterval, reachabilityTimeout, refreshCoalescingWindow, fullResyncInterval, warmStart,
+                adaptiveRefresh, null);
+    }
+
+    /**
+     * Creates a {@link PoolFetchConfig}.
+     *
+     * @param retries
+     *            Retry handling when fetching pool members from the cloud API
+     *            fails.
+     * @param refreshInterval
+     *            How often to refresh the cloud pool's view of the
+     *            {@link MachinePool} members. Only applies to the first
+     *            periodical refresh if {@code adaptiveRefresh} is set.
+     * @param reachabilityTimeout
+     *            How long to respond with cached {@link MachinePool}
+     *            observations before responding with a cloud reachability
+     *            error.
+     * @param refreshCoalescingWindow
+     *            Enables single-flight coalescing of forced pool refreshes
+     *            when set. May be <code>null</code>.
+     * @param fullResyncInterval
+     *            Only applies to {@link ChangeTrackingCloudPoolDriver}s. Sets
+     *            the maximum time between full pool listings. May be
+     *            <code>null</code>. Default: 10 minutes.
+     * @param warmStart
+     *            When <code>true</code>, a persisted {@link MachinePool}
+     *            observation is served right away on start. May be
+     *            <code>null</code>. Default: <code>false</code>.
+     * @param adaptiveRefresh
+     *            Enables adaptive refreshing of the {@link MachinePool} when
+     *            set. May be <code>null</code>.
+     * @param circuitBreaker
+     *            Enables a circuit breaker around the cloud API when set. May
+     *            be <code>null</code>, in which case every fetch calls through
+     *            to the cloud API.
+     */
+    public PoolFetchConfig(RetriesConfig retries, TimeInterval refreshInterval, TimeInterval reachabilityTimeout,
+            TimeInterval refreshCoalescingWindow, TimeInterval fullResyncInterval, Boolean warmStart,
+            AdaptiveRefreshConfig adaptiveRefresh, CircuitBreakerConfig circuitBreaker) {
         this.retries = retries;
         this.refreshInterval = refreshInterval;
         this.reachabilityTimeout = reachabilityTimeout;
+        this.refreshCoalescingWindow = refreshCoalescingWindow;
+        this.fullResyncInterval = fullResyncInterval;
+        this.warmStart = warmStart;
+        this.adaptiveRefresh = adaptiveRefresh;
+        this.circuitBreaker = circuitBreaker;
     }
 
     /**
@@ -82,9 +286,75 @@ public class PoolFetchConfig {
         return this.reachabilityTimeout;
     }
 
+    /**
+     * Enables single-flight coalescing of forced pool refreshes when set.
+     * Concurrent forced refreshes will then share a single in-flight call to
+     * the cloud API, and a forced refresh that arrives within this time from
+     * the completion of a successful refresh reuses its result. May be
+     * <code>null</code>, in which case every forced refresh calls through to
+     * the cloud API.
+     *
+     * @return
+     */
+    public TimeInterval getRefreshCoalescingWindow() {
+        return this.refreshCoalescingWindow;
+    }
+
+    /**
+     * Only applies to {@link ChangeTrackingCloudPoolDriver}s, which are
+     * synchronized incrementally, and {@link StateListingCloudPoolDriver}s,
+     * which are refreshed with lightweight state listings. Returns the maximum
+     * time between full pool listings, which are used to recover from any
+     * drift between the maintained pool and the actual pool (and, for
+     * {@link StateListingCloudPoolDriver}s, to refresh machine metadata).
+     *
+     * @return
+     */
+    public TimeInterval getFullResyncInterval() {
+        return Optional.ofNullable(this.fullResyncInterval).orElse(DEFAULT_FULL_RESYNC_INTERVAL);
+    }
+
+    /**
+     * When <code>true</code>, a cloud pool that is started with a persisted
+     * {@link MachinePool} observation (from a previous run) starts serving that
+     * observation right away, instead of waiting for the first pool fetch to
+     * complete.
+     *
+     * @return
+     */
+    public boolean isWarmStart() {
+        return Optional.ofNullable(this.warmStart).orElse(false);
+    }
+
+    /**
+     * Enables adaptive refreshing of the {@link MachinePool} when set, in
+     * which case the {@link #getRefreshInterval()} only applies to the first
+     * periodical refresh. May be <code>null</code>, in which case the pool is
+     * refreshed every {@link #getRefreshInterval()}.
+     *
+     * @return
+     */
+    public AdaptiveRefreshConfig getAdaptiveRefresh() {
+        return this.adaptiveRefresh;
+    }
+
+    /**
+     * Enables a circuit breaker around the cloud API when set, which makes
+     * {@link MachinePool} fetches fail fast during a cloud API outage. May be
+     * <code>null</code>, in which case every fetch calls through to the cloud
+     * API.
+     *
+     * @return
+     */
+    public CircuitBreakerConfig getCircuitBreaker() {
+        return this.circuitBreaker;
+    }
+
     @Override
     public int hashCode() {
-        return Objects.hashCode(this.retries, this.refreshInterval, this.reachabilityTimeout);
+        return Objects.hashCode(this.retries, this.refreshInterval, this.reachabilityTimeout,
+                this.refreshCoalescingWindow, getFullResyncInterval(), isWarmStart(), this.adaptiveRefresh,
+                this.circuitBreaker);
     }
 
     @Override
@@ -93,7 +363,12 @@ public class PoolFetchConfig {
             PoolFetchConfig that = (PoolFetchConfig) obj;
             return Objects.equal(this.retries, that.retries)
                     && Objects.equal(this.refreshInterval, that.refreshInterval)
-                    && Objects.equal(this.reachabilityTimeout, that.reachabilityTimeout);
+                    && Objects.equal(this.reachabilityTimeout, that.reachabilityTimeout)
+                    && Objects.equal(this.refreshCoalescingWindow, that.refreshCoalescingWindow)
+                    && Objects.equal(getFullResyncInterval(), that.getFullResyncInterval())
+                    && Objects.equal(isWarmStart(), that.isWarmStart())
+                    && Objects.equal(this.adaptiveRefresh, that.adaptiveRefresh)
+                    && Objects.equal(this.circuitBreaker, that.circuitBreaker);
 
         }
         return false;
@@ -119,6 +394,22 @@ public class PoolFetchConfig {
                 this.reachabilityTimeout.getUnit());
         checkArgument(refreshMillis < timeoutMillis,
                 "poolFetch: reachabilityTimeout cannot be shorter than refreshInterval");
+
+        if (this.refreshCoalescingWindow != null) {
+            this.refreshCoalescingWindow.validate();
+            checkArgument(this.refreshCoalescingWindow.getMillis() < refreshMillis,
+                    "poolFetch: refreshCoalescingWindow must be shorter than refreshInterval");
+        }
+        getFullResyncInterval().validate();
+        checkArgument(getFullResyncInterval().getMillis() > 0, "poolFetch: fullResyncInterval must be positive");
+        if (this.adaptiveRefresh != null) {
+            this.adaptiveRefresh.validate();
+            checkArgument(this.adaptiveRefresh.getMaxInterval().getMillis() < timeoutMillis,
+                    "poolFetch: reachabilityTimeout cannot be shorter than adaptiveRefresh.maxInterval");
+        }
+        if (this.circuitBreaker != null) {
+            this.circuitBreaker.validate();
+        }
     }
 
 }
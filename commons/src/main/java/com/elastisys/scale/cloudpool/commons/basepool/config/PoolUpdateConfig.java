@@ -2,8 +2,12 @@ package com.elastisys.scale.cloudpool.commons.basepool.config;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
 import com.elastisys.scale.cloudpool.api.CloudPool;
 import com.elastisys.scale.cloudpool.api.types.MachinePool;
+import com.elastisys.scale.cloudpool.api.types.MachineState;
 import com.elastisys.scale.commons.json.JsonUtils;
 import com.elastisys.scale.commons.json.types.TimeInterval;
 import com.google.common.base.Objects;
@@ -15,20 +19,254 @@ import com.google.common.base.Objects;
  */
 public class PoolUpdateConfig {
 
+    /**
+     * Default maximum age of cached {@link MachinePool} observations accepted
+     * by pool size updates: always refresh.
+     */
+    public static final TimeInterval DEFAULT_MAX_POOL_AGE = new TimeInterval(0L, TimeUnit.SECONDS);
+
+    /**
+     * Default maximum number of concurrent machine start requests on
+     * scale-outs that are split into chunks.
+     */
+    public static final int DEFAULT_SCALE_OUT_PARALLELISM = 4;
+
+    /**
+     * Default maximum time that a background machine launch is waited for
+     * before its requested machines are no longer accounted for.
+     */
+    public static final TimeInterval DEFAULT_LAUNCH_TIMEOUT = new TimeInterval(10L, TimeUnit.MINUTES);
+
+    /**
+     * Default maximum time to wait for a machine started in the background to
+     * show up in the pool before it is no longer accounted for.
+     */
+    public static final TimeInterval DEFAULT_VISIBILITY_TIMEOUT = new TimeInterval(10L, TimeUnit.MINUTES);
+
     /**
      * The time interval between periodical pool size updates.
      */
     private final TimeInterval updateInterval;
 
     /**
-     * Constructs a new {@link PoolUpdateConfig}.
+     * When set, changes to the pool's desired size (as well as attaching and
+     * detaching machines) trigger a pool size update after this delay, without
+     * waiting for the next periodical update. All changes that arrive within
+     * the delay are handled by a single pool size update. May be
+     * <code>null</code>, in which case pool size updates are only carried out
+     * periodically.
+     */
+    private final TimeInterval debounceWindow;
+
+    /**
+     * When <code>true</code>, a pool size update that needs to start new
+     * machines does not wait for the cloud to confirm the launch. Instead, the
+     * requested machines are represented by placeholders in
+     * {@link MachineState#REQUESTED} state until the launch completes in the
+     * background. May be <code>null</code>. Default: <code>false</code>.
+     */
+    private final Boolean asyncScaleOut;
+
+    /**
+     * The maximum age of a cached {@link MachinePool} observation that a pool
+     * size update accepts. Observations that predate the cloud pool's own
+     * latest modification of the pool are never accepted. May be
+     * <code>null</code>. Default: zero (every pool size update refreshes the
+     * pool).
+     */
+    private final TimeInterval maxPoolAge;
+
+    /**
+     * When set, a scale-out is split into requests for at most this many
+     * machines each, which are carried out concurrently (see
+     * {@link #scaleOutParallelism}). The machines started by each request are
+     * reported as soon as the request completes. May be <code>null</code>, in
+     * which case all machines of a scale-out are requested at once.
+     */
+    private final Integer scaleOutChunkSize;
+
+    /**
+     * The maximum number of concurrent machine start requests on scale-outs
+     * that are split into chunks (see {@link #scaleOutChunkSize}). May be
+     * <code>null</code>. Default: 4.
+     */
+    private final Integer scaleOutParallelism;
+
+    /**
+     * The maximum time to wait for a background machine launch (see
+     * {@link #asyncScaleOut}) to complete. When exceeded, the placeholders of
+     * the machines that have yet to be started are dropped, so that the pool
+     * can be resized again. May be <code>null</code>. Default: 10 minutes.
+     */
+    private final TimeInterval launchTimeout;
+
+    /**
+     * The maximum time to wait for a machine started in the background (see
+     * {@link #asyncScaleOut}) to show up in the pool. Until then, the machine
+     * is accounted for by pool size updates. May be <code>null</code>.
+     * Default: 10 minutes.
+     */
+    private final TimeInterval visibilityTimeout;
+
+    /**
+     * Constructs a new {@link PoolUpdateConfig} that only carries out
+     * periodical pool size updates.
      *
      * @param updateInterval
      *            The time interval between periodical pool size updates. May be
      *            <code>null</code>. Default: 60 seconds.
      */
     public PoolUpdateConfig(TimeInterval updateInterval) {
+        this(updateInterval, null);
+    }
+
+    /**
+     * Constructs a new {@link PoolUpdateConfig}.
+     *
+     * @param updateInterval
+     *            The time interval between periodical pool size updates. May be
+     *            <code>null</code>. Default: 60 seconds.
+     * @param debounceWindow
+     *            When set, changes to the pool's desired size (as well as
+     *            attaching and detaching machines) trigger a pool size update
+     *            after this delay, without waiting for the next periodical
+     *            update. All changes that arrive within the delay are handled
+     *            by a single pool size update. May be <code>null</code>, in
+     *            which case pool size updates are only carried out
+     *            periodically.
+     */
+    public PoolUpdateConfig(TimeInterval updateInterval, TimeInterval debounceWindow) {
+        this(updateInterval, debounceWindow, null);
+    }
+
+    /**
+     * Constructs a new {@link PoolUpdateConfig}.
+     *
+     * @param updateInterval
+     *            The time interval between periodical pool size updates. May be
+     *            <code>null</code>. Default: 60 seconds.
+     * @param debounceWindow
+     *            When set, changes to the pool's desired size (as well as
+     *            attaching and detaching machines) trigger a pool size update
+     *            after this delay. May be <code>null</code>, in which case pool
+     *            size updates are only carried out periodically.
+     * @param asyncScaleOut
+     *            When <code>true</code>, a pool size update that needs to start
+     *            new machines does not wait for the cloud to confirm the
+     *            launch. Instead, the requested machines are represented by
+     *            placeholders in {@link MachineState#REQUESTED} state until the
+     *            launch completes in the background. May be <code>null</code>.
+     *            Default: <code>false</code>.
+     */
+    public PoolUpdateConfig(TimeInterval updateInterval, TimeInterval debounceWindow, Boolean asyncScaleOut) {
+        this(updateInterval, debounceWindow, asyncScaleOut, null);
+    }
+
+    /**
+     * Constructs a new {@link PoolUpdateConfig}.
+     *
+     * @param updateInterval
+     *            The time interval between periodical pool size updates. May be
+     *            <code>null</code>. Default: 60 seconds.
+     * @param debounceWindow
+     *            When set, changes to the pool's desired size (as well as
+     *            attaching and detaching machines) trigger a pool size update
+     *            after this delay. May be <code>null</code>.
+     * @param asyncScaleOut
+     *            When <code>true</code>, a pool size update that needs to start
+     *            new machines does not wait for the cloud to confirm the
+     *            launch. May be <code>null</code>. Default: <code>false</code>.
+     * @param maxPoolAge
+     *            The maximum age of a cached {@link MachinePool} observation
+     *            that a pool size update accepts. Observations that predate the
+     *            cloud pool's own latest modification of the pool are never
+     *            accepted. May be <code>null</code>. Default: zero (every pool
+     *            size update refreshes the pool).
+     */
+    public PoolUpdateConfig(TimeInterval updateInterval, TimeInterval debounceWindow, Boolean asyncScaleOut,
+            TimeInterval maxPoolAge) {
+        this(updateInterval, debounceWindow, asyncScaleOut, maxPoolAge, null, null);
+    }
+
+    /**
+     * Constructs a new {@link PoolUpdateConfig}.
+     *
+     * @param updateInterval
+     *            The time interval between periodical pool size updates. May be
+     *            <code>null</code>. Default: 60 seconds.
+     * @param debounceWindow
+     *            When set, changes to the pool's desired size (as well as
+     *            attaching and detaching machines) trigger a pool size update
+     *            after this delay. May be <code>null</code>.
+     * @param asyncScaleOut
+     *            When <code>true</code>, a pool size update that needs to start
+     *            new machines does not wait for the cloud to confirm the
+     *            launch. May be <code>null</code>. Default: <code>false</code>.
+     * @param maxPoolAge
+     *            The maximum age of a cached {@link MachinePool} observation
+     *            that a pool size update accepts. May be <code>null</code>.
+     *            Default: zero (every pool size update refreshes the pool).
+     * @param scaleOutChunkSize
+     *            When set, a scale-out is split into requests for at most this
+     *            many machines each, which are carried out concurrently. May be
+     *            <code>null</code>, in which case all machines of a scale-out
+     *            are requested at once.
+     * @param scaleOutParallelism
+     *            The maximum number of concurrent machine start requests on
+     *            scale-outs that are split into chunks. May be
+     *            <code>null</code>. Default: 4.
+     */
+    public PoolUpdateConfig(TimeInterval updateInterval, TimeInterval debounceWindow, Boolean asyncScaleOut,
+            TimeInterval maxPoolAge, Integer scaleOutChunkSize, Integer scaleOutParallelism) {
+        this(updateInterval, debounceWindow, asyncScaleOut, maxPoolAge, scaleOutChunkSize, scaleOutParallelism, null,
+                null);
+    }
+
+    /**
+     * Constructs a new {@link PoolUpdateConfig}.
+     *
+     * @param updateInterval
+     *            The time interval between periodical pool size updates. May be
+     *            <code>null</code>. Default: 60 seconds.
+     * @param debounceWindow
+     *            When set, changes to the pool's desired size (as well as
+     *            attaching and detaching machines) trigger a pool size update
+     *            after this delay. May be <code>null</code>.
+     * @param asyncScaleOut
+     *            When <code>true</code>, a pool size update that needs to start
+     *            new machines does not wait for the cloud to confirm the
+     *            launch. May be <code>null</code>. Default: <code>false</code>.
+     * @param maxPoolAge
+     *            The maximum age of a cached {@link MachinePool} observation
+     *            that a pool size update accepts. May be <code>null</code>.
+     *            Default: zero (every pool size update refreshes the pool).
+     * @param scaleOutChunkSize
+     *            When set, a scale-out is split into requests for at most this
+     *            many machines each. May be <code>null</code>.
+     * @param scaleOutParallelism
+     *            The maximum number of concurrent machine start requests on
+     *            scale-outs that are split into chunks. May be
+     *            <code>null</code>. Default: 4.
+     * @param launchTimeout
+     *            The maximum time to wait for a background machine launch to
+     *            complete before the placeholders of its requested machines
+     *            are dropped. May be <code>null</code>. Default: 10 minutes.
+     * @param visibilityTimeout
+     *            The maximum time to wait for a machine started in the
+     *            background to show up in the pool. May be <code>null</code>.
+     *            Default: 10 minutes.
+     */
+    public PoolUpdateConfig(TimeInterval updateInterval, TimeInterval debounceWindow, Boolean asyncScaleOut,
+            TimeInterval maxPoolAge, Integer scaleOutChunkSize, Integer scaleOutParallelism,
+            TimeInterval launchTimeout, TimeInterval visibilityTimeout) {
         this.updateInterval = updateInterval;
+        this.debounceWindow = debounceWindow;
+        this.asyncScaleOut = asyncScaleOut;
+        this.maxPoolAge = maxPoolAge;
+        this.scaleOutChunkSize = scaleOutChunkSize;
+        this.scaleOutParallelism = scaleOutParallelism;
+        this.launchTimeout = launchTimeout;
+        this.visibilityTimeout = visibilityTimeout;
     }
 
     /**
@@ -40,16 +278,102 @@ public class PoolUpdateConfig {
         return this.updateInterval;
     }
 
+    /**
+     * When set, changes to the pool's desired size (as well as attaching and
+     * detaching machines) trigger a pool size update after this delay, without
+     * waiting for the next periodical update. May be <code>null</code>, in
+     * which case pool size updates are only carried out periodically.
+     *
+     * @return
+     */
+    public TimeInterval getDebounceWindow() {
+        return this.debounceWindow;
+    }
+
+    /**
+     * When <code>true</code>, a pool size update that needs to start new
+     * machines does not wait for the cloud to confirm the launch, but
+     * represents the requested machines by placeholders in
+     * {@link MachineState#REQUESTED} state until the launch completes in the
+     * background.
+     *
+     * @return
+     */
+    public boolean isAsyncScaleOut() {
+        return Optional.ofNullable(this.asyncScaleOut).orElse(false);
+    }
+
+    /**
+     * The maximum age of a cached {@link MachinePool} observation that a pool
+     * size update accepts. Observations that predate the cloud pool's own
+     * latest modification of the pool are never accepted.
+     *
+     * @return
+     */
+    public TimeInterval getMaxPoolAge() {
+        return Optional.ofNullable(this.maxPoolAge).orElse(DEFAULT_MAX_POOL_AGE);
+    }
+
+    /**
+     * When set, a scale-out is split into requests for at most this many
+     * machines each, which are carried out concurrently. May be
+     * <code>null</code>, in which case all machines of a scale-out are
+     * requested at once.
+     *
+     * @return
+     */
+    public Integer getScaleOutChunkSize() {
+        return this.scaleOutChunkSize;
+    }
+
+    /**
+     * The maximum number of concurrent machine start requests on scale-outs
+     * that are split into chunks.
+     *
+     * @return
+     */
+    public int getScaleOutParallelism() {
+        return Optional.ofNullable(this.scaleOutParallelism).orElse(DEFAULT_SCALE_OUT_PARALLELISM);
+    }
+
+    /**
+     * The maximum time to wait for a background machine launch to complete
+     * before the placeholders of its requested machines are dropped.
+     *
+     * @return
+     */
+    public TimeInterval getLaunchTimeout() {
+        return Optional.ofNullable(this.launchTimeout).orElse(DEFAULT_LAUNCH_TIMEOUT);
+    }
+
+    /**
+     * The maximum time to wait for a machine started in the background to
+     * show up in the pool before it is no longer accounted for.
+     *
+     * @return
+     */
+    public TimeInterval getVisibilityTimeout() {
+        return Optional.ofNullable(this.visibilityTimeout).orElse(DEFAULT_VISIBILITY_TIMEOUT);
+    }
+
     @Override
     public int hashCode() {
-        return Objects.hashCode(this.updateInterval);
+        return Objects.hashCode(this.updateInterval, this.debounceWindow, isAsyncScaleOut(), getMaxPoolAge(),
+                this.scaleOutChunkSize, getScaleOutParallelism(), getLaunchTimeout(), getVisibilityTimeout());
     }
 
     @Override
     public boolean equals(Object obj) {
         if (obj instanceof PoolUpdateConfig) {
             PoolUpdateConfig that = (PoolUpdateConfig) obj;
-            return Objects.equal(this.updateInterval, that.updateInterval);
+            return Objects.equal(this.updateInterval, that.updateInterval)
+                    && Objects.equal(this.debounceWindow, that.debounceWindow)
+                    && Objects.equal(isAsyncScaleOut(), that.isAsyncScaleOut())
+                    && Objects.equal(getMaxPoolAge(), that.getMaxPoolAge())
+                    && Objects.equal(this.scaleOutChunkSize, that.scaleOutChunkSize)
+                    && Objects.equal(getScaleOutParallelism(), that.getScaleOutParallelism())
+                    && Objects.equal(getLaunchTimeout(), that.getLaunchTimeout())
+                    && Objects.equal(getVisibilityTimeout(), that.getVisibilityTimeout());
         }
         return false;
     }
@@ -62,5 +386,19 @@ public class PoolUpdateConfig {
     public void validate() throws IllegalArgumentException {
         checkArgument(this.updateInterval != null, "poolUpdate: updateInterval missing");
         this.updateInterval.validate();
+        if (this.debounceWindow != null) {
+            this.debounceWindow.validate();
+            checkArgument(this.debounceWindow.getMillis() < this.updateInterval.getMillis(),
+                    "poolUpdate: debounceWindow must be shorter than updateInterval");
+        }
+        getMaxPoolAge().validate();
+        if (this.scaleOutChunkSize != null) {
+            checkArgument(this.scaleOutChunkSize > 0, "poolUpdate: scaleOutChunkSize must be positive");
+        }
+        checkArgument(getScaleOutParallelism() > 0, "poolUpdate: scaleOutParallelism must be positive");
+        getLaunchTimeout().validate();
+        checkArgument(getLaunchTimeout().getMillis() > 0, "poolUpdate: launchTimeout must be positive");
+        getVisibilityTimeout().validate();
+        checkArgument(getVisibilityTimeout().getMillis() > 0, "poolUpdate: visibilityTimeout must be positive");
     }
 }
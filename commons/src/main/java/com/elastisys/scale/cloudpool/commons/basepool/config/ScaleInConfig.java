@@ -3,7 +3,17 @@ package com.elastisys.scale.cloudpool.commons.basepool.config;
 import static com.google.common.base.Objects.equal;
 import static com.google.common.base.Preconditions.checkArgument;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+
+import com.elastisys.scale.cloudpool.commons.scaledown.VictimScore;
+import com.elastisys.scale.cloudpool.commons.scaledown.VictimScorer;
 import com.elastisys.scale.cloudpool.commons.scaledown.VictimSelectionPolicy;
+import com.elastisys.scale.cloudpool.commons.scaledown.VictimSelectionStrategy;
+import com.elastisys.scale.cloudpool.commons.scaledown.strategies.WeightedVictimSelectionStrategy;
 import com.elastisys.scale.commons.json.JsonUtils;
 import com.google.common.base.Objects;
 import com.google.common.collect.Range;
@@ -27,6 +37,15 @@ public class ScaleInConfig {
      */
     private final Integer instanceHourMargin;
 
+    /**
+     * Optional weights of {@link VictimScore}s to weigh together when
+     * selecting victims. When given, victims are the candidates with the
+     * highest weighted score, and the {@link #victimSelectionPolicy} only
+     * serves to break ties. May be <code>null</code>, in which case victims are
+     * selected by the {@link #victimSelectionPolicy} alone.
+     */
+    private final Map<VictimScore, Double> victimScoreWeights;
+
     /**
      * Creates a new {@link ScaleInConfig}.
      *
@@ -41,8 +60,32 @@ public class ScaleInConfig {
      *            scale-down is ordered.
      */
     public ScaleInConfig(VictimSelectionPolicy victimSelectionPolicy, int instanceHourMargin) {
+        this(victimSelectionPolicy, instanceHourMargin, null);
+    }
+
+    /**
+     * Creates a new {@link ScaleInConfig}.
+     *
+     * @param victimSelectionPolicy
+     *            Policy for selecting which server to terminate. When
+     *            {@code victimScoreWeights} are given, the policy is only used
+     *            to break ties between equally scored candidates.
+     * @param instanceHourMargin
+     *            How many seconds prior to the next instance hour an acquired
+     *            machine instance should be scheduled for termination. This
+     *            should be set to a conservative and safe value to prevent the
+     *            machine from being billed for an additional hour. A value of
+     *            zero is used to specify immediate termination when a
+     *            scale-down is ordered.
+     * @param victimScoreWeights
+     *            Optional weights of {@link VictimScore}s to weigh together
+     *            when selecting victims. May be <code>null</code>.
+     */
+    public ScaleInConfig(VictimSelectionPolicy victimSelectionPolicy, int instanceHourMargin,
+            Map<VictimScore, Double> victimScoreWeights) {
         this.victimSelectionPolicy = victimSelectionPolicy;
         this.instanceHourMargin = instanceHourMargin;
+        this.victimScoreWeights = victimScoreWeights;
     }
 
     /**
@@ -67,15 +110,54 @@ public class ScaleInConfig {
         return this.instanceHourMargin;
     }
 
+    /**
+     * Weights of {@link VictimScore}s to weigh together when selecting
+     * victims. An empty map means that victims are selected by the
+     * {@link #getVictimSelectionPolicy()} alone.
+     *
+     * @return
+     */
+    public Map<VictimScore, Double> getVictimScoreWeights() {
+        return Optional.ofNullable(this.victimScoreWeights).orElse(Collections.emptyMap());
+    }
+
+    /**
+     * Returns the {@link VictimSelectionStrategy} described by this
+     * {@link ScaleInConfig}. That is, the strategy of the
+     * {@link #getVictimSelectionPolicy()} or, if
+     * {@link #getVictimScoreWeights()} are given, a
+     * {@link WeightedVictimSelectionStrategy} that breaks ties according to the
+     * {@link #getVictimSelectionPolicy()}.
+     *
+     * @return
+     */
+    public VictimSelectionStrategy getVictimSelectionStrategy() {
+        if (getVictimScoreWeights().isEmpty()) {
+            return this.victimSelectionPolicy.getVictimSelectionStrategy();
+        }
+
+        Map<VictimScorer, Double> scorerWeights = new LinkedHashMap<>();
+        for (Entry<VictimScore, Double> weight : getVictimScoreWeights().entrySet()) {
+            scorerWeights.put(weight.getKey().getVictimScorer(), weight.getValue());
+        }
+        return new WeightedVictimSelectionStrategy(scorerWeights,
+                this.victimSelectionPolicy.getVictimSelectionStrategy().victimOrder());
+    }
+
     public void validate() throws IllegalArgumentException {
         checkArgument(this.victimSelectionPolicy != null, "victim selection policy cannot be null");
         checkArgument(Range.closedOpen(0, 3600).contains(this.instanceHourMargin),
                 "instance hour margin must be in interval [0, 3600)");
+        for (Entry<VictimScore, Double> weight : getVictimScoreWeights().entrySet()) {
+            checkArgument(weight.getKey() != null, "victimScoreWeights: unrecognized victim score");
+            checkArgument(weight.getValue() != null && weight.getValue() >= 0 && !weight.getValue().isInfinite(),
+                    "victimScoreWeights: weight of %s must be a non-negative number", weight.getKey());
+        }
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(this.victimSelectionPolicy, this.instanceHourMargin);
+        return Objects.hashCode(this.victimSelectionPolicy, this.instanceHourMargin, getVictimScoreWeights());
     }
 
     @Override
@@ -83,7 +165,8 @@ public class ScaleInConfig {
         if (obj instanceof ScaleInConfig) {
             ScaleInConfig that = (ScaleInConfig) obj;
             return equal(this.victimSelectionPolicy, that.victimSelectionPolicy)
-                    && equal(this.instanceHourMargin, that.instanceHourMargin);
+                    && equal(this.instanceHourMargin, that.instanceHourMargin)
+                    && equal(getVictimScoreWeights(), that.getVictimScoreWeights());
         }
         return false;
     }
@@ -0,0 +1,49 @@
+package com.elastisys.scale.cloudpool.commons.basepool.driver;
+
+import com.elastisys.scale.cloudpool.api.types.Machine;
+import com.elastisys.scale.cloudpool.commons.basepool.BaseCloudPool;
+import com.elastisys.scale.cloudpool.commons.basepool.config.PoolFetchConfig;
+
+/**
+ * A {@link CloudPoolDriver} that, in addition to full pool listings, is capable
+ * of reporting the changes to the pool members since a given pool version.
+ * <p/>
+ * This is an optional capability for clouds whose API can cheaply answer
+ * "what changed since" queries (for example, via resource versions or state
+ * change events). When a {@link BaseCloudPool} is handed such a driver, it
+ * keeps its view of the pool up-to-date by applying the reported
+ * {@link MachinePoolDelta}s to its last observation, rather than re-listing
+ * the entire pool on every refresh. A full listing is still made periodically
+ * (see {@link PoolFetchConfig#getFullResyncInterval()}) to recover from any
+ * drift.
+ *
+ * @see BaseCloudPool
+ */
+public interface ChangeTrackingCloudPoolDriver extends CloudPoolDriver {
+
+    /**
+     * Returns the changes to the members of the cloud pool since a given pool
+     * version.
+     * <p/>
+     * If {@code sinceVersion} is <code>null</code>, or if the driver is unable
+     * to compute the changes since {@code sinceVersion} (for example, because
+     * the version is too old to be known by the cloud API), a full listing
+     * must be returned (see {@link MachinePoolDelta#fullListing}).
+     * <p/>
+     * {@link Machine}s are reported according to the same rules as for
+     * {@link #listMachines()}.
+     *
+     * @param sinceVersion
+     *            The pool version (as returned by a previous call) to report
+     *            changes since. May be <code>null</code>, in which case a full
+     *            listing is requested.
+     * @return The pool changes since {@code sinceVersion}, together with the
+     *         new pool version.
+     *
+     * @throws IllegalStateException
+     *             If the {@link CloudPoolDriver} has not been configured.
+     * @throws CloudPoolDriverException
+     *             If the operation could not be completed.
+     */
+    MachinePoolDelta listMachineChanges(String sinceVersion) throws IllegalStateException, CloudPoolDriverException;
+}
@@ -0,0 +1,209 @@
+package com.elastisys.scale.cloudpool.commons.basepool.driver;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.elastisys.scale.cloudpool.api.types.Machine;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Starts a number of {@link Machine}s by splitting the request into chunks
+ * and fanning out one {@link CloudPoolDriver#startMachines(int)} call per
+ * chunk over a bounded number of threads.
+ * <p/>
+ * This shortens large scale-outs for {@link CloudPoolDriver}s that launch
+ * machines one at a time, and limits the cost of a failure to the chunk in
+ * which it occurred. The machines started by each chunk are reported as soon
+ * as the chunk completes, rather than when the entire request completes.
+ * <p/>
+ * Like {@link ParallelTerminator}, each call that spans several chunks runs on
+ * a thread pool of its own, which is torn down before the call returns. Calls
+ * are rare (one per scale-out) and each chunk is a long-running cloud API
+ * call, so the cost of creating the threads is negligible. A per-call pool
+ * also lets the {@code parallelism} follow the current configuration, and
+ * ensures that a stuck chunk never holds on to threads shared with other
+ * work.
+ */
+public class ChunkedLauncher {
+    private static final Logger LOG = LoggerFactory.getLogger(ChunkedLauncher.class);
+
+    private ChunkedLauncher() {
+        throw new UnsupportedOperationException(ChunkedLauncher.class.getName() + " is not instantiable.");
+    }
+
+    /**
+     * Starts a number of {@link Machine}s via
+     * {@link CloudPoolDriver#startMachines(int)}, with at most
+     * {@code chunkSize} machines requested per call and at most
+     * {@code parallelism} calls in flight at any time.
+     * <p/>
+     * The {@code chunkListener} is called from the calling thread with the
+     * machines started by each chunk, in the order in which chunks complete.
+     * This includes any machines started by a chunk that failed part-way
+     * through.
+     *
+     * @param driver
+     *            The {@link CloudPoolDriver} to start machines with.
+     * @param count
+     *            The number of {@link Machine}s to start.
+     * @param chunkSize
+     *            The maximum number of {@link Machine}s to request per call.
+     * @param parallelism
+     *            The maximum number of concurrent calls.
+     * @param chunkListener
+     *            Called with the machines started by each chunk.
+     * @return All started {@link Machine}s, in chunk order.
+     * @throws StartMachinesException
+     *             If any chunk failed. The exception holds all machines that
+     *             were started (by all chunks) and the error of the first
+     *             failed chunk, with the errors of any other failed chunks
+     *             attached as suppressed exceptions.
+     */
+    public static List<Machine> startMachines(CloudPoolDriver driver, int count, int chunkSize, int parallelism,
+            Consumer<List<Machine>> chunkListener) throws StartMachinesException {
+        checkArgument(driver != null, "driver cannot be null");
+        checkArgument(count >= 0, "count cannot be negative");
+        checkArgument(chunkSize > 0, "chunkSize must be positive");
+        checkArgument(parallelism > 0, "parallelism must be positive");
+        checkArgument(chunkListener != null, "chunkListener cannot be null");
+
+        List<Integer> chunks = new ArrayList<>();
+        for (int remaining = count; remaining > 0; remaining -= chunkSize) {
+            chunks.add(Math.min(chunkSize, remaining));
+        }
+        if (chunks.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (chunks.size() == 1) {
+            // no need for threads
+            return startSingleChunk(driver, count, chunkListener);
+        }
+
+        LOG.debug("starting {} machine(s) in {} chunk(s) of at most {}", count, chunks.size(), chunkSize);
+        List<List<Machine>> started = new ArrayList<>(Collections.nCopies(chunks.size(), Collections.emptyList()));
+        Throwable failure = null;
+        int threads = Math.min(parallelism, chunks.size());
+        ExecutorService executor = Executors.newFixedThreadPool(threads,
+                new ThreadFactoryBuilder().setNameFormat("launcher-%d").setDaemon(true).build());
+        try {
+            CompletionService<ChunkResult> completions = new ExecutorCompletionService<>(executor);
+            for (int i = 0; i < chunks.size(); i++) {
+                int chunk = i;
+                int chunkCount = chunks.get(i);
+                completions.submit(() -> tryStartChunk(driver, chunk, chunkCount));
+            }
+            for (int completed = 0; completed < chunks.size(); completed++) {
+                Future<ChunkResult> completion = completions.take();
+                ChunkResult result = getResult(completion);
+                started.set(result.chunk, result.startedMachines);
+                if (!result.startedMachines.isEmpty()) {
+                    chunkListener.accept(result.startedMachines);
+                }
+                if (result.error != null) {
+                    LOG.warn("failed to start chunk of {} machine(s): {}", chunks.get(result.chunk),
+                            result.error.getMessage());
+                    failure = addFailure(failure, result.error);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = addFailure(failure, e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<Machine> startedMachines = new ArrayList<>();
+        for (List<Machine> chunkMachines : started) {
+            startedMachines.addAll(chunkMachines);
+        }
+        LOG.debug("started {} of {} machine(s)", startedMachines.size(), count);
+        if (failure != null) {
+            throw new StartMachinesException(count, startedMachines, failure);
+        }
+        return startedMachines;
+    }
+
+    /**
+     * Starts all machines as a single chunk in the calling thread. Any
+     * machines that are started, also on failure, are passed to the
+     * {@code chunkListener} before returning (or throwing).
+     */
+    private static List<Machine> startSingleChunk(CloudPoolDriver driver, int count, Consumer<List<Machine>> chunkListener)
+            throws StartMachinesException {
+        try {
+            List<Machine> startedMachines = driver.startMachines(count);
+            if (!startedMachines.isEmpty()) {
+                chunkListener.accept(startedMachines);
+            }
+            return startedMachines;
+        } catch (StartMachinesException e) {
+            if (!e.getStartedMachines().isEmpty()) {
+                chunkListener.accept(e.getStartedMachines());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Starts one of several chunks. Never throws: the outcome, including any
+     * error, is captured in the returned {@link ChunkResult}.
+     */
+    private static ChunkResult tryStartChunk(CloudPoolDriver driver, int chunk, int count) {
+        try {
+            List<Machine> startedMachines = driver.startMachines(count);
+            return new ChunkResult(chunk, startedMachines, null);
+        } catch (StartMachinesException e) {
+            return new ChunkResult(chunk, e.getStartedMachines(), e.getCause() != null ? e.getCause() : e);
+        } catch (Exception e) {
+            return new ChunkResult(chunk, Collections.emptyList(), e);
+        }
+    }
+
+    private static ChunkResult getResult(Future<ChunkResult> completion) throws InterruptedException {
+        try {
+            return completion.get();
+        } catch (ExecutionException e) {
+            // tryStartChunk does not throw
+            throw new IllegalStateException("unexpected error from launcher: " + e.getMessage(), e.getCause());
+        }
+    }
+
+    private static Throwable addFailure(Throwable firstFailure, Throwable failure) {
+        if (firstFailure == null) {
+            return failure;
+        }
+        firstFailure.addSuppressed(failure);
+        return firstFailure;
+    }
+
+    /**
+     * The outcome of starting a chunk of machines.
+     */
+    private static class ChunkResult {
+        /** The index of the chunk. */
+        private final int chunk;
+        /** The machines that were started. */
+        private final List<Machine> startedMachines;
+        /** The error that made the chunk fail. <code>null</code> on success. */
+        private final Throwable error;
+
+        public ChunkResult(int chunk, List<Machine> startedMachines, Throwable error) {
+            this.chunk = chunk;
+            this.startedMachines = startedMachines;
+            this.error = error;
+        }
+    }
+}
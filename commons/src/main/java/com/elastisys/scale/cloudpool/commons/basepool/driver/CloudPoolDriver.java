@@ -140,6 +140,29 @@ public interface CloudPoolDriver {
     public void terminateMachine(String machineId)
             throws IllegalStateException, NotFoundException, CloudPoolDriverException;
 
+    /**
+     * Terminates a number of {@link Machine}s in the cloud pool.
+     * <p/>
+     * The outcome is reported per {@link Machine}: a machine that cannot be
+     * terminated (for example, because it is not a member of the pool) does
+     * not prevent the termination of the others.
+     * <p/>
+     * The default implementation calls {@link #terminateMachine(String)} for
+     * each machine, using a bounded number of concurrent calls (see
+     * {@link ParallelTerminator}). Implementations whose cloud API accepts
+     * several machines per termination call are encouraged to override this
+     * method with a bulk call.
+     *
+     * @param machineIds
+     *            The identifiers of the {@link Machine}s to terminate.
+     * @return The per-machine outcome of the terminations.
+     * @throws IllegalStateException
+     *             If the {@link CloudPoolDriver} has not been configured.
+     */
+    default TerminateMachinesResult terminateMachines(List<String> machineIds) throws IllegalStateException {
+        return ParallelTerminator.terminateMachines(this, machineIds, ParallelTerminator.DEFAULT_PARALLELISM);
+    }
+
     /**
      * Attaches an already running machine instance to the cloud pool.
      *
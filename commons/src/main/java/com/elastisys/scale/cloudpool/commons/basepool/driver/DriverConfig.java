@@ -3,6 +3,9 @@ package com.elastisys.scale.cloudpool.commons.basepool.driver;
 import static com.google.common.base.Objects.equal;
 import static com.google.common.base.Preconditions.checkArgument;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import com.elastisys.scale.cloudpool.commons.basepool.BaseCloudPool;
 import com.elastisys.scale.commons.json.JsonUtils;
 import com.google.common.base.Objects;
@@ -12,6 +15,15 @@ import com.google.gson.JsonObject;
  * Represents settings for a {@link CloudPoolDriver}. These settings get passed
  * to a {@link CloudPoolDriver} implementation whenever a new configuration has
  * been set for its parent {@link BaseCloudPool}.
+ * <p/>
+ * The cloud-specific settings documents are parsed into typed objects at most
+ * once per type: {@link #parseCloudApiSettings(Class)} and
+ * {@link #parseProvisioningTemplate(Class)} hand out the same (shared) instance
+ * on every call. A {@link CloudPoolDriver} will typically parse (and validate)
+ * its settings in {@link CloudPoolDriver#configure(DriverConfig)}, which makes
+ * later calls on hot paths (such as listing or starting machines) cheap lookups
+ * rather than repeated JSON deserialization. Parsed settings objects must
+ * therefore be treated as immutable, and so must the JSON documents.
  *
  * @see CloudPoolDriver#configure(DriverConfig)
  */
@@ -40,6 +52,17 @@ public class DriverConfig {
      */
     private final JsonObject provisioningTemplate;
 
+    /**
+     * Parsed {@link #cloudApiSettings}, keyed on type. Created on first use,
+     * since instances deserialized from JSON bypass field initializers.
+     */
+    private transient Map<Class<?>, Object> parsedCloudApiSettings;
+    /**
+     * Parsed {@link #provisioningTemplate}, keyed on type. Created on first
+     * use, since instances deserialized from JSON bypass field initializers.
+     */
+    private transient Map<Class<?>, Object> parsedProvisioningTemplates;
+
     /**
      * Creates a {@link DriverConfig}.
      *
@@ -92,20 +115,17 @@ public class DriverConfig {
 
     /**
      * Parses and deserializes the JSON {@link #cloudApiSettings} into a given
-     * Java type. Note: the client code is responsible for validating the
-     * contents of the returned object.
+     * Java type. The document is only parsed on the first call for a given
+     * type: later calls return the same instance. Note: the client code is
+     * responsible for validating the contents of the returned object.
      *
-     * @param provisioningTemplateType
+     * @param cloudApiSettingsType
      * @return
      * @throws IllegalArgumentException
      *             on parse failure
      */
     public <T> T parseCloudApiSettings(Class<T> cloudApiSettingsType) throws IllegalArgumentException {
-        try {
-            return JsonUtils.toObject(getCloudApiSettings(), cloudApiSettingsType);
-        } catch (Exception e) {
-            throw new IllegalArgumentException("failed to parse provisioningTemplate: " + e.getMessage(), e);
-        }
+        return parse("cloudApiSettings", getCloudApiSettings(), cloudApiSettingsType, parsedCloudApiSettings());
     }
 
     /**
@@ -121,8 +141,9 @@ public class DriverConfig {
 
     /**
      * Parses and deserializes the JSON {@link #provisioningTemplate} into a
-     * given Java type. Note: the client code is responsible for validating the
-     * contents of the returned object.
+     * given Java type. The document is only parsed on the first call for a
+     * given type: later calls return the same instance. Note: the client code
+     * is responsible for validating the contents of the returned object.
      *
      * @param provisioningTemplateType
      * @return
@@ -131,11 +152,57 @@ public class DriverConfig {
      *
      */
     public <T> T parseProvisioningTemplate(Class<T> provisioningTemplateType) throws IllegalArgumentException {
-        try {
-            return JsonUtils.toObject(getProvisioningTemplate(), provisioningTemplateType);
-        } catch (Exception e) {
-            throw new IllegalArgumentException("failed to parse provisioningTemplate: " + e.getMessage(), e);
+        return parse("provisioningTemplate", getProvisioningTemplate(), provisioningTemplateType,
+                parsedProvisioningTemplates());
+    }
+
+    private synchronized Map<Class<?>, Object> parsedCloudApiSettings() {
+        if (this.parsedCloudApiSettings == null) {
+            this.parsedCloudApiSettings = new ConcurrentHashMap<>();
+        }
+        return this.parsedCloudApiSettings;
+    }
+
+    private synchronized Map<Class<?>, Object> parsedProvisioningTemplates() {
+        if (this.parsedProvisioningTemplates == null) {
+            this.parsedProvisioningTemplates = new ConcurrentHashMap<>();
+        }
+        return this.parsedProvisioningTemplates;
+    }
+
+    /**
+     * Returns the cached parse of a JSON document into a given type, parsing
+     * the document if it has not been parsed into that type before. Parse
+     * failures are not cached.
+     *
+     * @param documentName
+     * @param document
+     * @param type
+     * @param cache
+     * @return
+     * @throws IllegalArgumentException
+     *             on parse failure
+     */
+    private static <T> T parse(String documentName, JsonObject document, Class<T> type, Map<Class<?>, Object> cache)
+            throws IllegalArgumentException {
+        Object parsed = cache.get(type);
+        if (parsed == null) {
+            try {
+                parsed = JsonUtils.toObject(document, type);
+            } catch (Exception e) {
+                throw new IllegalArgumentException(
+                        String.format("failed to parse %s: %s", documentName, e.getMessage()), e);
+            }
+            if (parsed == null) {
+                // missing document
+                return null;
+            }
+            Object previous = cache.putIfAbsent(type, parsed);
+            if (previous != null) {
+                parsed = previous;
+            }
         }
+        return type.cast(parsed);
     }
 
     /**
@@ -0,0 +1,172 @@
+package com.elastisys.scale.cloudpool.commons.basepool.driver;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.elastisys.scale.cloudpool.api.types.Machine;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+
+/**
+ * Describes the changes to the members of a cloud pool since a given pool
+ * version, as reported by a {@link ChangeTrackingCloudPoolDriver}.
+ * <p/>
+ * A {@link MachinePoolDelta} can either be incremental, in which case it
+ * describes the {@link Machine}s that were added, changed or removed since the
+ * requested version, or a <i>full listing</i>, in which case the added
+ * {@link Machine}s make up the entire pool.
+ *
+ * @see ChangeTrackingCloudPoolDriver
+ */
+public class MachinePoolDelta {
+
+    /**
+     * The pool version that this delta brings the pool up to. To be passed to
+     * the next call to
+     * {@link ChangeTrackingCloudPoolDriver#listMachineChanges(String)}.
+     */
+    private final String version;
+    /**
+     * <code>true</code> if this delta is a full listing of the pool, whose
+     * {@link #added} machines are to replace any previous pool members.
+     */
+    private final boolean fullListing;
+    /** {@link Machine}s that have entered the pool. */
+    private final List<Machine> added;
+    /** Pool members that have changed (for example, their state). */
+    private final List<Machine> changed;
+    /** Identifiers of pool members that have left the pool. */
+    private final List<String> removed;
+
+    /**
+     * Creates an incremental {@link MachinePoolDelta}.
+     *
+     * @param version
+     *            The pool version that this delta brings the pool up to.
+     * @param added
+     *            {@link Machine}s that have entered the pool.
+     * @param changed
+     *            Pool members that have changed (for example, their state).
+     * @param removed
+     *            Identifiers of pool members that have left the pool.
+     */
+    public MachinePoolDelta(String version, List<Machine> added, List<Machine> changed, List<String> removed) {
+        this(version, false, added, changed, removed);
+    }
+
+    private MachinePoolDelta(String version, boolean fullListing, List<Machine> added, List<Machine> changed,
+            List<String> removed) {
+        checkArgument(version != null, "machinePoolDelta: no version given");
+        checkArgument(added != null, "machinePoolDelta: added cannot be null");
+        checkArgument(changed != null, "machinePoolDelta: changed cannot be null");
+        checkArgument(removed != null, "machinePoolDelta: removed cannot be null");
+        this.version = version;
+        this.fullListing = fullListing;
+        this.added = ImmutableList.copyOf(added);
+        this.changed = ImmutableList.copyOf(changed);
+        this.removed = ImmutableList.copyOf(removed);
+    }
+
+    /**
+     * Creates a {@link MachinePoolDelta} that is a full listing of the pool
+     * members at a given version.
+     *
+     * @param version
+     *            The pool version of the listing.
+     * @param machines
+     *            All pool members.
+     * @return
+     */
+    public static MachinePoolDelta fullListing(String version, List<Machine> machines) {
+        return new MachinePoolDelta(version, true, machines, Collections.emptyList(), Collections.emptyList());
+    }
+
+    /**
+     * Returns the pool version that this delta brings the pool up to. To be
+     * passed to the next call to
+     * {@link ChangeTrackingCloudPoolDriver#listMachineChanges(String)}.
+     *
+     * @return
+     */
+    public String getVersion() {
+        return this.version;
+    }
+
+    /**
+     * Returns <code>true</code> if this delta is a full listing of the pool,
+     * whose {@link #getAdded()} machines are to replace any previous pool
+     * members.
+     *
+     * @return
+     */
+    public boolean isFullListing() {
+        return this.fullListing;
+    }
+
+    /**
+     * Returns the {@link Machine}s that have entered the pool.
+     *
+     * @return
+     */
+    public List<Machine> getAdded() {
+        return this.added;
+    }
+
+    /**
+     * Returns the pool members that have changed.
+     *
+     * @return
+     */
+    public List<Machine> getChanged() {
+        return this.changed;
+    }
+
+    /**
+     * Returns the identifiers of pool members that have left the pool.
+     *
+     * @return
+     */
+    public List<String> getRemoved() {
+        return this.removed;
+    }
+
+    /**
+     * Returns <code>true</code> if this is an incremental delta that carries
+     * no changes.
+     *
+     * @return
+     */
+    public boolean isEmpty() {
+        return !this.fullListing && this.added.isEmpty() && this.changed.isEmpty() && this.removed.isEmpty();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(this.version, this.fullListing, this.added, this.changed, this.removed);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof MachinePoolDelta) {
+            MachinePoolDelta that = (MachinePoolDelta) obj;
+            return Objects.equal(this.version, that.version) //
+                    && Objects.equal(this.fullListing, that.fullListing) //
+                    && Objects.equal(this.added, that.added) //
+                    && Objects.equal(this.changed, that.changed) //
+                    && Objects.equal(this.removed, that.removed);
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("version", this.version).add("fullListing", this.fullListing)
+                .add("added", Lists.transform(this.added, Machine.toShortString()))
+                .add("changed", Lists.transform(this.changed, Machine.toShortString())).add("removed", this.removed)
+                .toString();
+    }
+}
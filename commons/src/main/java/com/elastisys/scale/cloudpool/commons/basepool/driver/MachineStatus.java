@@ -0,0 +1,125 @@
+package com.elastisys.scale.cloudpool.commons.basepool.driver;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.elastisys.scale.cloudpool.api.types.Machine;
+import com.elastisys.scale.cloudpool.api.types.MachineState;
+import com.elastisys.scale.cloudpool.api.types.MembershipStatus;
+import com.elastisys.scale.cloudpool.api.types.ServiceState;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+
+/**
+ * A lightweight status of a cloud pool member, as reported by a
+ * {@link StateListingCloudPoolDriver}. It carries only the state of the
+ * {@link Machine}, and none of its (more costly to obtain) descriptive
+ * attributes, such as IP addresses and metadata.
+ *
+ * @see StateListingCloudPoolDriver
+ */
+public class MachineStatus {
+
+    /** The identifier of the {@link Machine}. */
+    private final String id;
+    /** The execution state of the {@link Machine}. */
+    private final MachineState machineState;
+    /**
+     * The pool membership status of the {@link Machine}. May be
+     * <code>null</code> if not known, in which case the last observed
+     * membership status is assumed to still hold.
+     */
+    private final MembershipStatus membershipStatus;
+    /**
+     * The service state of the {@link Machine}. May be <code>null</code> if
+     * not known, in which case the last observed service state is assumed to
+     * still hold.
+     */
+    private final ServiceState serviceState;
+
+    /**
+     * Creates a {@link MachineStatus}.
+     *
+     * @param id
+     *            The identifier of the {@link Machine}.
+     * @param machineState
+     *            The execution state of the {@link Machine}.
+     * @param membershipStatus
+     *            The pool membership status of the {@link Machine}. May be
+     *            <code>null</code> if not known, in which case the last
+     *            observed membership status is assumed to still hold.
+     * @param serviceState
+     *            The service state of the {@link Machine}. May be
+     *            <code>null</code> if not known, in which case the last
+     *            observed service state is assumed to still hold.
+     */
+    public MachineStatus(String id, MachineState machineState, MembershipStatus membershipStatus,
+            ServiceState serviceState) {
+        checkArgument(id != null, "machineStatus: no id given");
+        checkArgument(machineState != null, "machineStatus: no machineState given");
+        this.id = id;
+        this.machineState = machineState;
+        this.membershipStatus = membershipStatus;
+        this.serviceState = serviceState;
+    }
+
+    /**
+     * Returns the identifier of the {@link Machine}.
+     *
+     * @return
+     */
+    public String getId() {
+        return this.id;
+    }
+
+    /**
+     * Returns the execution state of the {@link Machine}.
+     *
+     * @return
+     */
+    public MachineState getMachineState() {
+        return this.machineState;
+    }
+
+    /**
+     * Returns the pool membership status of the {@link Machine}, or
+     * <code>null</code> if not known.
+     *
+     * @return
+     */
+    public MembershipStatus getMembershipStatus() {
+        return this.membershipStatus;
+    }
+
+    /**
+     * Returns the service state of the {@link Machine}, or <code>null</code>
+     * if not known.
+     *
+     * @return
+     */
+    public ServiceState getServiceState() {
+        return this.serviceState;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(this.id, this.machineState, this.membershipStatus, this.serviceState);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof MachineStatus) {
+            MachineStatus that = (MachineStatus) obj;
+            return Objects.equal(this.id, that.id) //
+                    && Objects.equal(this.machineState, that.machineState) //
+                    && Objects.equal(this.membershipStatus, that.membershipStatus) //
+                    && Objects.equal(this.serviceState, that.serviceState);
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("id", this.id).add("machineState", this.machineState)
+                .add("membershipStatus", this.membershipStatus).add("serviceState", this.serviceState).toString();
+    }
+}
@@ -0,0 +1,107 @@
+package com.elastisys.scale.cloudpool.commons.basepool.driver;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.elastisys.scale.cloudpool.api.types.Machine;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Terminates a number of {@link Machine}s by fanning out
+ * {@link CloudPoolDriver#terminateMachine(String)} calls over a bounded number
+ * of threads.
+ * <p/>
+ * Used as the default implementation of
+ * {@link CloudPoolDriver#terminateMachines(List)} for {@link CloudPoolDriver}s
+ * whose cloud API lacks a bulk termination call.
+ */
+public class ParallelTerminator {
+    private static final Logger LOG = LoggerFactory.getLogger(ParallelTerminator.class);
+
+    /**
+     * The default maximum number of termination calls to have in flight at any
+     * time.
+     */
+    public static final int DEFAULT_PARALLELISM = 10;
+
+    private ParallelTerminator() {
+        throw new UnsupportedOperationException(ParallelTerminator.class.getName() + " is not instantiable.");
+    }
+
+    /**
+     * Terminates a number of {@link Machine}s via
+     * {@link CloudPoolDriver#terminateMachine(String)}, with at most
+     * {@code parallelism} calls in flight at any time.
+     *
+     * @param driver
+     *            The {@link CloudPoolDriver} to terminate machines with.
+     * @param machineIds
+     *            The identifiers of the {@link Machine}s to terminate.
+     * @param parallelism
+     *            The maximum number of concurrent termination calls.
+     * @return The per-machine outcome of the terminations.
+     */
+    public static TerminateMachinesResult terminateMachines(CloudPoolDriver driver, List<String> machineIds,
+            int parallelism) {
+        checkArgument(driver != null, "driver cannot be null");
+        checkArgument(machineIds != null, "machineIds cannot be null");
+        checkArgument(parallelism > 0, "parallelism must be positive");
+
+        List<String> terminated = Lists.newArrayList();
+        Map<String, Throwable> failures = new LinkedHashMap<>();
+        if (machineIds.isEmpty()) {
+            return new TerminateMachinesResult(terminated, failures);
+        }
+        if (machineIds.size() == 1) {
+            // no need for threads
+            String machineId = machineIds.get(0);
+            try {
+                driver.terminateMachine(machineId);
+                terminated.add(machineId);
+            } catch (Exception e) {
+                failures.put(machineId, e);
+            }
+            return new TerminateMachinesResult(terminated, failures);
+        }
+
+        int threads = Math.min(parallelism, machineIds.size());
+        ExecutorService executor = Executors.newFixedThreadPool(threads,
+                new ThreadFactoryBuilder().setNameFormat("terminator-%d").setDaemon(true).build());
+        try {
+            Map<String, Future<?>> terminations = new LinkedHashMap<>();
+            for (String machineId : machineIds) {
+                terminations.put(machineId, executor.submit(() -> {
+                    driver.terminateMachine(machineId);
+                    return null;
+                }));
+            }
+            for (Map.Entry<String, Future<?>> termination : terminations.entrySet()) {
+                String machineId = termination.getKey();
+                try {
+                    termination.getValue().get();
+                    terminated.add(machineId);
+                } catch (ExecutionException e) {
+                    failures.put(machineId, e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failures.put(machineId, e);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        LOG.debug("terminated {} of {} machine(s)", terminated.size(), machineIds.size());
+        return new TerminateMachinesResult(terminated, failures);
+    }
+}
@@ -0,0 +1,47 @@
+package com.elastisys.scale.cloudpool.commons.basepool.driver;
+
+import java.util.List;
+
+import com.elastisys.scale.cloudpool.api.types.Machine;
+import com.elastisys.scale.cloudpool.commons.basepool.BaseCloudPool;
+import com.elastisys.scale.cloudpool.commons.basepool.config.PoolFetchConfig;
+
+/**
+ * A {@link CloudPoolDriver} that, in addition to full pool listings, is capable
+ * of a lightweight listing that only reports the state of each pool member.
+ * <p/>
+ * This is an optional capability for clouds where converting the cloud's
+ * representation of a machine to a {@link Machine} is costly (for example,
+ * because IP addresses or metadata require additional API calls per machine),
+ * while the state of the pool members can be listed cheaply. When a
+ * {@link BaseCloudPool} is handed such a driver, it uses the lightweight
+ * listing for its frequent pool refreshes and applies the reported
+ * {@link MachineStatus}es to its last full listing. A full listing is made
+ * when a lightweight listing reports a new pool member or a change in
+ * {@link Machine#getMachineState()} (which may come with new IP addresses or a
+ * launch time), and at least once every full resync interval (see
+ * {@link PoolFetchConfig#getFullResyncInterval()}) to pick up any other
+ * changes.
+ * <p/>
+ * Drivers that are {@link ChangeTrackingCloudPoolDriver}s are synchronized
+ * incrementally, in which case this capability is not used.
+ *
+ * @see BaseCloudPool
+ */
+public interface StateListingCloudPoolDriver extends CloudPoolDriver {
+
+    /**
+     * Returns the {@link MachineStatus} of each member of the cloud pool.
+     * <p/>
+     * The same set of machines must be reported as for
+     * {@link #listMachines()}.
+     *
+     * @return The status of each pool member.
+     *
+     * @throws IllegalStateException
+     *             If the {@link CloudPoolDriver} has not been configured.
+     * @throws CloudPoolDriverException
+     *             If the operation could not be completed.
+     */
+    List<MachineStatus> listMachineStates() throws IllegalStateException, CloudPoolDriverException;
+}
@@ -0,0 +1,98 @@
+package com.elastisys.scale.cloudpool.commons.basepool.driver;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.elastisys.scale.cloudpool.api.types.Machine;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * The outcome of a {@link CloudPoolDriver#terminateMachines(List)} call,
+ * reported per {@link Machine}: each requested machine is either among the
+ * terminated machines or has an associated error describing why it could not
+ * be terminated.
+ */
+public class TerminateMachinesResult {
+
+    /** Identifiers of the {@link Machine}s that were terminated. */
+    private final List<String> terminatedMachines;
+    /**
+     * Identifiers of the {@link Machine}s that could not be terminated, each
+     * mapped to the error that prevented its termination.
+     */
+    private final Map<String, Throwable> failures;
+
+    /**
+     * Creates a {@link TerminateMachinesResult}.
+     *
+     * @param terminatedMachines
+     *            Identifiers of the {@link Machine}s that were terminated.
+     * @param failures
+     *            Identifiers of the {@link Machine}s that could not be
+     *            terminated, each mapped to the error that prevented its
+     *            termination.
+     */
+    public TerminateMachinesResult(List<String> terminatedMachines, Map<String, Throwable> failures) {
+        checkArgument(terminatedMachines != null, "terminateMachinesResult: terminatedMachines cannot be null");
+        checkArgument(failures != null, "terminateMachinesResult: failures cannot be null");
+        this.terminatedMachines = ImmutableList.copyOf(terminatedMachines);
+        // preserve iteration order of given map
+        this.failures = ImmutableMap.copyOf(new LinkedHashMap<>(failures));
+    }
+
+    /**
+     * Returns the identifiers of the {@link Machine}s that were terminated.
+     *
+     * @return
+     */
+    public List<String> getTerminatedMachines() {
+        return this.terminatedMachines;
+    }
+
+    /**
+     * Returns the identifiers of the {@link Machine}s that could not be
+     * terminated, each mapped to the error that prevented its termination.
+     *
+     * @return
+     */
+    public Map<String, Throwable> getFailures() {
+        return this.failures;
+    }
+
+    /**
+     * Returns <code>true</code> if all requested {@link Machine}s were
+     * terminated.
+     *
+     * @return
+     */
+    public boolean isSuccessful() {
+        return this.failures.isEmpty();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(this.terminatedMachines, this.failures);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof TerminateMachinesResult) {
+            TerminateMachinesResult that = (TerminateMachinesResult) obj;
+            return Objects.equal(this.terminatedMachines, that.terminatedMachines)
+                    && Objects.equal(this.failures, that.failures);
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("terminatedMachines", this.terminatedMachines)
+                .add("failures", this.failures.keySet()).toString();
+    }
+}
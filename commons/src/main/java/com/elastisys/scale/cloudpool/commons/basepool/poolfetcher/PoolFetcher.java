@@ -4,6 +4,7 @@ import java.io.Closeable;
 
 import com.elastisys.scale.cloudpool.api.CloudPoolException;
 import com.elastisys.scale.cloudpool.api.types.MachinePool;
+import com.elastisys.scale.commons.json.types.TimeInterval;
 
 /**
  * Retrieves the {@link MachinePool} members from the cloud provider API.
@@ -33,6 +34,27 @@ public interface PoolFetcher extends Closeable {
      */
     MachinePool get(FetchOption... options) throws CloudPoolException;
 
+    /**
+     * Returns a {@link MachinePool} observation that is at most a given age.
+     * Implementations that serve cached observations need to refresh their
+     * view of the pool members if it is older than that.
+     * <p/>
+     * The default implementation calls {@link #get(FetchOption...)} with
+     * {@link FetchOption#FORCE_REFRESH}, which satisfies any maximum age.
+     *
+     * @param maxAge
+     *            The maximum accepted age of the {@link MachinePool}
+     *            observation. A zero age is equivalent to
+     *            {@link FetchOption#FORCE_REFRESH}.
+     * @return A time-stamped {@link MachinePool} observation.
+     * @throws CloudPoolException
+     *             On failure to supply a sufficiently up-to-date
+     *             {@link MachinePool}.
+     */
+    default MachinePool get(TimeInterval maxAge) throws CloudPoolException {
+        return get(FetchOption.FORCE_REFRESH);
+    }
+
     /**
      * Closes this {@link PoolFetcher}, allowing it to release any held system
      * resources. A {@link PoolFetcher} can not be used after it has been
@@ -0,0 +1,116 @@
+package com.elastisys.scale.cloudpool.commons.basepool.poolfetcher.impl;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+import com.elastisys.scale.cloudpool.api.types.Machine;
+import com.elastisys.scale.cloudpool.api.types.MachinePool;
+import com.elastisys.scale.cloudpool.api.types.MachineState;
+import com.elastisys.scale.cloudpool.commons.basepool.config.AdaptiveRefreshConfig;
+
+/**
+ * Calculates the delay until the next periodical {@link MachinePool} refresh
+ * of a {@link CachingPoolFetcher} according to an
+ * {@link AdaptiveRefreshConfig}.
+ * <p/>
+ * The delay is reset to the minimum interval whenever a refresh finds the pool
+ * in motion, which is the case if
+ * <ul>
+ * <li>any machine is in a transitional state ({@link MachineState#REQUESTED},
+ * {@link MachineState#PENDING} or {@link MachineState#TERMINATING}),</li>
+ * <li>the number of active machines differs from the desired size (if known),
+ * or</li>
+ * <li>the pool has changed since the previous refresh (as told by
+ * {@link MachinePool#getFingerprint()}).</li>
+ * </ul>
+ * Otherwise, the previous delay is grown by the backoff factor, up to the
+ * maximum interval. A failed refresh leaves the delay unchanged.
+ * <p/>
+ * Instances are not thread-safe.
+ */
+class AdaptiveRefreshInterval {
+
+    /** Machine states that indicate that the pool is in motion. */
+    private static final Set<MachineState> TRANSITIONAL_STATES = EnumSet.of(MachineState.REQUESTED,
+            MachineState.PENDING, MachineState.TERMINATING);
+
+    private final long minMillis;
+    private final long maxMillis;
+    private final double backoffFactor;
+
+    /** The current delay between refreshes. */
+    private long currentMillis;
+    /** Fingerprint of the previously refreshed pool. */
+    private String previousFingerprint;
+
+    /**
+     * Creates an {@link AdaptiveRefreshInterval}.
+     *
+     * @param config
+     *            The adaptive refresh settings.
+     * @param initialMillis
+     *            The initial delay between refreshes (clamped to the
+     *            configured bounds).
+     */
+    public AdaptiveRefreshInterval(AdaptiveRefreshConfig config, long initialMillis) {
+        checkArgument(config != null, "adaptiveRefresh config cannot be null");
+        this.minMillis = config.getMinInterval().getMillis();
+        this.maxMillis = config.getMaxInterval().getMillis();
+        this.backoffFactor = config.getBackoffFactor();
+        this.currentMillis = clamp(initialMillis);
+    }
+
+    /**
+     * Returns the current delay between refreshes.
+     *
+     * @return
+     */
+    public long currentMillis() {
+        return this.currentMillis;
+    }
+
+    /**
+     * Updates the delay between refreshes after a successful refresh.
+     *
+     * @param pool
+     *            The refreshed pool.
+     * @param desiredSize
+     *            The desired size of the pool. <code>null</code> if unknown.
+     * @return The delay until the next refresh.
+     */
+    public long onRefresh(MachinePool pool, Integer desiredSize) {
+        boolean changed = this.previousFingerprint != null && !this.previousFingerprint.equals(pool.getFingerprint());
+        this.previousFingerprint = pool.getFingerprint();
+
+        if (changed || inTransition(pool) || (desiredSize != null && desiredSize != pool.getActiveMachines().size())) {
+            this.currentMillis = this.minMillis;
+        } else {
+            this.currentMillis = clamp((long) (this.currentMillis * this.backoffFactor));
+        }
+        return this.currentMillis;
+    }
+
+    /**
+     * Returns the delay until the next refresh after a failed refresh.
+     *
+     * @return
+     */
+    public long onFailure() {
+        return this.currentMillis;
+    }
+
+    private static boolean inTransition(MachinePool pool) {
+        for (Machine machine : pool.getMachines()) {
+            if (TRANSITIONAL_STATES.contains(machine.getMachineState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private long clamp(long millis) {
+        return Math.max(this.minMillis, Math.min(this.maxMillis, millis));
+    }
+}
@@ -1,13 +1,19 @@
 package com.elastisys.scale.cloudpool.commons.basepool.poolfetcher.impl;
 
 import static com.elastisys.scale.cloudpool.commons.basepool.alerts.AlertTopics.POOL_FETCH;
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
 import static java.lang.String.format;
 
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 import org.joda.time.DateTime;
 import org.joda.time.Duration;
@@ -20,29 +26,67 @@ import com.elastisys.scale.cloudpool.commons.basepool.StateStorage;
 import com.elastisys.scale.cloudpool.commons.basepool.config.PoolFetchConfig;
 import com.elastisys.scale.cloudpool.commons.basepool.poolfetcher.FetchOption;
 import com.elastisys.scale.cloudpool.commons.basepool.poolfetcher.PoolFetcher;
-import com.elastisys.scale.commons.json.persistence.PersistentState;
 import com.elastisys.scale.commons.json.types.TimeInterval;
 import com.elastisys.scale.commons.net.alerter.Alert;
 import com.elastisys.scale.commons.net.alerter.AlertBuilder;
 import com.elastisys.scale.commons.net.alerter.AlertSeverity;
 import com.elastisys.scale.commons.net.alerter.Alerter;
 import com.elastisys.scale.commons.util.time.UtcTime;
+import com.google.common.base.Optional;
 import com.google.common.eventbus.EventBus;
 
 /**
  * A {@link PoolFetcher} that caches {@link MachinePool}s retrieved by a wrapped
  * {@link PoolFetcher} for a configurable time (thereby also masking failures to
  * retrieve pool members from the backing cloud API).
+ * <p/>
+ * If a {@link PoolFetchConfig#getRefreshCoalescingWindow()} is configured,
+ * refreshes are carried out in a single-flight manner: callers that request a
+ * refresh while another refresh is in progress wait for and share the result
+ * of that ongoing refresh, and callers that request a refresh shortly (within
+ * the coalescing window) after a successful refresh are served the freshly
+ * cached {@link MachinePool}. A caller of {@link #get(TimeInterval)} (or of
+ * {@link #get(FetchOption...)} with {@link FetchOption#FORCE_REFRESH}) is only
+ * served a shared refresh that started within the maximum age that it demands,
+ * so that it never gets an observation that predates what it asked for (such
+ * as its own latest modification of the pool).
+ * <p/>
+ * The cached {@link MachinePool} is persisted to the {@link StateStorage} by a
+ * {@link MachinePoolJournal}, which only writes the changes between subsequent
+ * observations, and is recovered when the {@link CachingPoolFetcher} is
+ * created.
+ * <p/>
+ * If {@link PoolFetchConfig#getAdaptiveRefresh()} is configured, the delay
+ * between periodical refreshes adapts to pool activity (see
+ * {@link AdaptiveRefreshInterval}): it is kept short while the pool is in
+ * motion and backs off while the pool is stable. Since the pool is also
+ * considered in motion while its size differs from the desired size, the owner
+ * of the desired size should register itself via
+ * {@link #setDesiredSizeSource(Supplier)}.
+ * <p/>
+ * While the delegate's circuit breaker is open (see
+ * {@link RetryingPoolFetcher}), refreshes are denied with a
+ * {@link CircuitOpenException}. Such denials are not treated as fetch
+ * failures: callers that demand a refresh are served the cached
+ * {@link MachinePool} for as long as it is within the reachability timeout, and
+ * a single {@link Alert} is posted when the circuit opens and another one when
+ * it closes again.
  */
 public class CachingPoolFetcher implements PoolFetcher {
     private static final Logger LOG = LoggerFactory.getLogger(CachingPoolFetcher.class);
 
     /** Wrapped {@link PoolFetcher} to delegate actual fetching to. */
-    private final PoolFetcher delegate;
+    private volatile PoolFetcher delegate;
     /** Controls fetch behavior. */
-    private final PoolFetchConfig fetchConfig;
+    private volatile PoolFetchConfig fetchConfig;
     /** The last pool fetch error. */
-    private Throwable lastFetchError;
+    private volatile Throwable lastFetchError;
+    /**
+     * Set while the delegate denies refreshes with a
+     * {@link CircuitOpenException}. Used to only alert on circuit state
+     * transitions.
+     */
+    private final AtomicBoolean circuitOpen = new AtomicBoolean(false);
     /**
      * {@link CountDownLatch} that can be used to wait for the first fetch
      * attempt to complete (successful or not). See {@link #awaitFirstFetch()}.
@@ -55,10 +99,57 @@ public class CachingPoolFetcher implements PoolFetcher {
      */
     private final EventBus eventBus;
 
-    private final PersistentState<MachinePool> cachedMachinePool;
+    /**
+     * The cached {@link MachinePool}, which is persisted to the
+     * {@link StateStorage} by journaling the changes between observations.
+     */
+    private final MachinePoolJournal cachedMachinePool;
+
+    /** Executor used to schedule periodical refreshes. */
+    private final ScheduledExecutorService executor;
+    /**
+     * Calculates the delay between periodical refreshes when adaptive
+     * refreshing is enabled. <code>null</code> otherwise. Replaced on
+     * {@link #reconfigure(PoolFetcher, PoolFetchConfig)}.
+     */
+    private volatile AdaptiveRefreshInterval adaptiveRefreshInterval;
+    /**
+     * Supplies the desired size of the pool (<code>null</code> if not known).
+     * Only used for adaptive refreshing.
+     */
+    private volatile Supplier<Integer> desiredSizeSource = () -> null;
+
+    /** Lock that protects {@link #refreshTask} and {@link #closed}. */
+    private final Object refreshTaskLock = new Object();
+    /**
+     * Task that periodically refreshes the cached {@link MachinePool}. With
+     * adaptive refreshing, this is the next scheduled refresh.
+     */
+    private ScheduledFuture<?> refreshTask;
+    /** Set when the {@link CachingPoolFetcher} has been closed. */
+    private boolean closed;
 
-    /** Task that periodically refreshes the cached {@link MachinePool}. */
-    private final ScheduledFuture<?> refreshTask;
+    /**
+     * Lock that protects {@link #inFlightRefresh}, {@link #inFlightRefreshStart}
+     * and {@link #lastRefreshStart}.
+     */
+    private final Object refreshLock = new Object();
+    /**
+     * The currently executing refresh, if any. Only used when refresh
+     * coalescing is enabled. Any caller that requests a refresh while this is
+     * set waits for its outcome instead of calling through to the delegate,
+     * provided that the refresh started recently enough for the caller.
+     */
+    private CompletableFuture<MachinePool> inFlightRefresh;
+    /** The time when the {@link #inFlightRefresh} was started. */
+    private DateTime inFlightRefreshStart;
+    /**
+     * The time when the refresh that produced the cached {@link MachinePool}
+     * was started. <code>null</code> if no refresh has completed (for example,
+     * if the cached pool was recovered from the {@link StateStorage}). Only
+     * used when refresh coalescing is enabled.
+     */
+    private DateTime lastRefreshStart;
 
     /**
      * Creates a {@link CachingPoolFetcher} with a given {@link PoolFetcher}
@@ -76,9 +167,13 @@ public class CachingPoolFetcher implements PoolFetcher {
         this.delegate = delegate;
         this.fetchConfig = fetchConfig;
         this.eventBus = eventBus;
+        this.executor = executor;
+        this.adaptiveRefreshInterval = fetchConfig.getAdaptiveRefresh() == null ? null
+                : new AdaptiveRefreshInterval(fetchConfig.getAdaptiveRefresh(),
+                        fetchConfig.getRefreshInterval().getMillis());
 
-        this.cachedMachinePool = new PersistentState<MachinePool>(stateStorage.getCachedMachinePoolFile(),
-                MachinePool.class);
+        this.cachedMachinePool = new MachinePoolJournal(stateStorage.getCachedMachinePoolFile(),
+                stateStorage.getCachedMachinePoolJournalFile());
         if (this.cachedMachinePool.get().isPresent()) {
             LOG.info("recovered cached machine pool: {}", this.cachedMachinePool.get().get());
         } else {
@@ -87,15 +182,55 @@ public class CachingPoolFetcher implements PoolFetcher {
         this.lastFetchError = null;
         this.firstFetchComplete = new CountDownLatch(1);
 
-        this.refreshTask = startPeriodicalFetch(executor, fetchConfig);
+        synchronized (this.refreshTaskLock) {
+            this.refreshTask = startPeriodicalFetch(fetchConfig, 0L);
+        }
 
         LOG.debug("started {}", getClass().getSimpleName());
     }
 
-    private ScheduledFuture<?> startPeriodicalFetch(ScheduledExecutorService executor, PoolFetchConfig fetchConfig) {
-        TimeInterval refreshInterval = fetchConfig.getRefreshInterval();
-        return executor.scheduleWithFixedDelay(new PoolRefreshTask(this), 0L, refreshInterval.getTime(),
-                refreshInterval.getUnit());
+    private ScheduledFuture<?> startPeriodicalFetch(PoolFetchConfig fetchConfig, long initialDelayMillis) {
+        AdaptiveRefreshInterval adaptiveRefreshInterval = this.adaptiveRefreshInterval;
+        if (adaptiveRefreshInterval != null) {
+            return this.executor.schedule(new AdaptivePoolRefreshTask(this, adaptiveRefreshInterval),
+                    initialDelayMillis, TimeUnit.MILLISECONDS);
+        }
+        return this.executor.scheduleWithFixedDelay(new PoolRefreshTask(this), initialDelayMillis,
+                fetchConfig.getRefreshInterval().getMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Applies a new configuration without discarding the cached
+     * {@link MachinePool}. The periodical refreshes are rescheduled according
+     * to the new configuration, with the next refresh being due one refresh
+     * interval from now (rather than immediately), so that a reconfiguration
+     * does not cause a burst of calls to the cloud API.
+     *
+     * @param delegate
+     *            Wrapped {@link PoolFetcher} to delegate actual fetching to.
+     * @param fetchConfig
+     *            Controls fetch behavior.
+     */
+    public void reconfigure(PoolFetcher delegate, PoolFetchConfig fetchConfig) {
+        checkArgument(delegate != null, "delegate cannot be null");
+        checkArgument(fetchConfig != null, "fetchConfig cannot be null");
+        synchronized (this.refreshTaskLock) {
+            if (this.closed) {
+                return;
+            }
+            this.delegate = delegate;
+            this.fetchConfig = fetchConfig;
+            this.adaptiveRefreshInterval = fetchConfig.getAdaptiveRefresh() == null ? null
+                    : new AdaptiveRefreshInterval(fetchConfig.getAdaptiveRefresh(),
+                            fetchConfig.getRefreshInterval().getMillis());
+            if (this.refreshTask != null) {
+                this.refreshTask.cancel(false);
+            }
+            long initialDelayMillis = this.adaptiveRefreshInterval != null
+                    ? this.adaptiveRefreshInterval.currentMillis() : fetchConfig.getRefreshInterval().getMillis();
+            this.refreshTask = startPeriodicalFetch(fetchConfig, initialDelayMillis);
+        }
+        LOG.debug("reconfigured {}", getClass().getSimpleName());
     }
 
     /**
@@ -114,22 +249,124 @@ public class CachingPoolFetcher implements PoolFetcher {
         }
     }
 
+    /**
+     * Returns <code>true</code> if a {@link MachinePool} observation that is
+     * younger than the reachability timeout is cached, either from a completed
+     * fetch or recovered from the {@link StateStorage} of a previous run.
+     *
+     * @return
+     */
+    public boolean hasFreshCachedPool() {
+        return !cacheEmpty() && !reachabilityTimeoutExceeded(this.cachedMachinePool.get().get());
+    }
+
     @Override
     public void close() {
         // stop periodical execution of cache update task
         LOG.debug("stopping {} ...", getClass().getSimpleName());
-        if (this.refreshTask != null) {
-            this.refreshTask.cancel(true);
+        synchronized (this.refreshTaskLock) {
+            this.closed = true;
+            if (this.refreshTask != null) {
+                this.refreshTask.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Registers the source of the desired pool size, which is used to keep
+     * refreshing often while the pool size differs from the desired size. Only
+     * has an effect when adaptive refreshing is enabled.
+     *
+     * @param desiredSizeSource
+     *            Supplies the desired size of the pool, or <code>null</code>
+     *            if not known.
+     */
+    public void setDesiredSizeSource(Supplier<Integer> desiredSizeSource) {
+        checkArgument(desiredSizeSource != null, "desiredSizeSource cannot be null");
+        this.desiredSizeSource = desiredSizeSource;
+    }
+
+    /**
+     * Carries out a periodical refresh when adaptive refreshing is enabled,
+     * and schedules the next one with a delay that depends on the outcome.
+     *
+     * @param adaptiveRefreshInterval
+     *            The {@link AdaptiveRefreshInterval} that scheduled the
+     *            refresh. No further refreshes are scheduled if it has been
+     *            replaced by a reconfiguration in the meantime.
+     */
+    void adaptiveRefresh(AdaptiveRefreshInterval adaptiveRefreshInterval) {
+        long delayMillis;
+        try {
+            MachinePool pool = refreshCache();
+            delayMillis = adaptiveRefreshInterval.onRefresh(pool, desiredSize());
+        } catch (Exception e) {
+            delayMillis = adaptiveRefreshInterval.onFailure();
+        }
+        synchronized (this.refreshTaskLock) {
+            if (!this.closed && adaptiveRefreshInterval == this.adaptiveRefreshInterval) {
+                LOG.debug("next machine pool refresh in {} ms", delayMillis);
+                this.refreshTask = this.executor.schedule(
+                        new AdaptivePoolRefreshTask(this, adaptiveRefreshInterval), delayMillis,
+                        TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    private Integer desiredSize() {
+        try {
+            return this.desiredSizeSource.get();
+        } catch (Exception e) {
+            LOG.debug("could not determine desired size: {}", e.getMessage());
+            return null;
         }
     }
 
     @Override
     public MachinePool get(FetchOption... options) throws CloudPoolException {
-        if (forceRefresh(options)) {
-            refreshCache();
-            return this.cachedMachinePool.get().get();
+        if (options != null && Arrays.asList(options).contains(FetchOption.FORCE_REFRESH)) {
+            return getWithMaxAge(0L);
         }
+        return cachedPool();
+    }
+
+    @Override
+    public MachinePool get(TimeInterval maxAge) throws CloudPoolException {
+        checkArgument(maxAge != null, "maxAge cannot be null");
+        maxAge.validate();
+        return getWithMaxAge(maxAge.getMillis());
+    }
 
+    /**
+     * Returns a {@link MachinePool} observation that is at most a given age,
+     * refreshing the cache if needed.
+     *
+     * @param maxAgeMillis
+     *            The maximum accepted age of the observation.
+     * @return
+     * @throws CloudPoolException
+     */
+    private MachinePool getWithMaxAge(long maxAgeMillis) throws CloudPoolException {
+        if (refreshNeeded(maxAgeMillis)) {
+            try {
+                return refreshCache(UtcTime.now().minus(maxAgeMillis));
+            } catch (CircuitOpenException e) {
+                // fall back to serving the cached pool, as long as it is
+                // within the reachability timeout
+                LOG.debug("refresh denied by open circuit, serving cached machine pool");
+            }
+        }
+        return cachedPool();
+    }
+
+    /**
+     * Returns the cached {@link MachinePool}, provided that it is within the
+     * reachability timeout.
+     *
+     * @return
+     * @throws CloudPoolException
+     */
+    private MachinePool cachedPool() throws CloudPoolException {
         if (cacheEmpty()) {
             LOG.debug("no machine pool in cache yet. failing ...");
             poolUnreachableFailure();
@@ -192,21 +429,257 @@ public class CachingPoolFetcher implements PoolFetcher {
         return cacheAgeSeconds >= maxAgeSeconds;
     }
 
-    private boolean forceRefresh(FetchOption... options) {
-        return options != null && Arrays.asList(options).contains(FetchOption.FORCE_REFRESH);
+    /**
+     * Determines if the cached {@link MachinePool} needs to be refreshed to
+     * satisfy a given maximum age. That is, returns <code>true</code> if the
+     * cached {@link MachinePool} is missing or older than the maximum age.
+     *
+     * @param maxAgeMillis
+     * @return
+     */
+    private boolean refreshNeeded(long maxAgeMillis) {
+        if (maxAgeMillis == 0 || cacheEmpty()) {
+            return true;
+        }
+        DateTime cacheTimestamp = this.cachedMachinePool.get().get().getTimestamp();
+        long cacheAgeMillis = new Duration(cacheTimestamp, UtcTime.now()).getMillis();
+        if (cacheAgeMillis <= maxAgeMillis) {
+            LOG.debug("cached machine pool within requested max age ({} ms)", maxAgeMillis);
+            return false;
+        }
+        return true;
     }
 
     /**
      * Forces a refresh of the cached machine pool. In case of failure, an
      * {@link Alert} is posted on the {@link EventBus} and a
      * {@link CloudPoolException} is thrown.
+     * <p/>
+     * If refresh coalescing is enabled, the refresh may be served by a
+     * concurrently executing refresh or by a refresh that completed within the
+     * coalescing window.
      *
+     * @return The refreshed {@link MachinePool}.
      * @throws CloudPoolException
      */
-    void refreshCache() throws CloudPoolException {
+    MachinePool refreshCache() throws CloudPoolException {
+        return refreshCache(null);
+    }
+
+    /**
+     * Forces a refresh of the cached machine pool. In case of failure, an
+     * {@link Alert} is posted on the {@link EventBus} and a
+     * {@link CloudPoolException} is thrown.
+     * <p/>
+     * If refresh coalescing is enabled, the refresh may be served by a
+     * concurrently executing refresh or by a refresh that completed within the
+     * coalescing window, provided that the shared refresh was started no
+     * earlier than {@code notBefore}.
+     *
+     * @param notBefore
+     *            The earliest start time of a shared refresh that the caller
+     *            accepts. May be <code>null</code>, in which case any shared
+     *            refresh is accepted.
+     * @return The refreshed {@link MachinePool}.
+     * @throws CloudPoolException
+     */
+    private MachinePool refreshCache(DateTime notBefore) throws CloudPoolException {
+        TimeInterval coalescingWindow = this.fetchConfig.getRefreshCoalescingWindow();
+        if (coalescingWindow == null) {
+            try {
+                return doRefresh();
+            } finally {
+                this.firstFetchComplete.countDown();
+            }
+        }
+
+        while (true) {
+            CompletableFuture<MachinePool> ongoingRefresh;
+            DateTime ongoingRefreshStart;
+            CompletableFuture<MachinePool> ownRefresh = null;
+            DateTime ownRefreshStart = null;
+            synchronized (this.refreshLock) {
+                ongoingRefresh = this.inFlightRefresh;
+                ongoingRefreshStart = this.inFlightRefreshStart;
+                if (ongoingRefresh == null) {
+                    if (recentlyRefreshed(coalescingWindow) && startedInTime(this.lastRefreshStart, notBefore)) {
+                        MachinePool cachedPool = this.cachedMachinePool.get().get();
+                        LOG.debug("reusing recently refreshed machine pool: {}", cachedPool);
+                        return cachedPool;
+                    }
+                    // no refresh in progress: we are the ones to carry it out
+                    ownRefresh = new CompletableFuture<>();
+                    ownRefreshStart = UtcTime.now();
+                    this.inFlightRefresh = ownRefresh;
+                    this.inFlightRefreshStart = ownRefreshStart;
+                }
+            }
+            if (ownRefresh != null) {
+                return carryOutRefresh(ownRefresh, ownRefreshStart);
+            }
+            if (startedInTime(ongoingRefreshStart, notBefore)) {
+                LOG.debug("joining in-flight machine pool refresh ...");
+                return awaitRefresh(ongoingRefresh);
+            }
+            // the in-flight refresh may observe the pool as it was before the
+            // caller's freshness point: let it finish and refresh again
+            LOG.debug("in-flight machine pool refresh started too early, awaiting its completion ...");
+            awaitCompletion(ongoingRefresh);
+        }
+    }
+
+    /**
+     * Carries out a refresh that has been registered as the
+     * {@link #inFlightRefresh}, and completes it with the outcome.
+     *
+     * @param refresh
+     *            The registered refresh.
+     * @param start
+     *            The time when the refresh was started.
+     * @return The refreshed {@link MachinePool}.
+     * @throws CloudPoolException
+     */
+    private MachinePool carryOutRefresh(CompletableFuture<MachinePool> refresh, DateTime start)
+            throws CloudPoolException {
+        boolean succeeded = false;
+        try {
+            MachinePool pool = doRefresh();
+            succeeded = true;
+            refresh.complete(pool);
+            return pool;
+        } catch (CloudPoolException e) {
+            refresh.completeExceptionally(e);
+            throw e;
+        } finally {
+            synchronized (this.refreshLock) {
+                this.inFlightRefresh = null;
+                this.inFlightRefreshStart = null;
+                if (succeeded) {
+                    this.lastRefreshStart = start;
+                }
+            }
+            // note: only signal first fetch completion once the refresh is no
+            // longer in flight, so that waiters do not join it
+            this.firstFetchComplete.countDown();
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if a refresh started at the given time
+     * satisfies a caller that demands refreshes started no earlier than
+     * {@code notBefore}.
+     *
+     * @param refreshStart
+     *            The start time of the refresh. May be <code>null</code> if
+     *            unknown.
+     * @param notBefore
+     *            The earliest accepted start time. May be <code>null</code>,
+     *            in which case any refresh is accepted.
+     * @return
+     */
+    private static boolean startedInTime(DateTime refreshStart, DateTime notBefore) {
+        if (notBefore == null) {
+            return true;
+        }
+        return refreshStart != null && !refreshStart.isBefore(notBefore);
+    }
+
+    /**
+     * Waits for a refresh carried out by a different thread to complete,
+     * regardless of its outcome.
+     *
+     * @param refresh
+     *            The in-flight refresh.
+     * @throws CloudPoolException
+     *             If interrupted while waiting.
+     */
+    private void awaitCompletion(CompletableFuture<MachinePool> refresh) throws CloudPoolException {
+        try {
+            refresh.get();
+        } catch (ExecutionException e) {
+            // outcome is of no interest
+        } catch (InterruptedException e) {
+            throw new CloudPoolException(
+                    String.format("interrupted while waiting for machine pool refresh: %s", e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Waits for a refresh carried out by a different thread to complete and
+     * returns its outcome.
+     *
+     * @param refresh
+     *            The in-flight refresh.
+     * @return The refreshed {@link MachinePool}.
+     * @throws CloudPoolException
+     *             If the refresh failed.
+     */
+    private MachinePool awaitRefresh(CompletableFuture<MachinePool> refresh) throws CloudPoolException {
+        try {
+            return refresh.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CircuitOpenException) {
+                throw (CircuitOpenException) e.getCause();
+            }
+            throw new CloudPoolException(e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            throw new CloudPoolException(
+                    String.format("interrupted while waiting for machine pool refresh: %s", e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Returns <code>true</code> if the cached {@link MachinePool} was fetched
+     * within the given time window.
+     *
+     * @param window
+     * @return
+     */
+    private boolean recentlyRefreshed(TimeInterval window) {
+        if (cacheEmpty() || this.lastFetchError != null) {
+            return false;
+        }
+        DateTime cacheTimestamp = this.cachedMachinePool.get().get().getTimestamp();
+        long cacheAgeMillis = new Duration(cacheTimestamp, UtcTime.now()).getMillis();
+        return cacheAgeMillis < window.getMillis();
+    }
+
+    /**
+     * Calls through to the delegate {@link PoolFetcher} to refresh the cached
+     * machine pool. In case of failure, an {@link Alert} is posted on the
+     * {@link EventBus} and a {@link CloudPoolException} is thrown. A refresh
+     * that is denied by an open circuit is rethrown as a
+     * {@link CircuitOpenException}, but only alerted on when the circuit
+     * opens.
+     *
+     * @return The refreshed {@link MachinePool}.
+     * @throws CloudPoolException
+     */
+    private MachinePool doRefresh() throws CloudPoolException {
         LOG.debug("refreshing cached cloud pool ...");
         try {
-            this.cachedMachinePool.update(this.delegate.get(FetchOption.FORCE_REFRESH));
+            MachinePool pool = this.delegate.get(FetchOption.FORCE_REFRESH);
+            checkState(pool != null, "no machine pool returned by %s", this.delegate.getClass().getSimpleName());
+            cache(pool);
+            this.lastFetchError = null;
+            if (this.circuitOpen.compareAndSet(true, false)) {
+                String message = "machine pool refresh succeeded: circuit closed";
+                this.eventBus.post(AlertBuilder.create().topic(POOL_FETCH.name()).severity(AlertSeverity.NOTICE)
+                        .message(message).build());
+                LOG.info(message);
+            }
+            return pool;
+        } catch (CircuitOpenException e) {
+            this.lastFetchError = e;
+            if (this.circuitOpen.compareAndSet(false, true)) {
+                String message = format("machine pool refresh denied: %s", e.getMessage());
+                this.eventBus.post(AlertBuilder.create().topic(POOL_FETCH.name()).severity(AlertSeverity.WARN)
+                        .message(message).build());
+                LOG.warn(message);
+            } else {
+                LOG.debug("machine pool refresh denied: {}", e.getMessage());
+            }
+            throw e;
         } catch (Throwable e) {
             this.lastFetchError = e;
             String message = format("machine pool refresh failed: %s", e.getMessage());
@@ -215,8 +688,48 @@ public class CachingPoolFetcher implements PoolFetcher {
             this.eventBus.post(alert);
             LOG.warn(message, e);
             throw new CloudPoolException(message, e);
-        } finally {
-            this.firstFetchComplete.countDown();
+        }
+    }
+
+    /**
+     * Stores a refreshed {@link MachinePool} in the cache. An observation that
+     * is structurally identical to the last persisted one (see
+     * {@link MachinePool#getFingerprint()}) is only cached in memory, unless
+     * the persisted observation is older than half the reachability timeout
+     * (so that a restarted cloud pool can still serve the recovered pool).
+     *
+     * @param pool
+     */
+    private void cache(MachinePool pool) {
+        Optional<MachinePool> persisted = this.cachedMachinePool.getPersisted();
+        if (persisted.isPresent() && persisted.get().getFingerprint().equals(pool.getFingerprint())) {
+            long persistedAgeMillis = new Duration(persisted.get().getTimestamp(), pool.getTimestamp()).getMillis();
+            if (persistedAgeMillis < reachabilityTimeout().getMillis() / 2) {
+                LOG.debug("machine pool unchanged, skipping persistence");
+                this.cachedMachinePool.updateInMemory(pool);
+                return;
+            }
+        }
+        this.cachedMachinePool.update(pool);
+    }
+
+    /**
+     * Task that, when executed, updates the machine pool cache and schedules
+     * the next adaptive refresh.
+     */
+    private static class AdaptivePoolRefreshTask implements Runnable {
+        private final CachingPoolFetcher poolFetcher;
+        private final AdaptiveRefreshInterval adaptiveRefreshInterval;
+
+        public AdaptivePoolRefreshTask(CachingPoolFetcher poolFetcher,
+                AdaptiveRefreshInterval adaptiveRefreshInterval) {
+            this.poolFetcher = poolFetcher;
+            this.adaptiveRefreshInterval = adaptiveRefreshInterval;
+        }
+
+        @Override
+        public void run() {
+            this.poolFetcher.adaptiveRefresh(this.adaptiveRefreshInterval);
         }
     }
 
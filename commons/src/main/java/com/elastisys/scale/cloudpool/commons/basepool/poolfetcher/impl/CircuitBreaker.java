@@ -0,0 +1,150 @@
+package com.elastisys.scale.cloudpool.commons.basepool.poolfetcher.impl;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.elastisys.scale.cloudpool.commons.basepool.config.CircuitBreakerConfig;
+import com.elastisys.scale.commons.util.time.UtcTime;
+
+/**
+ * A circuit breaker that guards calls to the cloud API according to a
+ * {@link CircuitBreakerConfig}.
+ * <p/>
+ * The circuit starts out {@link State#CLOSED}, letting all calls through. After
+ * a number of consecutive failed calls it goes {@link State#OPEN}, rejecting
+ * all calls. Once the open duration has passed, a single probe call is let
+ * through and the circuit goes {@link State#HALF_OPEN} until the outcome of
+ * the probe is known: a successful probe closes the circuit, a failed probe
+ * opens it again. Other calls are rejected while the probe is in flight.
+ * <p/>
+ * Callers report call outcomes along with the {@link Permit} they were granted,
+ * so that the outcome of a call that was let through before the circuit
+ * opened cannot be mistaken for the outcome of the probe.
+ * <p/>
+ * Instances are thread-safe.
+ */
+class CircuitBreaker {
+    private static final Logger LOG = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    /** The states of a {@link CircuitBreaker}. */
+    public static enum State {
+        /** All calls are let through. */
+        CLOSED,
+        /** All calls are rejected. */
+        OPEN,
+        /** A probe call is in flight. Other calls are rejected. */
+        HALF_OPEN
+    }
+
+    /** The kinds of permits handed out by {@link CircuitBreaker#tryAcquire()}. */
+    public static enum Permit {
+        /** The call is to fail fast. */
+        DENIED,
+        /** An ordinary call, let through while the circuit is closed. */
+        NORMAL,
+        /** The probe call that decides whether a half-open circuit closes. */
+        PROBE
+    }
+
+    private final int failureThreshold;
+    private final long openDurationMillis;
+
+    private State state = State.CLOSED;
+    /** The number of consecutive failed calls. */
+    private int failures = 0;
+    /** The time when the circuit was last opened. */
+    private DateTime openedAt;
+
+    /**
+     * Creates a {@link CircuitBreaker}.
+     *
+     * @param config
+     *            The circuit breaker settings.
+     */
+    public CircuitBreaker(CircuitBreakerConfig config) {
+        checkArgument(config != null, "circuitBreaker config cannot be null");
+        config.validate();
+        this.failureThreshold = config.getFailureThreshold();
+        this.openDurationMillis = config.getOpenDuration().getMillis();
+    }
+
+    /**
+     * Asks for permission to make a call. A caller that is let through must
+     * report the outcome of the call, along with the granted {@link Permit},
+     * via {@link #onSuccess(Permit)} or {@link #onFailure(Permit)}.
+     *
+     * @return {@link Permit#NORMAL} or {@link Permit#PROBE} if the call may be
+     *         made, {@link Permit#DENIED} if it is to fail fast.
+     */
+    public synchronized Permit tryAcquire() {
+        switch (this.state) {
+        case CLOSED:
+            return Permit.NORMAL;
+        case OPEN:
+            if (UtcTime.now().isBefore(this.openedAt.plus(this.openDurationMillis))) {
+                return Permit.DENIED;
+            }
+            LOG.info("circuit half-open: letting a probe call through");
+            this.state = State.HALF_OPEN;
+            return Permit.PROBE;
+        default:
+            // probe already in flight
+            return Permit.DENIED;
+        }
+    }
+
+    /**
+     * Reports a successful call. A successful probe closes the circuit. A
+     * successful ordinary call resets the failure count, unless the circuit
+     * has opened since the call was let through, in which case it is left to
+     * the probe to close the circuit.
+     *
+     * @param permit
+     *            The permit that the call was granted.
+     */
+    public synchronized void onSuccess(Permit permit) {
+        checkArgument(permit != Permit.DENIED, "cannot report outcome of a denied call");
+        if (permit == Permit.NORMAL && this.state != State.CLOSED) {
+            return;
+        }
+        if (this.state != State.CLOSED) {
+            LOG.info("circuit closed: cloud API call succeeded");
+        }
+        this.state = State.CLOSED;
+        this.failures = 0;
+    }
+
+    /**
+     * Reports a failed call, which opens the circuit if the call was a probe
+     * or if the failure threshold has been reached. A failed ordinary call has
+     * no effect if the circuit has opened since the call was let through.
+     *
+     * @param permit
+     *            The permit that the call was granted.
+     */
+    public synchronized void onFailure(Permit permit) {
+        checkArgument(permit != Permit.DENIED, "cannot report outcome of a denied call");
+        if (permit == Permit.NORMAL && this.state != State.CLOSED) {
+            return;
+        }
+        this.failures++;
+        if (permit == Permit.PROBE || this.failures >= this.failureThreshold) {
+            LOG.warn("circuit open: failing fast for {} ms after {} consecutive failure(s)", this.openDurationMillis,
+                    this.failures);
+            this.state = State.OPEN;
+            this.openedAt = UtcTime.now();
+        }
+    }
+
+    /**
+     * Returns the current state of the circuit.
+     *
+     * @return
+     */
+    public synchronized State getState() {
+        return this.state;
+    }
+}
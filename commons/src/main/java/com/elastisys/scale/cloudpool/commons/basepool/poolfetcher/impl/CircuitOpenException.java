@@ -0,0 +1,30 @@
+package com.elastisys.scale.cloudpool.commons.basepool.poolfetcher.impl;
+
+import com.elastisys.scale.cloudpool.api.CloudPoolException;
+import com.elastisys.scale.cloudpool.api.types.MachinePool;
+
+/**
+ * Thrown by a {@link RetryingPoolFetcher} to indicate that a
+ * {@link MachinePool} fetch failed fast, without calling the cloud API, since
+ * the circuit breaker is open after repeated failures.
+ *
+ * @see CircuitBreaker
+ */
+public class CircuitOpenException extends CloudPoolException {
+
+    public CircuitOpenException() {
+        super();
+    }
+
+    public CircuitOpenException(String message, Throwable cause) {
+        super(message, cause);
+    }
+
+    public CircuitOpenException(String message) {
+        super(message);
+    }
+
+    public CircuitOpenException(Throwable cause) {
+        super(cause);
+    }
+}
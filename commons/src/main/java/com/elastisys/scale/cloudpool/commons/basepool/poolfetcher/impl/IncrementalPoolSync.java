@@ -0,0 +1,113 @@
+package com.elastisys.scale.cloudpool.commons.basepool.poolfetcher.impl;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.joda.time.DateTime;
+import org.joda.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.elastisys.scale.cloudpool.api.types.Machine;
+import com.elastisys.scale.cloudpool.commons.basepool.driver.ChangeTrackingCloudPoolDriver;
+import com.elastisys.scale.cloudpool.commons.basepool.driver.CloudPoolDriverException;
+import com.elastisys.scale.cloudpool.commons.basepool.driver.MachinePoolDelta;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+import com.elastisys.scale.commons.util.time.UtcTime;
+
+/**
+ * Maintains a view of the pool members of a
+ * {@link ChangeTrackingCloudPoolDriver} by applying the {@link MachinePoolDelta}s
+ * it reports to the previously observed pool members.
+ * <p/>
+ * A full listing is requested on first use and whenever the last full listing
+ * is older than the configured full resync interval.
+ * <p/>
+ * Instances are thread-safe. Concurrent listings are serialized, to make sure
+ * that deltas are applied in order.
+ */
+class IncrementalPoolSync {
+    private static final Logger LOG = LoggerFactory.getLogger(IncrementalPoolSync.class);
+
+    /** The driver that reports pool changes. */
+    private final ChangeTrackingCloudPoolDriver cloudDriver;
+    /** Maximum time between full pool listings. */
+    private final TimeInterval fullResyncInterval;
+
+    /**
+     * The last observed pool members, keyed on machine id (in the order they
+     * were first observed).
+     */
+    private final Map<String, Machine> machines = new LinkedHashMap<>();
+    /**
+     * The pool version of {@link #machines}. <code>null</code> until a first
+     * listing has been made.
+     */
+    private String version;
+    /** The time of the last full listing. */
+    private DateTime lastFullListing;
+
+    /**
+     * Creates an {@link IncrementalPoolSync}.
+     *
+     * @param cloudDriver
+     *            The driver that reports pool changes.
+     * @param fullResyncInterval
+     *            Maximum time between full pool listings.
+     */
+    public IncrementalPoolSync(ChangeTrackingCloudPoolDriver cloudDriver, TimeInterval fullResyncInterval) {
+        this.cloudDriver = cloudDriver;
+        this.fullResyncInterval = fullResyncInterval;
+    }
+
+    /**
+     * Returns the current pool members, either by applying the changes since
+     * the last observed pool version or, when a full resync is due, by making
+     * a full listing.
+     *
+     * @return
+     * @throws CloudPoolDriverException
+     */
+    public synchronized List<Machine> listMachines() throws CloudPoolDriverException {
+        String sinceVersion = fullResyncDue() ? null : this.version;
+        MachinePoolDelta delta = this.cloudDriver.listMachineChanges(sinceVersion);
+        apply(delta);
+        return new ArrayList<>(this.machines.values());
+    }
+
+    private void apply(MachinePoolDelta delta) {
+        if (delta.isFullListing()) {
+            LOG.debug("full pool listing at version {}: {} machine(s)", delta.getVersion(), delta.getAdded().size());
+            this.machines.clear();
+            this.lastFullListing = UtcTime.now();
+        } else {
+            LOG.debug("applying pool changes {} -> {}: {}", this.version, delta.getVersion(), delta);
+        }
+        for (Machine machine : delta.getAdded()) {
+            this.machines.put(machine.getId(), machine);
+        }
+        for (Machine machine : delta.getChanged()) {
+            this.machines.put(machine.getId(), machine);
+        }
+        for (String machineId : delta.getRemoved()) {
+            this.machines.remove(machineId);
+        }
+        this.version = delta.getVersion();
+    }
+
+    /**
+     * Returns <code>true</code> if no full listing has been made yet, or if
+     * the last one is older than the full resync interval.
+     *
+     * @return
+     */
+    private boolean fullResyncDue() {
+        if (this.version == null || this.lastFullListing == null) {
+            return true;
+        }
+        long millisSinceFullListing = new Duration(this.lastFullListing, UtcTime.now()).getMillis();
+        return millisSinceFullListing >= this.fullResyncInterval.getMillis();
+    }
+}
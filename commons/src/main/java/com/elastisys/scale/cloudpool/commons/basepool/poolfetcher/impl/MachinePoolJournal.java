@@ -0,0 +1,408 @@
+package com.elastisys.scale.cloudpool.commons.basepool.poolfetcher.impl;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.OpenOption;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.elastisys.scale.cloudpool.api.types.Machine;
+import com.elastisys.scale.cloudpool.api.types.MachinePool;
+import com.elastisys.scale.cloudpool.commons.basepool.StateStorage;
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.elastisys.scale.commons.json.persistence.PersistentStateException;
+import com.google.common.base.Charsets;
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import com.google.common.io.Files;
+
+/**
+ * Persists {@link MachinePool} observations to disk as a snapshot file and an
+ * append-only journal of changes.
+ * <p/>
+ * Rather than rewriting the entire {@link MachinePool} on every
+ * {@link #update(MachinePool)}, only the differences from the previous
+ * observation (machines that were added or changed, and identifiers of machines
+ * that were removed) are appended to the journal, one JSON entry per line. An
+ * observation without any machine changes only appends its timestamp. Once the
+ * journal holds a certain number of entries, it is compacted: the current
+ * observation is written to the snapshot file (in the same format as a plain
+ * {@link MachinePool} file) and the journal is truncated.
+ * <p/>
+ * Observations that need not be persisted (for example, because they are
+ * structurally identical to the last persisted one) can be recorded in memory
+ * only, through {@link #updateInMemory(MachinePool)}. The next
+ * {@link #update(MachinePool)} journals its differences from the last
+ * persisted observation.
+ * <p/>
+ * On creation, the last persisted observation is recovered by replaying the
+ * journal on top of the snapshot. Replay stops at the first entry that cannot
+ * be parsed, such as an entry that was only partially written when the process
+ * crashed. Since every entry holds the latest state of the machines it
+ * mentions, replaying a journal on top of a snapshot that already includes it
+ * (as may happen after a crash during compaction) has no effect.
+ * <p/>
+ * Journal entries and snapshots are forced to disk before they are relied
+ * upon (before a snapshot replaces the previous one and before the journal is
+ * truncated), so that a power loss cannot leave an empty or torn snapshot
+ * behind. Should the snapshot still turn out to be unreadable on recovery, it
+ * is ignored and the {@link MachinePoolJournal} starts out empty (leaving the
+ * cloud pool to make a fresh fetch of the pool).
+ * <p/>
+ * Instances are thread-safe.
+ *
+ * @see StateStorage
+ */
+public class MachinePoolJournal {
+    private static final Logger LOG = LoggerFactory.getLogger(MachinePoolJournal.class);
+
+    /** Default number of journal entries that triggers a compaction. */
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 100;
+
+    /** File that holds the last compacted {@link MachinePool}. */
+    private final File snapshotFile;
+    /** File that holds changes made since the snapshot, one per line. */
+    private final File journalFile;
+    /** Number of journal entries that triggers a compaction. */
+    private final int compactionThreshold;
+
+    /** The latest observation. <code>null</code> if none. */
+    private MachinePool current;
+    /** The last persisted observation. <code>null</code> if none. */
+    private MachinePool persisted;
+    /** Number of entries in the journal file. */
+    private int journalEntries;
+
+    /**
+     * Creates a {@link MachinePoolJournal} that compacts its journal every
+     * {@link #DEFAULT_COMPACTION_THRESHOLD} entries, and recovers any
+     * previously persisted {@link MachinePool}.
+     *
+     * @param snapshotFile
+     *            File that holds the last compacted {@link MachinePool}.
+     * @param journalFile
+     *            File that holds changes made since the snapshot.
+     */
+    public MachinePoolJournal(File snapshotFile, File journalFile) {
+        this(snapshotFile, journalFile, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Creates a {@link MachinePoolJournal} and recovers any previously
+     * persisted {@link MachinePool}.
+     *
+     * @param snapshotFile
+     *            File that holds the last compacted {@link MachinePool}.
+     * @param journalFile
+     *            File that holds changes made since the snapshot.
+     * @param compactionThreshold
+     *            Number of journal entries that triggers a compaction.
+     */
+    public MachinePoolJournal(File snapshotFile, File journalFile, int compactionThreshold) {
+        checkArgument(snapshotFile != null, "snapshotFile cannot be null");
+        checkArgument(journalFile != null, "journalFile cannot be null");
+        checkArgument(compactionThreshold > 0, "compactionThreshold must be positive");
+        this.snapshotFile = snapshotFile;
+        this.journalFile = journalFile;
+        this.compactionThreshold = compactionThreshold;
+
+        recover();
+    }
+
+    /**
+     * Returns the latest {@link MachinePool} observation, if any.
+     *
+     * @return
+     */
+    public synchronized Optional<MachinePool> get() {
+        return Optional.fromNullable(this.current);
+    }
+
+    /**
+     * Returns the last persisted {@link MachinePool} observation, if any. This
+     * is the observation that would be recovered on restart.
+     *
+     * @return
+     */
+    public synchronized Optional<MachinePool> getPersisted() {
+        return Optional.fromNullable(this.persisted);
+    }
+
+    /**
+     * Persists a new {@link MachinePool} observation by journaling its
+     * differences from the previous observation.
+     *
+     * @param pool
+     *            The new observation.
+     * @throws PersistentStateException
+     *             If the observation could not be persisted.
+     */
+    public synchronized void update(MachinePool pool) throws PersistentStateException {
+        checkArgument(pool != null, "null machine pool");
+        if (this.persisted == null) {
+            this.current = pool;
+            compact();
+            return;
+        }
+
+        JournalEntry entry = JournalEntry.between(this.persisted, pool);
+        try {
+            Files.createParentDirs(this.journalFile);
+            write(this.journalFile, JsonUtils.toString(JsonUtils.toJson(entry)) + "\n", StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new PersistentStateException(
+                    String.format("failed to append to journal %s: %s", this.journalFile, e.getMessage()), e);
+        }
+        this.current = pool;
+        this.persisted = pool;
+        this.journalEntries++;
+        if (this.journalEntries >= this.compactionThreshold) {
+            compact();
+        }
+    }
+
+    /**
+     * Records a new {@link MachinePool} observation without persisting it. It
+     * is returned by {@link #get()}, but is lost on restart unless followed by
+     * an {@link #update(MachinePool)} or {@link #compact()}.
+     *
+     * @param pool
+     *            The new observation.
+     */
+    public synchronized void updateInMemory(MachinePool pool) {
+        checkArgument(pool != null, "null machine pool");
+        this.current = pool;
+    }
+
+    /**
+     * Writes the current {@link MachinePool} to the snapshot file and truncates
+     * the journal. The snapshot is written to a temporary file that replaces
+     * the snapshot file once it has been forced to disk, so that a crash never
+     * leaves a partially written snapshot behind.
+     *
+     * @throws PersistentStateException
+     */
+    public synchronized void compact() throws PersistentStateException {
+        if (this.current == null) {
+            return;
+        }
+        LOG.debug("compacting machine pool journal ({} entries)", this.journalEntries);
+        File tempFile = new File(this.snapshotFile.getPath() + ".tmp");
+        try {
+            Files.createParentDirs(this.snapshotFile);
+            write(tempFile, JsonUtils.toPrettyString(JsonUtils.toJson(this.current)),
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            java.nio.file.Files.move(tempFile.toPath(), this.snapshotFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            forceDirectory(this.snapshotFile.getAbsoluteFile().getParentFile());
+            // truncate journal
+            write(this.journalFile, "", StandardOpenOption.TRUNCATE_EXISTING);
+            this.journalEntries = 0;
+            this.persisted = this.current;
+        } catch (IOException e) {
+            throw new PersistentStateException(
+                    String.format("failed to compact machine pool journal: %s", e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Recovers the last persisted {@link MachinePool} by replaying the journal
+     * on top of the snapshot.
+     */
+    private synchronized void recover() {
+        MachinePool snapshot = null;
+        if (this.snapshotFile.isFile() && this.snapshotFile.length() > 0) {
+            try {
+                snapshot = JsonUtils.toObject(JsonUtils.parseJsonFile(this.snapshotFile), MachinePool.class);
+            } catch (Exception e) {
+                // note: the journal cannot be replayed without its snapshot
+                LOG.warn("ignoring unreadable machine pool snapshot {} (and its journal): {}", this.snapshotFile,
+                        e.getMessage());
+                this.current = null;
+                this.persisted = null;
+                return;
+            }
+        }
+
+        List<String> lines = readJournal();
+        if (snapshot == null || lines.isEmpty()) {
+            this.current = snapshot;
+            this.persisted = snapshot;
+            return;
+        }
+
+        int replayed = 0;
+        MachinePool pool = snapshot;
+        for (String line : lines) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            try {
+                JournalEntry entry = JsonUtils.toObject(JsonUtils.parseJsonString(line), JournalEntry.class);
+                pool = entry.applyTo(pool);
+                replayed++;
+            } catch (Exception e) {
+                LOG.warn("ignoring unreadable machine pool journal entry (and any that follow): {}", e.getMessage());
+                break;
+            }
+        }
+        LOG.debug("replayed {} machine pool journal entries", replayed);
+        this.current = pool;
+        // start over with a clean journal
+        compact();
+    }
+
+    /**
+     * Writes (or appends) content to a file and forces it to disk.
+     *
+     * @param file
+     *            The file to write to. Created if it does not exist.
+     * @param content
+     *            The content to write.
+     * @param mode
+     *            Either {@link StandardOpenOption#APPEND} or
+     *            {@link StandardOpenOption#TRUNCATE_EXISTING}.
+     * @throws IOException
+     */
+    private static void write(File file, String content, OpenOption mode) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, mode)) {
+            ByteBuffer buffer = ByteBuffer.wrap(content.getBytes(Charsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+    }
+
+    /**
+     * Forces a directory to disk, which makes a rename within it durable. Not
+     * supported on all platforms, in which case this is a no-op.
+     *
+     * @param directory
+     */
+    private static void forceDirectory(File directory) {
+        try (FileChannel channel = FileChannel.open(directory.toPath(), StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            LOG.debug("could not force directory {} to disk: {}", directory, e.getMessage());
+        }
+    }
+
+    private List<String> readJournal() {
+        if (!this.journalFile.isFile()) {
+            return new ArrayList<>();
+        }
+        try {
+            return Files.readLines(this.journalFile, Charsets.UTF_8);
+        } catch (IOException e) {
+            throw new PersistentStateException(
+                    String.format("failed to read journal %s: %s", this.journalFile, e.getMessage()), e);
+        }
+    }
+
+    /**
+     * A journal entry, describing how a {@link MachinePool} observation
+     * differs from the previous one.
+     */
+    static class JournalEntry {
+        /** The timestamp of the observation. */
+        private final DateTime timestamp;
+        /** Machines that were added or changed. */
+        private final List<Machine> updated;
+        /** Identifiers of machines that were removed. */
+        private final List<String> removed;
+        /**
+         * The identifiers of all machines in observation order. Only set when
+         * the order cannot be derived from the previous observation (with
+         * added machines last).
+         */
+        private final List<String> members;
+
+        JournalEntry(DateTime timestamp, List<Machine> updated, List<String> removed, List<String> members) {
+            this.timestamp = timestamp;
+            this.updated = updated;
+            this.removed = removed;
+            this.members = members;
+        }
+
+        /**
+         * Creates a {@link JournalEntry} that takes the {@code previous}
+         * observation to the {@code next} observation.
+         *
+         * @param previous
+         * @param next
+         * @return
+         */
+        static JournalEntry between(MachinePool previous, MachinePool next) {
+            List<Machine> updated = new ArrayList<>();
+            for (Machine machine : next.getMachines()) {
+                Optional<Machine> previousMachine = previous.getMachine(machine.getId());
+                if (!previousMachine.isPresent() || !previousMachine.get().equals(machine)) {
+                    updated.add(machine);
+                }
+            }
+            List<String> removed = new ArrayList<>();
+            for (Machine machine : previous.getMachines()) {
+                if (!next.contains(machine.getId())) {
+                    removed.add(machine.getId());
+                }
+            }
+            JournalEntry entry = new JournalEntry(next.getTimestamp(), updated, removed, null);
+            if (!entry.applyTo(previous).getMachines().equals(next.getMachines())) {
+                // order differs from the one derived on replay
+                List<String> members = Lists.newArrayList(Lists.transform(next.getMachines(), Machine.toId()));
+                return new JournalEntry(next.getTimestamp(), updated, removed, members);
+            }
+            return entry;
+        }
+
+        /**
+         * Applies this entry to a {@link MachinePool} observation.
+         *
+         * @param pool
+         * @return The resulting observation.
+         */
+        MachinePool applyTo(MachinePool pool) {
+            Map<String, Machine> machines = new LinkedHashMap<>();
+            for (Machine machine : pool.getMachines()) {
+                machines.put(machine.getId(), machine);
+            }
+            if (this.updated != null) {
+                for (Machine machine : this.updated) {
+                    machines.put(machine.getId(), machine);
+                }
+            }
+            if (this.removed != null) {
+                for (String machineId : this.removed) {
+                    machines.remove(machineId);
+                }
+            }
+            if (this.members == null) {
+                return new MachinePool(new ArrayList<>(machines.values()), this.timestamp);
+            }
+            // note: tolerate unknown members, which may be the case when
+            // replaying on a snapshot that already includes this entry
+            Map<String, Machine> ordered = new LinkedHashMap<>();
+            for (String machineId : this.members) {
+                if (machines.containsKey(machineId)) {
+                    ordered.put(machineId, machines.get(machineId));
+                }
+            }
+            ordered.putAll(machines);
+            return new MachinePool(new ArrayList<>(ordered.values()), this.timestamp);
+        }
+    }
+}
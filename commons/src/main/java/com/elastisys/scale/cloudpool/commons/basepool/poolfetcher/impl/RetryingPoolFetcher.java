@@ -1,27 +1,54 @@
 package com.elastisys.scale.cloudpool.commons.basepool.poolfetcher.impl;
 
 import java.util.List;
-import java.util.concurrent.Callable;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import com.elastisys.scale.cloudpool.api.CloudPoolException;
 import com.elastisys.scale.cloudpool.api.types.Machine;
 import com.elastisys.scale.cloudpool.api.types.MachinePool;
+import com.elastisys.scale.cloudpool.commons.basepool.config.CircuitBreakerConfig;
+import com.elastisys.scale.cloudpool.commons.basepool.config.PoolFetchConfig;
 import com.elastisys.scale.cloudpool.commons.basepool.config.RetriesConfig;
+import com.elastisys.scale.cloudpool.commons.basepool.driver.ChangeTrackingCloudPoolDriver;
 import com.elastisys.scale.cloudpool.commons.basepool.driver.CloudPoolDriver;
+import com.elastisys.scale.cloudpool.commons.basepool.driver.StateListingCloudPoolDriver;
 import com.elastisys.scale.cloudpool.commons.basepool.poolfetcher.FetchOption;
 import com.elastisys.scale.cloudpool.commons.basepool.poolfetcher.PoolFetcher;
 import com.elastisys.scale.commons.json.types.TimeInterval;
-import com.elastisys.scale.commons.net.retryable.Retryable;
-import com.elastisys.scale.commons.net.retryable.Retryers;
 import com.elastisys.scale.commons.util.time.UtcTime;
 
 /**
  * A {@link PoolFetcher} that synchronously "calls through" to the cloud
  * provider API to get the {@link MachinePool} on each invocation and uses a
- * configurable number of retries (with exponential back-off) to handle faults.
+ * configurable number of retries to handle faults.
+ * <p/>
+ * Retries are delayed with "decorrelated jitter": each delay is drawn at random
+ * between the initial back-off delay and three times the previous delay, capped
+ * at the longest delay that plain exponential back-off would use. This keeps
+ * cloud pools that fail at the same time (such as during a cloud API outage)
+ * from retrying in lockstep.
+ * <p/>
+ * Optionally, the cloud API is guarded by a {@link CircuitBreaker}. After a
+ * number of consecutive failed fetches, fetches fail fast with a
+ * {@link CircuitOpenException} (leaving a {@link CachingPoolFetcher} to serve
+ * its cached pool) until a probe fetch, which is made without retries,
+ * succeeds.
+ * <p/>
+ * If the {@link CloudPoolDriver} is a {@link ChangeTrackingCloudPoolDriver},
+ * the pool members are synchronized incrementally: only the changes since the
+ * previously observed pool version are requested from the cloud API, with a
+ * full listing being made at least once every full resync interval.
+ * Otherwise, if the {@link CloudPoolDriver} is a
+ * {@link StateListingCloudPoolDriver}, the pool members are refreshed with
+ * lightweight state-only listings, with full listings being made whenever new
+ * machines or machine state changes are seen, and at least once every full
+ * resync interval.
  */
 public class RetryingPoolFetcher implements PoolFetcher {
+    private static final Logger LOG = LoggerFactory.getLogger(RetryingPoolFetcher.class);
 
     /** A cloud-specific management driver for the cloud pool. */
     private final CloudPoolDriver cloudDriver;
@@ -33,6 +60,22 @@ public class RetryingPoolFetcher implements PoolFetcher {
     private final int maxRetries;
     /** Initial delay to use in exponential back-off on retries. */
     private final TimeInterval initialBackoffDelay;
+    /**
+     * Used to list pool members incrementally if the {@link #cloudDriver} is
+     * a {@link ChangeTrackingCloudPoolDriver}. <code>null</code> otherwise.
+     */
+    private final IncrementalPoolSync incrementalSync;
+    /**
+     * Used to list pool members with lightweight listings if the
+     * {@link #cloudDriver} is a {@link StateListingCloudPoolDriver} (and not a
+     * {@link ChangeTrackingCloudPoolDriver}). <code>null</code> otherwise.
+     */
+    private final TieredPoolSync tieredSync;
+    /**
+     * Guards the cloud API against fetches during an outage.
+     * <code>null</code> if no circuit breaker is configured.
+     */
+    private final CircuitBreaker circuitBreaker;
 
     /**
      * Creates a {@link RetryingPoolFetcher} that will fetch machine pool
@@ -45,12 +88,52 @@ public class RetryingPoolFetcher implements PoolFetcher {
      *            fails.
      */
     public RetryingPoolFetcher(CloudPoolDriver cloudDriver, RetriesConfig retriesConfig) {
-        this(cloudDriver, retriesConfig.getMaxRetries(), retriesConfig.getInitialBackoffDelay());
+        this(cloudDriver, retriesConfig, PoolFetchConfig.DEFAULT_FULL_RESYNC_INTERVAL);
     }
 
-    @Override
-    public void close() {
-        // nothing to be done
+    /**
+     * Creates a {@link RetryingPoolFetcher} that will fetch machine pool
+     * members with the given {@link CloudPoolDriver} and retry handling.
+     *
+     * @param cloudDriver
+     *            A cloud-specific management driver for the cloud pool.
+     * @param retriesConfig
+     *            Retry handling when fetching pool members from the cloud API
+     *            fails.
+     * @param fullResyncInterval
+     *            Maximum time between full pool listings. Only applies if the
+     *            {@link CloudPoolDriver} is a
+     *            {@link ChangeTrackingCloudPoolDriver} or a
+     *            {@link StateListingCloudPoolDriver}.
+     */
+    public RetryingPoolFetcher(CloudPoolDriver cloudDriver, RetriesConfig retriesConfig,
+            TimeInterval fullResyncInterval) {
+        this(cloudDriver, retriesConfig, fullResyncInterval, null);
+    }
+
+    /**
+     * Creates a {@link RetryingPoolFetcher} that will fetch machine pool
+     * members with the given {@link CloudPoolDriver}, retry handling and
+     * circuit breaker.
+     *
+     * @param cloudDriver
+     *            A cloud-specific management driver for the cloud pool.
+     * @param retriesConfig
+     *            Retry handling when fetching pool members from the cloud API
+     *            fails.
+     * @param fullResyncInterval
+     *            Maximum time between full pool listings. Only applies if the
+     *            {@link CloudPoolDriver} is a
+     *            {@link ChangeTrackingCloudPoolDriver} or a
+     *            {@link StateListingCloudPoolDriver}.
+     * @param circuitBreaker
+     *            Circuit breaker settings. May be <code>null</code>, in which
+     *            case every fetch calls through to the cloud API.
+     */
+    public RetryingPoolFetcher(CloudPoolDriver cloudDriver, RetriesConfig retriesConfig,
+            TimeInterval fullResyncInterval, CircuitBreakerConfig circuitBreaker) {
+        this(cloudDriver, retriesConfig.getMaxRetries(), retriesConfig.getInitialBackoffDelay(), fullResyncInterval,
+                circuitBreaker);
     }
 
     /**
@@ -66,9 +149,68 @@ public class RetryingPoolFetcher implements PoolFetcher {
      *            Initial delay to use in exponential back-off on retries.
      */
     public RetryingPoolFetcher(CloudPoolDriver cloudDriver, int maxRetries, TimeInterval initialBackoffDelay) {
+        this(cloudDriver, maxRetries, initialBackoffDelay, PoolFetchConfig.DEFAULT_FULL_RESYNC_INTERVAL);
+    }
+
+    /**
+     * Creates a {@link RetryingPoolFetcher} that will fetch machine pool
+     * members with the given {@link CloudPoolDriver}.
+     *
+     * @param cloudDriver
+     *            A cloud-specific management driver for the cloud pool.
+     * @param maxRetries
+     *            Maximum number of retries to make on failed attempts to fetch
+     *            pool members.
+     * @param initialBackoffDelay
+     *            Initial delay to use in exponential back-off on retries.
+     * @param fullResyncInterval
+     *            Maximum time between full pool listings. Only applies if the
+     *            {@link CloudPoolDriver} is a
+     *            {@link ChangeTrackingCloudPoolDriver} or a
+     *            {@link StateListingCloudPoolDriver}.
+     */
+    public RetryingPoolFetcher(CloudPoolDriver cloudDriver, int maxRetries, TimeInterval initialBackoffDelay,
+            TimeInterval fullResyncInterval) {
+        this(cloudDriver, maxRetries, initialBackoffDelay, fullResyncInterval, null);
+    }
+
+    /**
+     * Creates a {@link RetryingPoolFetcher} that will fetch machine pool
+     * members with the given {@link CloudPoolDriver}.
+     *
+     * @param cloudDriver
+     *            A cloud-specific management driver for the cloud pool.
+     * @param maxRetries
+     *            Maximum number of retries to make on failed attempts to fetch
+     *            pool members.
+     * @param initialBackoffDelay
+     *            Initial delay to use in back-off on retries.
+     * @param fullResyncInterval
+     *            Maximum time between full pool listings. Only applies if the
+     *            {@link CloudPoolDriver} is a
+     *            {@link ChangeTrackingCloudPoolDriver} or a
+     *            {@link StateListingCloudPoolDriver}.
+     * @param circuitBreaker
+     *            Circuit breaker settings. May be <code>null</code>, in which
+     *            case every fetch calls through to the cloud API.
+     */
+    public RetryingPoolFetcher(CloudPoolDriver cloudDriver, int maxRetries, TimeInterval initialBackoffDelay,
+            TimeInterval fullResyncInterval, CircuitBreakerConfig circuitBreaker) {
         this.cloudDriver = cloudDriver;
         this.maxRetries = maxRetries;
         this.initialBackoffDelay = initialBackoffDelay;
+        if (cloudDriver instanceof ChangeTrackingCloudPoolDriver) {
+            this.incrementalSync = new IncrementalPoolSync((ChangeTrackingCloudPoolDriver) cloudDriver,
+                    fullResyncInterval);
+        } else {
+            this.incrementalSync = null;
+        }
+        if (this.incrementalSync == null && cloudDriver instanceof StateListingCloudPoolDriver) {
+            this.tieredSync = new TieredPoolSync((StateListingCloudPoolDriver) cloudDriver, fullResyncInterval);
+        } else {
+            this.tieredSync = null;
+        }
+        this.circuitBreaker = circuitBreaker != null ? new CircuitBreaker(circuitBreaker) : null;
     }
 
     @Override
@@ -78,34 +220,79 @@ public class RetryingPoolFetcher implements PoolFetcher {
         return pool;
     }
 
+    @Override
+    public void close() {
+        // nothing to be done
+    }
+
     /**
-     * Lists the {@link Machine}s using the {@link CloudPoolDriver}.
+     * Lists the {@link Machine}s using the {@link CloudPoolDriver}, subject to
+     * the {@link #circuitBreaker} (if any).
      *
      * @return
      */
     private List<Machine> listMachines() throws CloudPoolException {
-        int backoffDelay = this.initialBackoffDelay.getTime().intValue();
-        TimeUnit backoffDelayUnit = this.initialBackoffDelay.getUnit();
-        int maxAttempts = 1 + this.maxRetries;
-        Retryable<List<Machine>> retryable = Retryers.exponentialBackoffRetryer("pool-fetch",
-                new GetMachinePool(this.cloudDriver), backoffDelay, backoffDelayUnit, maxAttempts);
+        if (this.circuitBreaker == null) {
+            return listMachines(this.maxRetries);
+        }
+
+        CircuitBreaker.Permit permit = this.circuitBreaker.tryAcquire();
+        if (permit == CircuitBreaker.Permit.DENIED) {
+            throw new CircuitOpenException("circuit open: not fetching pool members after repeated failures");
+        }
+        // a probe is a single attempt
+        boolean probe = permit == CircuitBreaker.Permit.PROBE;
         try {
-            return retryable.call();
-        } catch (Exception e) {
-            throw new CloudPoolException(String.format("gave up trying to fetch pool members: %s", e.getMessage()), e);
+            List<Machine> machines = listMachines(probe ? 0 : this.maxRetries);
+            this.circuitBreaker.onSuccess(permit);
+            return machines;
+        } catch (CloudPoolException e) {
+            this.circuitBreaker.onFailure(permit);
+            throw e;
         }
     }
 
-    private static class GetMachinePool implements Callable<List<Machine>> {
-        private final CloudPoolDriver cloudDriver;
-
-        public GetMachinePool(CloudPoolDriver cloudDriver) {
-            this.cloudDriver = cloudDriver;
+    /**
+     * Lists the {@link Machine}s using the {@link CloudPoolDriver}, retrying
+     * failed attempts with decorrelated jitter back-off.
+     *
+     * @param retries
+     *            The maximum number of retries.
+     * @return
+     */
+    private List<Machine> listMachines(int retries) throws CloudPoolException {
+        long baseDelay = this.initialBackoffDelay.getMillis();
+        // the longest delay that exponential back-off would use
+        long maxDelay = baseDelay << Math.max(0, Math.min(retries, 20) - 1);
+        long delay = baseDelay;
+        for (int attempt = 1;; attempt++) {
+            try {
+                if (this.incrementalSync != null) {
+                    return this.incrementalSync.listMachines();
+                }
+                if (this.tieredSync != null) {
+                    return this.tieredSync.listMachines();
+                }
+                return this.cloudDriver.listMachines();
+            } catch (Exception e) {
+                if (attempt > retries) {
+                    throw new CloudPoolException(
+                            String.format("gave up trying to fetch pool members: %s", e.getMessage()), e);
+                }
+                delay = Math.min(maxDelay, baseDelay + (long) (ThreadLocalRandom.current().nextDouble()
+                        * (Math.max(baseDelay, 3 * delay) - baseDelay)));
+                LOG.debug("pool fetch attempt {} failed ({}), retrying in {} ms", attempt, e.getMessage(), delay);
+                sleep(delay);
+            }
         }
+    }
 
-        @Override
-        public List<Machine> call() throws Exception {
-            return this.cloudDriver.listMachines();
+    private static void sleep(long millis) throws CloudPoolException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CloudPoolException("interrupted while waiting to retry pool fetch", e);
         }
     }
 }
@@ -0,0 +1,138 @@
+package com.elastisys.scale.cloudpool.commons.basepool.poolfetcher.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.joda.time.DateTime;
+import org.joda.time.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.elastisys.scale.cloudpool.api.types.Machine;
+import com.elastisys.scale.cloudpool.commons.basepool.driver.CloudPoolDriverException;
+import com.elastisys.scale.cloudpool.commons.basepool.driver.MachineStatus;
+import com.elastisys.scale.cloudpool.commons.basepool.driver.StateListingCloudPoolDriver;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+import com.elastisys.scale.commons.util.time.UtcTime;
+
+/**
+ * Maintains a view of the pool members of a
+ * {@link StateListingCloudPoolDriver} by applying the {@link MachineStatus}es
+ * of its lightweight listings to the last full listing.
+ * <p/>
+ * A full listing is made on first use, whenever the last full listing is older
+ * than the configured full resync interval, and whenever a lightweight listing
+ * reports a machine that is not part of the last full listing or whose
+ * machine state has changed since the last full listing.
+ * <p/>
+ * Instances are thread-safe. Concurrent listings are serialized.
+ */
+class TieredPoolSync {
+    private static final Logger LOG = LoggerFactory.getLogger(TieredPoolSync.class);
+
+    /** The driver that lists pool members. */
+    private final StateListingCloudPoolDriver cloudDriver;
+    /** Maximum time between full pool listings. */
+    private final TimeInterval fullResyncInterval;
+
+    /**
+     * The pool members of the last full listing, keyed on machine id.
+     * <code>null</code> until a first full listing has been made.
+     */
+    private Map<String, Machine> fullListing;
+    /** The time of the last full listing. */
+    private DateTime lastFullListing;
+
+    /**
+     * Creates a {@link TieredPoolSync}.
+     *
+     * @param cloudDriver
+     *            The driver that lists pool members.
+     * @param fullResyncInterval
+     *            Maximum time between full pool listings.
+     */
+    public TieredPoolSync(StateListingCloudPoolDriver cloudDriver, TimeInterval fullResyncInterval) {
+        this.cloudDriver = cloudDriver;
+        this.fullResyncInterval = fullResyncInterval;
+    }
+
+    /**
+     * Returns the current pool members, either by applying a lightweight
+     * listing to the last full listing or, when needed, by making a full
+     * listing.
+     *
+     * @return
+     * @throws CloudPoolDriverException
+     */
+    public synchronized List<Machine> listMachines() throws CloudPoolDriverException {
+        if (fullResyncDue()) {
+            return fullListing();
+        }
+
+        List<MachineStatus> statuses = this.cloudDriver.listMachineStates();
+        List<Machine> machines = new ArrayList<>(statuses.size());
+        for (MachineStatus status : statuses) {
+            Machine known = this.fullListing.get(status.getId());
+            if (known == null || known.getMachineState() != status.getMachineState()) {
+                LOG.debug("machine {} is new or has changed state: making a full pool listing", status.getId());
+                return fullListing();
+            }
+            machines.add(withStatus(known, status));
+        }
+        return machines;
+    }
+
+    private List<Machine> fullListing() throws CloudPoolDriverException {
+        List<Machine> machines = this.cloudDriver.listMachines();
+        LOG.debug("full pool listing: {} machine(s)", machines.size());
+        Map<String, Machine> listing = new HashMap<>();
+        for (Machine machine : machines) {
+            listing.put(machine.getId(), machine);
+        }
+        this.fullListing = listing;
+        this.lastFullListing = UtcTime.now();
+        return machines;
+    }
+
+    /**
+     * Returns a copy of a {@link Machine} with the membership status and
+     * service state of a {@link MachineStatus} (where known).
+     *
+     * @param machine
+     * @param status
+     * @return
+     */
+    private static Machine withStatus(Machine machine, MachineStatus status) {
+        boolean membershipStatusKnown = status.getMembershipStatus() != null;
+        boolean serviceStateKnown = status.getServiceState() != null;
+        if ((!membershipStatusKnown || status.getMembershipStatus().equals(machine.getMembershipStatus()))
+                && (!serviceStateKnown || status.getServiceState() == machine.getServiceState())) {
+            return machine;
+        }
+
+        return Machine.builder().id(machine.getId()).machineState(machine.getMachineState())
+                .membershipStatus(
+                        membershipStatusKnown ? status.getMembershipStatus() : machine.getMembershipStatus())
+                .serviceState(serviceStateKnown ? status.getServiceState() : machine.getServiceState())
+                .cloudProvider(machine.getCloudProvider()).region(machine.getRegion())
+                .machineSize(machine.getMachineSize()).requestTime(machine.getRequestTime())
+                .launchTime(machine.getLaunchTime()).publicIps(machine.getPublicIps())
+                .privateIps(machine.getPrivateIps()).metadata(machine.getMetadata()).build();
+    }
+
+    /**
+     * Returns <code>true</code> if no full listing has been made yet, or if
+     * the last one is older than the full resync interval.
+     *
+     * @return
+     */
+    private boolean fullResyncDue() {
+        if (this.fullListing == null || this.lastFullListing == null) {
+            return true;
+        }
+        long millisSinceFullListing = new Duration(this.lastFullListing, UtcTime.now()).getMillis();
+        return millisSinceFullListing >= this.fullResyncInterval.getMillis();
+    }
+}
@@ -26,6 +26,8 @@ public interface PoolUpdater extends Closeable {
      * Note that this method does not attempt to apply the desired size
      * immediately, but only registers the new desired size. The next call to
      * {@link #resize()}, will make an attempt to satisfy the new desired size.
+     * Implementations may choose to trigger such a call shortly after the
+     * desired size has been changed.
      *
      * @param desiredSize
      *            The desired number of machines in the pool.
@@ -60,6 +62,16 @@ public interface PoolUpdater extends Closeable {
      */
     void resize(BaseCloudPoolConfig config) throws CloudPoolException;
 
+    /**
+     * Applies a new configuration to a running {@link PoolUpdater}, without
+     * discarding its desired size, termination queue or any other runtime
+     * state.
+     *
+     * @param config
+     *            The new configuration.
+     */
+    void reconfigure(BaseCloudPoolConfig config);
+
     /**
      * Terminates a particular machine pool member. The caller can control if a
      * replacement machine is to be provisioned via the
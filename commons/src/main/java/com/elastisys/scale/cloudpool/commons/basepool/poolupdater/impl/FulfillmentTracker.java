@@ -0,0 +1,375 @@
+package com.elastisys.scale.cloudpool.commons.basepool.poolupdater.impl;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+import org.joda.time.DateTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.elastisys.scale.cloudpool.api.types.Machine;
+import com.elastisys.scale.cloudpool.api.types.MachinePool;
+import com.elastisys.scale.cloudpool.api.types.MachineState;
+import com.elastisys.scale.cloudpool.commons.basepool.config.PoolUpdateConfig;
+import com.elastisys.scale.cloudpool.commons.basepool.driver.ChunkedLauncher;
+import com.elastisys.scale.cloudpool.commons.basepool.driver.CloudPoolDriver;
+import com.elastisys.scale.cloudpool.commons.basepool.driver.StartMachinesException;
+import com.elastisys.scale.commons.util.time.UtcTime;
+import com.google.common.collect.Lists;
+
+/**
+ * Launches machines in the background on behalf of a
+ * {@link StandardPoolUpdater} and keeps track of them until they have been
+ * observed in the pool.
+ * <p/>
+ * On {@link #launch(int)}, a placeholder {@link Machine} in
+ * {@link MachineState#REQUESTED} state is recorded for each requested machine
+ * and a call to {@link CloudPoolDriver#startMachines(int)} is submitted to an
+ * executor. Until the launch completes, the placeholders are added to the pool
+ * observations passed through {@link #reconcile(MachinePool, PoolUpdateConfig)},
+ * so that subsequent resize plans count the requested machines. When the
+ * launch completes, the placeholders are replaced by the started machines,
+ * which are kept until a pool observation contains them (or the
+ * {@link PoolUpdateConfig#getVisibilityTimeout()} has passed). This covers
+ * clouds whose listings only eventually include newly launched machines.
+ * <p/>
+ * A launch that has not completed within the
+ * {@link PoolUpdateConfig#getLaunchTimeout()} (for example, because the cloud
+ * API call hangs) is cancelled and its remaining placeholders are dropped, so
+ * that a hung launch cannot freeze the pool size. It is reported as failed.
+ * <p/>
+ * A launch may be split into chunks (see {@link #launch(int, int, int)}), in
+ * which case placeholders are replaced chunk by chunk as chunks complete.
+ * <p/>
+ * Launch outcomes are reported to the given listeners. Started machines are
+ * reported to the start listener as soon as they have been started (once per
+ * chunk). A launch that fails (possibly part-way through) is additionally
+ * reported to the failure listener as a {@link StartMachinesException} that
+ * holds the machines that were started before the error occurred. So is a
+ * launch that the executor refuses to carry out, in which case no placeholders
+ * are recorded.
+ * <p/>
+ * Instances are thread-safe.
+ */
+class FulfillmentTracker {
+    private static final Logger LOG = LoggerFactory.getLogger(FulfillmentTracker.class);
+
+    /** Prefix of the identifiers assigned to placeholder machines. */
+    static final String PLACEHOLDER_PREFIX = "requested-";
+    /**
+     * Value used for the mandatory {@link Machine} fields of placeholders that
+     * are unknown until the machine has been launched.
+     */
+    static final String UNKNOWN = "n/a";
+
+    /** The driver used to start machines. */
+    private final CloudPoolDriver cloudDriver;
+    /** Executor on which launches are carried out. */
+    private final ExecutorService executor;
+    /** Called with the machines started by each launch (or launch chunk). */
+    private final Consumer<List<Machine>> startListener;
+    /** Called when a launch fails (possibly part-way through). */
+    private final Consumer<StartMachinesException> failureListener;
+
+    /** Launches in progress, keyed on launch id. */
+    private final Map<String, Launch> launches = new LinkedHashMap<>();
+    /**
+     * Started machines that have yet to be observed in the pool, keyed on
+     * machine id, mapped to the time they were reported as started.
+     */
+    private final Map<String, StartedMachine> unobserved = new LinkedHashMap<>();
+
+    /**
+     * Creates a {@link FulfillmentTracker}.
+     *
+     * @param cloudDriver
+     *            The driver used to start machines.
+     * @param executor
+     *            Executor on which launches are carried out.
+     * @param startListener
+     *            Called with the machines started by each launch (or launch
+     *            chunk). This includes machines started by a launch that
+     *            failed part-way through.
+     * @param failureListener
+     *            Called when a launch fails (possibly part-way through).
+     */
+    public FulfillmentTracker(CloudPoolDriver cloudDriver, ExecutorService executor,
+            Consumer<List<Machine>> startListener, Consumer<StartMachinesException> failureListener) {
+        this.cloudDriver = cloudDriver;
+        this.executor = executor;
+        this.startListener = startListener;
+        this.failureListener = failureListener;
+    }
+
+    /**
+     * Starts a given number of machines in the background.
+     *
+     * @param count
+     *            The number of machines to start.
+     * @return The placeholders that represent the requested machines until the
+     *         launch completes.
+     */
+    public List<Machine> launch(int count) {
+        return launch(count, count, 1);
+    }
+
+    /**
+     * Starts a given number of machines in the background, with at most
+     * {@code chunkSize} machines requested per
+     * {@link CloudPoolDriver#startMachines(int)} call and at most
+     * {@code parallelism} calls in flight at any time.
+     *
+     * @param count
+     *            The number of machines to start.
+     * @param chunkSize
+     *            The maximum number of machines to request per call.
+     * @param parallelism
+     *            The maximum number of concurrent calls.
+     * @return The placeholders that represent the requested machines until
+     *         they have been started. Empty if the launch could not be
+     *         submitted to the executor.
+     */
+    public List<Machine> launch(int count, int chunkSize, int parallelism) {
+        checkArgument(count > 0, "launch count must be positive");
+
+        String launchId = UUID.randomUUID().toString();
+        DateTime now = UtcTime.now();
+        List<Machine> placeholders = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            placeholders.add(placeholder(launchId, i, now));
+        }
+        Launch launch = new Launch(placeholders, now);
+        synchronized (this) {
+            this.launches.put(launchId, launch);
+        }
+        LOG.debug("launching {} machine(s) in the background (launch {})", count, launchId);
+        try {
+            launch.setFuture(this.executor.submit(() -> runLaunch(launchId, count, chunkSize, parallelism)));
+        } catch (RejectedExecutionException e) {
+            // the launch will never run: its placeholders must not be counted
+            completeLaunch(launchId);
+            LOG.warn("launch {} rejected: {}", launchId, e.getMessage());
+            this.failureListener.accept(new StartMachinesException(count, Collections.emptyList(), e));
+            return Collections.emptyList();
+        }
+        return placeholders;
+    }
+
+    /**
+     * Returns a {@link MachinePool} that, in addition to the given pool
+     * observation, contains placeholders for launches in progress and started
+     * machines that are not yet part of the observation. Started machines that
+     * are part of the observation are no longer tracked. Neither are started
+     * machines that have not shown up in the pool within the
+     * {@link PoolUpdateConfig#getVisibilityTimeout()}, nor launches that have
+     * not completed within the {@link PoolUpdateConfig#getLaunchTimeout()}.
+     *
+     * @param pool
+     *            A pool observation.
+     * @param config
+     *            Governs how long to wait for launches and started machines.
+     * @return
+     */
+    public MachinePool reconcile(MachinePool pool, PoolUpdateConfig config) {
+        List<StartMachinesException> expired = new ArrayList<>();
+        MachinePool reconciled;
+        synchronized (this) {
+            DateTime now = UtcTime.now();
+            Iterator<StartedMachine> iterator = this.unobserved.values().iterator();
+            while (iterator.hasNext()) {
+                StartedMachine started = iterator.next();
+                if (pool.contains(started.machine.getId())) {
+                    LOG.debug("launched machine {} observed in pool", started.machine.getId());
+                    iterator.remove();
+                } else if (now.isAfter(started.startTime.plus(config.getVisibilityTimeout().getMillis()))) {
+                    LOG.warn("launched machine {} not observed in pool within {}, no longer accounting for it",
+                            started.machine.getId(), config.getVisibilityTimeout());
+                    iterator.remove();
+                }
+            }
+            expired.addAll(expireLaunches(now, config));
+            reconciled = withPendingMachines(pool);
+        }
+        // note: listeners are called without holding the lock
+        expired.forEach(this.failureListener);
+        return reconciled;
+    }
+
+    /**
+     * Cancels and drops launches that have not completed within the
+     * {@link PoolUpdateConfig#getLaunchTimeout()}.
+     *
+     * @param now
+     * @param config
+     * @return The failures to report for the expired launches.
+     */
+    private List<StartMachinesException> expireLaunches(DateTime now, PoolUpdateConfig config) {
+        List<StartMachinesException> expired = new ArrayList<>();
+        Iterator<Entry<String, Launch>> iterator = this.launches.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Entry<String, Launch> entry = iterator.next();
+            Launch launch = entry.getValue();
+            if (!now.isAfter(launch.startTime.plus(config.getLaunchTimeout().getMillis()))) {
+                continue;
+            }
+            iterator.remove();
+            launch.cancel();
+            String message = String.format("launch %s did not complete within %s, no longer accounting for %d "
+                    + "requested machine(s)", entry.getKey(), config.getLaunchTimeout(), launch.placeholders.size());
+            LOG.warn(message);
+            expired.add(new StartMachinesException(launch.placeholders.size(), Collections.emptyList(),
+                    new TimeoutException(message)));
+        }
+        return expired;
+    }
+
+    private MachinePool withPendingMachines(MachinePool pool) {
+        List<Machine> pending = pendingMachines();
+        if (pending.isEmpty()) {
+            return pool;
+        }
+        LOG.debug("adding {} pending machine(s) to pool observation", pending.size());
+        List<Machine> machines = Lists.newArrayList(pool.getMachines());
+        machines.addAll(pending);
+        return new MachinePool(machines, pool.getTimestamp());
+    }
+
+    /**
+     * Returns the machines that are not yet observed in the pool: placeholders
+     * for launches in progress and started machines awaiting observation.
+     *
+     * @return
+     */
+    public synchronized List<Machine> pendingMachines() {
+        List<Machine> pending = new ArrayList<>();
+        for (Launch launch : this.launches.values()) {
+            pending.addAll(launch.placeholders);
+        }
+        for (StartedMachine started : this.unobserved.values()) {
+            pending.add(started.machine);
+        }
+        return pending;
+    }
+
+    private void runLaunch(String launchId, int count, int chunkSize, int parallelism) {
+        try {
+            List<Machine> startedMachines = ChunkedLauncher.startMachines(this.cloudDriver, count, chunkSize,
+                    parallelism, chunk -> {
+                        chunkStarted(launchId, chunk);
+                        this.startListener.accept(chunk);
+                    });
+            completeLaunch(launchId);
+            LOG.debug("launch {} completed: {}", launchId, Lists.transform(startedMachines, Machine.toShortString()));
+        } catch (StartMachinesException e) {
+            launchFailed(launchId, e);
+        } catch (Exception e) {
+            launchFailed(launchId, new StartMachinesException(count, Collections.emptyList(), e));
+        }
+    }
+
+    /**
+     * Reports a failed launch, unless it has already been reported as expired.
+     *
+     * @param launchId
+     * @param failure
+     */
+    private void launchFailed(String launchId, StartMachinesException failure) {
+        if (completeLaunch(launchId)) {
+            this.failureListener.accept(failure);
+        } else {
+            LOG.debug("expired launch {} failed: {}", launchId, failure.getMessage());
+        }
+    }
+
+    /**
+     * Replaces placeholders of a launch with machines started by one of its
+     * chunks.
+     *
+     * @param launchId
+     * @param startedMachines
+     */
+    private synchronized void chunkStarted(String launchId, List<Machine> startedMachines) {
+        Launch launch = this.launches.get(launchId);
+        if (launch != null) {
+            launch.placeholders.subList(0, Math.min(startedMachines.size(), launch.placeholders.size())).clear();
+        }
+        DateTime now = UtcTime.now();
+        for (Machine machine : startedMachines) {
+            this.unobserved.put(machine.getId(), new StartedMachine(machine, now));
+        }
+    }
+
+    /**
+     * Drops any remaining placeholders of a launch that has completed.
+     *
+     * @param launchId
+     * @return <code>true</code> if the launch was still tracked (that is, it
+     *         had not expired).
+     */
+    private synchronized boolean completeLaunch(String launchId) {
+        return this.launches.remove(launchId) != null;
+    }
+
+    private static Machine placeholder(String launchId, int index, DateTime requestTime) {
+        return Machine.builder().id(PLACEHOLDER_PREFIX + launchId + "-" + index).machineState(MachineState.REQUESTED)
+                .cloudProvider(UNKNOWN).region(UNKNOWN).machineSize(UNKNOWN).requestTime(requestTime).build();
+    }
+
+    /**
+     * A launch in progress: the placeholders of its machines that have yet to
+     * be started, along with the time it was submitted.
+     */
+    private static class Launch {
+        private final List<Machine> placeholders;
+        private final DateTime startTime;
+        /** Carries out the launch. <code>null</code> until submitted. */
+        private Future<?> future;
+        /** Set when the launch has expired before it was submitted. */
+        private boolean cancelled;
+
+        public Launch(List<Machine> placeholders, DateTime startTime) {
+            this.placeholders = new ArrayList<>(placeholders);
+            this.startTime = startTime;
+        }
+
+        public synchronized void setFuture(Future<?> future) {
+            this.future = future;
+            if (this.cancelled) {
+                future.cancel(true);
+            }
+        }
+
+        public synchronized void cancel() {
+            this.cancelled = true;
+            if (this.future != null) {
+                this.future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * A started machine, along with the time it was reported as started.
+     */
+    private static class StartedMachine {
+        private final Machine machine;
+        private final DateTime startTime;
+
+        public StartedMachine(Machine machine, DateTime startTime) {
+            this.machine = machine;
+            this.startTime = startTime;
+        }
+    }
+}
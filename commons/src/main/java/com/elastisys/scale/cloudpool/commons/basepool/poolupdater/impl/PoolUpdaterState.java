@@ -0,0 +1,81 @@
+package com.elastisys.scale.cloudpool.commons.basepool.poolupdater.impl;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import com.elastisys.scale.cloudpool.commons.basepool.StateStorage;
+import com.elastisys.scale.cloudpool.commons.termqueue.ScheduledTermination;
+import com.elastisys.scale.cloudpool.commons.termqueue.TerminationQueue;
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.google.common.base.Objects;
+
+/**
+ * The control state of a {@link StandardPoolUpdater} that is persisted to the
+ * {@link StateStorage}, to be restored when the cloud pool is restarted.
+ */
+class PoolUpdaterState {
+
+    /** The desired size of the pool. <code>null</code> if not yet set. */
+    private final Integer desiredSize;
+
+    /**
+     * The contents of the {@link TerminationQueue}, in increasing order of
+     * termination time.
+     */
+    private final List<ScheduledTermination> scheduledTerminations;
+
+    /**
+     * Creates a {@link PoolUpdaterState}.
+     *
+     * @param desiredSize
+     *            The desired size of the pool. <code>null</code> if not yet
+     *            set.
+     * @param scheduledTerminations
+     *            The contents of the {@link TerminationQueue}, in increasing
+     *            order of termination time.
+     */
+    public PoolUpdaterState(Integer desiredSize, List<ScheduledTermination> scheduledTerminations) {
+        this.desiredSize = desiredSize;
+        this.scheduledTerminations = scheduledTerminations;
+    }
+
+    /**
+     * Returns the desired size of the pool. <code>null</code> if not yet set.
+     *
+     * @return
+     */
+    public Integer getDesiredSize() {
+        return this.desiredSize;
+    }
+
+    /**
+     * Returns the contents of the {@link TerminationQueue}, in increasing order
+     * of termination time.
+     *
+     * @return
+     */
+    public List<ScheduledTermination> getScheduledTerminations() {
+        return Optional.ofNullable(this.scheduledTerminations).orElse(Collections.emptyList());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(this.desiredSize, getScheduledTerminations());
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof PoolUpdaterState) {
+            PoolUpdaterState that = (PoolUpdaterState) obj;
+            return Objects.equal(this.desiredSize, that.desiredSize)
+                    && Objects.equal(getScheduledTerminations(), that.getScheduledTerminations());
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return JsonUtils.toString(JsonUtils.toJson(this));
+    }
+}
@@ -5,13 +5,25 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static java.lang.Math.max;
 import static java.lang.String.format;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
+import org.joda.time.DateTime;
+import org.joda.time.Duration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -21,11 +33,18 @@ import com.elastisys.scale.cloudpool.api.types.Machine;
 import com.elastisys.scale.cloudpool.api.types.MachinePool;
 import com.elastisys.scale.cloudpool.api.types.MembershipStatus;
 import com.elastisys.scale.cloudpool.api.types.ServiceState;
+import com.elastisys.scale.cloudpool.commons.basepool.StateStorage;
 import com.elastisys.scale.cloudpool.commons.basepool.alerts.AlertTopics;
+import com.elastisys.scale.cloudpool.commons.basepool.alerts.LazyTagsAlert;
+import com.elastisys.scale.cloudpool.commons.basepool.alerts.PoolMembersTag;
+import com.elastisys.scale.cloudpool.commons.basepool.config.AlertDeliveryConfig;
 import com.elastisys.scale.cloudpool.commons.basepool.config.BaseCloudPoolConfig;
+import com.elastisys.scale.cloudpool.commons.basepool.config.PoolUpdateConfig;
+import com.elastisys.scale.cloudpool.commons.basepool.config.ScaleInConfig;
+import com.elastisys.scale.cloudpool.commons.basepool.driver.ChunkedLauncher;
 import com.elastisys.scale.cloudpool.commons.basepool.driver.CloudPoolDriver;
 import com.elastisys.scale.cloudpool.commons.basepool.driver.StartMachinesException;
-import com.elastisys.scale.cloudpool.commons.basepool.poolfetcher.FetchOption;
+import com.elastisys.scale.cloudpool.commons.basepool.driver.TerminateMachinesResult;
 import com.elastisys.scale.cloudpool.commons.basepool.poolfetcher.PoolFetcher;
 import com.elastisys.scale.cloudpool.commons.basepool.poolupdater.PoolUpdater;
 import com.elastisys.scale.cloudpool.commons.resizeplanner.ResizePlan;
@@ -33,18 +52,49 @@ import com.elastisys.scale.cloudpool.commons.resizeplanner.ResizePlanner;
 import com.elastisys.scale.cloudpool.commons.termqueue.ScheduledTermination;
 import com.elastisys.scale.cloudpool.commons.termqueue.TerminationQueue;
 import com.elastisys.scale.commons.json.JsonUtils;
+import com.elastisys.scale.commons.json.persistence.PersistentState;
 import com.elastisys.scale.commons.json.types.TimeInterval;
 import com.elastisys.scale.commons.net.alerter.Alert;
 import com.elastisys.scale.commons.net.alerter.AlertBuilder;
 import com.elastisys.scale.commons.net.alerter.AlertSeverity;
 import com.elastisys.scale.commons.net.alerter.Alerter;
 import com.elastisys.scale.commons.util.time.UtcTime;
+import com.google.common.base.Objects;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.eventbus.EventBus;
 import com.google.gson.JsonElement;
 
+/**
+ * A {@link PoolUpdater} that periodically resizes the pool to match the
+ * desired size.
+ * <p/>
+ * If a {@link PoolUpdateConfig#getDebounceWindow()} is configured, changes to
+ * the desired size (as well as attaching and detaching machines) also trigger a
+ * resize after the debounce window has passed, rather than having to wait for
+ * the next periodical resize. Any further changes that arrive before the
+ * triggered resize is carried out are handled by that same resize. The
+ * periodical resize is kept as a safety net.
+ * <p/>
+ * Machines that are scheduled for termination at a later time (see
+ * {@link ScaleInConfig#getInstanceHourMargin()}) are terminated by a timer that
+ * fires at the termination time of the first machine in the termination queue,
+ * rather than by the next periodical resize.
+ * <p/>
+ * If {@link PoolUpdateConfig#isAsyncScaleOut()} is set, machines are started
+ * in the background by a {@link FulfillmentTracker}, so that a resize does not
+ * wait for slow launches. Launches run on an executor of their own, so that they
+ * cannot hold up pool updates and termination timers. Until launched machines have been observed in the
+ * pool, the tracker adds them (or placeholders for them) to the pool
+ * observations that resizes are planned from. Such machines are never chosen
+ * as termination victims: a scale-in is held back until they have settled.
+ * <p/>
+ * The desired size and the termination queue are persisted to the
+ * {@link StateStorage} whenever they change, and are restored on construction.
+ * This allows a restarted cloud pool to resume planning without re-deriving the
+ * desired size from the pool, and to carry out scheduled terminations on time.
+ */
 public class StandardPoolUpdater implements PoolUpdater {
 
     private static final Logger LOG = LoggerFactory.getLogger(StandardPoolUpdater.class);
@@ -61,7 +111,11 @@ public class StandardPoolUpdater implements PoolUpdater {
      */
     private final EventBus eventBus;
 
-    private final BaseCloudPoolConfig config;
+    /** The current configuration. Replaced on {@link #reconfigure}. */
+    private volatile BaseCloudPoolConfig config;
+
+    /** Executor used to schedule pool updates. */
+    private final ScheduledExecutorService executor;
 
     /**
      * The desired size of the machine pool. Will be <code>null</code> until
@@ -79,33 +133,138 @@ public class StandardPoolUpdater implements PoolUpdater {
     private final TerminationQueue terminationQueue;
     /** Lock to protect the machine pool from concurrent modifications. */
     private final Object poolUpdateLock = new Object();
+    /**
+     * Timer that fires when the termination of the machine at the head of the
+     * {@link #terminationQueue} is due. <code>null</code> when the queue is
+     * empty. Guarded by {@link #poolUpdateLock}.
+     */
+    private ScheduledFuture<?> terminationTimer;
+    /**
+     * The time at which {@link #terminationTimer} is set to fire. Guarded by
+     * {@link #poolUpdateLock}.
+     */
+    private DateTime terminationTimerDueTime;
+    /**
+     * <code>true</code> once the {@link #terminationQueue} has been filtered
+     * against a pool observation. Until then, it may hold restored
+     * terminations of machines that have left the pool, and the
+     * {@link #terminationTimer} is not armed. Guarded by
+     * {@link #poolUpdateLock}.
+     */
+    private boolean terminationQueueFiltered;
+
+    /** Keeps track of machines launched in the background. */
+    private final FulfillmentTracker fulfillmentTracker;
+
+    /**
+     * Persisted {@link #desiredSize} and {@link #terminationQueue}. Guarded by
+     * its own monitor.
+     */
+    private final PersistentState<PoolUpdaterState> persistedState;
+    /**
+     * The state that was last successfully written to the
+     * {@link #persistedState}. Used to skip writes that would not change the
+     * persisted state. Guarded by the {@link #persistedState} monitor.
+     */
+    private PoolUpdaterState lastPersistedState;
+    /**
+     * Snapshot of the {@link #terminationQueue} contents, taken (while holding
+     * the {@link #poolUpdateLock}) whenever the queue has been modified. Used
+     * to persist the queue without having to hold the {@link #poolUpdateLock}.
+     */
+    private volatile List<ScheduledTermination> scheduledTerminations = Collections.emptyList();
+
+    /**
+     * Describes the last pool update that turned out to be a no-op (no machines
+     * to start or terminate). Any subsequent pool update with an identical
+     * input (same pool fingerprint, desired size and configuration) can be
+     * skipped. Reset whenever the pool is modified. <code>null</code> if the
+     * last pool update was not a no-op.
+     */
+    private volatile PoolUpdateInput lastNoOpUpdate;
+    /**
+     * The time of the latest modification of the pool made by this
+     * {@link StandardPoolUpdater}. Cached {@link MachinePool} observations that
+     * predate it are never used for pool updates. <code>null</code> if the
+     * pool has not been modified.
+     */
+    private volatile DateTime lastPoolModification;
 
     /** Task that periodically updates the size of the {@link MachinePool}. */
-    private final ScheduledFuture<?> poolUpdateTask;
+    private ScheduledFuture<?> poolUpdateTask;
+    /** Lock to prevent concurrent modification of {@link #poolUpdateTask}. */
+    private final Object poolUpdateTaskLock = new Object();
+
+    /**
+     * A pending resize, triggered by a pool modification, that has not yet
+     * started executing. <code>null</code> if there is none.
+     */
+    private ScheduledFuture<?> triggeredResize;
+    /** Lock to prevent concurrent modification of {@link #triggeredResize}. */
+    private final Object triggeredResizeLock = new Object();
 
-    public StandardPoolUpdater(CloudPoolDriver cloudDriver, PoolFetcher poolFetcher, ScheduledExecutorService executor,
-            EventBus eventBus, BaseCloudPoolConfig config) {
+    public StandardPoolUpdater(StateStorage stateStorage, CloudPoolDriver cloudDriver, PoolFetcher poolFetcher,
+            ScheduledExecutorService executor, ExecutorService launchExecutor, EventBus eventBus,
+            BaseCloudPoolConfig config) {
         this.cloudDriver = cloudDriver;
         this.poolFetcher = poolFetcher;
         this.eventBus = eventBus;
         this.config = config;
+        this.executor = executor;
 
         this.terminationQueue = new TerminationQueue();
         this.desiredSize = null;
+        this.fulfillmentTracker = new FulfillmentTracker(cloudDriver, launchExecutor, this::startAlert,
+                this::launchFailureAlert);
+        this.persistedState = new PersistentState<>(stateStorage.getPoolUpdaterStateFile(), PoolUpdaterState.class);
+        restoreState();
 
         // start periodical cache update task
-        TimeInterval updateInterval = config.getPoolUpdate().getUpdateInterval();
-        this.poolUpdateTask = executor.scheduleWithFixedDelay(new PoolUpdateTask(this), updateInterval.getTime(),
-                updateInterval.getTime(), updateInterval.getUnit());
+        synchronized (this.poolUpdateTaskLock) {
+            this.poolUpdateTask = schedulePoolUpdates(config.getPoolUpdate().getUpdateInterval());
+        }
         LOG.debug("started {}", getClass().getSimpleName());
     }
 
+    private ScheduledFuture<?> schedulePoolUpdates(TimeInterval updateInterval) {
+        return this.executor.scheduleWithFixedDelay(new PoolUpdateTask(this), updateInterval.getTime(),
+                updateInterval.getTime(), updateInterval.getUnit());
+    }
+
+    @Override
+    public void reconfigure(BaseCloudPoolConfig config) {
+        checkArgument(config != null, "config cannot be null");
+        TimeInterval oldInterval = this.config.getPoolUpdate().getUpdateInterval();
+        this.config = config;
+        TimeInterval newInterval = config.getPoolUpdate().getUpdateInterval();
+        if (!newInterval.equals(oldInterval)) {
+            synchronized (this.poolUpdateTaskLock) {
+                if (this.poolUpdateTask != null && !this.poolUpdateTask.isCancelled()) {
+                    this.poolUpdateTask.cancel(false);
+                    this.poolUpdateTask = schedulePoolUpdates(newInterval);
+                }
+            }
+        }
+        LOG.debug("reconfigured {}", getClass().getSimpleName());
+    }
+
     @Override
     public void close() {
         // stop periodical execution of cache update task
         LOG.debug("shutting down {} ...", getClass().getSimpleName());
-        if (this.poolUpdateTask != null) {
-            this.poolUpdateTask.cancel(true);
+        synchronized (this.poolUpdateTaskLock) {
+            if (this.poolUpdateTask != null) {
+                this.poolUpdateTask.cancel(true);
+            }
+        }
+        synchronized (this.triggeredResizeLock) {
+            if (this.triggeredResize != null) {
+                this.triggeredResize.cancel(false);
+                this.triggeredResize = null;
+            }
+        }
+        synchronized (this.poolUpdateLock) {
+            cancelTerminationTimer();
         }
     }
 
@@ -113,10 +272,84 @@ public class StandardPoolUpdater implements PoolUpdater {
     public void setDesiredSize(int desiredSize) throws IllegalArgumentException, CloudPoolException {
         checkArgument(desiredSize >= 0, "negative desired pool size");
 
+        storeDesiredSize(desiredSize);
+        triggerResize();
+    }
+
+    /**
+     * Registers a new desired size without triggering a resize.
+     *
+     * @param desiredSize
+     */
+    private void storeDesiredSize(int desiredSize) {
         // prevent concurrent pool modifications
         synchronized (this.desiredSizeLock) {
             LOG.info("set desiredSize to {}", desiredSize);
             this.desiredSize = desiredSize;
+            persistState();
+        }
+    }
+
+    /**
+     * Restores the {@link #desiredSize} and {@link #terminationQueue} from the
+     * {@link #persistedState} (if any), and arms the {@link #terminationTimer}
+     * for any restored terminations.
+     */
+    private void restoreState() {
+        if (!this.persistedState.get().isPresent()) {
+            LOG.info("no previously stored pool updater state found.");
+            return;
+        }
+        PoolUpdaterState state = this.persistedState.get().get();
+        LOG.info("recovered pool updater state: {}", state);
+        synchronized (this.persistedState) {
+            this.lastPersistedState = state;
+        }
+        synchronized (this.desiredSizeLock) {
+            this.desiredSize = state.getDesiredSize();
+        }
+        synchronized (this.poolUpdateLock) {
+            this.terminationQueue.addAll(state.getScheduledTerminations());
+            this.scheduledTerminations = this.terminationQueue.getScheduledTerminations();
+            // note: the termination timer is not armed until the first pool
+            // update has filtered the restored queue against the pool, since
+            // queued machines may have been detached, blessed or terminated
+            // while the cloud pool was down
+        }
+    }
+
+    /**
+     * Takes a snapshot of the {@link #terminationQueue} and persists it.
+     * <p/>
+     * Must be called while holding the {@link #poolUpdateLock}.
+     */
+    private void terminationQueueChanged() {
+        this.scheduledTerminations = this.terminationQueue.getScheduledTerminations();
+        persistState();
+    }
+
+    /**
+     * Persists the current {@link #desiredSize} and the latest snapshot of the
+     * {@link #terminationQueue}, unless they equal the state that was last
+     * persisted. A failure to persist the state is logged but does not fail
+     * the operation that modified the state.
+     */
+    private void persistState() {
+        Integer desiredSize;
+        synchronized (this.desiredSizeLock) {
+            desiredSize = this.desiredSize;
+        }
+        synchronized (this.persistedState) {
+            PoolUpdaterState state = new PoolUpdaterState(desiredSize, this.scheduledTerminations);
+            if (state.equals(this.lastPersistedState)) {
+                return;
+            }
+            try {
+                this.persistedState.update(state);
+                this.lastPersistedState = state;
+            } catch (Exception e) {
+                LOG.warn("failed to persist pool updater state: {}", e.getMessage(), e);
+            }
         }
     }
 
@@ -148,15 +381,17 @@ public class StandardPoolUpdater implements PoolUpdater {
 
         // prevent concurrent pool modifications
         synchronized (this.poolUpdateLock) {
+            poolModified();
             LOG.info("terminating {}", machineId);
             this.cloudDriver.terminateMachine(machineId);
+            dequeueTermination(machineId);
             if (decrementDesiredSize) {
                 synchronized (this.desiredSizeLock) {
                     // note: decrement unless desiredSize has been set to 0
                     // (without having been effectuated yet)
                     int newSize = max(this.desiredSize - 1, 0);
                     LOG.debug("decrementing desiredSize to {}", newSize);
-                    setDesiredSize(newSize);
+                    storeDesiredSize(newSize);
                 }
             }
         }
@@ -167,6 +402,7 @@ public class StandardPoolUpdater implements PoolUpdater {
     public void setServiceState(String machineId, ServiceState serviceState)
             throws NotFoundException, CloudPoolException {
         LOG.info("service state {} assigned to {}", serviceState.name(), machineId);
+        poolModified();
         this.cloudDriver.setServiceState(machineId, serviceState);
         serviceStateAlert(machineId, serviceState);
     }
@@ -175,6 +411,7 @@ public class StandardPoolUpdater implements PoolUpdater {
     public void setMembershipStatus(String machineId, MembershipStatus membershipStatus)
             throws NotFoundException, CloudPoolException {
         LOG.info("membership status {} assigned to {}", membershipStatus, machineId);
+        poolModified();
         this.cloudDriver.setMembershipStatus(machineId, membershipStatus);
         membershipStatusAlert(machineId, membershipStatus);
     }
@@ -186,14 +423,16 @@ public class StandardPoolUpdater implements PoolUpdater {
 
         // prevent concurrent pool modifications
         synchronized (this.poolUpdateLock) {
+            poolModified();
             LOG.info("attaching instance {} to pool", machineId);
             this.cloudDriver.attachMachine(machineId);
             synchronized (this.desiredSizeLock) {
                 // implicitly increases pool size
-                setDesiredSize(this.desiredSize + 1);
+                storeDesiredSize(this.desiredSize + 1);
             }
         }
         attachAlert(machineId);
+        triggerResize();
     }
 
     @Override
@@ -204,19 +443,82 @@ public class StandardPoolUpdater implements PoolUpdater {
 
         // prevent concurrent pool modifications
         synchronized (this.poolUpdateLock) {
+            poolModified();
             LOG.info("detaching {} from pool", machineId);
             this.cloudDriver.detachMachine(machineId);
+            dequeueTermination(machineId);
             if (decrementDesiredSize) {
                 synchronized (this.desiredSizeLock) {
                     // note: decrement unless desiredSize has been set to 0
                     // (without having been effectuated yet)
                     int newSize = max(this.desiredSize - 1, 0);
                     LOG.debug("decrementing desiredSize to {}", newSize);
-                    setDesiredSize(newSize);
+                    storeDesiredSize(newSize);
                 }
             }
         }
         detachAlert(machineId);
+        triggerResize();
+    }
+
+    /**
+     * Removes a machine that has left the pool from the
+     * {@link #terminationQueue}, so that the {@link #terminationTimer} does not
+     * terminate it.
+     * <p/>
+     * Must be called while holding the {@link #poolUpdateLock}.
+     *
+     * @param machineId
+     */
+    private void dequeueTermination(String machineId) {
+        if (this.terminationQueue.remove(machineId)) {
+            LOG.debug("removed {} from termination queue", machineId);
+            terminationQueueChanged();
+            armTerminationTimer();
+        }
+    }
+
+    /**
+     * Schedules a resize to be carried out once the
+     * {@link PoolUpdateConfig#getDebounceWindow()} has passed, unless one is
+     * already pending (in which case the pending resize will take this change
+     * into account). Does nothing if no debounce window is configured.
+     */
+    private void triggerResize() {
+        TimeInterval debounceWindow = this.config.getPoolUpdate().getDebounceWindow();
+        if (debounceWindow == null) {
+            return;
+        }
+
+        synchronized (this.triggeredResizeLock) {
+            if (this.triggeredResize != null) {
+                LOG.debug("resize already pending, not triggering another");
+                return;
+            }
+            LOG.debug("triggering resize in {} {}", debounceWindow.getTime(), debounceWindow.getUnit());
+            try {
+                this.triggeredResize = this.executor.schedule(new TriggeredPoolUpdateTask(this),
+                        debounceWindow.getTime(), debounceWindow.getUnit());
+            } catch (RejectedExecutionException e) {
+                LOG.warn("could not trigger resize, leaving it to the periodical pool update: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Carries out a resize that was scheduled by {@link #triggerResize()}.
+     * Pool modifications that arrive after this point will trigger another
+     * resize.
+     */
+    private void runTriggeredResize() {
+        synchronized (this.triggeredResizeLock) {
+            this.triggeredResize = null;
+        }
+        try {
+            resize(config());
+        } catch (CloudPoolException e) {
+            // already reported by resize, the periodical task will try again
+        }
     }
 
     /**
@@ -276,7 +578,10 @@ public class StandardPoolUpdater implements PoolUpdater {
         // we need to make use of fresh pool data since cached pool data could
         // make us start an excessive amount of machines (for example if the
         // pool fetcher haven't seen our latest started machines yet)
-        MachinePool pool = this.poolFetcher.get(FetchOption.FORCE_REFRESH);
+        MachinePool pool = this.poolFetcher.get(maxPoolAge(config));
+        // account for machines launched in the background that have yet to
+        // show up in the pool
+        pool = this.fulfillmentTracker.reconcile(pool, config.getPoolUpdate());
         // check if we need to determine desired size (it may not have been
         // possible on startup, e.g., due to cloud API being unreachable)
         setDesiredSizeIfUnset(pool);
@@ -288,6 +593,36 @@ public class StandardPoolUpdater implements PoolUpdater {
         }
     }
 
+    /**
+     * Returns the maximum age of a cached {@link MachinePool} observation that
+     * can be used for a pool update: the configured
+     * {@link PoolUpdateConfig#getMaxPoolAge()}, but never older than the
+     * latest modification of the pool made by this {@link StandardPoolUpdater}.
+     *
+     * @param config
+     * @return
+     */
+    private TimeInterval maxPoolAge(BaseCloudPoolConfig config) {
+        long maxAgeMillis = config.getPoolUpdate().getMaxPoolAge().getMillis();
+        DateTime lastModification = this.lastPoolModification;
+        if (lastModification != null) {
+            // note: only accept observations made strictly after modification
+            long sinceModificationMillis = UtcTime.now().getMillis() - lastModification.getMillis() - 1;
+            maxAgeMillis = Math.max(0, Math.min(maxAgeMillis, sinceModificationMillis));
+        }
+        return new TimeInterval(maxAgeMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Records that this {@link StandardPoolUpdater} has modified the pool (or
+     * is about to), which invalidates cached {@link MachinePool} observations
+     * as well as any recorded no-op pool update.
+     */
+    private void poolModified() {
+        this.lastNoOpUpdate = null;
+        this.lastPoolModification = UtcTime.now();
+    }
+
     /**
      * Updates the machine pool to the given {@code targetSize}.
      *
@@ -300,53 +635,203 @@ public class StandardPoolUpdater implements PoolUpdater {
      * @throws CloudPoolException
      */
     private void doPoolUpdate(MachinePool pool, BaseCloudPoolConfig config, int targetSize) throws CloudPoolException {
+        PoolUpdateInput input = new PoolUpdateInput(pool.getFingerprint(), targetSize, config);
+        if (input.equals(this.lastNoOpUpdate) && !terminationDue()) {
+            LOG.debug("pool unchanged since last update, which required no changes: skipping update");
+            return;
+        }
+        this.lastNoOpUpdate = null;
         LOG.info("updating pool size to desired size {}", targetSize);
 
         LOG.debug("current pool members: {}", Lists.transform(pool.getMachines(), Machine.toShortString()));
         this.terminationQueue.filter(pool.getActiveMachines());
-        ResizePlanner resizePlanner = new ResizePlanner(pool, this.terminationQueue,
-                config.getScaleInConfig().getVictimSelectionPolicy(),
-                config.getScaleInConfig().getInstanceHourMargin());
-        int netSize = resizePlanner.getNetSize();
-
-        ResizePlan resizePlan = resizePlanner.calculateResizePlan(targetSize);
-        if (resizePlan.hasScaleOutActions()) {
-            scaleOut(resizePlan);
-        }
-        if (resizePlan.hasScaleInActions()) {
-            List<ScheduledTermination> terminations = resizePlan.getToTerminate();
-            LOG.info("scheduling {} machine(s) for termination", terminations.size());
-            for (ScheduledTermination termination : terminations) {
-                this.terminationQueue.add(termination);
-                LOG.debug("scheduling machine {} for termination at {}", termination.getInstance().getId(),
-                        termination.getTerminationTime());
+        this.terminationQueueFiltered = true;
+        try {
+            Set<String> unsettled = unsettledMachines(pool);
+            ResizePlanner resizePlanner = new ResizePlanner(pool, this.terminationQueue, config.getScaleInConfig(),
+                    unsettled);
+            int netSize = resizePlanner.getNetSize();
+
+            ResizePlan resizePlan = resizePlanner.calculateResizePlan(targetSize);
+            if (resizePlan.hasScaleOutActions()) {
+                scaleOut(resizePlan, config);
+            }
+            if (resizePlan.hasScaleInActions()) {
+                List<ScheduledTermination> terminations = resizePlan.getToTerminate();
+                LOG.info("scheduling {} machine(s) for termination", terminations.size());
+                for (ScheduledTermination termination : terminations) {
+                    this.terminationQueue.add(termination);
+                    LOG.debug("scheduling machine {} for termination at {}", termination.getInstance().getId(),
+                            termination.getTerminationTime());
+                }
+                LOG.debug("termination queue: {}", this.terminationQueue);
             }
-            LOG.debug("termination queue: {}", this.terminationQueue);
+            if (resizePlan.noChanges()) {
+                LOG.info("pool is already properly sized ({})", netSize);
+            }
+            // effectuate scheduled terminations that are (over)due
+            List<Machine> terminated = terminateOverdueMachines();
+            // note: a scale-in may be held back until launches have settled,
+            // which need not change the pool fingerprint
+            if (resizePlan.noChanges() && terminated.isEmpty() && unsettled.isEmpty()) {
+                this.lastNoOpUpdate = input;
+            }
+        } finally {
+            // note: the queue may have been filtered or spared from even if the
+            // update fails (for example, on a failed scale-out)
+            terminationQueueChanged();
+            // make sure remaining terminations are carried out when due
+            armTerminationTimer();
         }
-        if (resizePlan.noChanges()) {
-            LOG.info("pool is already properly sized ({})", netSize);
+    }
+
+    /**
+     * Returns the identifiers of the machines in a (reconciled) pool
+     * observation that are still being launched by the
+     * {@link #fulfillmentTracker}: placeholders, and started machines that have
+     * yet to be observed in the pool.
+     * <p/>
+     * Placeholders are recognized by their identifiers, since a launch may have
+     * completed since the pool observation was reconciled.
+     *
+     * @param pool
+     * @return
+     */
+    private Set<String> unsettledMachines(MachinePool pool) {
+        Set<String> unsettled = new HashSet<>();
+        for (Machine machine : pool.getMachines()) {
+            if (machine.getId().startsWith(FulfillmentTracker.PLACEHOLDER_PREFIX)) {
+                unsettled.add(machine.getId());
+            }
+        }
+        for (Machine machine : this.fulfillmentTracker.pendingMachines()) {
+            unsettled.add(machine.getId());
+        }
+        return unsettled;
+    }
+
+    /**
+     * Returns <code>true</code> if the termination of the machine at the head
+     * of the {@link #terminationQueue} is (over)due.
+     * <p/>
+     * Must be called while holding the {@link #poolUpdateLock}.
+     *
+     * @return
+     */
+    private boolean terminationDue() {
+        Optional<ScheduledTermination> head = this.terminationQueue.peek();
+        return head.isPresent() && !head.get().getTerminationTime().isAfter(UtcTime.now());
+    }
+
+    /**
+     * (Re)arms the {@link #terminationTimer} to fire when the termination of
+     * the machine at the head of the {@link #terminationQueue} is due. Cancels
+     * the timer if the queue is empty (for example, if all queued machines
+     * have been spared). Does nothing until the queue has been filtered
+     * against a pool observation.
+     * <p/>
+     * Must be called while holding the {@link #poolUpdateLock}.
+     */
+    private void armTerminationTimer() {
+        if (!this.terminationQueueFiltered) {
+            LOG.debug("termination queue not yet filtered against pool, not arming termination timer");
+            return;
+        }
+        Optional<ScheduledTermination> head = this.terminationQueue.peek();
+        if (!head.isPresent()) {
+            cancelTerminationTimer();
+            return;
+        }
+
+        DateTime dueTime = head.get().getTerminationTime();
+        if (this.terminationTimer != null && !this.terminationTimer.isDone()
+                && dueTime.isEqual(this.terminationTimerDueTime)) {
+            // already armed for the head of the queue
+            return;
+        }
+        cancelTerminationTimer();
+        long delay = max(0L, new Duration(UtcTime.now(), dueTime).getMillis());
+        LOG.debug("next termination due at {} (in {} ms)", dueTime, delay);
+        try {
+            this.terminationTimer = this.executor.schedule(new TerminationTimerTask(this), delay,
+                    TimeUnit.MILLISECONDS);
+            this.terminationTimerDueTime = dueTime;
+        } catch (RejectedExecutionException e) {
+            LOG.warn("could not schedule termination, leaving it to the periodical pool update: {}",
+                    e.getMessage());
         }
-        // effectuate scheduled terminations that are (over)due
-        terminateOverdueMachines();
     }
 
-    private List<Machine> scaleOut(ResizePlan resizePlan) throws StartMachinesException {
+    /**
+     * Cancels the {@link #terminationTimer}, if set.
+     * <p/>
+     * Must be called while holding the {@link #poolUpdateLock}.
+     */
+    private void cancelTerminationTimer() {
+        if (this.terminationTimer != null) {
+            this.terminationTimer.cancel(false);
+            this.terminationTimer = null;
+            this.terminationTimerDueTime = null;
+        }
+    }
+
+    /**
+     * Called by the {@link #terminationTimer} to terminate all machines whose
+     * termination is due.
+     */
+    private void runDueTerminations() {
+        synchronized (this.poolUpdateLock) {
+            this.terminationTimer = null;
+            this.terminationTimerDueTime = null;
+            poolModified();
+            try {
+                terminateOverdueMachines();
+            } catch (Exception e) {
+                LOG.warn("failed to terminate overdue machines: {}", e.getMessage(), e);
+            }
+            terminationQueueChanged();
+            armTerminationTimer();
+        }
+    }
+
+    private List<Machine> scaleOut(ResizePlan resizePlan, BaseCloudPoolConfig config) throws StartMachinesException {
         LOG.info("sparing {} machine(s) from termination, " + "placing {} new request(s)", resizePlan.getToSpare(),
                 resizePlan.getToRequest());
         this.terminationQueue.spare(resizePlan.getToSpare());
 
+        if (config.getPoolUpdate().isAsyncScaleOut()) {
+            if (resizePlan.getToRequest() == 0) {
+                return Collections.emptyList();
+            }
+            // launch completion is reported by the fulfillment tracker
+            return this.fulfillmentTracker.launch(resizePlan.getToRequest(), scaleOutChunkSize(resizePlan, config),
+                    config.getPoolUpdate().getScaleOutParallelism());
+        }
+
         try {
-            List<Machine> startedMachines = this.cloudDriver.startMachines(resizePlan.getToRequest());
-            startAlert(startedMachines);
-            return startedMachines;
-        } catch (StartMachinesException e) {
-            // may have failed part-way through. notify of machines that were
-            // started before error occurred.
-            startAlert(e.getStartedMachines());
-            throw e;
+            // started machines are reported chunk by chunk. on failure, this
+            // includes machines that were started before the error occurred.
+            return ChunkedLauncher.startMachines(this.cloudDriver, resizePlan.getToRequest(),
+                    scaleOutChunkSize(resizePlan, config), config.getPoolUpdate().getScaleOutParallelism(),
+                    this::startAlert);
+        } finally {
+            poolModified();
         }
     }
 
+    /**
+     * Returns the maximum number of machines to request per
+     * {@link CloudPoolDriver#startMachines(int)} call for a scale-out.
+     *
+     * @param resizePlan
+     * @param config
+     * @return
+     */
+    private static int scaleOutChunkSize(ResizePlan resizePlan, BaseCloudPoolConfig config) {
+        Integer chunkSize = config.getPoolUpdate().getScaleOutChunkSize();
+        return chunkSize != null ? chunkSize : Math.max(resizePlan.getToRequest(), 1);
+    }
+
     private List<Machine> terminateOverdueMachines() {
         LOG.debug("checking termination queue for overdue machines: {}", this.terminationQueue);
         List<ScheduledTermination> overdueInstances = this.terminationQueue.popOverdueInstances();
@@ -354,24 +839,30 @@ public class StandardPoolUpdater implements PoolUpdater {
             return Collections.emptyList();
         }
 
-        List<Machine> terminated = Lists.newArrayList();
         LOG.info("terminating {} overdue machine(s): {}", overdueInstances.size(), overdueInstances);
+        Map<String, Machine> victims = new LinkedHashMap<>();
         for (ScheduledTermination overdueInstance : overdueInstances) {
-            String victimId = overdueInstance.getInstance().getId();
-            try {
-                this.cloudDriver.terminateMachine(victimId);
-                terminated.add(overdueInstance.getInstance());
-            } catch (Exception e) {
-                // only warn, since a failure to terminate an instance is not
-                // necessarily an error condition, as the machine, e.g., may
-                // have been terminated by external means since we last checked
-                // the pool members
-                String message = format("failed to terminate instance '%s': %s", victimId, e.getMessage());
-                Alert alert = AlertBuilder.create().topic(RESIZE.name()).severity(AlertSeverity.WARN).message(message)
-                        .build();
-                this.eventBus.post(alert);
-                LOG.warn(message, e);
-            }
+            victims.put(overdueInstance.getInstance().getId(), overdueInstance.getInstance());
+        }
+        TerminateMachinesResult result = this.cloudDriver.terminateMachines(new ArrayList<>(victims.keySet()));
+        poolModified();
+
+        List<Machine> terminated = Lists.newArrayList();
+        for (String victimId : result.getTerminatedMachines()) {
+            terminated.add(victims.get(victimId));
+        }
+        for (Entry<String, Throwable> failure : result.getFailures().entrySet()) {
+            // only warn, since a failure to terminate an instance is not
+            // necessarily an error condition, as the machine, e.g., may
+            // have been terminated by external means since we last checked
+            // the pool members
+            String victimId = failure.getKey();
+            Throwable e = failure.getValue();
+            String message = format("failed to terminate instance '%s': %s", victimId, e.getMessage());
+            Alert alert = AlertBuilder.create().topic(RESIZE.name()).severity(AlertSeverity.WARN).message(message)
+                    .build();
+            this.eventBus.post(alert);
+            LOG.warn(message, e);
         }
         if (!terminated.isEmpty()) {
             terminationAlert(terminated);
@@ -396,9 +887,23 @@ public class StandardPoolUpdater implements PoolUpdater {
         Map<String, JsonElement> tags = Maps.newHashMap();
         List<String> startedMachineIds = Lists.transform(startedMachines, Machine.toId());
         tags.put("requestedMachines", JsonUtils.toJson(startedMachineIds));
-        tags.put("poolMembers", poolMembersTag());
-        this.eventBus
-                .post(new Alert(AlertTopics.RESIZE.name(), AlertSeverity.INFO, UtcTime.now(), message, null, tags));
+        this.eventBus.post(new LazyTagsAlert(AlertTopics.RESIZE.name(), AlertSeverity.INFO, UtcTime.now(), message,
+                null, tags, poolMembersTag()));
+    }
+
+    /**
+     * Post an {@link Alert} that a background launch of machines failed. Any
+     * machines that were started before the error occurred have already been
+     * reported via {@link #startAlert(List)}.
+     *
+     * @param error
+     *            The launch error.
+     */
+    void launchFailureAlert(StartMachinesException error) {
+        String message = format("failed to resize machine pool %s: %s", config().getName(), error.getMessage());
+        Alert alert = AlertBuilder.create().topic(RESIZE.name()).severity(AlertSeverity.WARN).message(message).build();
+        this.eventBus.post(alert);
+        LOG.warn(message, error);
     }
 
     /**
@@ -419,7 +924,7 @@ public class StandardPoolUpdater implements PoolUpdater {
         // of the desiredSize (they are to be replaced)
         int effectiveSize = pool.getActiveMachines().size();
         int allocated = pool.getAllocatedMachines().size();
-        setDesiredSize(effectiveSize);
+        storeDesiredSize(effectiveSize);
         LOG.info("initial desiredSize set to {} (allocated: {}, effective: {})", effectiveSize, allocated,
                 effectiveSize);
     }
@@ -433,10 +938,9 @@ public class StandardPoolUpdater implements PoolUpdater {
         Map<String, JsonElement> tags = Maps.newHashMap();
         List<String> machineIdList = Lists.newArrayList(machineId);
         tags.put("terminatedMachines", JsonUtils.toJson(machineIdList));
-        tags.put("poolMembers", poolMembersTag());
         String message = String.format("Terminated machine %s.", machineId);
-        this.eventBus
-                .post(new Alert(AlertTopics.RESIZE.name(), AlertSeverity.INFO, UtcTime.now(), message, null, tags));
+        this.eventBus.post(new LazyTagsAlert(AlertTopics.RESIZE.name(), AlertSeverity.INFO, UtcTime.now(), message,
+                null, tags, poolMembersTag()));
     }
 
     /**
@@ -452,9 +956,8 @@ public class StandardPoolUpdater implements PoolUpdater {
         Map<String, JsonElement> tags = Maps.newHashMap();
         List<String> terminatedMachineIds = Lists.transform(terminatedMachines, Machine.toId());
         tags.put("terminatedMachines", JsonUtils.toJson(terminatedMachineIds));
-        tags.put("poolMembers", poolMembersTag());
-        this.eventBus
-                .post(new Alert(AlertTopics.RESIZE.name(), AlertSeverity.INFO, UtcTime.now(), message, null, tags));
+        this.eventBus.post(new LazyTagsAlert(AlertTopics.RESIZE.name(), AlertSeverity.INFO, UtcTime.now(), message,
+                null, tags, poolMembersTag()));
     }
 
     /**
@@ -509,16 +1012,26 @@ public class StandardPoolUpdater implements PoolUpdater {
                 null, tags));
     }
 
-    private JsonElement poolMembersTag() {
+    /**
+     * Returns the {@link PoolMembersTag} for a resize {@link Alert}. The
+     * current pool members are captured right away, but the (potentially
+     * large) tag is not rendered until an {@link Alerter} needs it.
+     *
+     * @return
+     */
+    private Map<String, Supplier<JsonElement>> poolMembersTag() {
+        Supplier<JsonElement> tag;
         try {
             List<Machine> poolMembers = this.poolFetcher.get().getMachines();
-            // exclude metadata field (noisy)
-            List<Machine> shortFormatMembers = Lists.transform(poolMembers, Machine.toShortFormat());
-            return JsonUtils.toJson(shortFormatMembers);
+            int limit = config() != null ? config().getAlertDelivery().getPoolMembersTagLimit()
+                    : AlertDeliveryConfig.DEFAULT_POOL_MEMBERS_TAG_LIMIT;
+            tag = () -> PoolMembersTag.render(poolMembers, limit);
         } catch (Exception e) {
             LOG.warn("failed to retrieve pool members: {}", e.getMessage());
-            return JsonUtils.toJson(String.format("N/A (call failed: %s)", e.getMessage()));
+            String failure = String.format("N/A (call failed: %s)", e.getMessage());
+            tag = () -> JsonUtils.toJson(failure);
         }
+        return ImmutableMap.of(PoolMembersTag.TAG, tag);
     }
 
     /**
@@ -530,6 +1043,37 @@ public class StandardPoolUpdater implements PoolUpdater {
         return this.config;
     }
 
+    /**
+     * The input to a pool update: the structure of the pool, the desired size
+     * and the configuration in effect.
+     */
+    private static class PoolUpdateInput {
+        private final String poolFingerprint;
+        private final int targetSize;
+        private final BaseCloudPoolConfig config;
+
+        public PoolUpdateInput(String poolFingerprint, int targetSize, BaseCloudPoolConfig config) {
+            this.poolFingerprint = poolFingerprint;
+            this.targetSize = targetSize;
+            this.config = config;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(this.poolFingerprint, this.targetSize, this.config);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj instanceof PoolUpdateInput) {
+                PoolUpdateInput that = (PoolUpdateInput) obj;
+                return Objects.equal(this.poolFingerprint, that.poolFingerprint) && this.targetSize == that.targetSize
+                        && Objects.equal(this.config, that.config);
+            }
+            return false;
+        }
+    }
+
     /**
      * Task that, when executed, asks the {@link PoolUpdater} to resize the
      * pool.
@@ -552,4 +1096,38 @@ public class StandardPoolUpdater implements PoolUpdater {
         }
     }
 
+    /**
+     * Task that, when executed, terminates any machines whose termination is
+     * due.
+     */
+    private static class TerminationTimerTask implements Runnable {
+        private final StandardPoolUpdater poolUpdater;
+
+        public TerminationTimerTask(StandardPoolUpdater poolUpdater) {
+            this.poolUpdater = poolUpdater;
+        }
+
+        @Override
+        public void run() {
+            this.poolUpdater.runDueTerminations();
+        }
+    }
+
+    /**
+     * Task that, when executed, carries out a resize that was triggered by a
+     * pool modification.
+     */
+    private static class TriggeredPoolUpdateTask implements Runnable {
+        private final StandardPoolUpdater poolUpdater;
+
+        public TriggeredPoolUpdateTask(StandardPoolUpdater poolUpdater) {
+            this.poolUpdater = poolUpdater;
+        }
+
+        @Override
+        public void run() {
+            this.poolUpdater.runTriggeredResize();
+        }
+    }
+
 }
@@ -11,8 +11,10 @@ import static com.google.common.base.Predicates.not;
 import static com.google.common.collect.Collections2.filter;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
@@ -21,8 +23,10 @@ import org.slf4j.LoggerFactory;
 import com.elastisys.scale.cloudpool.api.types.Machine;
 import com.elastisys.scale.cloudpool.api.types.MachinePool;
 import com.elastisys.scale.cloudpool.api.types.MembershipStatus;
+import com.elastisys.scale.cloudpool.commons.basepool.config.ScaleInConfig;
 import com.elastisys.scale.cloudpool.commons.scaledown.TerminationScheduler;
 import com.elastisys.scale.cloudpool.commons.scaledown.VictimSelectionPolicy;
+import com.elastisys.scale.cloudpool.commons.scaledown.VictimSelectionStrategy;
 import com.elastisys.scale.cloudpool.commons.scaledown.VictimSelector;
 import com.elastisys.scale.cloudpool.commons.termqueue.ScheduledTermination;
 import com.elastisys.scale.cloudpool.commons.termqueue.TerminationQueue;
@@ -46,6 +50,12 @@ import com.google.common.collect.Range;
  * When it comes to reducing the pool size, machines that are blessed by virtue
  * of not being evictable ({@link MembershipStatus#isEvictable()}) are never
  * considered for termination.
+ * <p/>
+ * The pool may include <i>unsettled</i> machines: machines that are still being
+ * launched, or whose launch has yet to be reflected in the pool. They count
+ * towards the net size, but are not real pool members that can be terminated.
+ * While there are unsettled machines, shrinking the pool is held back, since
+ * the pool members to choose victims among are not yet known.
  *
  * @see ResizePlan
  */
@@ -59,8 +69,8 @@ public class ResizePlanner {
      * termination.
      */
     private final TerminationQueue terminationQueue;
-    /** The {@link VictimSelectionPolicy} to use when shrinking the pool. */
-    private final VictimSelectionPolicy victimSelectionPolicy;
+    /** The {@link VictimSelectionStrategy} to use when shrinking the pool. */
+    private final VictimSelectionStrategy victimSelectionStrategy;
     /**
      * How many seconds prior to the next instance hour machines should be
      * scheduled for termination. This should be set to a conservative and safe
@@ -71,6 +81,11 @@ public class ResizePlanner {
      * possible.
      */
     private final long instanceHourMargin;
+    /**
+     * Identifiers of unsettled machines in the pool, which are still being
+     * launched. Scale-ins are held back while there are any.
+     */
+    private final Set<String> unsettledMachines;
 
     /**
      * Creates a new {@link ResizePlanner} for a certain machine pool.
@@ -95,10 +110,69 @@ public class ResizePlanner {
      */
     public ResizePlanner(MachinePool machinePool, TerminationQueue terminationQueue,
             VictimSelectionPolicy victimSelectionPolicy, long instanceHourMargin) {
+        this(machinePool, terminationQueue,
+                victimSelectionPolicy != null ? victimSelectionPolicy.getVictimSelectionStrategy() : null,
+                instanceHourMargin);
+    }
+
+    /**
+     * Creates a new {@link ResizePlanner} for a certain machine pool, which
+     * selects victims and schedules terminations as prescribed by a
+     * {@link ScaleInConfig}.
+     *
+     * @param machinePool
+     *            The current pool members.
+     * @param terminationQueue
+     *            Termination queue holding the pool members currently scheduled
+     *            for termination.
+     * @param scaleInConfig
+     *            Describes how to select victims (see
+     *            {@link ScaleInConfig#getVictimSelectionStrategy()}) and when
+     *            to terminate them when shrinking the pool.
+     */
+    public ResizePlanner(MachinePool machinePool, TerminationQueue terminationQueue, ScaleInConfig scaleInConfig) {
+        this(machinePool, terminationQueue, scaleInConfig, Collections.emptySet());
+    }
+
+    /**
+     * Creates a new {@link ResizePlanner} for a certain machine pool, which
+     * selects victims and schedules terminations as prescribed by a
+     * {@link ScaleInConfig}, and which holds back scale-ins while the pool
+     * contains unsettled machines.
+     *
+     * @param machinePool
+     *            The current pool members, including any unsettled machines.
+     * @param terminationQueue
+     *            Termination queue holding the pool members currently scheduled
+     *            for termination.
+     * @param scaleInConfig
+     *            Describes how to select victims (see
+     *            {@link ScaleInConfig#getVictimSelectionStrategy()}) and when
+     *            to terminate them when shrinking the pool.
+     * @param unsettledMachines
+     *            Identifiers of the machines in the pool that are still being
+     *            launched (or have yet to be observed in the pool). These are
+     *            never selected for termination.
+     */
+    public ResizePlanner(MachinePool machinePool, TerminationQueue terminationQueue, ScaleInConfig scaleInConfig,
+            Set<String> unsettledMachines) {
+        this(machinePool, terminationQueue,
+                scaleInConfig != null ? scaleInConfig.getVictimSelectionStrategy() : null,
+                scaleInConfig != null ? scaleInConfig.getInstanceHourMargin() : 0, unsettledMachines);
+    }
+
+    private ResizePlanner(MachinePool machinePool, TerminationQueue terminationQueue,
+            VictimSelectionStrategy victimSelectionStrategy, long instanceHourMargin) {
+        this(machinePool, terminationQueue, victimSelectionStrategy, instanceHourMargin, Collections.emptySet());
+    }
+
+    private ResizePlanner(MachinePool machinePool, TerminationQueue terminationQueue,
+            VictimSelectionStrategy victimSelectionStrategy, long instanceHourMargin, Set<String> unsettledMachines) {
         this.machinePool = machinePool;
         this.terminationQueue = terminationQueue;
-        this.victimSelectionPolicy = victimSelectionPolicy;
+        this.victimSelectionStrategy = victimSelectionStrategy;
         this.instanceHourMargin = instanceHourMargin;
+        this.unsettledMachines = unsettledMachines;
         validate();
     }
 
@@ -113,7 +187,8 @@ public class ResizePlanner {
     public void validate() throws IllegalArgumentException {
         checkArgument(this.machinePool != null, "missing machinePool");
         checkArgument(this.terminationQueue != null, "missing termination queue");
-        checkArgument(this.victimSelectionPolicy != null, "missing victim selection policy");
+        checkArgument(this.victimSelectionStrategy != null, "missing victim selection policy");
+        checkArgument(this.unsettledMachines != null, "missing unsettled machines");
 
         long hourSeconds = TimeUnit.SECONDS.convert(1, TimeUnit.HOURS);
         checkArgument(Range.closedOpen(0L, hourSeconds).contains(this.instanceHourMargin),
@@ -173,7 +248,14 @@ public class ResizePlanner {
         } else if (desiredSize < netSize) {
             // need to scale down
             int excessMachines = netSize - desiredSize;
-            toTerminate = scheduleForTermination(excessMachines);
+            if (this.unsettledMachines.isEmpty()) {
+                toTerminate = scheduleForTermination(excessMachines);
+            } else {
+                // victims are picked once the launched machines have shown up
+                // in the pool and can be told apart from their placeholders
+                LOG.info("holding back termination of {} machine(s) until {} launched machine(s) have settled",
+                        excessMachines, this.unsettledMachines.size());
+            }
         } else {
             LOG.debug("desired size {} equals net pool size, nothing to do", desiredSize);
         }
@@ -213,8 +295,8 @@ public class ResizePlanner {
 
         // use victim selection policy to pick victims from any remaining
         // candidates
-        candidates.removeAll(Lists.newArrayList(requested));
-        List<Machine> victims = victimSelector().selectVictims(candidates, excessMachines);
+        Collection<Machine> remaining = Lists.newArrayList(filter(candidates, not(inState(REQUESTED))));
+        List<Machine> victims = victimSelector().selectVictims(remaining, excessMachines);
         for (Machine victim : victims) {
             toTerminate.add(scheduleTermination(victim));
         }
@@ -231,6 +313,8 @@ public class ResizePlanner {
     private Collection<Machine> getTerminationCandidates() {
         // only consider active pool members
         Collection<Machine> candidates = this.machinePool.getActiveMachines();
+        // filter out machines that are still being launched
+        candidates = filter(candidates, not(unsettled()));
         // filter out blessed pool members (marked as not being evictable)
         candidates = filter(candidates, Machine.isEvictable());
         // filter out already termination marked members
@@ -248,8 +332,10 @@ public class ResizePlanner {
     private Collection<ScheduledTermination> disposableMachines() {
         // consider all allocated pool members ...
         Collection<Machine> disposables = this.machinePool.getAllocatedMachines();
-        // ... that are inactive, evictable and not already termination-marked
-        disposables = filter(disposables, and(not(isActiveMember()), isEvictable(), not(terminationMarked())));
+        // ... that are inactive, evictable, settled and not already
+        // termination-marked
+        disposables = filter(disposables,
+                and(not(isActiveMember()), isEvictable(), not(unsettled()), not(terminationMarked())));
 
         List<ScheduledTermination> terminations = Lists.newLinkedList();
         for (Machine disposable : disposables) {
@@ -263,7 +349,7 @@ public class ResizePlanner {
     }
 
     private VictimSelector victimSelector() {
-        return new VictimSelector(this.victimSelectionPolicy.getVictimSelectionStrategy());
+        return new VictimSelector(this.victimSelectionStrategy);
     }
 
     /**
@@ -276,7 +362,22 @@ public class ResizePlanner {
         return new Predicate<Machine>() {
             @Override
             public boolean apply(Machine machine) {
-                return ResizePlanner.this.terminationQueue.getQueuedInstances().contains(machine);
+                return ResizePlanner.this.terminationQueue.contains(machine.getId());
+            }
+        };
+    }
+
+    /**
+     * Returns a {@link Predicate} that will be <code>true</code> for any
+     * {@link Machine} that is still being launched.
+     *
+     * @return
+     */
+    private Predicate<Machine> unsettled() {
+        return new Predicate<Machine>() {
+            @Override
+            public boolean apply(Machine machine) {
+                return ResizePlanner.this.unsettledMachines.contains(machine.getId());
             }
         };
     }
@@ -0,0 +1,46 @@
+package com.elastisys.scale.cloudpool.commons.scaledown;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import com.elastisys.scale.cloudpool.api.types.Machine;
+
+/**
+ * A {@link VictimSelectionStrategy} that ranks candidates according to a
+ * {@link Comparator}, where the most suitable victim is ordered first.
+ * <p/>
+ * Selecting {@code k} victims out of {@code n} candidates is carried out as a
+ * partial sort (see {@link TopK}) in {@code O(n log k)} time.
+ */
+public interface RankingVictimSelectionStrategy extends VictimSelectionStrategy {
+
+    /**
+     * Returns the order in which candidates are to be considered for
+     * termination (most suitable victim first).
+     *
+     * @return
+     */
+    Comparator<Machine> victimOrder();
+
+    @Override
+    default Machine selectVictim(Collection<Machine> candidates) throws IllegalArgumentException {
+        checkNotNull(candidates, "null candidate set");
+        checkArgument(!candidates.isEmpty(), "empty candidate set");
+
+        return TopK.least(candidates, 1, victimOrder()).get(0);
+    }
+
+    @Override
+    default List<Machine> selectVictims(Collection<Machine> candidates, int numVictims)
+            throws IllegalArgumentException {
+        checkNotNull(candidates, "null candidate set");
+        checkArgument(numVictims >= 0, "negative number of victims");
+        checkArgument(candidates.size() >= numVictims, "more victims than candidates");
+
+        return TopK.least(candidates, numVictims, victimOrder());
+    }
+}
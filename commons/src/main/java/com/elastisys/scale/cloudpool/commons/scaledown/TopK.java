@@ -0,0 +1,94 @@
+package com.elastisys.scale.cloudpool.commons.scaledown;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Partial sorting utility that picks the {@code k} least elements (according
+ * to a given {@link Comparator}) from a collection without sorting the entire
+ * collection.
+ * <p/>
+ * A bounded max-heap of size {@code k} is maintained while scanning the
+ * collection, giving a time complexity of {@code O(n log k)} rather than the
+ * {@code O(n log n)} of a full sort. Elements that compare as equal keep their
+ * relative (iteration) order, so the result is identical to taking the first
+ * {@code k} elements of a stable sort.
+ */
+public final class TopK {
+
+    private TopK() {
+        throw new IllegalStateException("not instantiable");
+    }
+
+    /**
+     * Returns the {@code k} least elements of a collection, in ascending
+     * order.
+     *
+     * @param elements
+     *            The elements to select from.
+     * @param k
+     *            The number of elements to select. If {@code k} exceeds the
+     *            size of the collection, all elements are returned (sorted).
+     * @param order
+     *            The ordering of elements.
+     * @return The {@code k} least elements, least element first.
+     */
+    public static <T> List<T> least(Collection<? extends T> elements, int k, Comparator<? super T> order) {
+        checkNotNull(elements, "null elements");
+        checkNotNull(order, "null order");
+        checkArgument(k >= 0, "negative k");
+
+        if (k == 0) {
+            return new ArrayList<>();
+        }
+
+        // ties are broken by iteration order to make selection stable
+        Comparator<Ranked<T>> rankOrder = (r1, r2) -> {
+            int comparison = order.compare(r1.element, r2.element);
+            return comparison != 0 ? comparison : Integer.compare(r1.index, r2.index);
+        };
+
+        // max-heap holding the k least elements seen so far
+        int capacity = Math.min(k, elements.size());
+        PriorityQueue<Ranked<T>> heap = new PriorityQueue<>(Math.max(capacity, 1),
+                Collections.reverseOrder(rankOrder));
+        int index = 0;
+        for (T element : elements) {
+            Ranked<T> ranked = new Ranked<>(element, index++);
+            if (heap.size() < k) {
+                heap.add(ranked);
+            } else if (rankOrder.compare(ranked, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(ranked);
+            }
+        }
+
+        List<Ranked<T>> selected = new ArrayList<>(heap);
+        Collections.sort(selected, rankOrder);
+        List<T> least = new ArrayList<>(selected.size());
+        for (Ranked<T> ranked : selected) {
+            least.add(ranked.element);
+        }
+        return least;
+    }
+
+    /**
+     * An element tagged with its position in the input collection.
+     */
+    private static class Ranked<T> {
+        private final T element;
+        private final int index;
+
+        public Ranked(T element, int index) {
+            this.element = element;
+            this.index = index;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.elastisys.scale.cloudpool.commons.scaledown;
+
+import com.elastisys.scale.cloudpool.commons.scaledown.scorers.InstanceHourScorer;
+import com.elastisys.scale.cloudpool.commons.scaledown.scorers.ServiceStateScorer;
+import com.elastisys.scale.cloudpool.commons.scaledown.scorers.ZoneBalanceScorer;
+
+/**
+ * The collection of victim scoring criteria that can be weighed together to
+ * select which machine instance(s) to terminate when a scale-down has been
+ * ordered.
+ * <p/>
+ * Each criterion is paired with a {@link VictimScorer} that implements the
+ * scoring.
+ *
+ * @see VictimScorer
+ */
+public enum VictimScore {
+    /**
+     * Favors instances that are close to completing their most recently
+     * started instance hour.
+     */
+    INSTANCE_HOUR(InstanceHourScorer.INSTANCE),
+    /**
+     * Favors instances that are not (or not yet) in service, such as
+     * {@code UNHEALTHY} and {@code OUT_OF_SERVICE} instances.
+     */
+    SERVICE_STATE(ServiceStateScorer.INSTANCE),
+    /**
+     * Favors instances in the zones (regions) with most candidates, in order
+     * to keep the pool balanced across zones.
+     */
+    ZONE_BALANCE(ZoneBalanceScorer.INSTANCE);
+
+    /**
+     * The {@link VictimScorer} associated with this {@link VictimScore}.
+     */
+    private final VictimScorer victimScorer;
+
+    /**
+     * Constructs a new {@link VictimScore}.
+     *
+     * @param victimScorer
+     *            the {@link VictimScorer} associated with this
+     *            {@link VictimScore}.
+     */
+    private VictimScore(VictimScorer victimScorer) {
+        this.victimScorer = victimScorer;
+    }
+
+    /**
+     * Returns the {@link VictimScorer} associated with this
+     * {@link VictimScore}.
+     *
+     * @return
+     */
+    public VictimScorer getVictimScorer() {
+        return this.victimScorer;
+    }
+}
@@ -0,0 +1,31 @@
+package com.elastisys.scale.cloudpool.commons.scaledown;
+
+import java.util.List;
+
+import com.elastisys.scale.cloudpool.api.types.Machine;
+
+/**
+ * Scores termination candidates by how suitable they are as victims when a
+ * scale-down of a machine pool is ordered.
+ * <p/>
+ * Scores are on a common scale from {@code 0.0} (least suitable victim) to
+ * {@code 1.0} (most suitable victim), which allows several
+ * {@link VictimScorer}s to be weighed together.
+ *
+ * @see VictimScore
+ */
+public interface VictimScorer {
+
+    /**
+     * Scores a list of termination candidates. The candidate set is scored as
+     * a whole, since a candidate's score may depend on the other candidates
+     * (such as how candidates are spread across zones).
+     *
+     * @param candidates
+     *            The machines eligible for termination.
+     * @return An array holding the score of each candidate, such that element
+     *         {@code i} is the score (in the range {@code [0.0, 1.0]}) of
+     *         {@code candidates.get(i)}.
+     */
+    double[] score(List<Machine> candidates);
+}
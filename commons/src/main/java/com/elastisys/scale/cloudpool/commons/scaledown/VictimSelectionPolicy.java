@@ -33,7 +33,7 @@ public enum VictimSelectionPolicy {
      * The {@link VictimSelectionStrategy} associated with this
      * {@link VictimSelectionPolicy}.
      */
-    private VictimSelectionStrategy victimSelectionStrategy;
+    private RankingVictimSelectionStrategy victimSelectionStrategy;
 
     /**
      * Constructs a new {@link VictimSelectionPolicy}.
@@ -42,7 +42,7 @@ public enum VictimSelectionPolicy {
      *            the {@link VictimSelectionStrategy} associated with this
      *            {@link VictimSelectionPolicy}.
      */
-    private VictimSelectionPolicy(VictimSelectionStrategy victimSelectionStrategy) {
+    private VictimSelectionPolicy(RankingVictimSelectionStrategy victimSelectionStrategy) {
         this.victimSelectionStrategy = victimSelectionStrategy;
     }
 
@@ -52,7 +52,7 @@ public enum VictimSelectionPolicy {
      * 
      * @return
      */
-    public VictimSelectionStrategy getVictimSelectionStrategy() {
+    public RankingVictimSelectionStrategy getVictimSelectionStrategy() {
         return this.victimSelectionStrategy;
     }
 }
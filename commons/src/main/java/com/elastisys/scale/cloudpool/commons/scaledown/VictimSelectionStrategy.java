@@ -1,6 +1,11 @@
 package com.elastisys.scale.cloudpool.commons.scaledown;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 
 import com.elastisys.scale.cloudpool.api.types.Machine;
 
@@ -20,4 +25,35 @@ public interface VictimSelectionStrategy {
      * @return The selected victim machine instance.
      */
     Machine selectVictim(Collection<Machine> candidates);
+
+    /**
+     * Selects a number of instances, from a collection of machine instances,
+     * to schedule for (eventual) termination.
+     * <p/>
+     * The default implementation repeatedly calls
+     * {@link #selectVictim(Collection)}, which costs one pass over the
+     * candidates per victim. Strategies that are able to select several
+     * victims in a single pass should override this method.
+     *
+     * @param candidates
+     *            The collection of machines eligible for termination.
+     * @param numVictims
+     *            The number of victims to select. Must not exceed the number
+     *            of candidates.
+     * @return The selected victim machine instances, in order of selection.
+     */
+    default List<Machine> selectVictims(Collection<Machine> candidates, int numVictims) {
+        checkNotNull(candidates, "null candidate set");
+        checkArgument(numVictims >= 0, "negative number of victims");
+        checkArgument(candidates.size() >= numVictims, "more victims than candidates");
+
+        List<Machine> remaining = new ArrayList<>(candidates);
+        List<Machine> victims = new ArrayList<>(numVictims);
+        for (int i = 0; i < numVictims; i++) {
+            Machine victim = selectVictim(remaining);
+            victims.add(victim);
+            remaining.remove(victim);
+        }
+        return victims;
+    }
 }
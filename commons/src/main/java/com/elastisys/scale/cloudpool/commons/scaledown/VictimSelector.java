@@ -7,11 +7,10 @@ import java.util.Collection;
 import java.util.List;
 
 import com.elastisys.scale.cloudpool.api.types.Machine;
-import com.google.common.collect.Lists;
 
 /**
  * Selects a number of victim machines to terminate from a set of candidates by
- * using a {@link VictimSelectionStrategy} to select each machine.
+ * using a {@link VictimSelectionStrategy}.
  *
  * @see VictimSelectionStrategy
  */
@@ -41,9 +40,12 @@ public class VictimSelector {
      * <ol>
      * <li>Filter out already termination marked instances (i.e., instances in
      * the termination queue).</li>
-     * <li>Use the {@link VictimSelectionStrategy} to select an instance from
-     * the candidate set.</li>
+     * <li>Use the {@link VictimSelectionStrategy} to select the requested
+     * number of instances from the candidate set.</li>
      * </ol>
+     * Strategies that rank candidates (such as those of the
+     * {@link VictimSelectionPolicy}s) select all victims in a single partial
+     * sort of the candidates, rather than in one pass per victim.
      *
      * @param candidates
      *            The collection of candidate machine instances.
@@ -57,16 +59,7 @@ public class VictimSelector {
         checkArgument(numVictims >= 0, "negative number of victims");
         checkArgument(candidates.size() >= numVictims, "more victims than termination candidates");
 
-        List<Machine> terminationCandidates = Lists.newArrayList(candidates);
-        List<Machine> victims = Lists.newArrayList();
-        for (int i = 0; i < numVictims; i++) {
-            // use victim selection strategy to pick a victim
-            Machine victim = this.victimSelectionStrategy.selectVictim(terminationCandidates);
-            victims.add(victim);
-            terminationCandidates.remove(victim);
-        }
-
-        return victims;
+        return this.victimSelectionStrategy.selectVictims(candidates, (int) numVictims);
     }
 
 }
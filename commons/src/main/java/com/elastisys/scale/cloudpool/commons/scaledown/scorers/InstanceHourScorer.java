@@ -0,0 +1,41 @@
+package com.elastisys.scale.cloudpool.commons.scaledown.scorers;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.elastisys.scale.cloudpool.api.types.Machine;
+import com.elastisys.scale.cloudpool.commons.scaledown.VictimScorer;
+
+/**
+ * A {@link VictimScorer} that scores instances by how close they are to the
+ * end of their current instance hour. An instance about to complete its
+ * instance hour scores close to {@code 1.0}, whereas an instance that just
+ * started a new instance hour scores close to {@code 0.0}.
+ * <p/>
+ * Instances without a launch time (which have not started incurring cost)
+ * score {@code 0.0}.
+ */
+public enum InstanceHourScorer implements VictimScorer {
+    /** The single instance of this class. */
+    INSTANCE;
+
+    private static final double SECONDS_PER_HOUR = TimeUnit.HOURS.toSeconds(1);
+
+    @Override
+    public double[] score(List<Machine> candidates) {
+        checkNotNull(candidates, "null candidates");
+
+        double[] scores = new double[candidates.size()];
+        for (int i = 0; i < scores.length; i++) {
+            Machine candidate = candidates.get(i);
+            if (candidate.getLaunchTime() == null) {
+                continue;
+            }
+            long secondsLeft = Machine.remainingInstanceHourTime().apply(candidate);
+            scores[i] = Math.max(0.0, Math.min(1.0, 1.0 - secondsLeft / SECONDS_PER_HOUR));
+        }
+        return scores;
+    }
+}
@@ -0,0 +1,51 @@
+package com.elastisys.scale.cloudpool.commons.scaledown.scorers;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.List;
+
+import com.elastisys.scale.cloudpool.api.types.Machine;
+import com.elastisys.scale.cloudpool.api.types.ServiceState;
+import com.elastisys.scale.cloudpool.commons.scaledown.VictimScorer;
+
+/**
+ * A {@link VictimScorer} that scores instances by their {@link ServiceState},
+ * favoring instances that do not contribute to the service:
+ * <ul>
+ * <li>{@link ServiceState#UNHEALTHY} and {@link ServiceState#OUT_OF_SERVICE}
+ * instances score {@code 1.0}.</li>
+ * <li>{@link ServiceState#BOOTING} and {@link ServiceState#UNKNOWN} instances
+ * (and instances without a service state) score {@code 0.5}.</li>
+ * <li>{@link ServiceState#IN_SERVICE} instances score {@code 0.0}.</li>
+ * </ul>
+ */
+public enum ServiceStateScorer implements VictimScorer {
+    /** The single instance of this class. */
+    INSTANCE;
+
+    @Override
+    public double[] score(List<Machine> candidates) {
+        checkNotNull(candidates, "null candidates");
+
+        double[] scores = new double[candidates.size()];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = score(candidates.get(i).getServiceState());
+        }
+        return scores;
+    }
+
+    private static double score(ServiceState serviceState) {
+        if (serviceState == null) {
+            return 0.5;
+        }
+        switch (serviceState) {
+        case UNHEALTHY:
+        case OUT_OF_SERVICE:
+            return 1.0;
+        case IN_SERVICE:
+            return 0.0;
+        default:
+            return 0.5;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.elastisys.scale.cloudpool.commons.scaledown.scorers;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.elastisys.scale.cloudpool.api.types.Machine;
+import com.elastisys.scale.cloudpool.commons.scaledown.VictimScorer;
+
+/**
+ * A {@link VictimScorer} that favors instances in the zones that hold the
+ * most candidates, in order to keep the pool spread evenly across zones. The
+ * zone of an instance is taken to be its {@link Machine#getRegion()}.
+ * <p/>
+ * Each instance scores the number of candidates in its zone divided by the
+ * number of candidates in the largest zone. That is, instances in the largest
+ * zone(s) score {@code 1.0}.
+ * <p/>
+ * Note that scores are calculated once for the candidate set. When several
+ * victims are selected in one go, the selection does not account for zone
+ * sizes shrinking as victims are picked.
+ */
+public enum ZoneBalanceScorer implements VictimScorer {
+    /** The single instance of this class. */
+    INSTANCE;
+
+    @Override
+    public double[] score(List<Machine> candidates) {
+        checkNotNull(candidates, "null candidates");
+
+        Map<String, Integer> zoneSizes = new HashMap<>();
+        int largestZone = 0;
+        for (Machine candidate : candidates) {
+            int zoneSize = zoneSizes.merge(candidate.getRegion(), 1, Integer::sum);
+            largestZone = Math.max(largestZone, zoneSize);
+        }
+
+        double[] scores = new double[candidates.size()];
+        for (int i = 0; i < scores.length; i++) {
+            scores[i] = (double) zoneSizes.get(candidates.get(i).getRegion()) / largestZone;
+        }
+        return scores;
+    }
+}
@@ -1,12 +1,9 @@
 package com.elastisys.scale.cloudpool.commons.scaledown.strategies;
 
-import static com.google.common.base.Preconditions.checkArgument;
-import static com.google.common.base.Preconditions.checkNotNull;
-
-import java.util.Collection;
 import java.util.Comparator;
 
 import com.elastisys.scale.cloudpool.api.types.Machine;
+import com.elastisys.scale.cloudpool.commons.scaledown.RankingVictimSelectionStrategy;
 import com.elastisys.scale.cloudpool.commons.scaledown.VictimSelectionStrategy;
 import com.google.common.base.Function;
 
@@ -16,16 +13,13 @@ import com.google.common.base.Function;
  *
  *
  */
-public enum ClosestToInstanceHourVictimSelectionStrategy implements VictimSelectionStrategy {
+public enum ClosestToInstanceHourVictimSelectionStrategy implements RankingVictimSelectionStrategy {
     /** The single instance of this class. */
     INSTANCE;
 
     @Override
-    public Machine selectVictim(Collection<Machine> candidates) throws IllegalArgumentException {
-        checkNotNull(candidates, "null candidate set");
-        checkArgument(!candidates.isEmpty(), "empty candidate set");
-
-        return Machine.sort(candidates, new ClosestToInstanceHourOrder()).get(0);
+    public Comparator<Machine> victimOrder() {
+        return new ClosestToInstanceHourOrder();
     }
 
     /**
@@ -40,10 +34,10 @@ public enum ClosestToInstanceHourVictimSelectionStrategy implements VictimSelect
 
         @Override
         public int compare(Machine instance1, Machine instance2) {
-            Function<Machine, Long> remainingInstanceHourTime = new Machine.RemainingInstanceHourTime();
+            Function<? super Machine, Long> remainingInstanceHourTime = Machine.remainingInstanceHourTime();
             long i1TimeLeft = remainingInstanceHourTime.apply(instance1);
             long i2TimeLeft = remainingInstanceHourTime.apply(instance2);
-            return (int) (i1TimeLeft - i2TimeLeft);
+            return Long.compare(i1TimeLeft, i2TimeLeft);
         }
     }
 }
\ No newline at end of file
@@ -1,12 +1,9 @@
 package com.elastisys.scale.cloudpool.commons.scaledown.strategies;
 
-import static com.google.common.base.Preconditions.checkArgument;
-import static com.google.common.base.Preconditions.checkNotNull;
-
-import java.util.Collection;
 import java.util.Comparator;
 
 import com.elastisys.scale.cloudpool.api.types.Machine;
+import com.elastisys.scale.cloudpool.commons.scaledown.RankingVictimSelectionStrategy;
 import com.elastisys.scale.cloudpool.commons.scaledown.VictimSelectionStrategy;
 
 /**
@@ -15,17 +12,14 @@ import com.elastisys.scale.cloudpool.commons.scaledown.VictimSelectionStrategy;
  *
  *
  */
-public enum NewestInstanceVictimSelectionStrategy implements VictimSelectionStrategy {
+public enum NewestInstanceVictimSelectionStrategy implements RankingVictimSelectionStrategy {
 
     /** The single instance of this class. */
     INSTANCE;
 
     @Override
-    public Machine selectVictim(Collection<Machine> candidates) throws IllegalArgumentException {
-        checkNotNull(candidates, "null candidate set");
-        checkArgument(!candidates.isEmpty(), "empty candidate set");
-
-        return Machine.sort(candidates, new NewestFirstOrder()).get(0);
+    public Comparator<Machine> victimOrder() {
+        return new NewestFirstOrder();
     }
 
     /**
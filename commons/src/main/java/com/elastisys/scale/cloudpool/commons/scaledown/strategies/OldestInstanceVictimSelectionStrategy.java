@@ -1,12 +1,9 @@
 package com.elastisys.scale.cloudpool.commons.scaledown.strategies;
 
-import static com.google.common.base.Preconditions.checkArgument;
-import static com.google.common.base.Preconditions.checkNotNull;
-
-import java.util.Collection;
 import java.util.Comparator;
 
 import com.elastisys.scale.cloudpool.api.types.Machine;
+import com.elastisys.scale.cloudpool.commons.scaledown.RankingVictimSelectionStrategy;
 import com.elastisys.scale.cloudpool.commons.scaledown.VictimSelectionStrategy;
 
 /**
@@ -15,16 +12,13 @@ import com.elastisys.scale.cloudpool.commons.scaledown.VictimSelectionStrategy;
  *
  *
  */
-public enum OldestInstanceVictimSelectionStrategy implements VictimSelectionStrategy {
+public enum OldestInstanceVictimSelectionStrategy implements RankingVictimSelectionStrategy {
     /** The single instance of this class. */
     INSTANCE;
 
     @Override
-    public Machine selectVictim(Collection<Machine> candidates) throws IllegalArgumentException {
-        checkNotNull(candidates, "null candidate set");
-        checkArgument(!candidates.isEmpty(), "empty candidate set");
-
-        return Machine.sort(candidates, new OldestFirstOrder()).get(0);
+    public Comparator<Machine> victimOrder() {
+        return new OldestFirstOrder();
     }
 
     /**
@@ -0,0 +1,126 @@
+package com.elastisys.scale.cloudpool.commons.scaledown.strategies;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.elastisys.scale.cloudpool.api.types.Machine;
+import com.elastisys.scale.cloudpool.commons.scaledown.TopK;
+import com.elastisys.scale.cloudpool.commons.scaledown.VictimScorer;
+import com.elastisys.scale.cloudpool.commons.scaledown.VictimSelectionStrategy;
+
+/**
+ * A {@link VictimSelectionStrategy} that weighs several {@link VictimScorer}s
+ * together. Each candidate is given a composite score, being the weighted sum
+ * of its individual scores, and the candidates with the highest composite
+ * scores are selected as victims. Candidates with equal composite scores are
+ * ordered by a tie-breaking {@link Comparator}.
+ * <p/>
+ * Selecting {@code k} victims out of {@code n} candidates is carried out as a
+ * partial sort in {@code O(n log k)} time (not counting the cost of scoring).
+ */
+public class WeightedVictimSelectionStrategy implements VictimSelectionStrategy {
+
+    /** The {@link VictimScorer}s to weigh together, with their weights. */
+    private final Map<VictimScorer, Double> weights;
+    /** Order among candidates with equal composite scores. */
+    private final Comparator<Machine> tieBreaker;
+
+    /**
+     * Creates a {@link WeightedVictimSelectionStrategy}.
+     *
+     * @param weights
+     *            The {@link VictimScorer}s to weigh together, with their
+     *            (non-negative) weights.
+     * @param tieBreaker
+     *            Order among candidates with equal composite scores (most
+     *            suitable victim first).
+     */
+    public WeightedVictimSelectionStrategy(Map<? extends VictimScorer, Double> weights,
+            Comparator<Machine> tieBreaker) {
+        checkNotNull(weights, "null weights");
+        checkNotNull(tieBreaker, "null tieBreaker");
+        checkArgument(!weights.isEmpty(), "no victim scorers given");
+        for (Entry<? extends VictimScorer, Double> weight : weights.entrySet()) {
+            checkArgument(weight.getKey() != null, "null victim scorer");
+            checkArgument(weight.getValue() != null && weight.getValue() >= 0 && !weight.getValue().isInfinite(),
+                    "victim scorer weights must be non-negative numbers");
+        }
+
+        this.weights = new LinkedHashMap<>(weights);
+        this.tieBreaker = tieBreaker;
+    }
+
+    @Override
+    public Machine selectVictim(Collection<Machine> candidates) throws IllegalArgumentException {
+        checkNotNull(candidates, "null candidate set");
+        checkArgument(!candidates.isEmpty(), "empty candidate set");
+
+        return selectVictims(candidates, 1).get(0);
+    }
+
+    @Override
+    public List<Machine> selectVictims(Collection<Machine> candidates, int numVictims)
+            throws IllegalArgumentException {
+        checkNotNull(candidates, "null candidate set");
+        checkArgument(numVictims >= 0, "negative number of victims");
+        checkArgument(candidates.size() >= numVictims, "more victims than candidates");
+
+        List<Machine> candidateList = new ArrayList<>(candidates);
+        double[] compositeScores = score(candidateList);
+
+        List<Integer> indices = new ArrayList<>(candidateList.size());
+        for (int i = 0; i < candidateList.size(); i++) {
+            indices.add(i);
+        }
+        // highest composite score first
+        Comparator<Integer> victimOrder = (i1, i2) -> {
+            int comparison = Double.compare(compositeScores[i2], compositeScores[i1]);
+            return comparison != 0 ? comparison
+                    : this.tieBreaker.compare(candidateList.get(i1), candidateList.get(i2));
+        };
+
+        List<Machine> victims = new ArrayList<>(numVictims);
+        for (int index : TopK.least(indices, numVictims, victimOrder)) {
+            victims.add(candidateList.get(index));
+        }
+        return victims;
+    }
+
+    /**
+     * Calculates the composite (weighted) score of each candidate.
+     *
+     * @param candidates
+     * @return
+     */
+    private double[] score(List<Machine> candidates) {
+        double[] compositeScores = new double[candidates.size()];
+        for (Entry<VictimScorer, Double> weight : this.weights.entrySet()) {
+            double[] scores = weight.getKey().score(candidates);
+            checkState(scores.length == candidates.size(), "%s returned %s scores for %s candidates",
+                    weight.getKey(), scores.length, candidates.size());
+            for (int i = 0; i < scores.length; i++) {
+                compositeScores[i] += weight.getValue() * scores[i];
+            }
+        }
+        return compositeScores;
+    }
+
+    /**
+     * Returns the {@link VictimScorer}s weighed together by this strategy,
+     * with their weights.
+     *
+     * @return
+     */
+    public Map<VictimScorer, Double> getWeights() {
+        return this.weights;
+    }
+}
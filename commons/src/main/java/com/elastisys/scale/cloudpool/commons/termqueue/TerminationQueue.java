@@ -3,10 +3,14 @@ package com.elastisys.scale.cloudpool.commons.termqueue;
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 
-import java.util.Arrays;
 import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.PriorityQueue;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
 
 import org.joda.time.DateTime;
 
@@ -21,38 +25,55 @@ import com.google.common.collect.Lists;
  * <p/>
  * The queue of scheduled machine instance terminations is kept in increasing
  * order of termination time, such that instances closer to their termination
- * are kept at the head of the queue.
+ * are kept at the head of the queue. Scheduled terminations are also indexed
+ * on machine id, which means that a machine can only be queued once and that
+ * checking if a machine is queued is a constant-time operation. Adding,
+ * sparing and dequeuing a scheduled termination takes logarithmic time.
  *
  * @see ScheduledTermination
  */
 public class TerminationQueue {
 
+    /**
+     * Orders {@link ScheduledTermination}s in increasing order of termination
+     * time, with machine id as tie-breaker.
+     */
+    private static final Comparator<ScheduledTermination> TERMINATION_ORDER = Comparator
+            .comparing(ScheduledTermination::getTerminationTime)
+            .thenComparing(termination -> termination.getInstance().getId());
+
     /**
      * The queue of scheduled machine terminations ordered in increasing order
      * of termination time (closest to termination is kept first) .
      */
-    private final PriorityQueue<ScheduledTermination> scheduledTerminations;
+    private final TreeSet<ScheduledTermination> scheduledTerminations;
+
+    /** The entries of {@link #scheduledTerminations} keyed on machine id. */
+    private final Map<String, ScheduledTermination> terminationsById;
 
     /**
-     * Constructs a {@link TerminationQueue} with a given {@link TimeSource}.
-     *
-     * @param timeSource
-     *            The {@link TimeSource} that provides the
-     *            {@link TerminationQueue} with the notion of current time.
+     * Constructs an empty {@link TerminationQueue}.
      */
     public TerminationQueue() {
-        this.scheduledTerminations = new PriorityQueue<ScheduledTermination>();
+        this.scheduledTerminations = new TreeSet<>(TERMINATION_ORDER);
+        this.terminationsById = new HashMap<>();
     }
 
     /**
      * Schedules a machine instance for (future) termination at a particular
-     * point in time.
+     * point in time. If the machine instance is already in the queue, its
+     * termination is rescheduled.
      *
      * @param scheduledTermination
      *            The scheduled instance termination.
      */
     public void add(ScheduledTermination scheduledTermination) {
         checkNotNull(scheduledTermination, "attempt to add a null scheduled termination");
+        ScheduledTermination previous = this.terminationsById.put(scheduledTermination.getInstance().getId(),
+                scheduledTermination);
+        if (previous != null) {
+            this.scheduledTerminations.remove(previous);
+        }
         this.scheduledTerminations.add(scheduledTermination);
     }
 
@@ -68,6 +89,47 @@ public class TerminationQueue {
         }
     }
 
+    /**
+     * Removes the scheduled termination of a given machine instance, if any.
+     *
+     * @param machineId
+     *            A machine id.
+     * @return <code>true</code> if the machine instance was scheduled for
+     *         termination.
+     */
+    public boolean remove(String machineId) {
+        ScheduledTermination termination = this.terminationsById.remove(machineId);
+        if (termination == null) {
+            return false;
+        }
+        this.scheduledTerminations.remove(termination);
+        return true;
+    }
+
+    /**
+     * Returns <code>true</code> if the machine instance with the given id is
+     * scheduled for termination.
+     *
+     * @param machineId
+     *            A machine id.
+     * @return
+     */
+    public boolean contains(String machineId) {
+        return this.terminationsById.containsKey(machineId);
+    }
+
+    /**
+     * Returns the head of the queue (the {@link ScheduledTermination} with the
+     * earliest termination time) without removing it.
+     *
+     * @return The head of the queue, or {@link Optional#empty()} if the queue
+     *         is empty.
+     */
+    public Optional<ScheduledTermination> peek() {
+        return this.scheduledTerminations.isEmpty() ? Optional.empty()
+                : Optional.of(this.scheduledTerminations.first());
+    }
+
     /**
      * Returns the collection of machine instances that are currently scheduled
      * for termination ordered in increasing order of termination time (earliest
@@ -76,15 +138,23 @@ public class TerminationQueue {
      * @return
      */
     public List<Machine> getQueuedInstances() {
-        ScheduledTermination[] orderedArray = this.scheduledTerminations.toArray(new ScheduledTermination[0]);
-        Arrays.sort(orderedArray);
-        List<Machine> instances = Lists.newArrayList();
-        for (ScheduledTermination scheduledTermination : orderedArray) {
+        List<Machine> instances = Lists.newArrayListWithCapacity(size());
+        for (ScheduledTermination scheduledTermination : this.scheduledTerminations) {
             instances.add(scheduledTermination.getInstance());
         }
         return instances;
     }
 
+    /**
+     * Returns the currently scheduled terminations ordered in increasing order
+     * of termination time (earliest termination first).
+     *
+     * @return
+     */
+    public List<ScheduledTermination> getScheduledTerminations() {
+        return Lists.newArrayList(this.scheduledTerminations);
+    }
+
     /**
      * Returns the number of instances currently scheduled for termination.
      *
@@ -114,8 +184,7 @@ public class TerminationQueue {
 
         List<ScheduledTermination> sparedInstances = Lists.newArrayList();
         for (int i = 0; i < numInstancesToSpare; i++) {
-            ScheduledTermination sparedInstance = this.scheduledTerminations.poll();
-            sparedInstances.add(sparedInstance);
+            sparedInstances.add(poll());
         }
         return sparedInstances;
     }
@@ -128,14 +197,12 @@ public class TerminationQueue {
     public List<ScheduledTermination> popOverdueInstances() {
         List<ScheduledTermination> effectuatedTerminations = Lists.newArrayList();
         DateTime now = UtcTime.now();
-        ScheduledTermination[] orderedArray = this.scheduledTerminations.toArray(new ScheduledTermination[0]);
-        Arrays.sort(orderedArray);
-        for (ScheduledTermination nextInstanceTermination : orderedArray) {
+        while (!this.scheduledTerminations.isEmpty()) {
+            ScheduledTermination nextInstanceTermination = this.scheduledTerminations.first();
             if (now.isBefore(nextInstanceTermination.getTerminationTime())) {
                 break;
             }
-            effectuatedTerminations.add(nextInstanceTermination);
-            this.scheduledTerminations.remove(nextInstanceTermination);
+            effectuatedTerminations.add(poll());
         }
         return effectuatedTerminations;
     }
@@ -148,30 +215,59 @@ public class TerminationQueue {
      * This method prevents obsolete {@link Machine}s that, for example have
      * been terminated by a third party, from occupying a spot in the
      * {@link TerminationQueue}.
+     * <p/>
+     * {@link Machine}s are matched on id, and queued {@link Machine}s that are
+     * kept have their instance updated to the given pool member observation.
      *
      * @param poolMembers
      *            The set of {@link Machine}s that are in the machine pool and
      *            hence are to be kept in the {@link TerminationQueue}.
      */
     public void filter(Collection<Machine> poolMembers) {
-        List<ScheduledTermination> terminations = Lists.newArrayList(this.scheduledTerminations);
-        for (ScheduledTermination termination : terminations) {
-            if (!poolMembers.contains(termination.getInstance())) {
-                this.scheduledTerminations.remove(termination);
+        Map<String, Machine> membersById = new HashMap<>();
+        for (Machine poolMember : poolMembers) {
+            membersById.put(poolMember.getId(), poolMember);
+        }
+
+        Iterator<ScheduledTermination> terminations = this.scheduledTerminations.iterator();
+        List<ScheduledTermination> updated = Lists.newArrayList();
+        while (terminations.hasNext()) {
+            ScheduledTermination termination = terminations.next();
+            String machineId = termination.getInstance().getId();
+            Machine poolMember = membersById.get(machineId);
+            if (poolMember == null) {
+                terminations.remove();
+                this.terminationsById.remove(machineId);
+            } else if (!poolMember.equals(termination.getInstance())) {
+                updated.add(new ScheduledTermination(poolMember, termination.getTerminationTime()));
             }
         }
+        // ordering is unaffected, since neither id nor termination time change
+        addAll(updated);
+    }
+
+    /**
+     * Removes and returns the head of the queue.
+     *
+     * @return
+     */
+    private ScheduledTermination poll() {
+        ScheduledTermination head = this.scheduledTerminations.pollFirst();
+        this.terminationsById.remove(head.getInstance().getId());
+        return head;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(this.scheduledTerminations);
+        return Objects.hashCode(Lists.newArrayList(this.scheduledTerminations));
     }
 
     @Override
     public boolean equals(Object obj) {
         if (obj instanceof TerminationQueue) {
             TerminationQueue that = TerminationQueue.class.cast(obj);
-            return Objects.equal(this.scheduledTerminations, that.scheduledTerminations);
+            return Objects.equal(Lists.newArrayList(this.scheduledTerminations),
+                    Lists.newArrayList(that.scheduledTerminations));
         }
         return false;
     }
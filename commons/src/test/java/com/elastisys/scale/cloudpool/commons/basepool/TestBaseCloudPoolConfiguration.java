@@ -8,12 +8,15 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -338,6 +341,66 @@ public class TestBaseCloudPoolConfiguration {
         assertFalse(oldConfig.equals(newConfig));
     }
 
+    /**
+     * Re-configuring a started {@link BaseCloudPool} with unchanged driver
+     * settings should neither reconfigure the driver nor restart the pool: the
+     * cached pool and the desired size should be kept, and no blocking pool
+     * fetch should be made.
+     */
+    @Test
+    public void testHotReConfigure() throws CloudPoolException {
+        when(this.driverMock.listMachines()).thenReturn(Collections.emptyList());
+        JsonObject config = JsonUtils.parseJsonResource("config/valid-cloudpool-config-minimal.json").getAsJsonObject();
+        this.cloudPool.configure(config);
+        this.cloudPool.start();
+        this.cloudPool.setDesiredSize(0);
+        verify(this.driverMock, times(1)).listMachines();
+
+        JsonObject newConfig = JsonUtils.parseJsonResource("config/valid-cloudpool-config-minimal.json")
+                .getAsJsonObject();
+        newConfig.add("poolUpdate",
+                JsonUtils.parseJsonString("{\"updateInterval\": {\"time\": 2, \"unit\": \"minutes\"}}"));
+        newConfig.add("poolFetch", JsonUtils.parseJsonString("{\"retries\": {\"maxRetries\": 1, "
+                + "\"initialBackoffDelay\": {\"time\": 1, \"unit\": \"seconds\"}}, "
+                + "\"refreshInterval\": {\"time\": 1, \"unit\": \"minutes\"}, "
+                + "\"reachabilityTimeout\": {\"time\": 5, \"unit\": \"minutes\"}}"));
+        this.cloudPool.configure(newConfig);
+
+        assertThat(this.cloudPool.isStarted(), is(true));
+        assertEquals(newConfig, this.cloudPool.getConfiguration().get());
+        assertThat(this.cloudPool.config().getPoolUpdate().getUpdateInterval(),
+                is(new TimeInterval(2L, TimeUnit.MINUTES)));
+        // driver not reconfigured and pool not re-fetched
+        verify(this.driverMock, times(1)).configure(any(DriverConfig.class));
+        verify(this.driverMock, times(1)).listMachines();
+        // cached pool and desired size kept
+        assertThat(this.cloudPool.getPoolSize().getDesiredSize(), is(0));
+        assertThat(this.cloudPool.getMachinePool().getMachines().size(), is(0));
+    }
+
+    /**
+     * Re-configuring a started {@link BaseCloudPool} with new driver settings
+     * should reconfigure the driver.
+     */
+    @Test
+    public void testReConfigureDriverSettings() throws CloudPoolException {
+        when(this.driverMock.listMachines()).thenReturn(Collections.emptyList());
+        JsonObject config = JsonUtils.parseJsonResource("config/valid-cloudpool-config-minimal.json").getAsJsonObject();
+        this.cloudPool.configure(config);
+        this.cloudPool.start();
+
+        JsonObject newConfig = JsonUtils.parseJsonResource("config/valid-cloudpool-config-minimal.json")
+                .getAsJsonObject();
+        newConfig.getAsJsonObject("cloudApiSettings").addProperty("region", "RegionTwo");
+        this.cloudPool.configure(newConfig);
+
+        assertThat(this.cloudPool.isStarted(), is(true));
+        BaseCloudPoolConfig expected = JsonUtils.toObject(newConfig, BaseCloudPoolConfig.class);
+        verify(this.driverMock).configure(new DriverConfig(expected.getName(), expected.getCloudApiSettings(),
+                expected.getProvisioningTemplate()));
+        verify(this.driverMock, times(2)).configure(any(DriverConfig.class));
+    }
+
     /**
      * When the cloud pool is configured, it should only throw exceptions in
      * case the configuration is invalid (not adhering to schema or obvious
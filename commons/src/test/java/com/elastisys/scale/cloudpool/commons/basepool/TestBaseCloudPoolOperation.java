@@ -25,6 +25,8 @@ import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyListOf;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Mockito.atLeast;
@@ -34,6 +36,8 @@ import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.verifyZeroInteractions;
@@ -41,6 +45,8 @@ import static org.mockito.Mockito.when;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -63,10 +69,12 @@ import com.elastisys.scale.cloudpool.api.types.PoolSizeSummary;
 import com.elastisys.scale.cloudpool.api.types.ServiceState;
 import com.elastisys.scale.cloudpool.commons.basepool.config.BaseCloudPoolConfig;
 import com.elastisys.scale.cloudpool.commons.basepool.config.PoolFetchConfig;
+import com.elastisys.scale.cloudpool.commons.basepool.config.PoolUpdateConfig;
 import com.elastisys.scale.cloudpool.commons.basepool.config.RetriesConfig;
 import com.elastisys.scale.cloudpool.commons.basepool.config.ScaleInConfig;
 import com.elastisys.scale.cloudpool.commons.basepool.driver.CloudPoolDriver;
 import com.elastisys.scale.cloudpool.commons.basepool.driver.CloudPoolDriverException;
+import com.elastisys.scale.cloudpool.commons.basepool.driver.ParallelTerminator;
 import com.elastisys.scale.cloudpool.commons.basepool.driver.StartMachinesException;
 import com.elastisys.scale.cloudpool.commons.scaledown.VictimSelectionPolicy;
 import com.elastisys.scale.commons.json.JsonUtils;
@@ -104,6 +112,10 @@ public class TestBaseCloudPoolOperation {
         FrozenTime.setFixed(UtcTime.parse("2014-04-17T12:00:00.000Z"));
         this.cloudPool = new BaseCloudPool(STATE_STORAGE, this.driverMock, this.executor, this.eventBusMock);
         reset(this.eventBusMock);
+        // (mocks do not run default methods) let bulk terminations fan out to
+        // terminateMachine
+        when(this.driverMock.terminateMachines(anyListOf(String.class))).thenAnswer(invocation -> ParallelTerminator
+                .terminateMachines(this.driverMock, invocation.getArgumentAt(0, List.class), 1));
     }
 
     /**
@@ -204,6 +216,69 @@ public class TestBaseCloudPoolOperation {
         assertThat(this.cloudPool.getMachinePool(), is(cachedPool));
     }
 
+    /**
+     * With {@code warmStart} set, a cloud pool should start serving a persisted
+     * machine pool right away, without waiting for the first pool fetch to
+     * complete.
+     */
+    @Test(timeout = 10000)
+    public void warmStartFromPersistedMachinePool() throws Exception {
+        MachinePool cachedPool = new MachinePool(machines(machine("i-1"), machine("i-2")), FrozenTime.now());
+        save(cachedPool, STATE_STORAGE.getCachedMachinePoolFile());
+
+        // the first pool fetch does not complete until released
+        CountDownLatch fetchReleased = new CountDownLatch(1);
+        List<Machine> freshMachines = machines(machine("i-1"), machine("i-2"), machine("i-3"));
+        when(this.driverMock.listMachines()).thenAnswer(invocation -> {
+            fetchReleased.await();
+            return freshMachines;
+        });
+
+        PoolFetchConfig warmStartFetch = new PoolFetchConfig(
+                new RetriesConfig(3, new TimeInterval(0L, TimeUnit.SECONDS)), new TimeInterval(20L, TimeUnit.SECONDS),
+                new TimeInterval(5L, TimeUnit.MINUTES), null, null, true);
+        this.cloudPool.configure(poolConfig(OLDEST_INSTANCE, 0, warmStartFetch, null));
+        this.cloudPool.start();
+
+        // persisted pool is served while the first fetch is in progress
+        assertThat(this.cloudPool.getMachinePool(), is(cachedPool));
+        assertThat(this.cloudPool.getPoolSize().getDesiredSize(), is(2));
+
+        // reconcile with the cloud in the background
+        fetchReleased.countDown();
+        while (!this.cloudPool.getMachinePool().getMachines().equals(freshMachines)) {
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * With {@code warmStart} set, a persisted machine pool that is older than
+     * the reachability timeout should not be served: the cloud pool should
+     * wait for the first pool fetch, as on a cold start.
+     */
+    @Test(timeout = 10000)
+    public void noWarmStartFromStalePersistedMachinePool() throws Exception {
+        MachinePool stalePool = new MachinePool(machines(machine("i-1"), machine("i-2")),
+                FrozenTime.now().minusHours(1));
+        save(stalePool, STATE_STORAGE.getCachedMachinePoolFile());
+        // a slow first pool fetch
+        List<Machine> freshMachines = machines(machine("i-1"), machine("i-2"), machine("i-3"));
+        when(this.driverMock.listMachines()).thenAnswer(invocation -> {
+            Thread.sleep(500);
+            return freshMachines;
+        });
+
+        PoolFetchConfig warmStartFetch = new PoolFetchConfig(
+                new RetriesConfig(3, new TimeInterval(0L, TimeUnit.SECONDS)), new TimeInterval(20L, TimeUnit.SECONDS),
+                new TimeInterval(5L, TimeUnit.MINUTES), null, null, true);
+        this.cloudPool.configure(poolConfig(OLDEST_INSTANCE, 0, warmStartFetch, null));
+        this.cloudPool.start();
+
+        // start waited for the first pool fetch
+        assertThat(this.cloudPool.getMachinePool().getMachines(), is(freshMachines));
+        assertThat(this.cloudPool.getPoolSize().getDesiredSize(), is(3));
+    }
+
     /**
      * Verify that the initial pool size is correctly determined on an empty
      * cloud pool.
@@ -336,6 +411,241 @@ public class TestBaseCloudPoolOperation {
 
     }
 
+    /**
+     * With {@link PoolUpdateConfig#getScaleOutChunkSize()} set, a scale-out
+     * should be split into several {@link CloudPoolDriver#startMachines}
+     * calls, each of which is reported as soon as it completes.
+     */
+    @Test
+    public void chunkedScaleUpOfMachinePool() throws CloudPoolException {
+        // set up initial pool
+        Machine active1 = machine("i-1", MachineState.RUNNING);
+        Machine active2 = machine("i-2", MachineState.RUNNING);
+        when(this.driverMock.listMachines()).thenReturn(machines(active1, active2));
+        Machine newMachine1 = machine("i-3", MachineState.PENDING);
+        Machine newMachine2 = machine("i-4", MachineState.PENDING);
+        Machine newMachine3 = machine("i-5", MachineState.PENDING);
+        when(this.driverMock.startMachines(2)).thenReturn(machines(newMachine1, newMachine2));
+        when(this.driverMock.startMachines(1)).thenReturn(machines(newMachine3));
+
+        PoolUpdateConfig poolUpdate = new PoolUpdateConfig(new TimeInterval(60L, TimeUnit.SECONDS), null, null, null,
+                2, 2);
+        this.cloudPool.configure(poolConfig(OLDEST_INSTANCE, 0, poolUpdate));
+        this.cloudPool.start();
+        this.cloudPool.setDesiredSize(5);
+
+        this.cloudPool.updateMachinePool();
+
+        // three machines requested in chunks of at most two
+        verify(this.driverMock).startMachines(2);
+        verify(this.driverMock).startMachines(1);
+        verify(this.eventBusMock).post(argThat(isStartAlert("i-3", "i-4")));
+        verify(this.eventBusMock).post(argThat(isStartAlert("i-5")));
+    }
+
+    /**
+     * With a debounce window configured, changing the desired size should
+     * trigger a pool resize without waiting for the periodical pool update.
+     * Changes that arrive within the debounce window should be handled by a
+     * single resize.
+     */
+    @Test
+    public void triggeredScaleUpOfMachinePool() throws Exception {
+        // set up initial pool
+        Machine active1 = machine("i-1", MachineState.RUNNING);
+        Machine active2 = machine("i-2", MachineState.RUNNING);
+        when(this.driverMock.listMachines()).thenReturn(machines(active1, active2));
+        Machine newMachine1 = machine("i-3", MachineState.PENDING);
+        Machine newMachine2 = machine("i-4", MachineState.PENDING);
+        when(this.driverMock.startMachines(2)).thenReturn(machines(newMachine1, newMachine2));
+
+        PoolUpdateConfig poolUpdate = new PoolUpdateConfig(new TimeInterval(60L, TimeUnit.SECONDS),
+                new TimeInterval(200L, TimeUnit.MILLISECONDS));
+        this.cloudPool.configure(poolConfig(OLDEST_INSTANCE, 0, poolUpdate));
+        this.cloudPool.start();
+        assertThat(this.cloudPool.getPoolSize().getDesiredSize(), is(2));
+
+        // burst of desired size changes
+        this.cloudPool.setDesiredSize(3);
+        this.cloudPool.setDesiredSize(4);
+
+        // verify that a single resize was carried out for the last desired
+        // size (without any forced pool update)
+        verify(this.driverMock, timeout(5000)).startMachines(2);
+        Thread.sleep(500);
+        verify(this.driverMock, never()).startMachines(1);
+        verify(this.driverMock, atMost(1)).startMachines(2);
+    }
+
+    /**
+     * With {@link PoolUpdateConfig#isAsyncScaleOut()} set, a resize should not
+     * wait for {@link CloudPoolDriver#startMachines} to complete. Machines that
+     * are being launched (or have yet to show up in the pool) must be accounted
+     * for by subsequent resizes.
+     */
+    @Test
+    public void asyncScaleUpOfMachinePool() throws Exception {
+        // set up initial pool
+        Machine active1 = machine("i-1", MachineState.RUNNING);
+        Machine active2 = machine("i-2", MachineState.RUNNING);
+        when(this.driverMock.listMachines()).thenReturn(machines(active1, active2));
+        // launch blocks until released
+        CountDownLatch launchReleased = new CountDownLatch(1);
+        Machine newMachine1 = machine("i-3", MachineState.PENDING);
+        Machine newMachine2 = machine("i-4", MachineState.PENDING);
+        when(this.driverMock.startMachines(2)).thenAnswer(invocation -> {
+            launchReleased.await();
+            return machines(newMachine1, newMachine2);
+        });
+
+        PoolUpdateConfig poolUpdate = new PoolUpdateConfig(new TimeInterval(60L, TimeUnit.SECONDS), null, true);
+        this.cloudPool.configure(poolConfig(OLDEST_INSTANCE, 0, poolUpdate));
+        this.cloudPool.start();
+        this.cloudPool.setDesiredSize(4);
+
+        // resize returns while the launch is still in progress
+        this.cloudPool.updateMachinePool();
+        verify(this.driverMock, timeout(5000)).startMachines(2);
+        verify(this.eventBusMock, never()).post(argThat(isStartAlert("i-3", "i-4")));
+
+        // requested machines are accounted for while the launch is in progress
+        this.cloudPool.updateMachinePool();
+        verify(this.driverMock, times(1)).startMachines(anyInt());
+
+        launchReleased.countDown();
+        verify(this.eventBusMock, timeout(5000)).post(argThat(isStartAlert("i-3", "i-4")));
+
+        // started machines are accounted for until they show up in the pool
+        this.cloudPool.updateMachinePool();
+        when(this.driverMock.listMachines()).thenReturn(machines(active1, active2, newMachine1, newMachine2));
+        this.cloudPool.updateMachinePool();
+        verify(this.driverMock, times(1)).startMachines(anyInt());
+        verify(this.driverMock, never()).terminateMachines(anyListOf(String.class));
+    }
+
+    /**
+     * With {@link PoolUpdateConfig#isAsyncScaleOut()} set, a scale-in while a
+     * launch is in progress must not pick the placeholders of the requested
+     * machines as victims. Instead, the scale-in is held back until the
+     * launched machines have shown up in the pool.
+     */
+    @Test
+    public void scaleDownDuringAsyncScaleUpOfMachinePool() throws Exception {
+        // set up initial pool
+        Machine active1 = machine("i-1", MachineState.RUNNING, UtcTime.now().minusHours(2));
+        Machine active2 = machine("i-2", MachineState.RUNNING, UtcTime.now().minusHours(1));
+        when(this.driverMock.listMachines()).thenReturn(machines(active1, active2));
+        // launch blocks until released
+        CountDownLatch launchReleased = new CountDownLatch(1);
+        Machine newMachine1 = machine("i-3", MachineState.PENDING);
+        Machine newMachine2 = machine("i-4", MachineState.PENDING);
+        when(this.driverMock.startMachines(2)).thenAnswer(invocation -> {
+            launchReleased.await();
+            return machines(newMachine1, newMachine2);
+        });
+
+        PoolUpdateConfig poolUpdate = new PoolUpdateConfig(new TimeInterval(60L, TimeUnit.SECONDS), null, true);
+        this.cloudPool.configure(poolConfig(OLDEST_INSTANCE, 0, poolUpdate));
+        this.cloudPool.start();
+        this.cloudPool.setDesiredSize(4);
+        this.cloudPool.updateMachinePool();
+        verify(this.driverMock, timeout(5000)).startMachines(2);
+
+        // scale in while the launch is in progress: held back
+        this.cloudPool.setDesiredSize(2);
+        this.cloudPool.updateMachinePool();
+        verify(this.driverMock, never()).terminateMachines(anyListOf(String.class));
+        verify(this.eventBusMock, never()).post(argThat(isAlert(RESIZE.name(), WARN)));
+
+        // still held back while the started machines have yet to show up
+        launchReleased.countDown();
+        verify(this.eventBusMock, timeout(5000)).post(argThat(isStartAlert("i-3", "i-4")));
+        this.cloudPool.updateMachinePool();
+        verify(this.driverMock, never()).terminateMachines(anyListOf(String.class));
+
+        // once settled, victims are picked among the actual pool members
+        when(this.driverMock.listMachines()).thenReturn(machines(active1, active2, newMachine1, newMachine2));
+        this.cloudPool.updateMachinePool();
+        verify(this.driverMock).terminateMachine("i-1");
+        verify(this.driverMock).terminateMachine("i-2");
+        verify(this.driverMock, times(2)).terminateMachine(anyString());
+        verify(this.driverMock, times(1)).startMachines(anyInt());
+        verify(this.eventBusMock, never()).post(argThat(isAlert(RESIZE.name(), WARN)));
+    }
+
+    /**
+     * With a {@link PoolUpdateConfig#getMaxPoolAge()} set, pool updates should
+     * use a sufficiently fresh cached pool, unless the pool has been modified
+     * since it was observed.
+     */
+    @Test
+    public void poolUpdateWithMaxPoolAge() throws Exception {
+        FrozenTime.setFixed(UtcTime.parse("2014-04-22T12:00:00.000Z"));
+        Machine active1 = machine("i-1", MachineState.RUNNING);
+        when(this.driverMock.listMachines()).thenReturn(machines(active1));
+        when(this.driverMock.startMachines(1)).thenReturn(machines(machine("i-2", MachineState.PENDING)));
+
+        PoolUpdateConfig poolUpdate = new PoolUpdateConfig(new TimeInterval(60L, TimeUnit.SECONDS), null, null,
+                new TimeInterval(30L, TimeUnit.SECONDS));
+        this.cloudPool.configure(poolConfig(OLDEST_INSTANCE, 0, poolUpdate));
+        this.cloudPool.start();
+        verify(this.driverMock, times(1)).listMachines();
+
+        // cached pool is recent enough
+        FrozenTime.tick(10);
+        this.cloudPool.updateMachinePool();
+        verify(this.driverMock, times(1)).listMachines();
+
+        // cached pool is too old
+        FrozenTime.tick(30);
+        this.cloudPool.updateMachinePool();
+        verify(this.driverMock, times(2)).listMachines();
+
+        // scale-out using cached pool
+        this.cloudPool.setDesiredSize(2);
+        this.cloudPool.updateMachinePool();
+        verify(this.driverMock, times(2)).listMachines();
+        verify(this.driverMock).startMachines(1);
+
+        // cached pool predates scale-out
+        FrozenTime.tick(10);
+        this.cloudPool.updateMachinePool();
+        verify(this.driverMock, times(3)).listMachines();
+    }
+
+    /**
+     * With {@link PoolUpdateConfig#isAsyncScaleOut()} set, a launch that fails
+     * part-way through should be reported via alerts. The machines that were
+     * not started should be requested again by the next resize.
+     */
+    @Test
+    public void partiallyFailedAsyncScaleUpOfMachinePool() throws Exception {
+        // set up initial pool
+        Machine active1 = machine("i-1", MachineState.RUNNING);
+        Machine active2 = machine("i-2", MachineState.RUNNING);
+        when(this.driverMock.listMachines()).thenReturn(machines(active1, active2));
+        // when asked to start two machines, only one is started before an error
+        // occurs
+        Machine newMachine = machine("i-3", MachineState.PENDING);
+        Throwable partialFault = new StartMachinesException(2, machines(newMachine),
+                new Exception("failed to start second machine"));
+        when(this.driverMock.startMachines(2)).thenThrow(partialFault);
+
+        PoolUpdateConfig poolUpdate = new PoolUpdateConfig(new TimeInterval(60L, TimeUnit.SECONDS), null, true);
+        this.cloudPool.configure(poolConfig(OLDEST_INSTANCE, 0, poolUpdate));
+        this.cloudPool.start();
+        this.cloudPool.setDesiredSize(4);
+
+        // resize does not fail, since the launch is carried out in background
+        this.cloudPool.updateMachinePool();
+        verify(this.eventBusMock, timeout(5000)).post(argThat(isStartAlert("i-3")));
+        verify(this.eventBusMock, timeout(5000)).post(argThat(isAlert(RESIZE.name(), WARN)));
+
+        // the started machine is accounted for: only one more is requested
+        this.cloudPool.updateMachinePool();
+        verify(this.driverMock, timeout(5000)).startMachines(1);
+    }
+
     /**
      * Single machine scale-up when the {@link CloudPoolDriver} only requests an
      * instance that isn't immediately satisfied by the underlying
@@ -734,6 +1044,234 @@ public class TestBaseCloudPoolOperation {
         assertThat(this.cloudPool.getPoolSize().getDesiredSize(), is(0));
     }
 
+    /**
+     * A scheduled termination should be carried out when it is due, without
+     * waiting for the next pool update.
+     */
+    @Test
+    public void timerDrivenTermination() throws Exception {
+        DateTime now = UtcTime.parse("2014-04-22T12:00:00.000Z");
+        // termination due one second from now (five minutes before next
+        // instance hour)
+        DateTime launchTime = UtcTime.parse("2014-04-22T11:05:01.000Z");
+        FrozenTime.setFixed(now);
+
+        Machine active1 = machine("i-1", RUNNING, launchTime);
+        when(this.driverMock.listMachines()).thenReturn(machines(active1));
+
+        int instanceHourMargin = 300;
+        this.cloudPool.configure(poolConfig(OLDEST_INSTANCE, instanceHourMargin));
+        this.cloudPool.start();
+        this.cloudPool.setDesiredSize(0);
+        this.cloudPool.updateMachinePool();
+        verify(this.driverMock, never()).terminateMachine("i-1");
+
+        // forward time past the termination time. no pool update is run.
+        FrozenTime.setFixed(UtcTime.parse("2014-04-22T12:00:01.000Z"));
+        verify(this.driverMock, timeout(5000)).terminateMachine("i-1");
+        verify(this.eventBusMock, timeout(5000)).post(argThat(IsTerminationAlert.isTerminationAlert("i-1")));
+    }
+
+    /**
+     * A machine that is scheduled for termination but detached before its
+     * termination is due should not be terminated by the termination timer.
+     */
+    @Test
+    public void detachedMachineIsNotTerminatedByTimer() throws Exception {
+        DateTime now = UtcTime.parse("2014-04-22T12:00:00.000Z");
+        // termination due one second from now (five minutes before next
+        // instance hour)
+        DateTime launchTime = UtcTime.parse("2014-04-22T11:05:01.000Z");
+        FrozenTime.setFixed(now);
+
+        Machine active1 = machine("i-1", RUNNING, launchTime);
+        when(this.driverMock.listMachines()).thenReturn(machines(active1));
+
+        int instanceHourMargin = 300;
+        this.cloudPool.configure(poolConfig(OLDEST_INSTANCE, instanceHourMargin));
+        this.cloudPool.start();
+        this.cloudPool.setDesiredSize(0);
+        this.cloudPool.updateMachinePool();
+
+        this.cloudPool.detachMachine("i-1", false);
+        verify(this.driverMock).detachMachine("i-1");
+
+        // forward time past the termination time. no pool update is run.
+        // (the timer was armed to fire one second after scheduling)
+        FrozenTime.setFixed(UtcTime.parse("2014-04-22T12:00:01.000Z"));
+        Thread.sleep(1500);
+        verify(this.driverMock, never()).terminateMachine("i-1");
+        verify(this.driverMock, never()).terminateMachines(anyListOf(String.class));
+    }
+
+    /**
+     * The desired size and any scheduled terminations should be persisted and
+     * restored when the cloud pool is restarted.
+     */
+    @Test
+    public void restoreDesiredSizeAndTerminationQueueOnRestart() throws Exception {
+        FrozenTime.setFixed(UtcTime.parse("2014-04-22T12:00:00.000Z"));
+        // with an instance hour margin of five minutes, i-1 (the oldest
+        // instance) is due for termination at 12:25:00
+        Machine active1 = machine("i-1", RUNNING, UtcTime.parse("2014-04-22T11:30:00.000Z"));
+        Machine active2 = machine("i-2", RUNNING, UtcTime.parse("2014-04-22T11:31:00.000Z"));
+        Machine active3 = machine("i-3", RUNNING, UtcTime.parse("2014-04-22T11:32:00.000Z"));
+        when(this.driverMock.listMachines()).thenReturn(machines(active1, active2, active3));
+
+        int instanceHourMargin = 300;
+        this.cloudPool.configure(poolConfig(OLDEST_INSTANCE, instanceHourMargin));
+        this.cloudPool.start();
+        this.cloudPool.setDesiredSize(2);
+        this.cloudPool.updateMachinePool();
+        verify(this.driverMock, never()).terminateMachine("i-1");
+        this.cloudPool.stop();
+        assertThat(STATE_STORAGE.getPoolUpdaterStateFile().isFile(), is(true));
+
+        // restart
+        BaseCloudPool restartedPool = new BaseCloudPool(STATE_STORAGE, this.driverMock, this.executor,
+                this.eventBusMock);
+        restartedPool.configure(poolConfig(OLDEST_INSTANCE, instanceHourMargin));
+        restartedPool.start();
+        // desired size is restored rather than derived from the pool
+        assertThat(restartedPool.getPoolSize().getDesiredSize(), is(2));
+
+        // restored termination is carried out when due
+        FrozenTime.setFixed(UtcTime.parse("2014-04-22T12:25:00.000Z"));
+        restartedPool.updateMachinePool();
+        verify(this.driverMock).terminateMachine("i-1");
+        verify(this.driverMock, never()).terminateMachine("i-2");
+        verify(this.driverMock, never()).terminateMachine("i-3");
+        restartedPool.stop();
+    }
+
+    /**
+     * A restored termination of a machine that has left the pool while the
+     * cloud pool was down should not be carried out, even if it is overdue on
+     * restart.
+     */
+    @Test
+    public void restoredTerminationOfMachineThatLeftPoolIsDropped() throws Exception {
+        FrozenTime.setFixed(UtcTime.parse("2014-04-22T12:00:00.000Z"));
+        // with an instance hour margin of five minutes, i-1 (the oldest
+        // instance) is due for termination at 12:25:00
+        Machine active1 = machine("i-1", RUNNING, UtcTime.parse("2014-04-22T11:30:00.000Z"));
+        Machine active2 = machine("i-2", RUNNING, UtcTime.parse("2014-04-22T11:31:00.000Z"));
+        Machine active3 = machine("i-3", RUNNING, UtcTime.parse("2014-04-22T11:32:00.000Z"));
+        when(this.driverMock.listMachines()).thenReturn(machines(active1, active2, active3));
+
+        int instanceHourMargin = 300;
+        this.cloudPool.configure(poolConfig(OLDEST_INSTANCE, instanceHourMargin));
+        this.cloudPool.start();
+        this.cloudPool.setDesiredSize(2);
+        this.cloudPool.updateMachinePool();
+        this.cloudPool.stop();
+
+        // i-1 is detached while the cloud pool is down, and its termination
+        // is overdue on restart
+        when(this.driverMock.listMachines()).thenReturn(machines(active2, active3));
+        FrozenTime.setFixed(UtcTime.parse("2014-04-22T12:30:00.000Z"));
+        BaseCloudPool restartedPool = new BaseCloudPool(STATE_STORAGE, this.driverMock, this.executor,
+                this.eventBusMock);
+        restartedPool.configure(poolConfig(OLDEST_INSTANCE, instanceHourMargin));
+        restartedPool.start();
+        Thread.sleep(200);
+        verify(this.driverMock, never()).terminateMachine("i-1");
+
+        restartedPool.updateMachinePool();
+        verify(this.driverMock, never()).terminateMachine(anyString());
+        restartedPool.stop();
+    }
+
+    /**
+     * A termination that is spared by a pool update should be dropped from the
+     * persisted state even if the scale-out of that update fails.
+     */
+    @Test
+    public void persistSparedTerminationOnFailedScaleOut() throws Exception {
+        FrozenTime.setFixed(UtcTime.parse("2014-04-22T12:00:00.000Z"));
+        Machine active1 = machine("i-1", RUNNING, UtcTime.parse("2014-04-22T11:30:00.000Z"));
+        Machine active2 = machine("i-2", RUNNING, UtcTime.parse("2014-04-22T11:31:00.000Z"));
+        when(this.driverMock.listMachines()).thenReturn(machines(active1, active2));
+        when(this.driverMock.startMachines(1))
+                .thenThrow(new StartMachinesException(1, machines(), new Exception("failed to add machines")));
+
+        this.cloudPool.configure(poolConfig(OLDEST_INSTANCE, 300));
+        this.cloudPool.start();
+        this.cloudPool.setDesiredSize(1);
+        this.cloudPool.updateMachinePool();
+        File stateFile = STATE_STORAGE.getPoolUpdaterStateFile();
+        assertThat(Files.toString(stateFile, Charsets.UTF_8).contains("i-1"), is(true));
+
+        // i-1 is spared and one machine is to be started, which fails
+        this.cloudPool.setDesiredSize(3);
+        try {
+            this.cloudPool.updateMachinePool();
+            fail("expected scale-out to fail");
+        } catch (CloudPoolException e) {
+            // expected
+        }
+        verify(this.driverMock).startMachines(1);
+        assertThat(Files.toString(stateFile, Charsets.UTF_8).contains("i-1"), is(false));
+    }
+
+    /**
+     * Pool updates that change neither the desired size nor the termination
+     * queue should not rewrite the persisted state.
+     */
+    @Test
+    public void persistStateOnlyWhenChanged() throws Exception {
+        FrozenTime.setFixed(UtcTime.parse("2014-04-22T12:00:00.000Z"));
+        Machine active1 = machine("i-1", RUNNING, UtcTime.parse("2014-04-22T11:30:00.000Z"));
+        Machine active2 = machine("i-2", RUNNING, UtcTime.parse("2014-04-22T11:31:00.000Z"));
+        when(this.driverMock.listMachines()).thenReturn(machines(active1, active2));
+
+        this.cloudPool.configure(poolConfig(OLDEST_INSTANCE, 300));
+        this.cloudPool.start();
+        this.cloudPool.setDesiredSize(2);
+        this.cloudPool.updateMachinePool();
+        assertThat(STATE_STORAGE.getPoolUpdaterStateFile().isFile(), is(true));
+
+        // unchanged state: nothing is written
+        STATE_STORAGE.getPoolUpdaterStateFile().delete();
+        FrozenTime.tick(60);
+        this.cloudPool.updateMachinePool();
+        this.cloudPool.setDesiredSize(2);
+        assertThat(STATE_STORAGE.getPoolUpdaterStateFile().exists(), is(false));
+
+        // scheduling a termination changes the state
+        this.cloudPool.setDesiredSize(1);
+        this.cloudPool.updateMachinePool();
+        assertThat(STATE_STORAGE.getPoolUpdaterStateFile().isFile(), is(true));
+    }
+
+    /**
+     * A pending termination timer should be cancelled when the termination is
+     * spared.
+     */
+    @Test
+    public void sparedTerminationIsNotTimerDriven() throws Exception {
+        DateTime now = UtcTime.parse("2014-04-22T12:00:00.000Z");
+        DateTime launchTime = UtcTime.parse("2014-04-22T11:05:01.000Z");
+        FrozenTime.setFixed(now);
+
+        Machine active1 = machine("i-1", RUNNING, launchTime);
+        when(this.driverMock.listMachines()).thenReturn(machines(active1));
+
+        int instanceHourMargin = 300;
+        this.cloudPool.configure(poolConfig(OLDEST_INSTANCE, instanceHourMargin));
+        this.cloudPool.start();
+        this.cloudPool.setDesiredSize(0);
+        this.cloudPool.updateMachinePool();
+        // scale back up before termination is due: i-1 should be spared
+        this.cloudPool.setDesiredSize(1);
+        this.cloudPool.updateMachinePool();
+
+        FrozenTime.setFixed(UtcTime.parse("2014-04-22T12:00:01.000Z"));
+        Thread.sleep(2000);
+        verify(this.driverMock, never()).terminateMachine("i-1");
+        verify(this.driverMock, never()).startMachines(1);
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void createWithNullStateStorage() {
         new BaseCloudPool(null, this.driverMock, this.executor);
@@ -779,6 +1317,42 @@ public class TestBaseCloudPoolOperation {
         verifyNoMoreInteractions(this.eventBusMock);
     }
 
+    /**
+     * Pool updates that are skipped since neither the pool structure nor the
+     * desired size changed since the last no-op update should not prevent
+     * subsequent changes from being acted upon.
+     */
+    @Test
+    public void doPoolUpdateAfterSkippedPoolUpdates() throws Exception {
+        DateTime now = UtcTime.now();
+        Machine active1 = machine("i-1", RUNNING, now.minus(1));
+        Machine active2 = machine("i-2", RUNNING, now.minus(2));
+        when(this.driverMock.listMachines()).thenReturn(machines(active1, active2));
+        this.cloudPool.configure(poolConfig(OLDEST_INSTANCE, 0));
+        this.cloudPool.start();
+        assertThat(this.cloudPool.getPoolSize().getDesiredSize(), is(2));
+
+        // no changes required: subsequent identical updates are skipped
+        this.cloudPool.updateMachinePool();
+        this.cloudPool.updateMachinePool();
+        verify(this.driverMock, never()).startMachines(anyInt());
+
+        // change of pool structure
+        Machine terminated2 = machine("i-2", TERMINATED, now.minus(2));
+        when(this.driverMock.listMachines()).thenReturn(machines(active1, terminated2));
+        Machine started3 = machine("i-3", PENDING, null);
+        when(this.driverMock.startMachines(1)).thenReturn(machines(started3));
+        this.cloudPool.updateMachinePool();
+        verify(this.driverMock, times(1)).startMachines(1);
+
+        // change of desired size
+        when(this.driverMock.listMachines()).thenReturn(machines(active1, terminated2, started3));
+        this.cloudPool.updateMachinePool();
+        this.cloudPool.setDesiredSize(3);
+        this.cloudPool.updateMachinePool();
+        verify(this.driverMock, times(2)).startMachines(1);
+    }
+
     /**
      * Run a pool update iteration when pool size is smaller than
      * {@code desiredSize} (for example, due to some external event causing a
@@ -1428,12 +2002,22 @@ public class TestBaseCloudPoolOperation {
      * @return
      */
     private JsonObject poolConfig(VictimSelectionPolicy victimSelectionPolicy, int instanceHourMargin) {
-        ScaleInConfig scaleInConfig = new ScaleInConfig(victimSelectionPolicy, instanceHourMargin);
+        return poolConfig(victimSelectionPolicy, instanceHourMargin, null);
+    }
+
+    private JsonObject poolConfig(VictimSelectionPolicy victimSelectionPolicy, int instanceHourMargin,
+            PoolUpdateConfig poolUpdateConfig) {
         PoolFetchConfig poolFetchConfig = new PoolFetchConfig(
                 new RetriesConfig(3, new TimeInterval(0L, TimeUnit.SECONDS)), new TimeInterval(20L, TimeUnit.SECONDS),
                 new TimeInterval(5L, TimeUnit.MINUTES));
+        return poolConfig(victimSelectionPolicy, instanceHourMargin, poolFetchConfig, poolUpdateConfig);
+    }
+
+    private JsonObject poolConfig(VictimSelectionPolicy victimSelectionPolicy, int instanceHourMargin,
+            PoolFetchConfig poolFetchConfig, PoolUpdateConfig poolUpdateConfig) {
+        ScaleInConfig scaleInConfig = new ScaleInConfig(victimSelectionPolicy, instanceHourMargin);
         BaseCloudPoolConfig poolConfig = new BaseCloudPoolConfig(name(), cloudApiSettings(), provisioningTemplate(),
-                scaleInConfig, null, poolFetchConfig, null);
+                scaleInConfig, null, poolFetchConfig, poolUpdateConfig);
 
         return JsonUtils.toJson(poolConfig).getAsJsonObject();
     }
@@ -0,0 +1,157 @@
+package com.elastisys.scale.cloudpool.commons.basepool.alerts;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.elastisys.scale.cloudpool.commons.basepool.config.AlertDeduplicationConfig;
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+import com.elastisys.scale.commons.net.alerter.Alert;
+import com.elastisys.scale.commons.net.alerter.AlertBuilder;
+import com.elastisys.scale.commons.net.alerter.AlertSeverity;
+import com.elastisys.scale.commons.util.time.FrozenTime;
+import com.elastisys.scale.commons.util.time.UtcTime;
+
+/**
+ * Exercises the {@link DeduplicatingAlerter}.
+ */
+public class TestDeduplicatingAlerter {
+
+    private static final AlertDeduplicationConfig CONFIG = new AlertDeduplicationConfig(
+            new TimeInterval(60L, TimeUnit.SECONDS), null);
+
+    /** Alerts passed on by the {@link DeduplicatingAlerter}. */
+    private final List<Alert> sent = new ArrayList<>();
+
+    private DeduplicatingAlerter alerter;
+
+    @Before
+    public void beforeTestMethod() {
+        FrozenTime.setFixed(UtcTime.parse("2017-01-01T12:00:00.000Z"));
+        this.alerter = new DeduplicatingAlerter(this.sent::add, CONFIG);
+    }
+
+    /**
+     * The first alert should be passed on, while repeats within the window
+     * should be held back.
+     */
+    @Test
+    public void suppressRepeats() {
+        this.alerter.handleAlert(alert("RESIZE", AlertSeverity.WARN, "cloud API unreachable"));
+        FrozenTime.tick(10);
+        this.alerter.handleAlert(alert("RESIZE", AlertSeverity.WARN, "cloud API unreachable"));
+        FrozenTime.tick(10);
+        this.alerter.handleAlert(alert("RESIZE", AlertSeverity.WARN, "cloud API unreachable"));
+
+        assertThat(this.sent.size(), is(1));
+        assertThat(this.sent.get(0).getMessage(), is("cloud API unreachable"));
+    }
+
+    /**
+     * Alerts are only repeats of each other if they share both topic and
+     * message.
+     */
+    @Test
+    public void keyOnTopicAndMessage() {
+        this.alerter.handleAlert(alert("RESIZE", AlertSeverity.WARN, "failure"));
+        this.alerter.handleAlert(alert("POOL_FETCH", AlertSeverity.WARN, "failure"));
+        this.alerter.handleAlert(alert("RESIZE", AlertSeverity.WARN, "other failure"));
+        this.alerter.handleAlert(alert("RESIZE", AlertSeverity.WARN, "failure"));
+
+        assertThat(this.sent.size(), is(3));
+        assertThat(this.alerter.openWindows(), is(3));
+    }
+
+    /**
+     * When a window closes, the repeats should be rolled up into a summary, and
+     * a new window should be opened.
+     */
+    @Test
+    public void rollUpRepeatsWhenWindowCloses() {
+        this.alerter.handleAlert(alert("RESIZE", AlertSeverity.WARN, "failure"));
+        FrozenTime.tick(10);
+        this.alerter.handleAlert(alert("RESIZE", AlertSeverity.WARN, "failure"));
+        FrozenTime.tick(10);
+        this.alerter.handleAlert(alert("RESIZE", AlertSeverity.WARN, "failure"));
+
+        FrozenTime.tick(39);
+        this.alerter.flushExpired();
+        assertThat(this.sent.size(), is(1));
+
+        FrozenTime.tick(1);
+        this.alerter.flushExpired();
+        assertThat(this.sent.size(), is(2));
+        Alert summary = this.sent.get(1);
+        assertThat(summary.getTopic(), is("RESIZE"));
+        assertThat(summary.getSeverity(), is(AlertSeverity.WARN));
+        assertThat(summary.getMessage(), is("[2 repeated] failure"));
+        assertThat(summary.getMetadata().get(DeduplicatingAlerter.REPEATED_TAG), is(JsonUtils.toJson(2)));
+        assertThat(summary.getMetadata().get(DeduplicatingAlerter.REPEATED_SINCE_TAG),
+                is(JsonUtils.toJson(UtcTime.parse("2017-01-01T12:00:10.000Z").toString())));
+
+        // a lasting storm should result in one alert per window
+        FrozenTime.tick(30);
+        this.alerter.handleAlert(alert("RESIZE", AlertSeverity.WARN, "failure"));
+        FrozenTime.tick(30);
+        this.alerter.handleAlert(alert("RESIZE", AlertSeverity.WARN, "failure"));
+        assertThat(this.sent.size(), is(3));
+        assertThat(this.sent.get(2).getMessage(), is("[1 repeated] failure"));
+    }
+
+    /**
+     * A window that closes without repeats should be forgotten, and the next
+     * alert should be passed on right away.
+     */
+    @Test
+    public void forgetWindowWithoutRepeats() {
+        this.alerter.handleAlert(alert("RESIZE", AlertSeverity.WARN, "failure"));
+        FrozenTime.tick(60);
+        this.alerter.flushExpired();
+        assertThat(this.alerter.openWindows(), is(0));
+        assertThat(this.sent.size(), is(1));
+
+        this.alerter.handleAlert(alert("RESIZE", AlertSeverity.WARN, "failure"));
+        assertThat(this.sent.size(), is(2));
+        assertThat(this.sent.get(1).getMessage(), is("failure"));
+    }
+
+    /**
+     * Alerts with a severity that doesn't match the severity filter should
+     * always be passed on.
+     */
+    @Test
+    public void severityFilter() {
+        this.alerter.handleAlert(alert("RESIZE", AlertSeverity.INFO, "2 machine(s) were requested"));
+        this.alerter.handleAlert(alert("RESIZE", AlertSeverity.INFO, "2 machine(s) were requested"));
+
+        assertThat(this.sent.size(), is(2));
+        assertThat(this.alerter.openWindows(), is(0));
+    }
+
+    /**
+     * On {@link DeduplicatingAlerter#flushAll()}, summaries should be passed
+     * on for all windows with repeats, whether expired or not.
+     */
+    @Test
+    public void flushAll() {
+        this.alerter.handleAlert(alert("RESIZE", AlertSeverity.WARN, "failure"));
+        this.alerter.handleAlert(alert("RESIZE", AlertSeverity.WARN, "failure"));
+        this.alerter.handleAlert(alert("POOL_FETCH", AlertSeverity.WARN, "failure"));
+
+        this.alerter.flushAll();
+        assertThat(this.sent.size(), is(3));
+        assertThat(this.sent.get(2).getMessage(), is("[1 repeated] failure"));
+        assertThat(this.alerter.openWindows(), is(0));
+    }
+
+    private static Alert alert(String topic, AlertSeverity severity, String message) {
+        return AlertBuilder.create().topic(topic).severity(severity).message(message).build();
+    }
+}
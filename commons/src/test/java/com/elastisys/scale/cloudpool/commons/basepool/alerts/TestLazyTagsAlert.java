@@ -0,0 +1,72 @@
+package com.elastisys.scale.cloudpool.commons.basepool.alerts;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.Test;
+
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.elastisys.scale.commons.net.alerter.Alert;
+import com.elastisys.scale.commons.net.alerter.AlertSeverity;
+import com.elastisys.scale.commons.util.time.UtcTime;
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.JsonElement;
+
+/**
+ * Exercises {@link LazyTagsAlert}.
+ */
+public class TestLazyTagsAlert {
+
+    /** Number of times the lazy tag has been produced. */
+    private final AtomicInteger renderings = new AtomicInteger();
+
+    /**
+     * Lazy tags should not be produced until asked for, and then only once.
+     */
+    @Test
+    public void produceLazyTagsOnDemand() {
+        LazyTagsAlert alert = alert();
+        assertThat(alert.getEagerMetadata(), is(ImmutableMap.of("eager", JsonUtils.toJson("a"))));
+        assertThat(LazyTagsAlert.eagerMetadata(alert), is(ImmutableMap.of("eager", JsonUtils.toJson("a"))));
+        assertThat(this.renderings.get(), is(0));
+
+        Map<String, JsonElement> expectedTags = ImmutableMap.of("eager", JsonUtils.toJson("a"), "lazy",
+                JsonUtils.toJson("b"));
+        assertThat(alert.getMetadata(), is(expectedTags));
+        assertThat(alert.resolve().getMetadata(), is(expectedTags));
+        assertThat(this.renderings.get(), is(1));
+    }
+
+    /**
+     * Resolving should turn a {@link LazyTagsAlert} into a plain
+     * {@link Alert}, and leave other {@link Alert}s as-is.
+     */
+    @Test
+    public void resolve() {
+        LazyTagsAlert lazyAlert = alert();
+        Alert resolved = LazyTagsAlert.resolve(lazyAlert);
+        assertThat(resolved.getClass().equals(Alert.class), is(true));
+        assertThat(resolved, is(not(sameInstance((Alert) lazyAlert))));
+        assertThat(resolved.getTopic(), is(lazyAlert.getTopic()));
+        assertThat(resolved.getMessage(), is(lazyAlert.getMessage()));
+        assertThat(resolved.getMetadata().get("lazy"), is(JsonUtils.toJson("b")));
+
+        Alert plainAlert = new Alert("topic", AlertSeverity.INFO, UtcTime.now(), "message", null);
+        assertThat(LazyTagsAlert.resolve(plainAlert), is(sameInstance(plainAlert)));
+    }
+
+    private LazyTagsAlert alert() {
+        Supplier<JsonElement> lazyTag = () -> {
+            this.renderings.incrementAndGet();
+            return JsonUtils.toJson("b");
+        };
+        return new LazyTagsAlert("topic", AlertSeverity.INFO, UtcTime.now(), "message", null,
+                ImmutableMap.of("eager", JsonUtils.toJson("a")), ImmutableMap.of("lazy", lazyTag));
+    }
+}
@@ -0,0 +1,83 @@
+package com.elastisys.scale.cloudpool.commons.basepool.alerts;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.elastisys.scale.cloudpool.api.types.CloudProviders;
+import com.elastisys.scale.cloudpool.api.types.Machine;
+import com.elastisys.scale.cloudpool.api.types.MachineState;
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.google.common.collect.Lists;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Exercises {@link PoolMembersTag}.
+ */
+public class TestPoolMembersTag {
+
+    /**
+     * A pool within the limit should be rendered as a list of all machines in
+     * short format.
+     */
+    @Test
+    public void renderPoolWithinLimit() {
+        List<Machine> machines = machines(3);
+        JsonElement tag = PoolMembersTag.render(machines, 3);
+        assertThat(tag, is(JsonUtils.toJson(Lists.transform(machines, Machine.toShortFormat()))));
+    }
+
+    /**
+     * A pool beyond the limit should be rendered as a summary with the ids and
+     * states of the first machines.
+     */
+    @Test
+    public void renderPoolBeyondLimit() {
+        List<Machine> machines = machines(5);
+        JsonObject tag = PoolMembersTag.render(machines, 2).getAsJsonObject();
+
+        assertThat(tag.get("size").getAsInt(), is(5));
+        assertThat(tag.get("truncated").getAsInt(), is(3));
+        JsonObject machineStates = tag.get("machineStates").getAsJsonObject();
+        assertThat(machineStates.get("RUNNING").getAsInt(), is(3));
+        assertThat(machineStates.get("PENDING").getAsInt(), is(2));
+
+        JsonArray listed = tag.get("machines").getAsJsonArray();
+        assertThat(listed.size(), is(2));
+        JsonObject first = listed.get(0).getAsJsonObject();
+        assertThat(first.get("id").getAsString(), is("i-0"));
+        assertThat(first.get("machineState").getAsString(), is("RUNNING"));
+        assertThat(first.get("serviceState").getAsString(), is("UNKNOWN"));
+        assertThat(first.has("machineSize"), is(false));
+    }
+
+    /**
+     * With a zero limit, only the summary should be rendered.
+     */
+    @Test
+    public void renderWithZeroLimit() {
+        JsonObject tag = PoolMembersTag.render(machines(2), 0).getAsJsonObject();
+        assertThat(tag.get("size").getAsInt(), is(2));
+        assertThat(tag.get("machines").getAsJsonArray().size(), is(0));
+    }
+
+    /**
+     * Machines i-0, i-1, ... with every other machine {@link MachineState#RUNNING}
+     * and {@link MachineState#PENDING}.
+     */
+    private static List<Machine> machines(int count) {
+        List<Machine> machines = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            MachineState state = i % 2 == 0 ? MachineState.RUNNING : MachineState.PENDING;
+            machines.add(Machine.builder().id("i-" + i).machineSize("m1.medium").machineState(state)
+                    .cloudProvider(CloudProviders.AWS_EC2).region("us-east-1").build());
+        }
+        return machines;
+    }
+}
@@ -0,0 +1,198 @@
+package com.elastisys.scale.cloudpool.commons.basepool.alerts;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.elastisys.scale.cloudpool.commons.basepool.config.AlertDeliveryConfig;
+import com.elastisys.scale.cloudpool.commons.basepool.config.AlertDeliveryConfig.OverflowPolicy;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+import com.elastisys.scale.commons.net.alerter.Alert;
+import com.elastisys.scale.commons.net.alerter.AlertBuilder;
+import com.elastisys.scale.commons.net.alerter.AlertSeverity;
+import com.elastisys.scale.commons.net.alerter.Alerter;
+
+/**
+ * Exercises the {@link QueuedAlerter}.
+ */
+public class TestQueuedAlerter {
+
+    private static final TimeInterval DELIVERY_TIMEOUT = new TimeInterval(10L, TimeUnit.SECONDS);
+
+    /** Sink that blocks delivery of alerts with message "block". */
+    private final BlockingSink sink = new BlockingSink();
+
+    private QueuedAlerter alerter;
+
+    @After
+    public void onTeardown() {
+        this.sink.release();
+        if (this.alerter != null) {
+            this.alerter.close();
+        }
+    }
+
+    /**
+     * Alerts should be delivered (in order) by the worker thread, without
+     * blocking the thread that posts them.
+     */
+    @Test
+    public void deliverAsynchronously() {
+        this.alerter = new QueuedAlerter(this.sink, "test",
+                new AlertDeliveryConfig(10, OverflowPolicy.DROP_OLDEST, 10, DELIVERY_TIMEOUT));
+
+        this.alerter.handleAlert(alert("block"));
+        this.alerter.handleAlert(alert("a1"));
+        this.alerter.handleAlert(alert("a2"));
+        // posting should not have been held up by the blocked sink
+        waitFor(() -> this.sink.isBlocked());
+        assertThat(this.sink.messages(), is(Arrays.asList("block")));
+
+        this.sink.release();
+        waitFor(() -> this.sink.messages().size() == 3);
+        assertThat(this.sink.messages(), is(Arrays.asList("block", "a1", "a2")));
+    }
+
+    /**
+     * With {@link OverflowPolicy#DROP_OLDEST}, the oldest queued alert should
+     * be discarded to make room for a new alert.
+     */
+    @Test
+    public void dropOldestOnOverflow() {
+        this.alerter = new QueuedAlerter(this.sink, "test",
+                new AlertDeliveryConfig(2, OverflowPolicy.DROP_OLDEST, 10, DELIVERY_TIMEOUT));
+        this.alerter.handleAlert(alert("block"));
+        waitFor(() -> this.sink.isBlocked());
+
+        this.alerter.handleAlert(alert("a1"));
+        this.alerter.handleAlert(alert("a2"));
+        this.alerter.handleAlert(alert("a3"));
+        assertThat(this.alerter.getQueueSize(), is(2));
+        assertThat(this.alerter.getOverflowCount(), is(1L));
+
+        this.sink.release();
+        waitFor(() -> this.sink.messages().size() == 3);
+        assertThat(this.sink.messages(), is(Arrays.asList("block", "a2", "a3")));
+    }
+
+    /**
+     * With {@link OverflowPolicy#DROP_NEWEST}, an alert that does not fit in
+     * the queue should be discarded.
+     */
+    @Test
+    public void dropNewestOnOverflow() {
+        this.alerter = new QueuedAlerter(this.sink, "test",
+                new AlertDeliveryConfig(2, OverflowPolicy.DROP_NEWEST, 10, DELIVERY_TIMEOUT));
+        this.alerter.handleAlert(alert("block"));
+        waitFor(() -> this.sink.isBlocked());
+
+        this.alerter.handleAlert(alert("a1"));
+        this.alerter.handleAlert(alert("a2"));
+        this.alerter.handleAlert(alert("a3"));
+        assertThat(this.alerter.getQueueSize(), is(2));
+        assertThat(this.alerter.getOverflowCount(), is(1L));
+
+        this.sink.release();
+        waitFor(() -> this.sink.messages().size() == 3);
+        assertThat(this.sink.messages(), is(Arrays.asList("block", "a1", "a2")));
+    }
+
+    /**
+     * A delivery that does not complete within the delivery timeout should be
+     * given up on, and later alerts should still be delivered.
+     */
+    @Test
+    public void deliveryTimeout() {
+        this.alerter = new QueuedAlerter(this.sink, "test", new AlertDeliveryConfig(10, OverflowPolicy.DROP_OLDEST, 1,
+                new TimeInterval(100L, TimeUnit.MILLISECONDS)));
+
+        this.alerter.handleAlert(alert("block"));
+        this.alerter.handleAlert(alert("a1"));
+
+        waitFor(() -> this.sink.messages().contains("a1"));
+        assertThat(this.alerter.getTimeoutCount(), is(1L));
+    }
+
+    /**
+     * On close, alerts that have already been queued should be delivered, but
+     * new alerts should be rejected.
+     */
+    @Test
+    public void close() {
+        this.alerter = new QueuedAlerter(this.sink, "test",
+                new AlertDeliveryConfig(10, OverflowPolicy.DROP_OLDEST, 1, DELIVERY_TIMEOUT));
+        this.alerter.handleAlert(alert("block"));
+        waitFor(() -> this.sink.isBlocked());
+        this.alerter.handleAlert(alert("a1"));
+
+        this.alerter.close();
+        this.alerter.handleAlert(alert("a2"));
+
+        this.sink.release();
+        waitFor(() -> this.sink.messages().size() == 2);
+        assertThat(this.sink.messages(), is(Arrays.asList("block", "a1")));
+        assertThat(this.alerter.getQueueSize(), is(0));
+    }
+
+    private static Alert alert(String message) {
+        return AlertBuilder.create().topic("topic").severity(AlertSeverity.INFO).message(message).build();
+    }
+
+    private static void waitFor(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        assertTrue("timed out waiting for condition", condition.getAsBoolean());
+    }
+
+    /**
+     * {@link Alerter} that records delivered alerts, and that blocks on
+     * delivery of alerts with message "block" until released.
+     */
+    private static class BlockingSink implements Alerter {
+        private final List<String> messages = new CopyOnWriteArrayList<>();
+        private final CountDownLatch releaseLatch = new CountDownLatch(1);
+        private volatile boolean blocked;
+
+        @Override
+        public void handleAlert(Alert alert) throws RuntimeException {
+            this.messages.add(alert.getMessage());
+            if (alert.getMessage().equals("block")) {
+                this.blocked = true;
+                try {
+                    this.releaseLatch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        public List<String> messages() {
+            return this.messages;
+        }
+
+        public boolean isBlocked() {
+            return this.blocked;
+        }
+
+        public void release() {
+            this.releaseLatch.countDown();
+        }
+    }
+}
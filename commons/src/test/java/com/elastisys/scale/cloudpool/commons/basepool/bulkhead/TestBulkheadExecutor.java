@@ -0,0 +1,110 @@
+package com.elastisys.scale.cloudpool.commons.basepool.bulkhead;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Exercise the {@link BulkheadExecutor}.
+ */
+public class TestBulkheadExecutor {
+
+    private BulkheadExecutor executor = new BulkheadExecutor("test", 1, 2);
+
+    @After
+    public void afterTestMethod() {
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * Tasks should be rejected once the queue limit is reached.
+     */
+    @Test
+    public void rejectWhenQueueLimitIsReached() {
+        assertThat(this.executor.getSaturation(), is(0.0));
+
+        this.executor.schedule(() -> {
+        }, 1, TimeUnit.HOURS);
+        assertThat(this.executor.getSaturation(), is(0.5));
+        this.executor.schedule(() -> {
+        }, 1, TimeUnit.HOURS);
+        assertThat(this.executor.getSaturation(), is(1.0));
+
+        try {
+            this.executor.execute(() -> {
+            });
+            fail("expected rejection");
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+        assertThat(this.executor.getRejectedCount(), is(1L));
+        assertThat(this.executor.getQueue().size(), is(2));
+    }
+
+    /**
+     * A hung task should only hold up tasks of its own bulkhead.
+     */
+    @Test
+    public void hungTaskDoesNotAffectOtherBulkheads() throws Exception {
+        CountDownLatch hang = new CountDownLatch(1);
+        BulkheadExecutor other = new BulkheadExecutor("other", 1, 2);
+        try {
+            this.executor.execute(() -> {
+                try {
+                    hang.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            assertThat(other.submit(() -> "done").get(5, TimeUnit.SECONDS), is("done"));
+        } finally {
+            hang.countDown();
+            other.shutdownNow();
+        }
+    }
+
+    /**
+     * Queued tasks that get to run free up room for new tasks.
+     */
+    @Test
+    public void admitAfterQueueDrains() throws Exception {
+        this.executor.submit(() -> {
+        }).get(5, TimeUnit.SECONDS);
+        this.executor.submit(() -> {
+        }).get(5, TimeUnit.SECONDS);
+        this.executor.submit(() -> {
+        }).get(5, TimeUnit.SECONDS);
+
+        assertThat(this.executor.getRejectedCount(), is(0L));
+    }
+
+    /**
+     * Cancelled tasks should free up their room in the queue right away,
+     * rather than when their delay has passed.
+     */
+    @Test
+    public void cancelledTasksFreeQueueSlots() {
+        for (int i = 0; i < 5; i++) {
+            ScheduledFuture<?> task = this.executor.schedule(() -> {
+            }, 1, TimeUnit.HOURS);
+            task.cancel(false);
+        }
+
+        assertThat(this.executor.getQueue().size(), is(0));
+        assertThat(this.executor.getSaturation(), is(0.0));
+        assertThat(this.executor.getRejectedCount(), is(0L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void createWithZeroQueueLimit() {
+        new BulkheadExecutor("test", 1, 0);
+    }
+}
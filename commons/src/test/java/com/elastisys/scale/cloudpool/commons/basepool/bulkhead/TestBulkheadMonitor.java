@@ -0,0 +1,104 @@
+package com.elastisys.scale.cloudpool.commons.basepool.bulkhead;
+
+import static com.elastisys.scale.cloudpool.commons.basepool.IsAlert.isAlert;
+import static com.elastisys.scale.cloudpool.commons.basepool.alerts.AlertTopics.BULKHEAD;
+import static com.elastisys.scale.commons.net.alerter.AlertSeverity.WARN;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.google.common.eventbus.EventBus;
+
+/**
+ * Exercise the {@link BulkheadMonitor}.
+ */
+public class TestBulkheadMonitor {
+
+    private final BulkheadExecutor executor = new BulkheadExecutor("test", 1, 4);
+    private final EventBus eventBus = mock(EventBus.class);
+    private final BulkheadMonitor monitor = new BulkheadMonitor(Arrays.asList(this.executor), this.eventBus, 0.75);
+
+    @After
+    public void afterTestMethod() {
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * Nothing should be alerted while the bulkhead is below the saturation
+     * threshold.
+     */
+    @Test
+    public void noAlertBelowThreshold() {
+        schedule(2);
+        this.monitor.run();
+        verify(this.eventBus, never()).post(any());
+    }
+
+    /**
+     * An alert should be posted when the saturation threshold is reached, but
+     * not again until the bulkhead has dropped below the threshold.
+     */
+    @Test
+    public void alertOnceWhenSaturated() {
+        ScheduledFuture<?> task = schedule(3).get(0);
+        this.monitor.run();
+        this.monitor.run();
+        verify(this.eventBus, times(1)).post(argThat(isAlert(BULKHEAD.name(), WARN)));
+
+        // drop below threshold and become saturated again
+        task.cancel(false);
+        this.monitor.run();
+        schedule(1);
+        this.monitor.run();
+        verify(this.eventBus, times(2)).post(argThat(isAlert(BULKHEAD.name(), WARN)));
+    }
+
+    /**
+     * An alert should be posted when tasks have been rejected since the last
+     * run.
+     */
+    @Test
+    public void alertOnRejections() {
+        schedule(4);
+        this.monitor.run();
+        reset(this.eventBus);
+
+        try {
+            this.executor.execute(() -> {
+            });
+            fail("expected rejection");
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+        this.monitor.run();
+        verify(this.eventBus, times(1)).post(argThat(isAlert(BULKHEAD.name(), WARN)));
+
+        // no new rejections, still saturated
+        this.monitor.run();
+        verify(this.eventBus, times(1)).post(argThat(isAlert(BULKHEAD.name(), WARN)));
+    }
+
+    private List<ScheduledFuture<?>> schedule(int tasks) {
+        List<ScheduledFuture<?>> futures = new ArrayList<>();
+        for (int i = 0; i < tasks; i++) {
+            futures.add(this.executor.schedule(() -> {
+            }, 1, TimeUnit.HOURS));
+        }
+        return futures;
+    }
+}
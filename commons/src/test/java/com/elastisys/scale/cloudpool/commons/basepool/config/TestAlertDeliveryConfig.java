@@ -0,0 +1,88 @@
+package com.elastisys.scale.cloudpool.commons.basepool.config;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.elastisys.scale.cloudpool.commons.basepool.config.AlertDeliveryConfig.OverflowPolicy;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+
+/**
+ * Exercise {@link AlertDeliveryConfig}.
+ */
+public class TestAlertDeliveryConfig {
+
+    @Test
+    public void basicSanity() {
+        TimeInterval deliveryTimeout = new TimeInterval(10L, TimeUnit.SECONDS);
+        AlertDeliveryConfig config = new AlertDeliveryConfig(50, OverflowPolicy.DROP_NEWEST, 5, deliveryTimeout);
+        config.validate();
+
+        assertThat(config.getQueueDepth(), is(50));
+        assertThat(config.getOverflowPolicy(), is(OverflowPolicy.DROP_NEWEST));
+        assertThat(config.getBatchSize(), is(5));
+        assertThat(config.getDeliveryTimeout(), is(deliveryTimeout));
+    }
+
+    /**
+     * All fields are optional and should be given default values when left
+     * out.
+     */
+    @Test
+    public void defaults() {
+        AlertDeliveryConfig config = new AlertDeliveryConfig(null, null, null, null);
+        config.validate();
+
+        assertThat(config.getQueueDepth(), is(AlertDeliveryConfig.DEFAULT_QUEUE_DEPTH));
+        assertThat(config.getOverflowPolicy(), is(AlertDeliveryConfig.DEFAULT_OVERFLOW_POLICY));
+        assertThat(config.getBatchSize(), is(AlertDeliveryConfig.DEFAULT_BATCH_SIZE));
+        assertThat(config.getDeliveryTimeout(), is(AlertDeliveryConfig.DEFAULT_DELIVERY_TIMEOUT));
+        assertThat(config.getPoolMembersTagLimit(), is(AlertDeliveryConfig.DEFAULT_POOL_MEMBERS_TAG_LIMIT));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativePoolMembersTagLimit() {
+        new AlertDeliveryConfig(null, null, null, null, null, -1).validate();
+    }
+
+    @Test
+    public void withDeduplication() {
+        AlertDeduplicationConfig deduplication = new AlertDeduplicationConfig(new TimeInterval(5L, TimeUnit.MINUTES),
+                null);
+        AlertDeliveryConfig config = new AlertDeliveryConfig(null, null, null, null, deduplication);
+        config.validate();
+
+        assertThat(config.getDeduplication(), is(deduplication));
+        assertThat(config.getDeduplication().getSeverityFilter(),
+                is(AlertDeduplicationConfig.DEFAULT_SEVERITY_FILTER));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void deduplicationWithoutWindow() {
+        new AlertDeliveryConfig(null, null, null, null, new AlertDeduplicationConfig(null, null)).validate();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void deduplicationWithIllegalSeverityFilter() {
+        new AlertDeliveryConfig(null, null, null, null,
+                new AlertDeduplicationConfig(new TimeInterval(5L, TimeUnit.MINUTES), "WARN|(")).validate();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroQueueDepth() {
+        new AlertDeliveryConfig(0, null, null, null).validate();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroBatchSize() {
+        new AlertDeliveryConfig(null, null, 0, null).validate();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroDeliveryTimeout() {
+        new AlertDeliveryConfig(null, null, null, new TimeInterval(0L, TimeUnit.SECONDS)).validate();
+    }
+}
@@ -0,0 +1,50 @@
+package com.elastisys.scale.cloudpool.commons.basepool.config;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Test;
+
+/**
+ * Exercise {@link BulkheadsConfig} and {@link BulkheadConfig}.
+ */
+public class TestBulkheadsConfig {
+
+    @Test
+    public void basicSanity() {
+        BulkheadsConfig config = new BulkheadsConfig(new BulkheadConfig(2, 10), new BulkheadConfig(4, 20),
+                new BulkheadConfig(3, 5));
+        config.validate();
+
+        assertThat(config.getRefresh().getThreads(), is(2));
+        assertThat(config.getRefresh().getQueueLimit(), is(10));
+        assertThat(config.getUpdate().getThreads(), is(4));
+        assertThat(config.getUpdate().getQueueLimit(), is(20));
+        assertThat(config.getLaunch().getThreads(), is(3));
+        assertThat(config.getLaunch().getQueueLimit(), is(5));
+    }
+
+    @Test
+    public void defaults() {
+        BulkheadsConfig config = new BulkheadsConfig(null, null);
+        config.validate();
+
+        assertThat(config.getRefresh(), is(BulkheadsConfig.DEFAULT_REFRESH));
+        assertThat(config.getUpdate(), is(BulkheadsConfig.DEFAULT_UPDATE));
+        assertThat(config.getLaunch(), is(BulkheadsConfig.DEFAULT_LAUNCH));
+
+        BulkheadConfig bulkhead = new BulkheadConfig(null, null);
+        assertThat(bulkhead.getThreads(), is(BulkheadConfig.DEFAULT_THREADS));
+        assertThat(bulkhead.getQueueLimit(), is(BulkheadConfig.DEFAULT_QUEUE_LIMIT));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroThreads() {
+        new BulkheadsConfig(new BulkheadConfig(0, 10), null).validate();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroQueueLimit() {
+        new BulkheadsConfig(null, new BulkheadConfig(1, 0)).validate();
+    }
+}
@@ -0,0 +1,44 @@
+package com.elastisys.scale.cloudpool.commons.basepool.config;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.elastisys.scale.commons.json.types.TimeInterval;
+
+/**
+ * Exercise {@link CircuitBreakerConfig}.
+ */
+public class TestCircuitBreakerConfig {
+
+    @Test
+    public void basicSanity() {
+        CircuitBreakerConfig config = new CircuitBreakerConfig(5, new TimeInterval(2L, TimeUnit.MINUTES));
+        config.validate();
+
+        assertThat(config.getFailureThreshold(), is(5));
+        assertThat(config.getOpenDuration(), is(new TimeInterval(2L, TimeUnit.MINUTES)));
+    }
+
+    @Test
+    public void defaults() {
+        CircuitBreakerConfig config = new CircuitBreakerConfig(null, null);
+        config.validate();
+
+        assertThat(config.getFailureThreshold(), is(CircuitBreakerConfig.DEFAULT_FAILURE_THRESHOLD));
+        assertThat(config.getOpenDuration(), is(CircuitBreakerConfig.DEFAULT_OPEN_DURATION));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroFailureThreshold() {
+        new CircuitBreakerConfig(0, null).validate();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroOpenDuration() {
+        new CircuitBreakerConfig(null, new TimeInterval(0L, TimeUnit.SECONDS)).validate();
+    }
+}
@@ -1,6 +1,7 @@
 package com.elastisys.scale.cloudpool.commons.basepool.config;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertThat;
 
 import java.util.concurrent.TimeUnit;
@@ -26,6 +27,119 @@ public class TestPoolFetch {
         assertThat(config.getRetries(), is(new RetriesConfig(5, new TimeInterval(2L, TimeUnit.SECONDS))));
         assertThat(config.getRefreshInterval(), is(new TimeInterval(30L, TimeUnit.SECONDS)));
         assertThat(config.getReachabilityTimeout(), is(new TimeInterval(10L, TimeUnit.MINUTES)));
+        assertThat(config.getRefreshCoalescingWindow(), is(nullValue()));
+        assertThat(config.getFullResyncInterval(), is(PoolFetchConfig.DEFAULT_FULL_RESYNC_INTERVAL));
+        assertThat(config.isWarmStart(), is(false));
+    }
+
+    @Test
+    public void withWarmStart() {
+        RetriesConfig retries = new RetriesConfig(5, new TimeInterval(2L, TimeUnit.SECONDS));
+        TimeInterval refreshInterval = new TimeInterval(30L, TimeUnit.SECONDS);
+        TimeInterval reachabilityTimeout = new TimeInterval(10L, TimeUnit.MINUTES);
+        PoolFetchConfig config = new PoolFetchConfig(retries, refreshInterval, reachabilityTimeout, null, null, true);
+
+        config.validate();
+
+        assertThat(config.isWarmStart(), is(true));
+    }
+
+    @Test
+    public void withAdaptiveRefresh() {
+        RetriesConfig retries = new RetriesConfig(5, new TimeInterval(2L, TimeUnit.SECONDS));
+        TimeInterval refreshInterval = new TimeInterval(30L, TimeUnit.SECONDS);
+        TimeInterval reachabilityTimeout = new TimeInterval(10L, TimeUnit.MINUTES);
+        AdaptiveRefreshConfig adaptiveRefresh = new AdaptiveRefreshConfig(new TimeInterval(5L, TimeUnit.SECONDS),
+                new TimeInterval(5L, TimeUnit.MINUTES), null);
+        PoolFetchConfig config = new PoolFetchConfig(retries, refreshInterval, reachabilityTimeout, null, null, null,
+                adaptiveRefresh);
+
+        config.validate();
+
+        assertThat(config.getAdaptiveRefresh().getMinInterval(), is(new TimeInterval(5L, TimeUnit.SECONDS)));
+        assertThat(config.getAdaptiveRefresh().getMaxInterval(), is(new TimeInterval(5L, TimeUnit.MINUTES)));
+        assertThat(config.getAdaptiveRefresh().getBackoffFactor(), is(AdaptiveRefreshConfig.DEFAULT_BACKOFF_FACTOR));
+    }
+
+    /**
+     * adaptiveRefresh maxInterval cannot be shorter than minInterval
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void adaptiveRefreshWithMaxIntervalShorterThanMinInterval() {
+        RetriesConfig retries = new RetriesConfig(5, new TimeInterval(2L, TimeUnit.SECONDS));
+        TimeInterval refreshInterval = new TimeInterval(30L, TimeUnit.SECONDS);
+        TimeInterval reachabilityTimeout = new TimeInterval(10L, TimeUnit.MINUTES);
+        AdaptiveRefreshConfig adaptiveRefresh = new AdaptiveRefreshConfig(new TimeInterval(1L, TimeUnit.MINUTES),
+                new TimeInterval(30L, TimeUnit.SECONDS), null);
+        new PoolFetchConfig(retries, refreshInterval, reachabilityTimeout, null, null, null, adaptiveRefresh)
+                .validate();
+    }
+
+    /**
+     * adaptiveRefresh maxInterval must be shorter than reachabilityTimeout
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void adaptiveRefreshWithMaxIntervalLongerThanReachabilityTimeout() {
+        RetriesConfig retries = new RetriesConfig(5, new TimeInterval(2L, TimeUnit.SECONDS));
+        TimeInterval refreshInterval = new TimeInterval(30L, TimeUnit.SECONDS);
+        TimeInterval reachabilityTimeout = new TimeInterval(10L, TimeUnit.MINUTES);
+        AdaptiveRefreshConfig adaptiveRefresh = new AdaptiveRefreshConfig(new TimeInterval(5L, TimeUnit.SECONDS),
+                new TimeInterval(10L, TimeUnit.MINUTES), null);
+        new PoolFetchConfig(retries, refreshInterval, reachabilityTimeout, null, null, null, adaptiveRefresh)
+                .validate();
+    }
+
+    @Test
+    public void withFullResyncInterval() {
+        RetriesConfig retries = new RetriesConfig(5, new TimeInterval(2L, TimeUnit.SECONDS));
+        TimeInterval refreshInterval = new TimeInterval(30L, TimeUnit.SECONDS);
+        TimeInterval reachabilityTimeout = new TimeInterval(10L, TimeUnit.MINUTES);
+        TimeInterval fullResyncInterval = new TimeInterval(1L, TimeUnit.HOURS);
+        PoolFetchConfig config = new PoolFetchConfig(retries, refreshInterval, reachabilityTimeout, null,
+                fullResyncInterval);
+
+        config.validate();
+
+        assertThat(config.getFullResyncInterval(), is(new TimeInterval(1L, TimeUnit.HOURS)));
+    }
+
+    /**
+     * fullResyncInterval must be positive
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroFullResyncInterval() {
+        RetriesConfig retries = new RetriesConfig(5, new TimeInterval(2L, TimeUnit.SECONDS));
+        TimeInterval refreshInterval = new TimeInterval(30L, TimeUnit.SECONDS);
+        TimeInterval reachabilityTimeout = new TimeInterval(10L, TimeUnit.MINUTES);
+        TimeInterval fullResyncInterval = new TimeInterval(0L, TimeUnit.SECONDS);
+
+        new PoolFetchConfig(retries, refreshInterval, reachabilityTimeout, null, fullResyncInterval).validate();
+    }
+
+    @Test
+    public void withRefreshCoalescingWindow() {
+        RetriesConfig retries = new RetriesConfig(5, new TimeInterval(2L, TimeUnit.SECONDS));
+        TimeInterval refreshInterval = new TimeInterval(30L, TimeUnit.SECONDS);
+        TimeInterval reachabilityTimeout = new TimeInterval(10L, TimeUnit.MINUTES);
+        TimeInterval coalescingWindow = new TimeInterval(5L, TimeUnit.SECONDS);
+        PoolFetchConfig config = new PoolFetchConfig(retries, refreshInterval, reachabilityTimeout, coalescingWindow, null);
+
+        config.validate();
+
+        assertThat(config.getRefreshCoalescingWindow(), is(new TimeInterval(5L, TimeUnit.SECONDS)));
+    }
+
+    /**
+     * refreshCoalescingWindow must be shorter than refreshInterval
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void refreshCoalescingWindowLongerThanRefreshInterval() {
+        RetriesConfig retries = new RetriesConfig(5, new TimeInterval(2L, TimeUnit.SECONDS));
+        TimeInterval refreshInterval = new TimeInterval(30L, TimeUnit.SECONDS);
+        TimeInterval reachabilityTimeout = new TimeInterval(10L, TimeUnit.MINUTES);
+        TimeInterval coalescingWindow = new TimeInterval(30L, TimeUnit.SECONDS);
+
+        new PoolFetchConfig(retries, refreshInterval, reachabilityTimeout, coalescingWindow, null).validate();
     }
 
     /**
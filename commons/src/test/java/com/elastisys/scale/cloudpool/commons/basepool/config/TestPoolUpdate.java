@@ -0,0 +1,123 @@
+package com.elastisys.scale.cloudpool.commons.basepool.config;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.elastisys.scale.commons.json.types.TimeInterval;
+
+/**
+ * Exercises {@link PoolUpdateConfig}.
+ */
+public class TestPoolUpdate {
+
+    @Test
+    public void basicSanity() {
+        PoolUpdateConfig config = new PoolUpdateConfig(new TimeInterval(60L, TimeUnit.SECONDS));
+
+        config.validate();
+
+        assertThat(config.getUpdateInterval(), is(new TimeInterval(60L, TimeUnit.SECONDS)));
+        assertThat(config.getDebounceWindow(), is(nullValue()));
+        assertThat(config.isAsyncScaleOut(), is(false));
+    }
+
+    @Test
+    public void withDebounceWindow() {
+        PoolUpdateConfig config = new PoolUpdateConfig(new TimeInterval(60L, TimeUnit.SECONDS),
+                new TimeInterval(500L, TimeUnit.MILLISECONDS));
+
+        config.validate();
+
+        assertThat(config.getDebounceWindow(), is(new TimeInterval(500L, TimeUnit.MILLISECONDS)));
+    }
+
+    @Test
+    public void withAsyncScaleOut() {
+        PoolUpdateConfig config = new PoolUpdateConfig(new TimeInterval(60L, TimeUnit.SECONDS), null, true);
+
+        config.validate();
+
+        assertThat(config.isAsyncScaleOut(), is(true));
+    }
+
+    @Test
+    public void withMaxPoolAge() {
+        PoolUpdateConfig config = new PoolUpdateConfig(new TimeInterval(60L, TimeUnit.SECONDS), null, null,
+                new TimeInterval(20L, TimeUnit.SECONDS));
+
+        config.validate();
+
+        assertThat(config.getMaxPoolAge(), is(new TimeInterval(20L, TimeUnit.SECONDS)));
+        assertThat(new PoolUpdateConfig(new TimeInterval(60L, TimeUnit.SECONDS)).getMaxPoolAge(),
+                is(PoolUpdateConfig.DEFAULT_MAX_POOL_AGE));
+    }
+
+    @Test
+    public void withScaleOutChunking() {
+        PoolUpdateConfig config = new PoolUpdateConfig(new TimeInterval(60L, TimeUnit.SECONDS), null, null, null, 5,
+                2);
+
+        config.validate();
+
+        assertThat(config.getScaleOutChunkSize(), is(5));
+        assertThat(config.getScaleOutParallelism(), is(2));
+        PoolUpdateConfig defaults = new PoolUpdateConfig(new TimeInterval(60L, TimeUnit.SECONDS));
+        assertThat(defaults.getScaleOutChunkSize(), is(nullValue()));
+        assertThat(defaults.getScaleOutParallelism(), is(PoolUpdateConfig.DEFAULT_SCALE_OUT_PARALLELISM));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositiveScaleOutChunkSize() {
+        new PoolUpdateConfig(new TimeInterval(60L, TimeUnit.SECONDS), null, null, null, 0, null).validate();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositiveScaleOutParallelism() {
+        new PoolUpdateConfig(new TimeInterval(60L, TimeUnit.SECONDS), null, null, null, 5, 0).validate();
+    }
+
+    @Test
+    public void withLaunchAndVisibilityTimeouts() {
+        PoolUpdateConfig config = new PoolUpdateConfig(new TimeInterval(60L, TimeUnit.SECONDS), null, true, null, null,
+                null, new TimeInterval(2L, TimeUnit.MINUTES), new TimeInterval(5L, TimeUnit.MINUTES));
+
+        config.validate();
+
+        assertThat(config.getLaunchTimeout(), is(new TimeInterval(2L, TimeUnit.MINUTES)));
+        assertThat(config.getVisibilityTimeout(), is(new TimeInterval(5L, TimeUnit.MINUTES)));
+        PoolUpdateConfig defaults = new PoolUpdateConfig(new TimeInterval(60L, TimeUnit.SECONDS));
+        assertThat(defaults.getLaunchTimeout(), is(PoolUpdateConfig.DEFAULT_LAUNCH_TIMEOUT));
+        assertThat(defaults.getVisibilityTimeout(), is(PoolUpdateConfig.DEFAULT_VISIBILITY_TIMEOUT));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositiveLaunchTimeout() {
+        new PoolUpdateConfig(new TimeInterval(60L, TimeUnit.SECONDS), null, true, null, null, null,
+                new TimeInterval(0L, TimeUnit.SECONDS), null).validate();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositiveVisibilityTimeout() {
+        new PoolUpdateConfig(new TimeInterval(60L, TimeUnit.SECONDS), null, true, null, null, null, null,
+                new TimeInterval(0L, TimeUnit.SECONDS)).validate();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void missingUpdateInterval() {
+        new PoolUpdateConfig(null).validate();
+    }
+
+    /**
+     * debounceWindow must be shorter than updateInterval
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void debounceWindowLongerThanUpdateInterval() {
+        new PoolUpdateConfig(new TimeInterval(60L, TimeUnit.SECONDS), new TimeInterval(2L, TimeUnit.MINUTES))
+                .validate();
+    }
+}
@@ -1,11 +1,20 @@
 package com.elastisys.scale.cloudpool.commons.basepool.config;
 
+import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
 import org.junit.Test;
 
+import com.elastisys.scale.cloudpool.commons.scaledown.VictimScore;
 import com.elastisys.scale.cloudpool.commons.scaledown.VictimSelectionPolicy;
+import com.elastisys.scale.cloudpool.commons.scaledown.strategies.OldestInstanceVictimSelectionStrategy;
+import com.elastisys.scale.cloudpool.commons.scaledown.strategies.WeightedVictimSelectionStrategy;
+import com.elastisys.scale.commons.json.JsonUtils;
 
 /**
  * Exercises the {@link ScaleInConfig} class.
@@ -29,6 +38,61 @@ public class TestScaleInConfig {
         assertThat(config.getVictimSelectionPolicy(), is(VictimSelectionPolicy.OLDEST_INSTANCE));
     }
 
+    /**
+     * Without victim score weights, the victim selection policy alone should
+     * decide which victims to select.
+     */
+    @Test
+    public void withoutVictimScoreWeights() {
+        ScaleInConfig config = new ScaleInConfig(VictimSelectionPolicy.OLDEST_INSTANCE, 500);
+        config.validate();
+        assertThat(config.getVictimScoreWeights(), is(Collections.emptyMap()));
+        assertThat(config.getVictimSelectionStrategy(), is(OldestInstanceVictimSelectionStrategy.INSTANCE));
+    }
+
+    @Test
+    public void withVictimScoreWeights() {
+        Map<VictimScore, Double> weights = new EnumMap<>(VictimScore.class);
+        weights.put(VictimScore.INSTANCE_HOUR, 1.0);
+        weights.put(VictimScore.ZONE_BALANCE, 0.5);
+        ScaleInConfig config = new ScaleInConfig(VictimSelectionPolicy.OLDEST_INSTANCE, 500, weights);
+        config.validate();
+        assertThat(config.getVictimScoreWeights(), is(weights));
+        assertThat(config.getVictimSelectionStrategy(), instanceOf(WeightedVictimSelectionStrategy.class));
+        WeightedVictimSelectionStrategy strategy = (WeightedVictimSelectionStrategy) config
+                .getVictimSelectionStrategy();
+        assertThat(strategy.getWeights().get(VictimScore.INSTANCE_HOUR.getVictimScorer()), is(1.0));
+        assertThat(strategy.getWeights().get(VictimScore.ZONE_BALANCE.getVictimScorer()), is(0.5));
+    }
+
+    @Test
+    public void parseVictimScoreWeightsFromJson() {
+        String json = "{\"victimSelectionPolicy\": \"NEWEST_INSTANCE\", \"instanceHourMargin\": 0, "
+                + "\"victimScoreWeights\": {\"SERVICE_STATE\": 2.0, \"INSTANCE_HOUR\": 1.0}}";
+        ScaleInConfig config = JsonUtils.toObject(JsonUtils.parseJsonString(json), ScaleInConfig.class);
+        config.validate();
+
+        assertThat(config.getVictimScoreWeights().get(VictimScore.SERVICE_STATE), is(2.0));
+        assertThat(config.getVictimScoreWeights().get(VictimScore.INSTANCE_HOUR), is(1.0));
+        assertThat(config.getVictimScoreWeights().size(), is(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeVictimScoreWeight() {
+        Map<VictimScore, Double> weights = Collections.singletonMap(VictimScore.SERVICE_STATE, -1.0);
+        new ScaleInConfig(VictimSelectionPolicy.OLDEST_INSTANCE, 500, weights).validate();
+    }
+
+    /**
+     * An unrecognized victim score in a JSON document should be rejected.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void unrecognizedVictimScore() {
+        String json = "{\"victimSelectionPolicy\": \"NEWEST_INSTANCE\", \"instanceHourMargin\": 0, "
+                + "\"victimScoreWeights\": {\"COIN_FLIP\": 1.0}}";
+        JsonUtils.toObject(JsonUtils.parseJsonString(json), ScaleInConfig.class).validate();
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void negativeInstanceHourMargin() {
         ScaleInConfig config = new ScaleInConfig(VictimSelectionPolicy.CLOSEST_TO_INSTANCE_HOUR, -1);
@@ -0,0 +1,162 @@
+package com.elastisys.scale.cloudpool.commons.basepool.driver;
+
+import static com.elastisys.scale.cloudpool.commons.basepool.BasePoolTestUtils.machine;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.joda.time.DateTime;
+import org.junit.Test;
+
+import com.elastisys.scale.cloudpool.api.types.Machine;
+import com.elastisys.scale.cloudpool.api.types.MachineState;
+import com.elastisys.scale.commons.util.time.UtcTime;
+
+/**
+ * Exercises {@link ChunkedLauncher}.
+ */
+public class TestChunkedLauncher {
+    /** Launch time of all started machines, for stable comparisons. */
+    private static final DateTime LAUNCH_TIME = UtcTime.parse("2017-01-01T12:00:00.000Z");
+
+    private final CloudPoolDriver driverMock = mock(CloudPoolDriver.class);
+    private final List<List<Machine>> reportedChunks = new CopyOnWriteArrayList<>();
+
+    @Test
+    public void startNothing() throws Exception {
+        List<Machine> started = ChunkedLauncher.startMachines(this.driverMock, 0, 2, 2, this.reportedChunks::add);
+
+        assertThat(started.isEmpty(), is(true));
+        assertThat(this.reportedChunks.isEmpty(), is(true));
+        verify(this.driverMock, never()).startMachines(anyInt());
+    }
+
+    /**
+     * A request that fits in a single chunk should be passed on to the driver
+     * as-is.
+     */
+    @Test
+    public void singleChunk() throws Exception {
+        when(this.driverMock.startMachines(2)).thenReturn(machines("i-1", "i-2"));
+
+        List<Machine> started = ChunkedLauncher.startMachines(this.driverMock, 2, 5, 2, this.reportedChunks::add);
+
+        verify(this.driverMock).startMachines(2);
+        assertThat(started, is(machines("i-1", "i-2")));
+        assertThat(this.reportedChunks, is(asList(machines("i-1", "i-2"))));
+    }
+
+    /**
+     * A single-chunk failure should be passed on unchanged, after reporting
+     * the machines that were started before the error.
+     */
+    @Test
+    public void singleChunkFailure() throws Exception {
+        StartMachinesException fault = new StartMachinesException(2, machines("i-1"), new Exception("quota"));
+        when(this.driverMock.startMachines(2)).thenThrow(fault);
+
+        try {
+            ChunkedLauncher.startMachines(this.driverMock, 2, 5, 2, this.reportedChunks::add);
+            fail("expected to fail");
+        } catch (StartMachinesException e) {
+            assertThat(e, is(fault));
+        }
+        assertThat(this.reportedChunks, is(asList(machines("i-1"))));
+    }
+
+    @Test
+    public void multipleChunks() throws Exception {
+        AtomicInteger nextId = new AtomicInteger(1);
+        doAnswer(invocation -> {
+            int count = (Integer) invocation.getArguments()[0];
+            List<Machine> started = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                started.add(machine("i-" + nextId.getAndIncrement(), MachineState.PENDING, LAUNCH_TIME));
+            }
+            return started;
+        }).when(this.driverMock).startMachines(anyInt());
+
+        List<Machine> started = ChunkedLauncher.startMachines(this.driverMock, 5, 2, 2, this.reportedChunks::add);
+
+        // 5 machines in chunks of at most 2: 2 + 2 + 1
+        verify(this.driverMock, times(2)).startMachines(2);
+        verify(this.driverMock, times(1)).startMachines(1);
+        assertThat(started.size(), is(5));
+        assertThat(this.reportedChunks.size(), is(3));
+        List<Machine> reported = new ArrayList<>();
+        this.reportedChunks.forEach(reported::addAll);
+        assertThat(reported.size(), is(5));
+        assertThat(reported.containsAll(started), is(true));
+    }
+
+    /**
+     * A failed chunk should not prevent other chunks from starting machines.
+     * The resulting error should hold all started machines.
+     */
+    @Test
+    public void partialFailure() throws Exception {
+        when(this.driverMock.startMachines(2)).thenReturn(machines("i-1", "i-2"))
+                .thenThrow(new StartMachinesException(2, machines("i-3"), new Exception("quota")));
+
+        try {
+            ChunkedLauncher.startMachines(this.driverMock, 4, 2, 1, this.reportedChunks::add);
+            fail("expected to fail");
+        } catch (StartMachinesException e) {
+            assertThat(e.getRequestedMachines(), is(4));
+            assertThat(e.getStartedMachines(), is(machines("i-1", "i-2", "i-3")));
+            assertThat(e.getCause().getMessage(), is("quota"));
+        }
+        assertThat(this.reportedChunks, is(asList(machines("i-1", "i-2"), machines("i-3"))));
+    }
+
+    /**
+     * No more than the given number of chunks should be started concurrently.
+     */
+    @Test
+    public void boundedParallelism() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        CountDownLatch twoInFlight = new CountDownLatch(2);
+        doAnswer(invocation -> {
+            int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            twoInFlight.countDown();
+            // give other calls a chance to run concurrently
+            twoInFlight.await(5, TimeUnit.SECONDS);
+            Thread.sleep(10);
+            inFlight.decrementAndGet();
+            return Collections.emptyList();
+        }).when(this.driverMock).startMachines(anyInt());
+
+        ChunkedLauncher.startMachines(this.driverMock, 6, 1, 2, this.reportedChunks::add);
+
+        verify(this.driverMock, times(6)).startMachines(1);
+        assertThat(maxInFlight.get(), is(2));
+        // chunks that did not start any machines are not reported
+        assertThat(this.reportedChunks.isEmpty(), is(true));
+    }
+
+    private static List<Machine> machines(String... ids) {
+        List<Machine> machines = new ArrayList<>();
+        for (String id : ids) {
+            machines.add(machine(id, MachineState.PENDING, LAUNCH_TIME));
+        }
+        return machines;
+    }
+}
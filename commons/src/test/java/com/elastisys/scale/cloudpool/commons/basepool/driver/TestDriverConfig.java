@@ -1,6 +1,7 @@
 package com.elastisys.scale.cloudpool.commons.basepool.driver;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.junit.Assert.assertThat;
 
 import org.junit.Test;
@@ -79,6 +80,70 @@ public class TestDriverConfig {
         assertThat(parsedObject.apiPassword, is("secret"));
     }
 
+    /**
+     * Parsed settings should be cached: later calls for the same type should
+     * return the same instance, without re-parsing.
+     */
+    @Test
+    public void parsedSettingsAreCached() {
+        DriverConfig driverConfig = new DriverConfig(NAME, CLOUD_API_SETTINGS, PROVISIONING_TEMPLATE);
+
+        SampleCloudApiSettingsType cloudApiSettings = driverConfig
+                .parseCloudApiSettings(SampleCloudApiSettingsType.class);
+        assertThat(driverConfig.parseCloudApiSettings(SampleCloudApiSettingsType.class),
+                is(sameInstance(cloudApiSettings)));
+
+        SampleProvisioningTemplateType template = driverConfig
+                .parseProvisioningTemplate(SampleProvisioningTemplateType.class);
+        assertThat(driverConfig.parseProvisioningTemplate(SampleProvisioningTemplateType.class),
+                is(sameInstance(template)));
+    }
+
+    /**
+     * Cached parses should not leak into the JSON representation or the
+     * equality of a {@link DriverConfig}.
+     */
+    @Test
+    public void cacheDoesNotAffectEqualityOrSerialization() {
+        DriverConfig parsed = new DriverConfig(NAME, CLOUD_API_SETTINGS, PROVISIONING_TEMPLATE);
+        parsed.parseCloudApiSettings(SampleCloudApiSettingsType.class);
+        DriverConfig unparsed = new DriverConfig(NAME, CLOUD_API_SETTINGS, PROVISIONING_TEMPLATE);
+
+        assertThat(parsed, is(unparsed));
+        assertThat(parsed.hashCode(), is(unparsed.hashCode()));
+        assertThat(JsonUtils.toJson(parsed), is(JsonUtils.toJson(unparsed)));
+    }
+
+    /**
+     * A {@link DriverConfig} deserialized from JSON (without running its
+     * constructor) should be able to parse its settings.
+     */
+    @Test
+    public void parseAfterJsonRoundTrip() {
+        DriverConfig original = new DriverConfig(NAME, CLOUD_API_SETTINGS, PROVISIONING_TEMPLATE);
+        DriverConfig driverConfig = JsonUtils.toObject(JsonUtils.toJson(original), DriverConfig.class);
+
+        SampleCloudApiSettingsType cloudApiSettings = driverConfig
+                .parseCloudApiSettings(SampleCloudApiSettingsType.class);
+        assertThat(cloudApiSettings.apiUser, is("foo"));
+        assertThat(driverConfig.parseCloudApiSettings(SampleCloudApiSettingsType.class),
+                is(sameInstance(cloudApiSettings)));
+        SampleProvisioningTemplateType template = driverConfig
+                .parseProvisioningTemplate(SampleProvisioningTemplateType.class);
+        assertThat(template.size, is("medium"));
+    }
+
+    /**
+     * A document that cannot be parsed into the requested type should be
+     * rejected with an {@link IllegalArgumentException}.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void parseFailure() {
+        JsonObject badSettings = JsonUtils.parseJsonString("{\"apiUser\": [1, 2]}").getAsJsonObject();
+        new DriverConfig(NAME, badSettings, PROVISIONING_TEMPLATE)
+                .parseCloudApiSettings(SampleCloudApiSettingsType.class);
+    }
+
     private static class SampleCloudApiSettingsType {
         private String apiUser;
         private String apiPassword;
@@ -0,0 +1,99 @@
+package com.elastisys.scale.cloudpool.commons.basepool.driver;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.elastisys.scale.cloudpool.api.NotFoundException;
+
+/**
+ * Exercises {@link ParallelTerminator}.
+ */
+public class TestParallelTerminator {
+
+    private final CloudPoolDriver driverMock = mock(CloudPoolDriver.class);
+
+    @Test
+    public void terminateNothing() {
+        TerminateMachinesResult result = ParallelTerminator.terminateMachines(this.driverMock,
+                Collections.emptyList(), 10);
+        assertThat(result.isSuccessful(), is(true));
+        assertThat(result.getTerminatedMachines().isEmpty(), is(true));
+    }
+
+    @Test
+    public void terminateAll() {
+        TerminateMachinesResult result = ParallelTerminator.terminateMachines(this.driverMock,
+                asList("i-1", "i-2", "i-3"), 10);
+
+        verify(this.driverMock).terminateMachine("i-1");
+        verify(this.driverMock).terminateMachine("i-2");
+        verify(this.driverMock).terminateMachine("i-3");
+        assertThat(result.isSuccessful(), is(true));
+        // results should be reported in request order
+        assertThat(result.getTerminatedMachines(), is(asList("i-1", "i-2", "i-3")));
+    }
+
+    /**
+     * A failure to terminate one machine should not prevent the others from
+     * being terminated.
+     */
+    @Test
+    public void partialFailure() {
+        doThrow(new NotFoundException("no such machine")).when(this.driverMock).terminateMachine("i-2");
+
+        TerminateMachinesResult result = ParallelTerminator.terminateMachines(this.driverMock,
+                asList("i-1", "i-2", "i-3"), 10);
+
+        assertThat(result.isSuccessful(), is(false));
+        assertThat(result.getTerminatedMachines(), is(asList("i-1", "i-3")));
+        assertThat(result.getFailures().keySet(), is(Collections.singleton("i-2")));
+        assertThat(result.getFailures().get("i-2"), instanceOf(NotFoundException.class));
+    }
+
+    /**
+     * No more than the given number of termination calls should be in flight
+     * at any time.
+     */
+    @Test
+    public void boundedParallelism() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        CountDownLatch twoInFlight = new CountDownLatch(2);
+        doAnswer(invocation -> {
+            int current = inFlight.incrementAndGet();
+            maxInFlight.accumulateAndGet(current, Math::max);
+            twoInFlight.countDown();
+            // give other calls a chance to run concurrently
+            twoInFlight.await(1, TimeUnit.SECONDS);
+            Thread.sleep(10);
+            inFlight.decrementAndGet();
+            return null;
+        }).when(this.driverMock).terminateMachine(anyString());
+
+        TerminateMachinesResult result = ParallelTerminator.terminateMachines(this.driverMock,
+                asList("i-1", "i-2", "i-3", "i-4", "i-5", "i-6"), 2);
+
+        assertThat(result.isSuccessful(), is(true));
+        assertThat(result.getTerminatedMachines().size(), is(6));
+        assertThat(maxInFlight.get(), is(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void nonPositiveParallelism() {
+        ParallelTerminator.terminateMachines(this.driverMock, asList("i-1"), 0);
+    }
+}
@@ -0,0 +1,119 @@
+package com.elastisys.scale.cloudpool.commons.basepool.poolfetcher.impl;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.elastisys.scale.cloudpool.api.types.CloudProviders;
+import com.elastisys.scale.cloudpool.api.types.Machine;
+import com.elastisys.scale.cloudpool.api.types.MachinePool;
+import com.elastisys.scale.cloudpool.api.types.MachineState;
+import com.elastisys.scale.cloudpool.commons.basepool.config.AdaptiveRefreshConfig;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+import com.elastisys.scale.commons.util.time.UtcTime;
+
+/**
+ * Exercises the {@link AdaptiveRefreshInterval}.
+ */
+public class TestAdaptiveRefreshInterval {
+
+    private static final AdaptiveRefreshConfig CONFIG = new AdaptiveRefreshConfig(
+            new TimeInterval(5L, TimeUnit.SECONDS), new TimeInterval(60L, TimeUnit.SECONDS), 2.0);
+
+    /**
+     * The initial delay should be clamped to the configured bounds.
+     */
+    @Test
+    public void clampInitialDelay() {
+        assertThat(new AdaptiveRefreshInterval(CONFIG, 30000).currentMillis(), is(30000L));
+        assertThat(new AdaptiveRefreshInterval(CONFIG, 1000).currentMillis(), is(5000L));
+        assertThat(new AdaptiveRefreshInterval(CONFIG, 120000).currentMillis(), is(60000L));
+    }
+
+    /**
+     * While the pool is stable, the delay should back off exponentially up to
+     * the maximum interval.
+     */
+    @Test
+    public void backOffWhileStable() {
+        AdaptiveRefreshInterval interval = new AdaptiveRefreshInterval(CONFIG, 5000);
+        MachinePool pool = pool(machine("i-1", MachineState.RUNNING), machine("i-2", MachineState.RUNNING));
+        assertThat(interval.onRefresh(pool, 2), is(10000L));
+        assertThat(interval.onRefresh(pool, 2), is(20000L));
+        assertThat(interval.onRefresh(pool, 2), is(40000L));
+        assertThat(interval.onRefresh(pool, 2), is(60000L));
+        assertThat(interval.onRefresh(pool, 2), is(60000L));
+        // unknown desired size
+        assertThat(interval.onRefresh(pool, null), is(60000L));
+    }
+
+    /**
+     * A refresh that finds the pool changed should reset the delay to the
+     * minimum interval.
+     */
+    @Test
+    public void refreshFastOnChange() {
+        AdaptiveRefreshInterval interval = new AdaptiveRefreshInterval(CONFIG, 60000);
+        assertThat(interval.onRefresh(pool(machine("i-1", MachineState.RUNNING)), null), is(60000L));
+        MachinePool changed = pool(machine("i-1", MachineState.RUNNING), machine("i-2", MachineState.RUNNING));
+        assertThat(interval.onRefresh(changed, null), is(5000L));
+        assertThat(interval.onRefresh(changed, null), is(10000L));
+    }
+
+    /**
+     * The delay should be kept at the minimum interval while machines are
+     * transitioning between states.
+     */
+    @Test
+    public void refreshFastWhileMachinesTransition() {
+        AdaptiveRefreshInterval interval = new AdaptiveRefreshInterval(CONFIG, 60000);
+        MachinePool pool = pool(machine("i-1", MachineState.RUNNING), machine("i-2", MachineState.PENDING));
+        assertThat(interval.onRefresh(pool, 2), is(5000L));
+        assertThat(interval.onRefresh(pool, 2), is(5000L));
+
+        pool = pool(machine("i-1", MachineState.RUNNING), machine("i-2", MachineState.TERMINATING));
+        assertThat(interval.onRefresh(pool, 1), is(5000L));
+        assertThat(interval.onRefresh(pool, 1), is(5000L));
+    }
+
+    /**
+     * The delay should be kept at the minimum interval while the pool size
+     * differs from the desired size.
+     */
+    @Test
+    public void refreshFastWhileNotAtDesiredSize() {
+        AdaptiveRefreshInterval interval = new AdaptiveRefreshInterval(CONFIG, 60000);
+        MachinePool pool = pool(machine("i-1", MachineState.RUNNING));
+        assertThat(interval.onRefresh(pool, 2), is(5000L));
+        assertThat(interval.onRefresh(pool, 2), is(5000L));
+        assertThat(interval.onRefresh(pool, 1), is(10000L));
+    }
+
+    /**
+     * A failed refresh should leave the delay unchanged.
+     */
+    @Test
+    public void keepDelayOnFailure() {
+        AdaptiveRefreshInterval interval = new AdaptiveRefreshInterval(CONFIG, 20000);
+        assertThat(interval.onFailure(), is(20000L));
+        assertThat(interval.onFailure(), is(20000L));
+    }
+
+    private static MachinePool pool(Machine... machines) {
+        List<Machine> members = new ArrayList<>();
+        for (Machine machine : machines) {
+            members.add(machine);
+        }
+        return new MachinePool(members, UtcTime.now());
+    }
+
+    private static Machine machine(String id, MachineState state) {
+        return Machine.builder().id(id).machineSize("m1.medium").machineState(state)
+                .cloudProvider(CloudProviders.AWS_EC2).region("us-east-1").build();
+    }
+}
@@ -3,6 +3,7 @@ package com.elastisys.scale.cloudpool.commons.basepool.poolfetcher.impl;
 import static com.elastisys.scale.cloudpool.commons.basepool.IsAlert.isAlert;
 import static com.elastisys.scale.cloudpool.commons.basepool.alerts.AlertTopics.POOL_FETCH;
 import static com.elastisys.scale.cloudpool.commons.basepool.poolfetcher.FetchOption.FORCE_REFRESH;
+import static com.elastisys.scale.commons.net.alerter.AlertSeverity.NOTICE;
 import static com.elastisys.scale.commons.net.alerter.AlertSeverity.WARN;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertFalse;
@@ -10,6 +11,7 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.argThat;
+import static org.mockito.Mockito.atLeast;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -18,9 +20,13 @@ import static org.mockito.Mockito.when;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -36,6 +42,7 @@ import com.elastisys.scale.cloudpool.api.types.Machine;
 import com.elastisys.scale.cloudpool.api.types.MachinePool;
 import com.elastisys.scale.cloudpool.api.types.MachineState;
 import com.elastisys.scale.cloudpool.commons.basepool.StateStorage;
+import com.elastisys.scale.cloudpool.commons.basepool.config.AdaptiveRefreshConfig;
 import com.elastisys.scale.cloudpool.commons.basepool.config.PoolFetchConfig;
 import com.elastisys.scale.cloudpool.commons.basepool.config.RetriesConfig;
 import com.elastisys.scale.cloudpool.commons.basepool.driver.CloudPoolDriverException;
@@ -79,6 +86,10 @@ public class TestCachingPoolFetcher {
     private static final TimeInterval REFRESH_INTERVAL = new TimeInterval(30L, TimeUnit.SECONDS);
     private static final PoolFetchConfig FETCH_CONFIG = new PoolFetchConfig(
             new RetriesConfig(3, new TimeInterval(10L, TimeUnit.MILLISECONDS)), REFRESH_INTERVAL, REACHABILITY_TIMEOUT);
+    private static final TimeInterval COALESCING_WINDOW = new TimeInterval(5L, TimeUnit.SECONDS);
+    private static final PoolFetchConfig COALESCING_FETCH_CONFIG = new PoolFetchConfig(
+            new RetriesConfig(3, new TimeInterval(10L, TimeUnit.MILLISECONDS)), REFRESH_INTERVAL, REACHABILITY_TIMEOUT,
+            COALESCING_WINDOW, null);
 
     @Before
     public void beforeTestMethod() throws Exception {
@@ -230,6 +241,184 @@ public class TestCachingPoolFetcher {
         fetcher.close();
     }
 
+    /**
+     * With refresh coalescing enabled, concurrent forced refreshes should
+     * share a single call through to the delegate.
+     */
+    @Test
+    public void coalesceConcurrentForcedRefreshes() throws Exception {
+        MachinePool initialPool = pool(machines("i-1", "i-2"));
+        when(this.delegate.get(FORCE_REFRESH)).thenReturn(initialPool);
+
+        CachingPoolFetcher fetcher = new CachingPoolFetcher(STATE_STORAGE, this.delegate, COALESCING_FETCH_CONFIG,
+                this.executor, this.mockEventbus);
+        fetcher.awaitFirstFetch();
+        verify(this.delegate, times(1)).get(FORCE_REFRESH);
+        FrozenTime.tick(60);
+
+        // the delegate PoolFetcher is slow to respond
+        CountDownLatch refreshStarted = new CountDownLatch(1);
+        MachinePool newPool = pool(machines("i-1", "i-2", "i-3"));
+        when(this.delegate.get(FORCE_REFRESH)).thenAnswer(invocation -> {
+            refreshStarted.countDown();
+            Uninterruptibles.sleepUninterruptibly(500, TimeUnit.MILLISECONDS);
+            return newPool;
+        });
+
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<MachinePool>> refreshes = new ArrayList<>();
+            refreshes.add(callers.submit(() -> fetcher.get(FORCE_REFRESH)));
+            refreshStarted.await();
+            for (int i = 0; i < 3; i++) {
+                refreshes.add(callers.submit(() -> fetcher.get(FORCE_REFRESH)));
+            }
+            for (Future<MachinePool> refresh : refreshes) {
+                assertThat(refresh.get(), is(newPool));
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        // only a single additional call should have been made to the delegate
+        verify(this.delegate, times(2)).get(FORCE_REFRESH);
+        fetcher.close();
+    }
+
+    /**
+     * With refresh coalescing enabled, a refresh that arrives within the
+     * coalescing window of a successful refresh should reuse its result,
+     * unless the caller demands a fresher observation.
+     */
+    @Test
+    public void reuseRecentRefreshWithinCoalescingWindow() {
+        MachinePool initialPool = pool(machines("i-1", "i-2"));
+        when(this.delegate.get(FORCE_REFRESH)).thenReturn(initialPool);
+
+        CachingPoolFetcher fetcher = new CachingPoolFetcher(STATE_STORAGE, this.delegate, COALESCING_FETCH_CONFIG,
+                this.executor, this.mockEventbus);
+        fetcher.awaitFirstFetch();
+        verify(this.delegate, times(1)).get(FORCE_REFRESH);
+
+        // within coalescing window: no call through to delegate
+        FrozenTime.tick(1);
+        assertThat(fetcher.refreshCache(), is(initialPool));
+        verify(this.delegate, times(1)).get(FORCE_REFRESH);
+
+        // outside of coalescing window: should call through to delegate
+        FrozenTime.tick(5);
+        MachinePool newPool = pool(machines("i-1", "i-2", "i-3"));
+        when(this.delegate.get(FORCE_REFRESH)).thenReturn(newPool);
+        assertThat(fetcher.refreshCache(), is(newPool));
+        verify(this.delegate, times(2)).get(FORCE_REFRESH);
+        fetcher.close();
+    }
+
+    /**
+     * A forced refresh (such as one made after a modification of the pool)
+     * must not be served a refresh from the coalescing window that started
+     * before it was requested.
+     */
+    @Test
+    public void forceRefreshAfterModificationNotServedFromWindow() {
+        when(this.delegate.get(FORCE_REFRESH)).thenReturn(pool(machines("i-1", "i-2")));
+        CachingPoolFetcher fetcher = new CachingPoolFetcher(STATE_STORAGE, this.delegate, COALESCING_FETCH_CONFIG,
+                this.executor, this.mockEventbus);
+        fetcher.awaitFirstFetch();
+
+        // pool modified within coalescing window
+        FrozenTime.tick(1);
+        MachinePool newPool = pool(machines("i-1", "i-2", "i-3"));
+        when(this.delegate.get(FORCE_REFRESH)).thenReturn(newPool);
+        assertThat(fetcher.get(FORCE_REFRESH), is(newPool));
+        verify(this.delegate, times(2)).get(FORCE_REFRESH);
+
+        // a max-age fetch accepts refreshes started within its max age
+        FrozenTime.tick(1);
+        assertThat(fetcher.get(new TimeInterval(500L, TimeUnit.MILLISECONDS)), is(newPool));
+        verify(this.delegate, times(3)).get(FORCE_REFRESH);
+        FrozenTime.tick(1);
+        assertThat(fetcher.get(new TimeInterval(2L, TimeUnit.SECONDS)), is(newPool));
+        verify(this.delegate, times(3)).get(FORCE_REFRESH);
+        fetcher.close();
+    }
+
+    /**
+     * A forced refresh must not join an in-flight refresh that started before
+     * it was requested. Instead, it should refresh again once the in-flight
+     * refresh has completed.
+     */
+    @Test
+    public void forceRefreshDoesNotJoinEarlierInFlightRefresh() throws Exception {
+        when(this.delegate.get(FORCE_REFRESH)).thenReturn(pool(machines("i-1")));
+        CachingPoolFetcher fetcher = new CachingPoolFetcher(STATE_STORAGE, this.delegate, COALESCING_FETCH_CONFIG,
+                this.executor, this.mockEventbus);
+        fetcher.awaitFirstFetch();
+        FrozenTime.tick(60);
+
+        // a slow (periodical) refresh is in flight
+        CountDownLatch refreshStarted = new CountDownLatch(1);
+        CountDownLatch refreshReleased = new CountDownLatch(1);
+        MachinePool stalePool = pool(machines("i-1", "i-2"));
+        MachinePool freshPool = pool(machines("i-1", "i-2", "i-3"));
+        when(this.delegate.get(FORCE_REFRESH)).thenAnswer(invocation -> {
+            refreshStarted.countDown();
+            refreshReleased.await();
+            return stalePool;
+        }).thenReturn(freshPool);
+
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<MachinePool> periodicRefresh = callers.submit(() -> fetcher.refreshCache());
+            refreshStarted.await();
+
+            // pool modified after the in-flight refresh started
+            FrozenTime.tick(1);
+            Future<MachinePool> forcedRefresh = callers.submit(() -> fetcher.get(FORCE_REFRESH));
+            refreshReleased.countDown();
+
+            assertThat(periodicRefresh.get(), is(stalePool));
+            assertThat(forcedRefresh.get(), is(freshPool));
+        } finally {
+            callers.shutdownNow();
+        }
+        verify(this.delegate, times(3)).get(FORCE_REFRESH);
+        fetcher.close();
+    }
+
+    /**
+     * With refresh coalescing enabled, a failed refresh should never be
+     * reused. The next forced refresh must call through to the delegate.
+     */
+    @Test
+    public void neverReuseFailedRefresh() {
+        when(this.delegate.get(FORCE_REFRESH)).thenReturn(pool(machines("i-1")));
+        CachingPoolFetcher fetcher = new CachingPoolFetcher(STATE_STORAGE, this.delegate, COALESCING_FETCH_CONFIG,
+                this.executor, this.mockEventbus);
+        fetcher.awaitFirstFetch();
+
+        FrozenTime.tick(10);
+        when(this.delegate.get(FORCE_REFRESH)).thenThrow(new CloudPoolException("api outage"));
+        try {
+            fetcher.get(FORCE_REFRESH);
+            fail("expected to fail");
+        } catch (CloudPoolException e) {
+            // expected
+        }
+        verify(this.delegate, times(2)).get(FORCE_REFRESH);
+
+        // still within coalescing window of the previous successful fetch,
+        // but last refresh failed
+        try {
+            fetcher.get(FORCE_REFRESH);
+            fail("expected to fail");
+        } catch (CloudPoolException e) {
+            // expected
+        }
+        verify(this.delegate, times(3)).get(FORCE_REFRESH);
+        fetcher.close();
+    }
+
     /**
      * Should respond with cached {@link MachinePool} until the cached value is
      * older than {@code reachabilityTimeout} (then it should respond with a
@@ -291,6 +480,58 @@ public class TestCachingPoolFetcher {
         fetcher.close();
     }
 
+    /**
+     * While the delegate's circuit is open, forced refreshes should be served
+     * the cached {@link MachinePool} (within the reachability timeout) and
+     * only the opening and closing of the circuit should be alerted on.
+     */
+    @Test
+    public void serveCacheAndAlertOnceWhileCircuitOpen() {
+        MachinePool initialPool = pool(machines("i-1", "i-2"));
+        CircuitOpenException denied = new CircuitOpenException("circuit open");
+        when(this.delegate.get(FORCE_REFRESH)).thenReturn(initialPool).thenThrow(denied).thenThrow(denied)
+                .thenReturn(pool(machines("i-1", "i-2", "i-3")));
+
+        CachingPoolFetcher fetcher = new CachingPoolFetcher(STATE_STORAGE, this.delegate, FETCH_CONFIG, this.executor,
+                this.mockEventbus);
+        fetcher.awaitFirstFetch();
+
+        // denied refreshes are served from cache
+        FrozenTime.tick(60);
+        assertThat(fetcher.get(FORCE_REFRESH), is(initialPool));
+        FrozenTime.tick(60);
+        assertThat(fetcher.get(FORCE_REFRESH), is(initialPool));
+        verify(this.mockEventbus, times(1)).post(argThat(isAlert(POOL_FETCH.name(), WARN)));
+
+        // circuit closes
+        assertThat(fetcher.get(FORCE_REFRESH).getMachines(), is(machines("i-1", "i-2", "i-3")));
+        verify(this.mockEventbus, times(1)).post(argThat(isAlert(POOL_FETCH.name(), NOTICE)));
+        verify(this.mockEventbus, times(1)).post(argThat(isAlert(POOL_FETCH.name(), WARN)));
+        fetcher.close();
+    }
+
+    /**
+     * A denied refresh must not be served a cached {@link MachinePool} that
+     * is older than the reachability timeout.
+     */
+    @Test(expected = PoolReachabilityTimeoutException.class)
+    public void honorReachabilityTimeoutWhileCircuitOpen() {
+        MachinePool initialPool = pool(machines("i-1", "i-2"));
+        when(this.delegate.get(FORCE_REFRESH)).thenReturn(initialPool)
+                .thenThrow(new CircuitOpenException("circuit open"));
+
+        CachingPoolFetcher fetcher = new CachingPoolFetcher(STATE_STORAGE, this.delegate, FETCH_CONFIG, this.executor,
+                this.mockEventbus);
+        fetcher.awaitFirstFetch();
+
+        FrozenTime.tick(REACHABILITY_TIMEOUT_MINUTES * 60);
+        try {
+            fetcher.get(FORCE_REFRESH);
+        } finally {
+            fetcher.close();
+        }
+    }
+
     /**
      * Verify that machine pool observations get written to disk and are
      * properly restored on re-instantiation of the {@link CachingPoolFetcher}.
@@ -322,6 +563,99 @@ public class TestCachingPoolFetcher {
         fetcher.close();
     }
 
+    /**
+     * A max-age fetch should be served from cache if the cached pool is recent
+     * enough, and refresh it otherwise.
+     */
+    @Test
+    public void maxAgeFetch() {
+        MachinePool initialPool = pool(machines("i-1"));
+        when(this.delegate.get(FORCE_REFRESH)).thenReturn(initialPool);
+        CachingPoolFetcher fetcher = new CachingPoolFetcher(STATE_STORAGE, this.delegate, FETCH_CONFIG, this.executor,
+                this.mockEventbus);
+        fetcher.awaitFirstFetch();
+        verify(this.delegate, times(1)).get(FORCE_REFRESH);
+
+        FrozenTime.tick(10);
+        when(this.delegate.get(FORCE_REFRESH)).thenReturn(pool(machines("i-1", "i-2")));
+        TimeInterval tenSeconds = new TimeInterval(10L, TimeUnit.SECONDS);
+        assertThat(fetcher.get(tenSeconds), is(initialPool));
+        verify(this.delegate, times(1)).get(FORCE_REFRESH);
+
+        FrozenTime.tick(1);
+        assertThat(fetcher.get(tenSeconds).getMachines(), is(machines("i-1", "i-2")));
+        verify(this.delegate, times(2)).get(FORCE_REFRESH);
+
+        // a zero max age forces a refresh
+        FrozenTime.tick(1);
+        fetcher.get(new TimeInterval(0L, TimeUnit.SECONDS));
+        verify(this.delegate, times(3)).get(FORCE_REFRESH);
+        fetcher.close();
+    }
+
+    /**
+     * A refreshed machine pool that is structurally unchanged should only be
+     * cached in memory, unless the persisted observation is about to become
+     * too old to serve on restart.
+     */
+    @Test
+    public void skipPersistenceOfUnchangedPool() {
+        when(this.delegate.get(FORCE_REFRESH)).thenReturn(pool(machines("i-1", "i-2")));
+        CachingPoolFetcher fetcher = new CachingPoolFetcher(STATE_STORAGE, this.delegate, FETCH_CONFIG, this.executor,
+                this.mockEventbus);
+        fetcher.awaitFirstFetch();
+        MachinePool persisted = restore(STATE_STORAGE.getCachedMachinePoolFile());
+
+        // unchanged: served with a fresh timestamp, but not persisted
+        FrozenTime.tick(60);
+        MachinePool unchanged = pool(machines("i-1", "i-2"));
+        when(this.delegate.get(FORCE_REFRESH)).thenReturn(unchanged);
+        assertThat(fetcher.get(FORCE_REFRESH), is(unchanged));
+        assertThat(fetcher.get(), is(unchanged));
+        assertThat(restore(STATE_STORAGE.getCachedMachinePoolFile()), is(persisted));
+        assertThat(STATE_STORAGE.getCachedMachinePoolJournalFile().length(), is(0L));
+
+        // unchanged, but persisted observation older than half the
+        // reachability timeout
+        FrozenTime.tick(REACHABILITY_TIMEOUT_MINUTES * 60 / 2);
+        unchanged = pool(machines("i-1", "i-2"));
+        when(this.delegate.get(FORCE_REFRESH)).thenReturn(unchanged);
+        fetcher.get(FORCE_REFRESH);
+        assertThat(restore(STATE_STORAGE.getCachedMachinePoolFile()), is(unchanged));
+
+        // changed
+        FrozenTime.tick(60);
+        MachinePool changed = pool(machines("i-1", "i-2", "i-3"));
+        when(this.delegate.get(FORCE_REFRESH)).thenReturn(changed);
+        fetcher.get(FORCE_REFRESH);
+        assertThat(restore(STATE_STORAGE.getCachedMachinePoolFile()), is(changed));
+        fetcher.close();
+    }
+
+    /**
+     * With adaptive refreshing, the pool should be refreshed at the minimum
+     * interval while machines are transitioning, rather than at the (much
+     * longer) refresh interval.
+     */
+    @Test
+    public void adaptiveRefresh() {
+        AdaptiveRefreshConfig adaptiveRefresh = new AdaptiveRefreshConfig(
+                new TimeInterval(100L, TimeUnit.MILLISECONDS), new TimeInterval(1L, TimeUnit.MINUTES), null);
+        PoolFetchConfig fetchConfig = new PoolFetchConfig(
+                new RetriesConfig(3, new TimeInterval(10L, TimeUnit.MILLISECONDS)), REFRESH_INTERVAL,
+                REACHABILITY_TIMEOUT, null, null, null, adaptiveRefresh);
+        Machine pending = Machine.builder().id("i-1").machineSize("m1.medium").machineState(MachineState.PENDING)
+                .cloudProvider(CloudProviders.AWS_EC2).region("us-east-1").build();
+        when(this.delegate.get(FORCE_REFRESH)).thenReturn(pool(Arrays.asList(pending)));
+
+        CachingPoolFetcher fetcher = new CachingPoolFetcher(STATE_STORAGE, this.delegate, fetchConfig, this.executor,
+                this.mockEventbus);
+        fetcher.awaitFirstFetch();
+        Uninterruptibles.sleepUninterruptibly(1000, TimeUnit.MILLISECONDS);
+        fetcher.close();
+        verify(this.delegate, atLeast(4)).get(FORCE_REFRESH);
+    }
+
     /**
      * Verify that the {@link CachingPoolFetcher} restores its cache (if one
      * exists) on creation.
@@ -366,13 +700,15 @@ public class TestCachingPoolFetcher {
     }
 
     /**
-     * Loads a {@link MachinePool} from a given file.
+     * Loads a {@link MachinePool} from a given file (and its journal), as would
+     * be done on a restart.
      *
      * @param machinePoolCacheFile
      * @return
      */
     private MachinePool restore(File machinePoolCacheFile) {
-        return JsonUtils.toObject(JsonUtils.parseJsonFile(machinePoolCacheFile), MachinePool.class);
+        return new MachinePoolJournal(machinePoolCacheFile, STATE_STORAGE.getCachedMachinePoolJournalFile()).get()
+                .get();
     }
 
     private MachinePool pool(List<Machine> machines) {
@@ -0,0 +1,85 @@
+package com.elastisys.scale.cloudpool.commons.basepool.poolfetcher.impl;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.elastisys.scale.cloudpool.commons.basepool.config.CircuitBreakerConfig;
+import com.elastisys.scale.cloudpool.commons.basepool.poolfetcher.impl.CircuitBreaker.Permit;
+import com.elastisys.scale.cloudpool.commons.basepool.poolfetcher.impl.CircuitBreaker.State;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+import com.elastisys.scale.commons.util.time.FrozenTime;
+import com.elastisys.scale.commons.util.time.UtcTime;
+
+/**
+ * Exercise the {@link CircuitBreaker}.
+ */
+public class TestCircuitBreaker {
+
+    /** Object under test. */
+    private CircuitBreaker circuitBreaker;
+
+    @Before
+    public void beforeTestMethod() {
+        FrozenTime.setFixed(UtcTime.parse("2015-11-16T12:00:00.000Z"));
+        this.circuitBreaker = new CircuitBreaker(new CircuitBreakerConfig(2, new TimeInterval(60L, TimeUnit.SECONDS)));
+    }
+
+    @Test
+    public void openAfterFailureThreshold() {
+        this.circuitBreaker.onFailure(this.circuitBreaker.tryAcquire());
+        assertThat(this.circuitBreaker.getState(), is(State.CLOSED));
+        this.circuitBreaker.onFailure(this.circuitBreaker.tryAcquire());
+        assertThat(this.circuitBreaker.getState(), is(State.OPEN));
+
+        assertThat(this.circuitBreaker.tryAcquire(), is(Permit.DENIED));
+    }
+
+    @Test
+    public void probeClosesCircuit() {
+        open();
+
+        FrozenTime.tick(60);
+        Permit probe = this.circuitBreaker.tryAcquire();
+        assertThat(probe, is(Permit.PROBE));
+        assertThat(this.circuitBreaker.getState(), is(State.HALF_OPEN));
+        // other calls are rejected while the probe is in flight
+        assertThat(this.circuitBreaker.tryAcquire(), is(Permit.DENIED));
+
+        this.circuitBreaker.onSuccess(probe);
+        assertThat(this.circuitBreaker.getState(), is(State.CLOSED));
+    }
+
+    /**
+     * The outcome of a call that was let through before the circuit opened
+     * must not be mistaken for the outcome of the probe.
+     */
+    @Test
+    public void outcomeOfCallAdmittedWhileClosedDoesNotDecideProbe() {
+        Permit straggler = this.circuitBreaker.tryAcquire();
+        assertThat(straggler, is(Permit.NORMAL));
+        open();
+
+        FrozenTime.tick(60);
+        Permit probe = this.circuitBreaker.tryAcquire();
+        assertThat(probe, is(Permit.PROBE));
+
+        this.circuitBreaker.onSuccess(straggler);
+        assertThat(this.circuitBreaker.getState(), is(State.HALF_OPEN));
+        this.circuitBreaker.onFailure(straggler);
+        assertThat(this.circuitBreaker.getState(), is(State.HALF_OPEN));
+
+        this.circuitBreaker.onFailure(probe);
+        assertThat(this.circuitBreaker.getState(), is(State.OPEN));
+    }
+
+    private void open() {
+        this.circuitBreaker.onFailure(this.circuitBreaker.tryAcquire());
+        this.circuitBreaker.onFailure(this.circuitBreaker.tryAcquire());
+        assertThat(this.circuitBreaker.getState(), is(State.OPEN));
+    }
+}
@@ -0,0 +1,239 @@
+package com.elastisys.scale.cloudpool.commons.basepool.poolfetcher.impl;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.elastisys.scale.cloudpool.api.types.CloudProviders;
+import com.elastisys.scale.cloudpool.api.types.Machine;
+import com.elastisys.scale.cloudpool.api.types.MachinePool;
+import com.elastisys.scale.cloudpool.api.types.MachineState;
+import com.elastisys.scale.commons.json.JsonUtils;
+import com.elastisys.scale.commons.util.file.FileUtils;
+import com.elastisys.scale.commons.util.time.FrozenTime;
+import com.elastisys.scale.commons.util.time.UtcTime;
+import com.google.common.base.Charsets;
+import com.google.common.io.Files;
+
+/**
+ * Exercises the {@link MachinePoolJournal}.
+ */
+public class TestMachinePoolJournal {
+
+    private static final File STATE_DIR = new File("target/state-" + TestMachinePoolJournal.class.getSimpleName());
+    private static final File SNAPSHOT_FILE = new File(STATE_DIR, "pool.json");
+    private static final File JOURNAL_FILE = new File(STATE_DIR, "pool.journal");
+
+    @Before
+    public void beforeTestMethod() throws Exception {
+        FileUtils.deleteRecursively(STATE_DIR);
+        FrozenTime.setFixed(UtcTime.parse("2015-11-16T12:00:00.000Z"));
+    }
+
+    /**
+     * Without any persisted state, nothing should be recovered.
+     */
+    @Test
+    public void recoverWithoutPersistedState() {
+        MachinePoolJournal journal = new MachinePoolJournal(SNAPSHOT_FILE, JOURNAL_FILE);
+        assertThat(journal.get().isPresent(), is(false));
+    }
+
+    /**
+     * The first observation should be written as a snapshot, in the same
+     * format as a plain {@link MachinePool} file.
+     */
+    @Test
+    public void firstUpdateWritesSnapshot() {
+        MachinePoolJournal journal = new MachinePoolJournal(SNAPSHOT_FILE, JOURNAL_FILE);
+        MachinePool pool = pool(running("i-1", "i-2"));
+        journal.update(pool);
+
+        assertThat(journal.get().get(), is(pool));
+        assertThat(JsonUtils.toObject(JsonUtils.parseJsonFile(SNAPSHOT_FILE), MachinePool.class), is(pool));
+        assertThat(JOURNAL_FILE.length(), is(0L));
+    }
+
+    /**
+     * Subsequent observations should only journal the changes, and be
+     * recovered by replaying the journal on the snapshot.
+     */
+    @Test
+    public void updatesAreJournaledAndReplayed() throws Exception {
+        MachinePoolJournal journal = new MachinePoolJournal(SNAPSHOT_FILE, JOURNAL_FILE);
+        journal.update(pool(running("i-1", "i-2")));
+        String snapshot = Files.toString(SNAPSHOT_FILE, Charsets.UTF_8);
+
+        FrozenTime.tick(30);
+        journal.update(pool(running("i-1", "i-2", "i-3")));
+        FrozenTime.tick(30);
+        MachinePool latest = pool(running("i-2", "i-3"));
+        journal.update(latest);
+
+        // snapshot untouched, one journal line per update
+        assertThat(Files.toString(SNAPSHOT_FILE, Charsets.UTF_8), is(snapshot));
+        List<String> entries = Files.readLines(JOURNAL_FILE, Charsets.UTF_8);
+        assertThat(entries.size(), is(2));
+        // only the added machine is written
+        assertThat(entries.get(0).contains("i-3"), is(true));
+        assertThat(entries.get(0).contains("i-1"), is(false));
+
+        assertThat(new MachinePoolJournal(SNAPSHOT_FILE, JOURNAL_FILE).get().get(), is(latest));
+    }
+
+    /**
+     * An observation without machine changes should only journal its
+     * timestamp.
+     */
+    @Test
+    public void unchangedObservation() throws Exception {
+        MachinePoolJournal journal = new MachinePoolJournal(SNAPSHOT_FILE, JOURNAL_FILE);
+        journal.update(pool(running("i-1", "i-2")));
+
+        FrozenTime.tick(30);
+        MachinePool latest = pool(running("i-1", "i-2"));
+        journal.update(latest);
+
+        String entry = Files.readLines(JOURNAL_FILE, Charsets.UTF_8).get(0);
+        assertThat(entry.contains("i-1"), is(false));
+        assertThat(new MachinePoolJournal(SNAPSHOT_FILE, JOURNAL_FILE).get().get(), is(latest));
+    }
+
+    /**
+     * Changes to the order of pool members should be preserved on replay.
+     */
+    @Test
+    public void reorderedObservation() {
+        MachinePoolJournal journal = new MachinePoolJournal(SNAPSHOT_FILE, JOURNAL_FILE);
+        journal.update(pool(running("i-1", "i-2")));
+        MachinePool latest = pool(running("i-3", "i-2", "i-1"));
+        journal.update(latest);
+
+        assertThat(new MachinePoolJournal(SNAPSHOT_FILE, JOURNAL_FILE).get().get(), is(latest));
+    }
+
+    /**
+     * Observations recorded in memory only should be served but not persisted.
+     * A subsequent update should journal the differences from the last
+     * persisted observation.
+     */
+    @Test
+    public void updateInMemory() throws Exception {
+        MachinePoolJournal journal = new MachinePoolJournal(SNAPSHOT_FILE, JOURNAL_FILE);
+        MachinePool persisted = pool(running("i-1", "i-2"));
+        journal.update(persisted);
+
+        FrozenTime.tick(30);
+        MachinePool inMemory = pool(running("i-1", "i-2", "i-3"));
+        journal.updateInMemory(inMemory);
+        assertThat(journal.get().get(), is(inMemory));
+        assertThat(journal.getPersisted().get(), is(persisted));
+        assertThat(JOURNAL_FILE.length(), is(0L));
+        assertThat(new MachinePoolJournal(SNAPSHOT_FILE, JOURNAL_FILE).get().get(), is(persisted));
+
+        FrozenTime.tick(30);
+        MachinePool latest = pool(running("i-1", "i-3"));
+        journal.update(latest);
+        assertThat(journal.getPersisted().get(), is(latest));
+        assertThat(new MachinePoolJournal(SNAPSHOT_FILE, JOURNAL_FILE).get().get(), is(latest));
+    }
+
+    /**
+     * The journal should be compacted into the snapshot once it holds the
+     * configured number of entries.
+     */
+    @Test
+    public void compaction() {
+        MachinePoolJournal journal = new MachinePoolJournal(SNAPSHOT_FILE, JOURNAL_FILE, 2);
+        journal.update(pool(running("i-1")));
+        journal.update(pool(running("i-1", "i-2")));
+        assertThat(JOURNAL_FILE.length() > 0, is(true));
+
+        MachinePool latest = pool(running("i-1", "i-2", "i-3"));
+        journal.update(latest);
+        assertThat(JOURNAL_FILE.length(), is(0L));
+        assertThat(JsonUtils.toObject(JsonUtils.parseJsonFile(SNAPSHOT_FILE), MachinePool.class), is(latest));
+        assertThat(new MachinePoolJournal(SNAPSHOT_FILE, JOURNAL_FILE).get().get(), is(latest));
+    }
+
+    /**
+     * A partially written journal entry (for example, due to a crash) should
+     * be ignored on replay.
+     */
+    @Test
+    public void recoverFromTruncatedJournal() throws Exception {
+        MachinePoolJournal journal = new MachinePoolJournal(SNAPSHOT_FILE, JOURNAL_FILE);
+        journal.update(pool(running("i-1")));
+        MachinePool lastComplete = pool(running("i-1", "i-2"));
+        journal.update(lastComplete);
+        Files.append("{\"timestamp\": \"2015-11-16T12:01:00.000Z\", \"updated\": [{\"id\": \"i-", JOURNAL_FILE,
+                Charsets.UTF_8);
+
+        MachinePoolJournal recovered = new MachinePoolJournal(SNAPSHOT_FILE, JOURNAL_FILE);
+        assertThat(recovered.get().get(), is(lastComplete));
+        // replayed journal is compacted
+        assertThat(JOURNAL_FILE.length(), is(0L));
+    }
+
+    /**
+     * Replaying a journal on a snapshot that already includes it (as after a
+     * crash between writing the snapshot and truncating the journal) should
+     * have no effect.
+     */
+    @Test
+    public void replayOnCompactedSnapshot() throws Exception {
+        MachinePoolJournal journal = new MachinePoolJournal(SNAPSHOT_FILE, JOURNAL_FILE);
+        journal.update(pool(running("i-1", "i-2")));
+        journal.update(pool(running("i-2", "i-1", "i-3")));
+        MachinePool latest = pool(running("i-3"));
+        journal.update(latest);
+        String journalContent = Files.toString(JOURNAL_FILE, Charsets.UTF_8);
+
+        // compact, but leave journal in place
+        journal.compact();
+        Files.write(journalContent, JOURNAL_FILE, Charsets.UTF_8);
+
+        assertThat(new MachinePoolJournal(SNAPSHOT_FILE, JOURNAL_FILE).get().get(), is(latest));
+    }
+
+    /**
+     * An unreadable snapshot (for example, torn by a power loss) should not
+     * prevent recovery, but leave the journal empty until the next update.
+     */
+    @Test
+    public void recoverFromUnreadableSnapshot() throws Exception {
+        MachinePoolJournal journal = new MachinePoolJournal(SNAPSHOT_FILE, JOURNAL_FILE);
+        journal.update(pool(running("i-1")));
+        journal.update(pool(running("i-1", "i-2")));
+        Files.write("{\"timestamp\": \"2015-11-16T12:00:00.000Z\", \"machines\": [{\"id\": \"i-", SNAPSHOT_FILE,
+                Charsets.UTF_8);
+
+        MachinePoolJournal recovered = new MachinePoolJournal(SNAPSHOT_FILE, JOURNAL_FILE);
+        assertThat(recovered.get().isPresent(), is(false));
+
+        // next update replaces the unreadable snapshot and stale journal
+        MachinePool latest = pool(running("i-2", "i-3"));
+        recovered.update(latest);
+        assertThat(new MachinePoolJournal(SNAPSHOT_FILE, JOURNAL_FILE).get().get(), is(latest));
+        assertThat(JOURNAL_FILE.length(), is(0L));
+    }
+
+    private MachinePool pool(List<Machine> machines) {
+        return new MachinePool(machines, UtcTime.now());
+    }
+
+    private List<Machine> running(String... machineIds) {
+        List<Machine> machines = new ArrayList<>();
+        for (String id : machineIds) {
+            machines.add(Machine.builder().id(id).machineSize("m1.medium").machineState(MachineState.RUNNING)
+                    .cloudProvider(CloudProviders.AWS_EC2).region("us-east-1").build());
+        }
+        return machines;
+    }
+}
@@ -4,12 +4,15 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
@@ -20,10 +23,16 @@ import com.elastisys.scale.cloudpool.api.CloudPoolException;
 import com.elastisys.scale.cloudpool.api.types.Machine;
 import com.elastisys.scale.cloudpool.api.types.MachinePool;
 import com.elastisys.scale.cloudpool.api.types.MachineState;
+import com.elastisys.scale.cloudpool.api.types.ServiceState;
 import com.elastisys.scale.cloudpool.api.types.CloudProviders;
+import com.elastisys.scale.cloudpool.commons.basepool.config.CircuitBreakerConfig;
 import com.elastisys.scale.cloudpool.commons.basepool.config.RetriesConfig;
+import com.elastisys.scale.cloudpool.commons.basepool.driver.ChangeTrackingCloudPoolDriver;
 import com.elastisys.scale.cloudpool.commons.basepool.driver.CloudPoolDriver;
 import com.elastisys.scale.cloudpool.commons.basepool.driver.CloudPoolDriverException;
+import com.elastisys.scale.cloudpool.commons.basepool.driver.MachinePoolDelta;
+import com.elastisys.scale.cloudpool.commons.basepool.driver.MachineStatus;
+import com.elastisys.scale.cloudpool.commons.basepool.driver.StateListingCloudPoolDriver;
 import com.elastisys.scale.commons.json.types.TimeInterval;
 import com.elastisys.scale.commons.util.time.FrozenTime;
 import com.elastisys.scale.commons.util.time.UtcTime;
@@ -38,6 +47,10 @@ public class TestRetryingPoolFetcher {
 
     private static final RetriesConfig RETRIES_CONFIG = new RetriesConfig(3,
             new TimeInterval(10L, TimeUnit.MILLISECONDS));
+    private static final RetriesConfig NO_RETRIES = new RetriesConfig(0, new TimeInterval(0L, TimeUnit.MILLISECONDS));
+    private static final CircuitBreakerConfig CIRCUIT_BREAKER = new CircuitBreakerConfig(2,
+            new TimeInterval(60L, TimeUnit.SECONDS));
+    private static final TimeInterval FULL_RESYNC_INTERVAL = new TimeInterval(10L, TimeUnit.MINUTES);
     /** Object under test. */
     private RetryingPoolFetcher fetcher;
 
@@ -133,6 +146,228 @@ public class TestRetryingPoolFetcher {
         verify(this.mockDriver, times(1)).listMachines();
     }
 
+    /**
+     * A {@link ChangeTrackingCloudPoolDriver} should be asked for a full
+     * listing on first fetch, and from then on only for the changes since the
+     * last observed pool version.
+     */
+    @Test
+    public void incrementalSyncWithChangeTrackingDriver() {
+        ChangeTrackingCloudPoolDriver trackingDriver = mock(ChangeTrackingCloudPoolDriver.class);
+        this.fetcher = new RetryingPoolFetcher(trackingDriver, RETRIES_CONFIG, FULL_RESYNC_INTERVAL);
+
+        when(trackingDriver.listMachineChanges(null))
+                .thenReturn(MachinePoolDelta.fullListing("v1", machines("i-1", "i-2")));
+        assertThat(this.fetcher.get().getMachines(), is(machines("i-1", "i-2")));
+
+        // i-3 added, i-1 removed
+        when(trackingDriver.listMachineChanges("v1"))
+                .thenReturn(new MachinePoolDelta("v2", machines("i-3"), machines(), Arrays.asList("i-1")));
+        assertThat(this.fetcher.get().getMachines(), is(machines("i-2", "i-3")));
+
+        // i-2 changed
+        Machine changedI2 = Machine.builder().id("i-2").machineSize("m1.medium").machineState(MachineState.TERMINATING)
+                .cloudProvider(CloudProviders.AWS_EC2).region("us-east-1").build();
+        when(trackingDriver.listMachineChanges("v2"))
+                .thenReturn(new MachinePoolDelta("v3", machines(), Arrays.asList(changedI2), Arrays.asList()));
+        assertThat(this.fetcher.get().getMachines(), is(Arrays.asList(changedI2, machines("i-3").get(0))));
+
+        verify(trackingDriver, times(1)).listMachineChanges(null);
+        verify(trackingDriver, never()).listMachines();
+    }
+
+    /**
+     * A full listing should be made once the full resync interval has passed
+     * since the last full listing.
+     */
+    @Test
+    public void incrementalSyncPeriodicFullResync() {
+        ChangeTrackingCloudPoolDriver trackingDriver = mock(ChangeTrackingCloudPoolDriver.class);
+        this.fetcher = new RetryingPoolFetcher(trackingDriver, RETRIES_CONFIG, FULL_RESYNC_INTERVAL);
+
+        when(trackingDriver.listMachineChanges(null))
+                .thenReturn(MachinePoolDelta.fullListing("v1", machines("i-1", "i-2")));
+        when(trackingDriver.listMachineChanges("v1"))
+                .thenReturn(new MachinePoolDelta("v1", machines(), machines(), Arrays.asList()));
+        this.fetcher.get();
+        FrozenTime.tick(60);
+        this.fetcher.get();
+        verify(trackingDriver, times(1)).listMachineChanges(null);
+
+        // full resync interval passed: a full listing should replace the pool
+        FrozenTime.tick((int) FULL_RESYNC_INTERVAL.getSeconds());
+        when(trackingDriver.listMachineChanges(null))
+                .thenReturn(MachinePoolDelta.fullListing("v7", machines("i-5")));
+        assertThat(this.fetcher.get().getMachines(), is(machines("i-5")));
+        verify(trackingDriver, times(2)).listMachineChanges(null);
+    }
+
+    /**
+     * A failed attempt to fetch changes should be retried from the same pool
+     * version.
+     */
+    @Test
+    public void incrementalSyncRetriesFromSameVersion() {
+        ChangeTrackingCloudPoolDriver trackingDriver = mock(ChangeTrackingCloudPoolDriver.class);
+        this.fetcher = new RetryingPoolFetcher(trackingDriver, RETRIES_CONFIG, FULL_RESYNC_INTERVAL);
+
+        when(trackingDriver.listMachineChanges(null))
+                .thenReturn(MachinePoolDelta.fullListing("v1", machines("i-1", "i-2")));
+        this.fetcher.get();
+
+        when(trackingDriver.listMachineChanges("v1")).thenThrow(new CloudPoolDriverException("api outage"))
+                .thenReturn(new MachinePoolDelta("v2", machines("i-3"), machines(), Arrays.asList()));
+        assertThat(this.fetcher.get().getMachines(), is(machines("i-1", "i-2", "i-3")));
+        verify(trackingDriver, times(2)).listMachineChanges("v1");
+    }
+
+    /**
+     * A {@link StateListingCloudPoolDriver} should be asked for a full listing
+     * on first fetch, and from then on only for the state of its machines,
+     * which is applied to the last full listing.
+     */
+    @Test
+    public void tieredSyncWithStateListingDriver() {
+        StateListingCloudPoolDriver listingDriver = mock(StateListingCloudPoolDriver.class);
+        this.fetcher = new RetryingPoolFetcher(listingDriver, RETRIES_CONFIG, FULL_RESYNC_INTERVAL);
+
+        when(listingDriver.listMachines()).thenReturn(machines("i-1", "i-2", "i-3"));
+        assertThat(this.fetcher.get().getMachines(), is(machines("i-1", "i-2", "i-3")));
+
+        // nothing changed
+        when(listingDriver.listMachineStates()).thenReturn(Arrays.asList(status("i-1", null), status("i-2", null),
+                status("i-3", null)));
+        assertThat(this.fetcher.get().getMachines(), is(machines("i-1", "i-2", "i-3")));
+
+        // i-2 changed service state, i-3 left the pool
+        when(listingDriver.listMachineStates())
+                .thenReturn(Arrays.asList(status("i-1", null), status("i-2", ServiceState.UNHEALTHY)));
+        List<Machine> machines = this.fetcher.get().getMachines();
+        assertThat(machines.size(), is(2));
+        assertThat(machines.get(0), is(machines("i-1").get(0)));
+        assertThat(machines.get(1).getId(), is("i-2"));
+        assertThat(machines.get(1).getServiceState(), is(ServiceState.UNHEALTHY));
+        assertThat(machines.get(1).getMachineSize(), is("m1.medium"));
+
+        verify(listingDriver, times(1)).listMachines();
+        verify(listingDriver, times(2)).listMachineStates();
+    }
+
+    /**
+     * A full listing should be made when a state listing reports a new machine
+     * or a machine state change, and once the full resync interval has passed
+     * since the last full listing.
+     */
+    @Test
+    public void tieredSyncFullListings() {
+        StateListingCloudPoolDriver listingDriver = mock(StateListingCloudPoolDriver.class);
+        this.fetcher = new RetryingPoolFetcher(listingDriver, RETRIES_CONFIG, FULL_RESYNC_INTERVAL);
+
+        when(listingDriver.listMachines()).thenReturn(machines("i-1"));
+        this.fetcher.get();
+
+        // new machine: full listing
+        when(listingDriver.listMachineStates()).thenReturn(Arrays.asList(status("i-1", null), status("i-2", null)));
+        when(listingDriver.listMachines()).thenReturn(machines("i-1", "i-2"));
+        assertThat(this.fetcher.get().getMachines(), is(machines("i-1", "i-2")));
+        verify(listingDriver, times(2)).listMachines();
+
+        // machine state change: full listing
+        when(listingDriver.listMachineStates()).thenReturn(Arrays.asList(status("i-1", null),
+                new MachineStatus("i-2", MachineState.TERMINATING, null, null)));
+        this.fetcher.get();
+        verify(listingDriver, times(3)).listMachines();
+
+        // full resync interval passed: full listing
+        when(listingDriver.listMachineStates()).thenReturn(Arrays.asList(status("i-1", null), status("i-2", null)));
+        this.fetcher.get();
+        verify(listingDriver, times(3)).listMachines();
+        FrozenTime.tick((int) FULL_RESYNC_INTERVAL.getSeconds());
+        this.fetcher.get();
+        verify(listingDriver, times(4)).listMachines();
+    }
+
+    /**
+     * With a circuit breaker, consecutive failed fetches should open the
+     * circuit, after which fetches fail fast without calling the cloud API.
+     */
+    @Test
+    public void circuitOpensAfterConsecutiveFailures() {
+        this.fetcher = new RetryingPoolFetcher(this.mockDriver, NO_RETRIES, FULL_RESYNC_INTERVAL, CIRCUIT_BREAKER);
+        when(this.mockDriver.listMachines()).thenThrow(new CloudPoolDriverException("api outage"));
+
+        for (int i = 0; i < CIRCUIT_BREAKER.getFailureThreshold(); i++) {
+            assertFetchFails(CloudPoolException.class);
+        }
+        verify(this.mockDriver, times(2)).listMachines();
+
+        // circuit open: fail fast
+        assertFetchFails(CircuitOpenException.class);
+        FrozenTime.tick(59);
+        assertFetchFails(CircuitOpenException.class);
+        verify(this.mockDriver, times(2)).listMachines();
+    }
+
+    /**
+     * A successful fetch should reset the count of consecutive failures.
+     */
+    @Test
+    public void circuitStaysClosedOnIntermittentFailures() {
+        this.fetcher = new RetryingPoolFetcher(this.mockDriver, NO_RETRIES, FULL_RESYNC_INTERVAL, CIRCUIT_BREAKER);
+        when(this.mockDriver.listMachines()).thenThrow(new CloudPoolDriverException("api outage"))
+                .thenReturn(machines("i-1")).thenThrow(new CloudPoolDriverException("api outage"))
+                .thenReturn(machines("i-1"));
+
+        assertFetchFails(CloudPoolException.class);
+        this.fetcher.get();
+        assertFetchFails(CloudPoolException.class);
+        assertThat(this.fetcher.get().getMachines(), is(machines("i-1")));
+        verify(this.mockDriver, times(4)).listMachines();
+    }
+
+    /**
+     * Once the open duration has passed, a single probe (without retries)
+     * should be let through. A failed probe opens the circuit again, a
+     * successful probe closes it.
+     */
+    @Test
+    public void halfOpenProbe() {
+        this.fetcher = new RetryingPoolFetcher(this.mockDriver, RETRIES_CONFIG, FULL_RESYNC_INTERVAL,
+                CIRCUIT_BREAKER);
+        when(this.mockDriver.listMachines()).thenThrow(new CloudPoolDriverException("api outage"));
+        assertFetchFails(CloudPoolException.class);
+        assertFetchFails(CloudPoolException.class);
+        int attempts = 2 * (1 + RETRIES_CONFIG.getMaxRetries());
+        verify(this.mockDriver, times(attempts)).listMachines();
+
+        // failed probe: a single attempt, then open again
+        FrozenTime.tick(60);
+        assertFetchFails(CloudPoolException.class);
+        verify(this.mockDriver, times(attempts + 1)).listMachines();
+        assertFetchFails(CircuitOpenException.class);
+        verify(this.mockDriver, times(attempts + 1)).listMachines();
+
+        // successful probe: circuit closed
+        FrozenTime.tick(60);
+        doReturn(machines("i-1")).when(this.mockDriver).listMachines();
+        assertThat(this.fetcher.get().getMachines(), is(machines("i-1")));
+        assertThat(this.fetcher.get().getMachines(), is(machines("i-1")));
+        verify(this.mockDriver, times(attempts + 3)).listMachines();
+    }
+
+    private void assertFetchFails(Class<? extends CloudPoolException> expectedError) {
+        try {
+            this.fetcher.get();
+            fail("expected fetch to fail");
+        } catch (CloudPoolException e) {
+            assertTrue(expectedError.isInstance(e));
+        }
+    }
+
+    private MachineStatus status(String machineId, ServiceState serviceState) {
+        return new MachineStatus(machineId, MachineState.RUNNING, null, serviceState);
+    }
+
     private List<Machine> machines(String... machineIds) {
         List<Machine> machines = new ArrayList<>();
         for (String id : machineIds) {
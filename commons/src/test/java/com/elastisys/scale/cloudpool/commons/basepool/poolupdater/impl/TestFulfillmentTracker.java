@@ -0,0 +1,150 @@
+package com.elastisys.scale.cloudpool.commons.basepool.poolupdater.impl;
+
+import static com.elastisys.scale.cloudpool.commons.basepool.BasePoolTestUtils.machine;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.elastisys.scale.cloudpool.api.types.Machine;
+import com.elastisys.scale.cloudpool.api.types.MachinePool;
+import com.elastisys.scale.cloudpool.api.types.MachineState;
+import com.elastisys.scale.cloudpool.commons.basepool.config.PoolUpdateConfig;
+import com.elastisys.scale.cloudpool.commons.basepool.driver.CloudPoolDriver;
+import com.elastisys.scale.cloudpool.commons.basepool.driver.StartMachinesException;
+import com.elastisys.scale.commons.json.types.TimeInterval;
+import com.elastisys.scale.commons.util.time.FrozenTime;
+import com.elastisys.scale.commons.util.time.UtcTime;
+
+/**
+ * Exercises the {@link FulfillmentTracker}.
+ */
+public class TestFulfillmentTracker {
+
+    private final CloudPoolDriver driverMock = mock(CloudPoolDriver.class);
+    private final List<List<Machine>> started = new CopyOnWriteArrayList<>();
+    private final List<StartMachinesException> failures = new CopyOnWriteArrayList<>();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    /** Launch timeout: 60 seconds, visibility timeout: 120 seconds. */
+    private final PoolUpdateConfig config = new PoolUpdateConfig(new TimeInterval(30L, TimeUnit.SECONDS), null, true,
+            null, null, null, new TimeInterval(60L, TimeUnit.SECONDS), new TimeInterval(120L, TimeUnit.SECONDS));
+
+    @Before
+    public void beforeTestMethod() {
+        FrozenTime.setFixed(UtcTime.parse("2017-01-01T12:00:00.000Z"));
+    }
+
+    @After
+    public void afterTestMethod() {
+        this.executor.shutdownNow();
+    }
+
+    /**
+     * A launch that the executor refuses to run should be reported as failed
+     * and must not leave placeholders behind.
+     */
+    @Test
+    public void rejectedLaunch() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        executor.shutdown();
+        FulfillmentTracker tracker = new FulfillmentTracker(this.driverMock, executor, this.started::add,
+                this.failures::add);
+
+        List<Machine> placeholders = tracker.launch(2);
+
+        assertThat(placeholders.isEmpty(), is(true));
+        assertThat(tracker.pendingMachines().isEmpty(), is(true));
+        assertThat(this.failures.size(), is(1));
+        assertThat(this.failures.get(0).getRequestedMachines(), is(2));
+        assertThat(this.failures.get(0).getStartedMachines().isEmpty(), is(true));
+        assertThat(this.failures.get(0).getCause(), is(instanceOf(RejectedExecutionException.class)));
+        assertThat(this.started.isEmpty(), is(true));
+        verify(this.driverMock, never()).startMachines(anyInt());
+    }
+
+    /**
+     * A launch that hangs should be cancelled once the launch timeout has
+     * passed, and its placeholders should no longer be accounted for.
+     */
+    @Test
+    public void expireHungLaunch() throws Exception {
+        CountDownLatch launchStarted = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(this.driverMock.startMachines(2)).thenAnswer(invocation -> {
+            launchStarted.countDown();
+            try {
+                Thread.sleep(Long.MAX_VALUE);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+            return Collections.emptyList();
+        });
+        FulfillmentTracker tracker = new FulfillmentTracker(this.driverMock, this.executor, this.started::add,
+                this.failures::add);
+        tracker.launch(2);
+        assertThat(launchStarted.await(5, TimeUnit.SECONDS), is(true));
+
+        // within launch timeout: placeholders accounted for
+        FrozenTime.tick(60);
+        assertThat(tracker.reconcile(emptyPool(), this.config).getMachines().size(), is(2));
+        assertThat(this.failures.isEmpty(), is(true));
+
+        // launch timeout passed: launch cancelled and reported
+        FrozenTime.tick(1);
+        assertThat(tracker.reconcile(emptyPool(), this.config).getMachines().isEmpty(), is(true));
+        assertThat(tracker.pendingMachines().isEmpty(), is(true));
+        assertThat(interrupted.await(5, TimeUnit.SECONDS), is(true));
+        assertThat(this.failures.size(), is(1));
+        assertThat(this.failures.get(0).getRequestedMachines(), is(2));
+        assertThat(this.failures.get(0).getCause(), is(instanceOf(TimeoutException.class)));
+
+        // the failure of the cancelled launch is not reported again
+        Thread.sleep(100);
+        assertThat(this.failures.size(), is(1));
+    }
+
+    /**
+     * A started machine should be accounted for until it shows up in the pool,
+     * but no longer than the visibility timeout.
+     */
+    @Test
+    public void stopAccountingForStartedMachineAfterVisibilityTimeout() throws Exception {
+        Machine started = machine("i-1", MachineState.PENDING, UtcTime.now());
+        when(this.driverMock.startMachines(1)).thenReturn(asList(started));
+        FulfillmentTracker tracker = new FulfillmentTracker(this.driverMock, this.executor, this.started::add,
+                this.failures::add);
+        tracker.launch(1);
+        this.executor.submit(() -> null).get();
+        assertThat(tracker.pendingMachines(), is(asList(started)));
+
+        FrozenTime.tick(120);
+        assertThat(tracker.reconcile(emptyPool(), this.config).getMachines(), is(asList(started)));
+        FrozenTime.tick(1);
+        assertThat(tracker.reconcile(emptyPool(), this.config).getMachines().isEmpty(), is(true));
+        assertThat(this.failures.isEmpty(), is(true));
+    }
+
+    private static MachinePool emptyPool() {
+        return new MachinePool(Collections.emptyList(), UtcTime.now());
+    }
+}
@@ -23,11 +23,13 @@ import com.elastisys.scale.cloudpool.api.types.Machine;
 import com.elastisys.scale.cloudpool.api.types.MachinePool;
 import com.elastisys.scale.cloudpool.api.types.MachineState;
 import com.elastisys.scale.cloudpool.api.types.MembershipStatus;
+import com.elastisys.scale.cloudpool.commons.basepool.config.ScaleInConfig;
 import com.elastisys.scale.cloudpool.commons.scaledown.VictimSelectionPolicy;
 import com.elastisys.scale.cloudpool.commons.termqueue.ScheduledTermination;
 import com.elastisys.scale.cloudpool.commons.termqueue.TerminationQueue;
 import com.elastisys.scale.commons.util.time.FrozenTime;
 import com.elastisys.scale.commons.util.time.UtcTime;
+import com.google.common.collect.ImmutableSet;
 
 /**
  * Exercises the {@link ResizePlanner}.
@@ -715,6 +717,36 @@ public class TestResizePlanner {
         planner.calculateResizePlan(-1);
     }
 
+    /**
+     * Unsettled machines (being launched) count towards the net size, but
+     * shrinking the pool should be held back while there are any, rather than
+     * picking them as victims.
+     */
+    @Test
+    public void holdBackScaleDownWhileMachinesAreUnsettled() {
+        Machine running1 = makeMachine(1, nowOffset(-3600), MachineState.RUNNING);
+        Machine running2 = makeMachine(2, nowOffset(-1800), MachineState.RUNNING);
+        Machine launching = makeMachine(3, null, MachineState.REQUESTED);
+        MachinePool pool = makePool(UtcTime.now(), asList(running1, running2, launching));
+        ScaleInConfig scaleInConfig = new ScaleInConfig(OLDEST_INSTANCE, 0);
+
+        ResizePlanner planner = new ResizePlanner(pool, new TerminationQueue(), scaleInConfig,
+                ImmutableSet.of(launching.getId()));
+        assertThat(planner.getNetSize(), is(3));
+        ResizePlan plan = planner.calculateResizePlan(1);
+        assertThat(plan.noChanges(), is(true));
+
+        // once settled, the excess machines are terminated
+        planner = new ResizePlanner(pool, new TerminationQueue(), scaleInConfig);
+        plan = planner.calculateResizePlan(1);
+        assertThat(plan.getToTerminate().size(), is(2));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void createWithNullUnsettledMachines() {
+        new ResizePlanner(makePool(), new TerminationQueue(), new ScaleInConfig(OLDEST_INSTANCE, 0), null);
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void createWithNullPool() {
         new ResizePlanner(null, new TerminationQueue(), VictimSelectionPolicy.CLOSEST_TO_INSTANCE_HOUR, 600);
@@ -0,0 +1,86 @@
+package com.elastisys.scale.cloudpool.commons.scaledown;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Exercises the {@link TopK} partial sort.
+ */
+public class TestTopK {
+
+    private static final Comparator<Integer> NATURAL = Comparator.naturalOrder();
+
+    @Test
+    public void selectNone() {
+        assertThat(TopK.least(asList(3, 1, 2), 0, NATURAL), is(asList()));
+    }
+
+    @Test
+    public void selectFromEmpty() {
+        assertThat(TopK.least(new ArrayList<Integer>(), 2, NATURAL), is(asList()));
+    }
+
+    @Test
+    public void selectSome() {
+        assertThat(TopK.least(asList(5, 3, 8, 1, 9, 2), 3, NATURAL), is(asList(1, 2, 3)));
+        assertThat(TopK.least(asList(5, 3, 8, 1, 9, 2), 1, NATURAL), is(asList(1)));
+    }
+
+    /**
+     * Asking for more elements than there are should return all elements in
+     * order.
+     */
+    @Test
+    public void selectMoreThanAvailable() {
+        assertThat(TopK.least(asList(3, 1, 2), 5, NATURAL), is(asList(1, 2, 3)));
+    }
+
+    /**
+     * Elements that compare as equal should keep their relative order.
+     */
+    @Test
+    public void selectionIsStable() {
+        Comparator<String> byLength = Comparator.comparing(String::length);
+        List<String> elements = asList("ccc", "a1", "b", "a2", "dd", "a3", "e");
+        assertThat(TopK.least(elements, 2, byLength), is(asList("b", "e")));
+        assertThat(TopK.least(elements, 4, byLength), is(asList("b", "e", "a1", "a2")));
+    }
+
+    /**
+     * The result should match that of a full (stable) sort.
+     */
+    @Test
+    public void sameResultAsFullSort() {
+        Random random = new Random(1234);
+        for (int round = 0; round < 50; round++) {
+            List<Integer> elements = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                elements.add(random.nextInt(50));
+            }
+            int k = random.nextInt(elements.size() + 1);
+
+            List<Integer> sorted = new ArrayList<>(elements);
+            Collections.sort(sorted);
+            assertThat(TopK.least(elements, k, NATURAL), is(sorted.subList(0, k)));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeK() {
+        TopK.least(asList(1, 2), -1, NATURAL);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void nullElements() {
+        TopK.least(null, 1, NATURAL);
+    }
+}
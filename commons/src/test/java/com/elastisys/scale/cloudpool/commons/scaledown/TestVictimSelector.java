@@ -67,4 +67,35 @@ public class TestVictimSelector extends AbstractScaledownTest {
         assertThat(victims.get(0), is(instance1));
     }
 
+    @Test
+    public void onMultiCandidateSet() {
+        Machine instance1 = instance("i-1", "2012-06-01T12:00:00");
+        Machine instance2 = instance("i-2", "2012-06-01T10:00:00");
+        Machine instance3 = instance("i-3", "2012-06-01T11:00:00");
+        Machine instance4 = instance("i-4", "2012-06-01T09:00:00");
+        List<Machine> set = asList(instance1, instance2, instance3, instance4);
+
+        assertThat(this.victimSelector.selectVictims(set, 0), is(asList()));
+        assertThat(this.victimSelector.selectVictims(set, 1), is(asList(instance4)));
+        assertThat(this.victimSelector.selectVictims(set, 2), is(asList(instance4, instance2)));
+        assertThat(this.victimSelector.selectVictims(set, 4), is(asList(instance4, instance2, instance3, instance1)));
+    }
+
+    /**
+     * A {@link VictimSelectionStrategy} that only knows how to select a single
+     * victim should be asked for one victim at a time.
+     */
+    @Test
+    public void withSingleVictimStrategy() {
+        VictimSelectionStrategy firstCandidate = candidates -> candidates.iterator().next();
+        VictimSelector selector = new VictimSelector(firstCandidate);
+
+        Machine instance1 = instance("i-1", "2012-06-01T12:00:00");
+        Machine instance2 = instance("i-2", "2012-06-01T10:00:00");
+        Machine instance3 = instance("i-3", "2012-06-01T11:00:00");
+        List<Machine> set = asList(instance1, instance2, instance3);
+
+        assertThat(selector.selectVictims(set, 2), is(asList(instance1, instance2)));
+    }
+
 }
@@ -0,0 +1,94 @@
+package com.elastisys.scale.cloudpool.commons.scaledown.scorers;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.List;
+
+import org.junit.Test;
+
+import com.elastisys.scale.cloudpool.api.types.Machine;
+import com.elastisys.scale.cloudpool.api.types.MachineState;
+import com.elastisys.scale.cloudpool.api.types.ServiceState;
+import com.elastisys.scale.cloudpool.commons.scaledown.AbstractScaledownTest;
+import com.elastisys.scale.cloudpool.commons.scaledown.VictimScorer;
+import com.elastisys.scale.commons.util.time.FrozenTime;
+import com.elastisys.scale.commons.util.time.UtcTime;
+
+/**
+ * Exercises the {@link VictimScorer} implementations.
+ */
+public class TestVictimScorers extends AbstractScaledownTest {
+
+    @Test
+    public void instanceHourScorer() {
+        FrozenTime.setFixed(UtcTime.parse("2012-06-01T10:00:00Z"));
+
+        List<Machine> candidates = asList( //
+                instance("i-1", "2012-06-01T09:45:00Z"), // 45 min left
+                instance("i-2", "2012-06-01T09:15:00Z"), // 15 min left
+                machine("i-3", null, null, "us-east-1")); // not launched
+
+        double[] scores = InstanceHourScorer.INSTANCE.score(candidates);
+        assertThat(scores[0], is(0.25));
+        assertThat(scores[1], is(0.75));
+        assertThat(scores[2], is(0.0));
+    }
+
+    @Test
+    public void serviceStateScorer() {
+        List<Machine> candidates = asList( //
+                machine("i-1", ServiceState.IN_SERVICE, null, null), //
+                machine("i-2", ServiceState.UNHEALTHY, null, null), //
+                machine("i-3", ServiceState.OUT_OF_SERVICE, null, null), //
+                machine("i-4", ServiceState.BOOTING, null, null), //
+                machine("i-5", ServiceState.UNKNOWN, null, null));
+
+        double[] scores = ServiceStateScorer.INSTANCE.score(candidates);
+        assertThat(scores[0], is(0.0));
+        assertThat(scores[1], is(1.0));
+        assertThat(scores[2], is(1.0));
+        assertThat(scores[3], is(0.5));
+        assertThat(scores[4], is(0.5));
+    }
+
+    @Test
+    public void zoneBalanceScorer() {
+        List<Machine> candidates = asList( //
+                machine("i-1", null, null, "zone-a"), //
+                machine("i-2", null, null, "zone-b"), //
+                machine("i-3", null, null, "zone-a"), //
+                machine("i-4", null, null, "zone-a"), //
+                machine("i-5", null, null, "zone-b"), //
+                machine("i-6", null, null, "zone-c"));
+
+        double[] scores = ZoneBalanceScorer.INSTANCE.score(candidates);
+        assertThat(scores[0], is(1.0));
+        assertThat(scores[1], is(2.0 / 3));
+        assertThat(scores[2], is(1.0));
+        assertThat(scores[3], is(1.0));
+        assertThat(scores[4], is(2.0 / 3));
+        assertThat(scores[5], is(1.0 / 3));
+    }
+
+    @Test
+    public void scoreEmptyCandidateSet() {
+        List<Machine> empty = asList();
+        assertThat(InstanceHourScorer.INSTANCE.score(empty).length, is(0));
+        assertThat(ServiceStateScorer.INSTANCE.score(empty).length, is(0));
+        assertThat(ZoneBalanceScorer.INSTANCE.score(empty).length, is(0));
+    }
+
+    private static Machine machine(String id, ServiceState serviceState, String launchTime, String region) {
+        Machine.Builder builder = Machine.builder().id(id).machineState(MachineState.RUNNING).cloudProvider("AWS-EC2")
+                .region(region != null ? region : "us-east-1").machineSize("m1.small");
+        if (serviceState != null) {
+            builder.serviceState(serviceState);
+        }
+        if (launchTime != null) {
+            builder.launchTime(UtcTime.parse(launchTime));
+        }
+        return builder.build();
+    }
+}
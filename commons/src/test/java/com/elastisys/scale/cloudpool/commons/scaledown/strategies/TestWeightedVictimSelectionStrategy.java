@@ -0,0 +1,137 @@
+package com.elastisys.scale.cloudpool.commons.scaledown.strategies;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.elastisys.scale.cloudpool.api.types.Machine;
+import com.elastisys.scale.cloudpool.api.types.MachineState;
+import com.elastisys.scale.cloudpool.api.types.ServiceState;
+import com.elastisys.scale.cloudpool.commons.scaledown.AbstractScaledownTest;
+import com.elastisys.scale.cloudpool.commons.scaledown.VictimScorer;
+import com.elastisys.scale.cloudpool.commons.scaledown.scorers.InstanceHourScorer;
+import com.elastisys.scale.cloudpool.commons.scaledown.scorers.ServiceStateScorer;
+import com.elastisys.scale.cloudpool.commons.scaledown.scorers.ZoneBalanceScorer;
+import com.elastisys.scale.commons.util.time.FrozenTime;
+import com.elastisys.scale.commons.util.time.UtcTime;
+
+/**
+ * Exercises the {@link WeightedVictimSelectionStrategy}.
+ */
+public class TestWeightedVictimSelectionStrategy extends AbstractScaledownTest {
+
+    /**
+     * With a single scorer, victims should be selected in order of decreasing
+     * score.
+     */
+    @Test
+    public void singleScorer() {
+        FrozenTime.setFixed(UtcTime.parse("2012-06-01T10:00:00Z"));
+        Machine i1 = machine("i-1", "2012-06-01T09:45:00Z", ServiceState.IN_SERVICE, "zone-a");
+        Machine i2 = machine("i-2", "2012-06-01T09:15:00Z", ServiceState.IN_SERVICE, "zone-a");
+        Machine i3 = machine("i-3", "2012-06-01T09:30:00Z", ServiceState.IN_SERVICE, "zone-a");
+
+        WeightedVictimSelectionStrategy strategy = new WeightedVictimSelectionStrategy(
+                weights(InstanceHourScorer.INSTANCE, 1.0), new OldestInstanceVictimSelectionStrategy.OldestFirstOrder());
+
+        assertThat(strategy.selectVictim(asList(i1, i2, i3)), is(i2));
+        assertThat(strategy.selectVictims(asList(i1, i2, i3), 2), is(asList(i2, i3)));
+        assertThat(strategy.selectVictims(asList(i1, i2, i3), 3), is(asList(i2, i3, i1)));
+        assertThat(strategy.selectVictims(asList(i1, i2, i3), 0), is(asList()));
+    }
+
+    /**
+     * Scores of several scorers should be weighed together.
+     */
+    @Test
+    public void compositeScore() {
+        FrozenTime.setFixed(UtcTime.parse("2012-06-01T10:00:00Z"));
+        // instance hour: 0.75, service state: 0.0, zone balance: 2/3
+        Machine i1 = machine("i-1", "2012-06-01T09:15:00Z", ServiceState.IN_SERVICE, "zone-a");
+        // instance hour: 0.25, service state: 1.0, zone balance: 1/3
+        Machine i2 = machine("i-2", "2012-06-01T09:45:00Z", ServiceState.UNHEALTHY, "zone-b");
+        // instance hour: 0.5, service state: 0.0, zone balance: 2/3
+        Machine i3 = machine("i-3", "2012-06-01T09:30:00Z", ServiceState.IN_SERVICE, "zone-a");
+        List<Machine> candidates = asList(i1, i2, i3);
+
+        // billing hour matters most: i1 (0.75), i3 (0.5), i2 (0.25)
+        Map<VictimScorer, Double> weights = weights(InstanceHourScorer.INSTANCE, 1.0);
+        weights.put(ServiceStateScorer.INSTANCE, 0.1);
+        assertThat(selectVictims(weights, candidates, 3), is(asList(i1, i3, i2)));
+
+        // service state matters most: i2 (1.25), i1 (0.75), i3 (0.5)
+        weights = weights(InstanceHourScorer.INSTANCE, 1.0);
+        weights.put(ServiceStateScorer.INSTANCE, 1.0);
+        assertThat(selectVictims(weights, candidates, 3), is(asList(i2, i1, i3)));
+
+        // zone balance matters most: i1 (0.75 + 2/3 * 2), i3 (0.5 + 2/3 * 2),
+        // i2 (0.25 + 1 + 1/3 * 2)
+        weights = weights(InstanceHourScorer.INSTANCE, 1.0);
+        weights.put(ServiceStateScorer.INSTANCE, 1.0);
+        weights.put(ZoneBalanceScorer.INSTANCE, 2.0);
+        assertThat(selectVictims(weights, candidates, 2), is(asList(i1, i3)));
+    }
+
+    /**
+     * Candidates with equal composite scores should be ordered by the
+     * tie-breaker.
+     */
+    @Test
+    public void tieBreak() {
+        Machine i1 = machine("i-1", "2012-06-01T09:00:00Z", ServiceState.IN_SERVICE, "zone-a");
+        Machine i2 = machine("i-2", "2012-06-01T11:00:00Z", ServiceState.IN_SERVICE, "zone-a");
+        Machine i3 = machine("i-3", "2012-06-01T10:00:00Z", ServiceState.IN_SERVICE, "zone-a");
+
+        WeightedVictimSelectionStrategy strategy = new WeightedVictimSelectionStrategy(
+                weights(ServiceStateScorer.INSTANCE, 1.0),
+                NewestInstanceVictimSelectionStrategy.INSTANCE.victimOrder());
+        assertThat(strategy.selectVictims(asList(i1, i2, i3), 2), is(asList(i2, i3)));
+
+        strategy = new WeightedVictimSelectionStrategy(weights(ServiceStateScorer.INSTANCE, 1.0),
+                OldestInstanceVictimSelectionStrategy.INSTANCE.victimOrder());
+        assertThat(strategy.selectVictims(asList(i1, i2, i3), 2), is(asList(i1, i3)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void createWithoutScorers() {
+        new WeightedVictimSelectionStrategy(Collections.emptyMap(),
+                OldestInstanceVictimSelectionStrategy.INSTANCE.victimOrder());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void createWithNegativeWeight() {
+        new WeightedVictimSelectionStrategy(weights(ServiceStateScorer.INSTANCE, -1.0),
+                OldestInstanceVictimSelectionStrategy.INSTANCE.victimOrder());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void selectMoreVictimsThanCandidates() {
+        Machine i1 = machine("i-1", "2012-06-01T09:00:00Z", ServiceState.IN_SERVICE, "zone-a");
+        selectVictims(weights(ServiceStateScorer.INSTANCE, 1.0), asList(i1), 2);
+    }
+
+    private static List<Machine> selectVictims(Map<VictimScorer, Double> weights, List<Machine> candidates,
+            int numVictims) {
+        return new WeightedVictimSelectionStrategy(weights,
+                OldestInstanceVictimSelectionStrategy.INSTANCE.victimOrder()).selectVictims(candidates, numVictims);
+    }
+
+    private static Map<VictimScorer, Double> weights(VictimScorer scorer, double weight) {
+        Map<VictimScorer, Double> weights = new LinkedHashMap<>();
+        weights.put(scorer, weight);
+        return weights;
+    }
+
+    private static Machine machine(String id, String launchTime, ServiceState serviceState, String zone) {
+        return Machine.builder().id(id).machineState(MachineState.RUNNING).serviceState(serviceState)
+                .cloudProvider("AWS-EC2").region(zone).machineSize("m1.small").launchTime(UtcTime.parse(launchTime))
+                .build();
+    }
+}
@@ -12,6 +12,7 @@ import org.junit.Test;
 
 import com.elastisys.scale.cloudpool.api.types.Machine;
 import com.elastisys.scale.cloudpool.api.types.MachineState;
+import com.elastisys.scale.cloudpool.api.types.ServiceState;
 import com.elastisys.scale.commons.util.time.FrozenTime;
 import com.elastisys.scale.commons.util.time.UtcTime;
 import com.google.common.collect.Lists;
@@ -169,6 +170,87 @@ public class TestTerminationQueue {
         assertThat(this.queue.getQueuedInstances(), is(instanceList(termination4)));
     }
 
+    @Test
+    public void contains() {
+        assertThat(this.queue.contains("i-1"), is(false));
+
+        this.queue.add(scheduledTermination("i-1", "2013-06-01T12:00:00Z"));
+        this.queue.add(scheduledTermination("i-2", "2013-06-01T13:00:00Z"));
+        assertThat(this.queue.contains("i-1"), is(true));
+        assertThat(this.queue.contains("i-2"), is(true));
+        assertThat(this.queue.contains("i-3"), is(false));
+
+        // no longer contained after being spared
+        this.queue.spare(1);
+        assertThat(this.queue.contains("i-1"), is(false));
+        assertThat(this.queue.contains("i-2"), is(true));
+    }
+
+    @Test
+    public void remove() {
+        ScheduledTermination termination1 = scheduledTermination("i-1", "2013-06-01T12:00:00Z");
+        ScheduledTermination termination2 = scheduledTermination("i-2", "2013-06-01T13:00:00Z");
+        this.queue.addAll(Arrays.asList(termination1, termination2));
+
+        assertThat(this.queue.remove("i-1"), is(true));
+        assertThat(this.queue.contains("i-1"), is(false));
+        assertThat(this.queue.getQueuedInstances(), is(instanceList(termination2)));
+        // not queued
+        assertThat(this.queue.remove("i-1"), is(false));
+        assertThat(this.queue.size(), is(1));
+    }
+
+    @Test
+    public void peek() {
+        assertThat(this.queue.peek().isPresent(), is(false));
+
+        ScheduledTermination termination1 = scheduledTermination("i-1", "2013-06-01T12:00:00Z");
+        ScheduledTermination termination2 = scheduledTermination("i-2", "2013-06-01T11:00:00Z");
+        this.queue.addAll(Arrays.asList(termination1, termination2));
+        assertThat(this.queue.peek().get(), is(termination2));
+        // peek does not remove
+        assertThat(this.queue.size(), is(2));
+    }
+
+    /**
+     * Adding an already queued machine should reschedule its termination.
+     */
+    @Test
+    public void addAlreadyQueuedInstance() {
+        ScheduledTermination termination1 = scheduledTermination("i-1", "2013-06-01T12:00:00Z");
+        ScheduledTermination termination2 = scheduledTermination("i-2", "2013-06-01T13:00:00Z");
+        this.queue.addAll(Arrays.asList(termination1, termination2));
+
+        ScheduledTermination rescheduled = new ScheduledTermination(termination1.getInstance(),
+                UtcTime.parse("2013-06-01T14:00:00Z"));
+        this.queue.add(rescheduled);
+        assertThat(this.queue.size(), is(2));
+        assertThat(this.queue.getQueuedInstances(), is(instanceList(termination2, rescheduled)));
+    }
+
+    /**
+     * Queued machines are matched against pool members on id. A queued machine
+     * should be kept (with its observation updated) even if some of its
+     * attributes have changed since it was queued.
+     */
+    @Test
+    public void filterOnMachineId() {
+        ScheduledTermination termination1 = scheduledTermination("i-1", "2013-06-01T12:00:00Z");
+        ScheduledTermination termination2 = scheduledTermination("i-2", "2013-06-01T13:00:00Z");
+        this.queue.addAll(Arrays.asList(termination1, termination2));
+
+        Machine updatedInstance1 = Machine.builder().id("i-1").machineState(MachineState.RUNNING)
+                .cloudProvider("AWS-EC2").region("us-east-1").machineSize("m1.small")
+                .serviceState(ServiceState.IN_SERVICE).launchTime(termination1.getInstance().getLaunchTime())
+                .build();
+        this.queue.filter(Arrays.asList(updatedInstance1));
+
+        assertThat(this.queue.size(), is(1));
+        assertThat(this.queue.getQueuedInstances(), is(Arrays.asList(updatedInstance1)));
+        assertThat(this.queue.popOverdueInstances().get(0).getTerminationTime(),
+                is(termination1.getTerminationTime()));
+    }
+
     private ScheduledTermination scheduledTermination(String withInstanceId, String time) {
         return new ScheduledTermination(instance(withInstanceId), UtcTime.parse(time));
     }